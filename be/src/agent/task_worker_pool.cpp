@@ -1183,6 +1183,10 @@ void* TaskWorkerPool::_report_tablet_worker_thread_callback(void* arg_this) {
     request.__set_backend(worker_pool_this->_backend);
     request.__isset.tablets = true;
     AgentStatus status = STARROCKS_SUCCESS;
+    // the tablets and the report version of the last tablet report accepted by FE,
+    // the incremental tablet report only contains the tablets changed since then
+    std::map<TTabletId, TTablet> last_tablets;
+    int64_t last_report_version = -1;
 
 #ifndef BE_TEST
     while (true) {
@@ -1195,9 +1199,13 @@ void* TaskWorkerPool::_report_tablet_worker_thread_callback(void* arg_this) {
         }
 #endif
         request.tablets.clear();
+        request.removed_tablet_ids.clear();
+        request.__isset.base_tablet_report_version = false;
+        request.__isset.removed_tablet_ids = false;
 
         request.__set_report_version(_s_report_version);
-        Status st_report = StorageEngine::instance()->tablet_manager()->report_all_tablets_info(&request.tablets);
+        std::map<TTabletId, TTablet> tablets;
+        Status st_report = StorageEngine::instance()->tablet_manager()->report_all_tablets_info(&tablets);
         if (!st_report.ok()) {
             LOG(WARNING) << "Fail to report all tablets info, err=" << st_report.to_string();
 #ifndef BE_TEST
@@ -1208,6 +1216,27 @@ void* TaskWorkerPool::_report_tablet_worker_thread_callback(void* arg_this) {
         return (void*)0;
 #endif
         }
+        bool enable_incremental = config::enable_incremental_tablet_report;
+        bool is_incremental = enable_incremental && last_report_version != -1;
+        if (is_incremental) {
+            for (const auto& [tablet_id, tablet] : tablets) {
+                auto iter = last_tablets.find(tablet_id);
+                if (iter == last_tablets.end() || !(iter->second == tablet)) {
+                    request.tablets.emplace(tablet_id, tablet);
+                }
+            }
+            for (const auto& entry : last_tablets) {
+                if (tablets.find(entry.first) == tablets.end()) {
+                    request.removed_tablet_ids.push_back(entry.first);
+                }
+            }
+            request.__set_base_tablet_report_version(last_report_version);
+            request.__isset.removed_tablet_ids = true;
+        } else if (enable_incremental) {
+            request.tablets = tablets;
+        } else {
+            request.tablets = std::move(tablets);
+        }
         int64_t max_compaction_score =
                 std::max(StarRocksMetrics::instance()->tablet_cumulative_max_compaction_score.value(),
                          StarRocksMetrics::instance()->tablet_base_max_compaction_score.value());
@@ -1223,6 +1252,22 @@ void* TaskWorkerPool::_report_tablet_worker_thread_callback(void* arg_this) {
                          << worker_pool_this->_master_info.network_address.port << ", err=" << status;
         }
 
+        if (enable_incremental && status == STARROCKS_SUCCESS && result.status.status_code == TStatusCode::OK) {
+            last_tablets = std::move(tablets);
+            last_report_version = request.report_version;
+        } else {
+            // the next tablet report should be a full one
+            last_tablets.clear();
+            last_report_version = -1;
+#ifndef BE_TEST
+            if (is_incremental && status == STARROCKS_SUCCESS) {
+                // FE doesn't accept the incremental tablet report, send the full report right now
+                LOG(INFO) << "Incremental tablet report is not accepted by FE, send the full report";
+                continue;
+            }
+#endif
+        }
+
 #ifndef BE_TEST
         // wait for notifying until timeout
         StorageEngine::instance()->wait_for_report_notify(config::report_tablet_interval_seconds, true);
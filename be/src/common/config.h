@@ -112,6 +112,10 @@ CONF_mInt32(report_task_interval_seconds, "10");
 CONF_mInt32(report_disk_state_interval_seconds, "60");
 // the interval time(seconds) for agent report olap table to FE
 CONF_mInt32(report_tablet_interval_seconds, "60");
+// whether to report only the tablets changed since the last tablet report accepted by FE.
+// FE requires a full tablet report if it doesn't accept the incremental one.
+// only enable it after all the FEs are upgraded to support the incremental tablet report.
+CONF_mBool(enable_incremental_tablet_report, "false");
 // the interval time(seconds) for agent report plugin status to FE
 // CONF_Int32(report_plugin_interval_seconds, "120");
 // the timeout(seconds) for alter table
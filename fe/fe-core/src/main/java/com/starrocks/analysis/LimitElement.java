@@ -36,6 +36,10 @@ public class LimitElement {
     // END: Members that need to be reset()
     /////////////////////////////////////////
 
+    // The '?' parameters of prepared statement, they are replaced by the bound values when cloning
+    private PlaceholderExpr offsetPlaceholder;
+    private PlaceholderExpr limitPlaceholder;
+
     public LimitElement() {
         limit = -1;
         offset = 0;
@@ -51,9 +55,15 @@ public class LimitElement {
         this.limit = limit;
     }
 
+    public LimitElement(PlaceholderExpr offsetPlaceholder, PlaceholderExpr limitPlaceholder) {
+        this();
+        this.offsetPlaceholder = offsetPlaceholder;
+        this.limitPlaceholder = limitPlaceholder;
+    }
+
     protected LimitElement(LimitElement other) {
-        limit = other.limit;
-        offset = other.offset;
+        limit = other.limitPlaceholder != null ? other.limitPlaceholder.getCount() : other.limit;
+        offset = other.offsetPlaceholder != null ? other.offsetPlaceholder.getCount() : other.offset;
     }
 
     @Override
@@ -86,6 +96,10 @@ public class LimitElement {
     }
 
     public String toSql() {
+        if (limitPlaceholder != null) {
+            return " LIMIT " + (offsetPlaceholder != null ? offsetPlaceholder.toSql() + ", " : "") +
+                    limitPlaceholder.toSql();
+        }
         if (limit == -1) {
             return "";
         }
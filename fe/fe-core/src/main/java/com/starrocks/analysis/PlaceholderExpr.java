@@ -0,0 +1,109 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.analysis;
+
+import com.google.common.base.Preconditions;
+import com.starrocks.common.AnalysisException;
+import com.starrocks.sql.analyzer.ExprVisitor;
+import com.starrocks.sql.analyzer.SemanticException;
+import com.starrocks.thrift.TExprNode;
+
+/**
+ * PlaceholderExpr is the '?' parameter of server-side prepared statement.
+ * <p>
+ * The statement parsed by COM_STMT_PREPARE is kept as a template and never analyzed. Each COM_STMT_EXECUTE
+ * binds a literal to every placeholder and clones the template, the clone of a placeholder is its bound literal,
+ * so the executed statement only contains normal literals.
+ */
+public class PlaceholderExpr extends Expr {
+    // The position of the parameter in the statement, starts from 0
+    private final int index;
+    // The placeholder of LIMIT and OFFSET, whose value must be a non-negative integer
+    private boolean isCount = false;
+    private LiteralExpr value;
+
+    public PlaceholderExpr(int index) {
+        super();
+        this.index = index;
+    }
+
+    protected PlaceholderExpr(PlaceholderExpr other) {
+        super(other);
+        index = other.index;
+        isCount = other.isCount;
+        value = other.value;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public boolean isCount() {
+        return isCount;
+    }
+
+    public void setCount() {
+        isCount = true;
+    }
+
+    public LiteralExpr getValue() {
+        return value;
+    }
+
+    public void setValue(LiteralExpr value) {
+        if (isCount) {
+            value = toCount(value);
+        }
+        this.value = value;
+        this.type = value.getType();
+    }
+
+    // Some clients send all parameters as string, so the count can be a string of integer
+    private static LiteralExpr toCount(LiteralExpr value) {
+        long count = -1;
+        if (value instanceof IntLiteral) {
+            count = value.getLongValue();
+        } else if (value instanceof StringLiteral) {
+            try {
+                count = Long.parseLong(value.getStringValue().trim());
+            } catch (NumberFormatException e) {
+                // checked below
+            }
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("The parameter of LIMIT and OFFSET must be a non-negative integer");
+        }
+        return new IntLiteral(count);
+    }
+
+    // The value of LIMIT and OFFSET
+    public long getCount() {
+        Preconditions.checkState(isCount && value != null);
+        return value.getLongValue();
+    }
+
+    @Override
+    protected void analyzeImpl(Analyzer analyzer) throws AnalysisException {
+        throw new AnalysisException("Parameter placeholder '?' is only supported in prepared statement");
+    }
+
+    @Override
+    protected String toSqlImpl() {
+        return value == null ? "?" : value.toSql();
+    }
+
+    @Override
+    protected void toThrift(TExprNode msg) {
+        Preconditions.checkState(false, "Parameter placeholder can't be sent to backend");
+    }
+
+    @Override
+    public Expr clone() {
+        return value == null ? new PlaceholderExpr(this) : value.clone();
+    }
+
+    @Override
+    public <R, C> R accept(ExprVisitor<R, C> visitor, C context) throws SemanticException {
+        throw new SemanticException("Parameter placeholder '?' is only supported in prepared statement");
+    }
+}
@@ -50,6 +50,7 @@ public class SelectList {
             items.add(item.clone());
         }
         isDistinct = other.isDistinct;
+        optHints = other.optHints;
     }
 
     public SelectList() {
@@ -41,6 +41,13 @@ public class ValueList {
         this.rows = rows;
     }
 
+    public ValueList(ValueList other) {
+        rows = Lists.newArrayList();
+        for (ArrayList<Expr> row : other.rows) {
+            rows.add(Expr.cloneList(row));
+        }
+    }
+
     public List<ArrayList<Expr>> getRows() {
         return rows;
     }
@@ -24,6 +24,7 @@ package com.starrocks.catalog;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
@@ -32,6 +33,7 @@ import com.google.common.collect.Multimap;
 import com.google.common.collect.Queues;
 import com.google.common.collect.Range;
 import com.google.common.collect.Sets;
+import com.google.common.io.ByteStreams;
 import com.sleepycat.je.rep.InsufficientLogException;
 import com.sleepycat.je.rep.NetworkRestore;
 import com.sleepycat.je.rep.NetworkRestoreConfig;
@@ -192,6 +194,9 @@ import com.starrocks.persist.DropLinkDbAndUpdateDbInfo;
 import com.starrocks.persist.DropPartitionInfo;
 import com.starrocks.persist.EditLog;
 import com.starrocks.persist.GlobalVarPersistInfo;
+import com.starrocks.persist.ImageIndex;
+import com.starrocks.persist.ImageSectionOutputStream;
+import com.starrocks.persist.JournalReplayExecutor;
 import com.starrocks.persist.ModifyPartitionInfo;
 import com.starrocks.persist.ModifyTablePropertyOperationLog;
 import com.starrocks.persist.OperationType;
@@ -217,7 +222,9 @@ import com.starrocks.service.FrontendOptions;
 import com.starrocks.sql.optimizer.statistics.CachedStatisticStorage;
 import com.starrocks.sql.optimizer.statistics.StatisticStorage;
 import com.starrocks.statistic.AnalyzeManager;
+import com.starrocks.statistic.GlobalDictRefreshDaemon;
 import com.starrocks.statistic.StatisticAutoCollector;
+import com.starrocks.statistic.StatisticCacheSnapshotDaemon;
 import com.starrocks.statistic.StatisticsMetaManager;
 import com.starrocks.system.Backend;
 import com.starrocks.system.Backend.BackendState;
@@ -254,6 +261,8 @@ import org.apache.thrift.TException;
 import org.codehaus.jackson.map.ObjectMapper;
 
 import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.EOFException;
@@ -277,15 +286,21 @@ import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 
 public class Catalog {
     private static final Logger LOG = LogManager.getLogger(Catalog.class);
+    // the name prefix of database sections in image index
+    private static final String DB_SECTION_PREFIX = "db/";
     // 0 ~ 9999 used for qe
     public static final long NEXT_ID_INIT_VALUE = 10000;
     private static final int HTTP_TIMEOUT_SECOND = 5;
@@ -381,6 +396,10 @@ public class Catalog {
     private HAProtocol haProtocol = null;
 
     private JournalObservable journalObservable;
+    // replay the journals of different databases in parallel, only used by the replay of serving catalog
+    private JournalReplayExecutor journalReplayExecutor;
+    // the max journal id of the last replay
+    private volatile long replayTargetJournalId = 0;
 
     private SystemInfoService systemInfo;
     private Map<Integer, SystemInfoService> systemInfoMap;
@@ -436,6 +455,9 @@ public class Catalog {
 
     private final StatisticAutoCollector statisticAutoCollector;
 
+    private final StatisticCacheSnapshotDaemon statisticCacheSnapshotDaemon;
+    private final GlobalDictRefreshDaemon globalDictRefreshDaemon;
+
     private AnalyzeManager analyzeManager;
 
     private StatisticStorage statisticStorage;
@@ -532,6 +554,8 @@ public class Catalog {
         this.updateDbUsedDataQuotaDaemon = new UpdateDbUsedDataQuotaDaemon();
         this.statisticsMetaManager = new StatisticsMetaManager();
         this.statisticAutoCollector = new StatisticAutoCollector();
+        this.statisticCacheSnapshotDaemon = new StatisticCacheSnapshotDaemon();
+        this.globalDictRefreshDaemon = new GlobalDictRefreshDaemon();
         this.statisticStorage = new CachedStatisticStorage();
 
         this.replayedJournalId = new AtomicLong(0L);
@@ -673,6 +697,10 @@ public class Catalog {
         return tabletChecker;
     }
 
+    public PublishVersionDaemon getPublishVersionDaemon() {
+        return publishVersionDaemon;
+    }
+
     public ConcurrentHashMap<String, Database> getFullNameToDb() {
         return fullNameToDb;
     }
@@ -1337,6 +1365,10 @@ public class Catalog {
         starRocksRepository.start();
         // domain resolver
         domainResolver.start();
+        // load and save the snapshot of column statistic cache
+        statisticCacheSnapshotDaemon.start();
+        // rebuild the global dicts of low cardinality string columns
+        globalDictRefreshDaemon.start();
     }
 
     private void transferToNonMaster(FrontendNodeType newType) {
@@ -1481,43 +1513,50 @@ public class Catalog {
         replayedJournalId.set(storage.getImageJournalId());
         LOG.info("start load image from {}. is ckpt: {}", curFile.getAbsolutePath(), Catalog.isCheckpointThread());
         long loadImageStartTime = System.currentTimeMillis();
+        ImageIndex imageIndex = null;
+        try {
+            imageIndex = ImageIndex.read(curFile);
+        } catch (IOException e) {
+            LOG.warn("failed to read the index of image {}, load it sequentially", curFile.getAbsolutePath(), e);
+        }
+        final ImageIndex index = imageIndex;
         DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(curFile)));
 
         long checksum = 0;
         long remoteChecksum = 0;
         try {
-            checksum = loadHeader(dis, checksum);
-            checksum = loadMasterInfo(dis, checksum);
-            checksum = loadFrontends(dis, checksum);
-            checksum = Catalog.getCurrentSystemInfo().loadBackends(dis, checksum);
-            checksum = loadDb(dis, checksum);
+            checksum = loadSection("header", checksum, c -> loadHeader(dis, c));
+            checksum = loadSection("masterInfo", checksum, c -> loadMasterInfo(dis, c));
+            checksum = loadSection("frontends", checksum, c -> loadFrontends(dis, c));
+            checksum = loadSection("backends", checksum, c -> Catalog.getCurrentSystemInfo().loadBackends(dis, c));
+            checksum = loadSection("db", checksum, c -> loadDb(dis, c, curFile, index));
             // ATTN: this should be done after load Db, and before loadAlterJob
             recreateTabletInvertIndex();
             // rebuild es state state
             esRepository.loadTableFromCatalog();
             starRocksRepository.loadTableFromCatalog();
 
-            checksum = loadLoadJob(dis, checksum);
-            checksum = loadAlterJob(dis, checksum);
-            checksum = loadRecycleBin(dis, checksum);
-            checksum = loadGlobalVariable(dis, checksum);
-            checksum = loadCluster(dis, checksum);
-            checksum = loadBrokers(dis, checksum);
-            checksum = loadResources(dis, checksum);
-            checksum = loadExportJob(dis, checksum);
-            checksum = loadBackupHandler(dis, checksum);
-            checksum = loadAuth(dis, checksum);
+            checksum = loadSection("loadJob", checksum, c -> loadLoadJob(dis, c));
+            checksum = loadSection("alterJob", checksum, c -> loadAlterJob(dis, c));
+            checksum = loadSection("recycleBin", checksum, c -> loadRecycleBin(dis, c));
+            checksum = loadSection("globalVariable", checksum, c -> loadGlobalVariable(dis, c));
+            checksum = loadSection("cluster", checksum, c -> loadCluster(dis, c));
+            checksum = loadSection("brokers", checksum, c -> loadBrokers(dis, c));
+            checksum = loadSection("resources", checksum, c -> loadResources(dis, c));
+            checksum = loadSection("exportJob", checksum, c -> loadExportJob(dis, c));
+            checksum = loadSection("backupHandler", checksum, c -> loadBackupHandler(dis, c));
+            checksum = loadSection("auth", checksum, c -> loadAuth(dis, c));
             // global transaction must be replayed before load jobs v2
-            checksum = loadTransactionState(dis, checksum);
-            checksum = loadColocateTableIndex(dis, checksum);
-            checksum = loadRoutineLoadJobs(dis, checksum);
-            checksum = loadLoadJobsV2(dis, checksum);
-            checksum = loadSmallFiles(dis, checksum);
-            checksum = loadPlugins(dis, checksum);
-            checksum = loadDeleteHandler(dis, checksum);
+            checksum = loadSection("transactionState", checksum, c -> loadTransactionState(dis, c));
+            checksum = loadSection("colocateTableIndex", checksum, c -> loadColocateTableIndex(dis, c));
+            checksum = loadSection("routineLoadJobs", checksum, c -> loadRoutineLoadJobs(dis, c));
+            checksum = loadSection("loadJobsV2", checksum, c -> loadLoadJobsV2(dis, c));
+            checksum = loadSection("smallFiles", checksum, c -> loadSmallFiles(dis, c));
+            checksum = loadSection("plugins", checksum, c -> loadPlugins(dis, c));
+            checksum = loadSection("deleteHandler", checksum, c -> loadDeleteHandler(dis, c));
 
             remoteChecksum = dis.readLong();
-            checksum = loadAnalyze(dis, checksum);
+            checksum = loadSection("analyze", checksum, c -> loadAnalyze(dis, c));
             remoteChecksum = dis.readLong();
         } catch (EOFException exception) {
             LOG.warn("load image eof.", exception);
@@ -1532,6 +1571,37 @@ public class Catalog {
         LOG.info("finished to load image in " + (loadImageEndTime - loadImageStartTime) + " ms");
     }
 
+    @FunctionalInterface
+    private interface ImageSectionLoader {
+        long load(long checksum) throws IOException, DdlException;
+    }
+
+    @FunctionalInterface
+    private interface ImageSectionSaver {
+        long save(long checksum) throws IOException;
+    }
+
+    private long loadSection(String name, long checksum, ImageSectionLoader loader) throws IOException, DdlException {
+        long startTime = System.currentTimeMillis();
+        long newChecksum = loader.load(checksum);
+        long costMs = System.currentTimeMillis() - startTime;
+        LOG.info("finished to load image section {} in {} ms", name, costMs);
+        MetricRepo.updateImageSectionCost("load", name, costMs);
+        return newChecksum;
+    }
+
+    private long saveSection(ImageSectionOutputStream out, String name, long checksum, ImageSectionSaver saver)
+            throws IOException {
+        long startTime = System.currentTimeMillis();
+        out.beginSection(name);
+        long newChecksum = saver.save(checksum);
+        ImageIndex.Section section = out.endSection();
+        long costMs = System.currentTimeMillis() - startTime;
+        LOG.info("finished to save image section {} in {} ms, size: {} bytes", name, costMs, section.getLength());
+        MetricRepo.updateImageSectionCost("save", name, costMs);
+        return newChecksum;
+    }
+
     private void recreateTabletInvertIndex() {
         if (isCheckpointThread()) {
             return;
@@ -1663,11 +1733,29 @@ public class Catalog {
     }
 
     public long loadDb(DataInputStream dis, long checksum) throws IOException, DdlException {
+        return loadDb(dis, checksum, null, null);
+    }
+
+    private long loadDb(DataInputStream dis, long checksum, File imageFile, ImageIndex imageIndex)
+            throws IOException, DdlException {
         int dbCount = dis.readInt();
         long newChecksum = checksum ^ dbCount;
-        for (long i = 0; i < dbCount; ++i) {
-            Database db = new Database();
-            db.readFields(dis);
+        List<ImageIndex.Section> dbSections = imageIndex == null ? Collections.emptyList() :
+                imageIndex.getSections(DB_SECTION_PREFIX);
+        List<Database> dbs;
+        if (canLoadDbInParallel(dbCount, dbSections)) {
+            dbs = loadDbInParallel(imageFile, dbSections);
+            ImageIndex.Section last = dbSections.get(dbCount - 1);
+            ByteStreams.skipFully(dis, last.getOffset() + last.getLength() - dbSections.get(0).getOffset());
+        } else {
+            dbs = Lists.newArrayListWithCapacity(dbCount);
+            for (long i = 0; i < dbCount; ++i) {
+                Database db = new Database();
+                db.readFields(dis);
+                dbs.add(db);
+            }
+        }
+        for (Database db : dbs) {
             newChecksum ^= db.getId();
             idToDb.put(db.getId(), db);
             fullNameToDb.put(db.getFullName(), db);
@@ -1680,6 +1768,72 @@ public class Catalog {
         return newChecksum;
     }
 
+    // The databases are deserialized in parallel only when each of them is indexed as a contiguous section.
+    // The checkpoint thread loads them sequentially, because the other threads see the serving catalog
+    // instead of the checkpoint catalog.
+    private boolean canLoadDbInParallel(int dbCount, List<ImageIndex.Section> dbSections) {
+        if (Config.image_load_parallelism <= 1 || dbCount <= 1 || dbSections.size() != dbCount
+                || isCheckpointThread()) {
+            return false;
+        }
+        for (int i = 1; i < dbCount; i++) {
+            ImageIndex.Section prev = dbSections.get(i - 1);
+            if (prev.getOffset() + prev.getLength() != dbSections.get(i).getOffset()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<Database> loadDbInParallel(File imageFile, List<ImageIndex.Section> dbSections) throws IOException {
+        // the meta version is read from image header, and is needed by readFields in loader threads
+        MetaContext metaContext = MetaContext.get();
+        boolean useMmap = Config.image_load_use_mmap;
+        int threadNum = Math.min(Config.image_load_parallelism, dbSections.size());
+        ThreadPoolExecutor executor = ThreadPoolManager.newDaemonFixedThreadPool(threadNum, dbSections.size(),
+                "image-db-loader", false);
+        try {
+            List<Future<Database>> futures = Lists.newArrayListWithCapacity(dbSections.size());
+            for (ImageIndex.Section section : dbSections) {
+                futures.add(executor.submit(() -> {
+                    metaContext.setThreadLocalInfo();
+                    try {
+                        return loadDbSection(imageFile, section, useMmap);
+                    } finally {
+                        MetaContext.remove();
+                    }
+                }));
+            }
+            List<Database> dbs = Lists.newArrayListWithCapacity(dbSections.size());
+            for (Future<Database> future : futures) {
+                dbs.add(future.get());
+            }
+            return dbs;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted when loading databases from image", e);
+        } catch (ExecutionException e) {
+            Throwables.propagateIfPossible(e.getCause(), IOException.class);
+            throw new IOException("failed to load databases from image", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Database loadDbSection(File imageFile, ImageIndex.Section section, boolean useMmap)
+            throws IOException {
+        CheckedInputStream in = new CheckedInputStream(ImageIndex.openSection(imageFile, section, useMmap),
+                new CRC32());
+        try (DataInputStream dis = new DataInputStream(in)) {
+            Database db = new Database();
+            db.readFields(dis);
+            if (dis.read() != -1 || in.getChecksum().getValue() != section.getChecksum()) {
+                throw new IOException("image section " + section.getName() + " is corrupted");
+            }
+            return db;
+        }
+    }
+
     public long loadLoadJob(DataInputStream dis, long checksum) throws IOException, DdlException {
         // load jobs
         int jobSize = dis.readInt();
@@ -1941,6 +2095,34 @@ public class Catalog {
         }
     }
 
+    /*
+     * Save the image of the serving catalog on non-master FE, return the journal id of the image.
+     * The journal replay is the only writer of the catalog on non-master FE, and it's blocked by the
+     * catalog monitor, so the image is consistent with the replayed journal id without loading another
+     * catalog. The replay is resumed after the image is saved.
+     */
+    public synchronized long saveServingImage() throws IOException {
+        if (isMaster()) {
+            throw new IOException("the image of serving catalog can not be saved on master");
+        }
+        long journalId = replayedJournalId.get();
+        Storage storage = new Storage(this.imageDir);
+        File curFile = storage.getImageFile(journalId);
+        if (curFile.exists()) {
+            return journalId;
+        }
+        File ckpt = new File(this.imageDir, Storage.IMAGE_NEW);
+        saveImage(ckpt, journalId);
+
+        LOG.info("Move " + ckpt.getAbsolutePath() + " to " + curFile.getAbsolutePath());
+        if (!ckpt.renameTo(curFile)) {
+            curFile.delete();
+            throw new IOException("failed to rename " + ckpt.getAbsolutePath());
+        }
+        setImageJournalId(journalId);
+        return journalId;
+    }
+
     public void saveImage(File curFile, long replayedJournalId) throws IOException {
         if (!curFile.exists()) {
             curFile.createNewFile();
@@ -1951,33 +2133,38 @@ public class Catalog {
 
         long checksum = 0;
         long saveImageStartTime = System.currentTimeMillis();
-        try (DataOutputStream dos = new DataOutputStream(new FileOutputStream(curFile))) {
-            checksum = saveHeader(dos, replayedJournalId, checksum);
-            checksum = saveMasterInfo(dos, checksum);
-            checksum = saveFrontends(dos, checksum);
-            checksum = Catalog.getCurrentSystemInfo().saveBackends(dos, checksum);
-            checksum = saveDb(dos, checksum);
-            checksum = saveLoadJob(dos, checksum);
-            checksum = saveAlterJob(dos, checksum);
-            checksum = saveRecycleBin(dos, checksum);
-            checksum = saveGlobalVariable(dos, checksum);
-            checksum = saveCluster(dos, checksum);
-            checksum = saveBrokers(dos, checksum);
-            checksum = saveResources(dos, checksum);
-            checksum = saveExportJob(dos, checksum);
-            checksum = saveBackupHandler(dos, checksum);
-            checksum = saveAuth(dos, checksum);
-            checksum = saveTransactionState(dos, checksum);
-            checksum = saveColocateTableIndex(dos, checksum);
-            checksum = saveRoutineLoadJobs(dos, checksum);
-            checksum = saveLoadJobsV2(dos, checksum);
-            checksum = saveSmallFiles(dos, checksum);
-            checksum = savePlugins(dos, checksum);
-            checksum = saveDeleteHandler(dos, checksum);
+        ImageSectionOutputStream out = new ImageSectionOutputStream(
+                new BufferedOutputStream(new FileOutputStream(curFile)));
+        try (DataOutputStream dos = new DataOutputStream(out)) {
+            checksum = saveSection(out, "header", checksum, c -> saveHeader(dos, replayedJournalId, c));
+            checksum = saveSection(out, "masterInfo", checksum, c -> saveMasterInfo(dos, c));
+            checksum = saveSection(out, "frontends", checksum, c -> saveFrontends(dos, c));
+            checksum = saveSection(out, "backends", checksum, c -> Catalog.getCurrentSystemInfo().saveBackends(dos, c));
+            checksum = saveSection(out, "db", checksum, c -> saveDb(dos, c, out));
+            checksum = saveSection(out, "loadJob", checksum, c -> saveLoadJob(dos, c));
+            checksum = saveSection(out, "alterJob", checksum, c -> saveAlterJob(dos, c));
+            checksum = saveSection(out, "recycleBin", checksum, c -> saveRecycleBin(dos, c));
+            checksum = saveSection(out, "globalVariable", checksum, c -> saveGlobalVariable(dos, c));
+            checksum = saveSection(out, "cluster", checksum, c -> saveCluster(dos, c));
+            checksum = saveSection(out, "brokers", checksum, c -> saveBrokers(dos, c));
+            checksum = saveSection(out, "resources", checksum, c -> saveResources(dos, c));
+            checksum = saveSection(out, "exportJob", checksum, c -> saveExportJob(dos, c));
+            checksum = saveSection(out, "backupHandler", checksum, c -> saveBackupHandler(dos, c));
+            checksum = saveSection(out, "auth", checksum, c -> saveAuth(dos, c));
+            checksum = saveSection(out, "transactionState", checksum, c -> saveTransactionState(dos, c));
+            checksum = saveSection(out, "colocateTableIndex", checksum, c -> saveColocateTableIndex(dos, c));
+            checksum = saveSection(out, "routineLoadJobs", checksum, c -> saveRoutineLoadJobs(dos, c));
+            checksum = saveSection(out, "loadJobsV2", checksum, c -> saveLoadJobsV2(dos, c));
+            checksum = saveSection(out, "smallFiles", checksum, c -> saveSmallFiles(dos, c));
+            checksum = saveSection(out, "plugins", checksum, c -> savePlugins(dos, c));
+            checksum = saveSection(out, "deleteHandler", checksum, c -> saveDeleteHandler(dos, c));
 
             dos.writeLong(checksum);
-            checksum = saveAnalyze(dos, checksum);
+            checksum = saveSection(out, "analyze", checksum, c -> saveAnalyze(dos, c));
             dos.writeLong(checksum);
+
+            // the index is appended after the last checksum, which is ignored by the loader of old version
+            out.getIndex().write(dos, out.getPosition());
         }
 
         long saveImageEndTime = System.currentTimeMillis();
@@ -2042,26 +2229,92 @@ public class Catalog {
     }
 
     public long saveDb(DataOutputStream dos, long checksum) throws IOException {
+        return saveDb(dos, checksum, null);
+    }
+
+    // Each database is recorded as a sub section if out is not null, so that they can be loaded in parallel
+    private long saveDb(DataOutputStream dos, long checksum, ImageSectionOutputStream out) throws IOException {
         int dbCount = idToDb.size() - nameToCluster.keySet().size();
         checksum ^= dbCount;
         dos.writeInt(dbCount);
+        List<Database> dbs = Lists.newArrayList();
         for (Map.Entry<Long, Database> entry : idToDb.entrySet()) {
             Database db = entry.getValue();
             String dbName = db.getFullName();
             // Don't write information_schema db meta
             if (!InfoSchemaDb.isInfoSchemaDb(dbName)) {
                 checksum ^= entry.getKey();
-                db.readLock();
-                try {
-                    db.write(dos);
-                } finally {
-                    db.readUnlock();
+                dbs.add(db);
+            }
+        }
+
+        if (out != null && Config.image_save_parallelism > 1 && dbs.size() > 1) {
+            saveDbInParallel(dos, out, dbs);
+            return checksum;
+        }
+        for (Database db : dbs) {
+            db.readLock();
+            try {
+                if (out != null) {
+                    out.beginSection(DB_SECTION_PREFIX + db.getId());
+                }
+                db.write(dos);
+                if (out != null) {
+                    out.endSection();
                 }
+            } finally {
+                db.readUnlock();
             }
         }
         return checksum;
     }
 
+    /**
+     * Serialize the databases into separate buffers in parallel, and write the buffers to the image in order,
+     * so the image is exactly the same as the one saved sequentially. At most 2 * threadNum buffers are kept
+     * in memory, a finished buffer waits until all the databases before it are written.
+     */
+    private void saveDbInParallel(DataOutputStream dos, ImageSectionOutputStream out, List<Database> dbs)
+            throws IOException {
+        int threadNum = Math.min(Config.image_save_parallelism, dbs.size());
+        int window = threadNum * 2;
+        ThreadPoolExecutor executor = ThreadPoolManager.newDaemonFixedThreadPool(threadNum, window,
+                "image-db-saver", false);
+        try {
+            List<Future<byte[]>> futures = Lists.newArrayListWithCapacity(dbs.size());
+            for (int i = 0; i < dbs.size(); i++) {
+                while (futures.size() < dbs.size() && futures.size() < i + window) {
+                    Database db = dbs.get(futures.size());
+                    futures.add(executor.submit(() -> serializeDb(db)));
+                }
+                byte[] bytes = futures.get(i).get();
+                futures.set(i, null);
+                out.beginSection(DB_SECTION_PREFIX + dbs.get(i).getId());
+                dos.write(bytes);
+                out.endSection();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted when saving databases to image", e);
+        } catch (ExecutionException e) {
+            Throwables.propagateIfPossible(e.getCause(), IOException.class);
+            throw new IOException("failed to save databases to image", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static byte[] serializeDb(Database db) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        db.readLock();
+        try (DataOutputStream dos = new DataOutputStream(buffer)) {
+            db.write(dos);
+        } finally {
+            db.readUnlock();
+        }
+        return buffer.toByteArray();
+    }
+
     public long saveLoadJob(DataOutputStream dos, long checksum) throws IOException {
         // 1. save load.dbToLoadJob
         int jobSize = 0;
@@ -2451,6 +2704,7 @@ public class Catalog {
             return false;
         }
 
+        replayTargetJournalId = newToJournalId;
         LOG.info("replayed journal id is {}, replay to journal id is {}", replayedJournalId, newToJournalId);
         JournalCursor cursor = editLog.read(replayedJournalId.get() + 1, newToJournalId);
         if (cursor == null) {
@@ -2460,22 +2714,30 @@ public class Catalog {
 
         long startTime = System.currentTimeMillis();
         boolean hasLog = false;
-        while (true) {
-            JournalEntity entity = cursor.next();
-            if (entity == null) {
-                break;
-            }
-            hasLog = true;
-            EditLog.loadJournal(this, entity);
-            replayedJournalId.incrementAndGet();
-            LOG.debug("journal {} replayed.", replayedJournalId);
-            if (feType != FrontendNodeType.MASTER) {
-                journalObservable.notifyObservers(replayedJournalId.get());
-            }
-            if (MetricRepo.isInit) {
-                // Metric repo may not init after this replay thread start
-                MetricRepo.COUNTER_EDIT_LOG_READ.increase(1L);
+        JournalReplayExecutor executor = getJournalReplayExecutor();
+        try {
+            while (true) {
+                JournalEntity entity = cursor.next();
+                if (entity == null) {
+                    break;
+                }
+                hasLog = true;
+                long replayKey = executor == null ? -1 : JournalReplayExecutor.getReplayKey(entity);
+                if (replayKey >= 0) {
+                    executor.submit(this, replayKey, entity);
+                    if (executor.getPendingNum() >= JournalReplayExecutor.MAX_PENDING_NUM) {
+                        waitParallelReplay(executor);
+                    }
+                    continue;
+                }
+                // the journal may depend on all the previous journals
+                waitParallelReplay(executor);
+                EditLog.loadJournal(this, entity);
+                LOG.debug("journal {} replayed.", replayedJournalId.get() + 1);
+                advanceReplayedJournalId(1);
             }
+        } finally {
+            waitParallelReplay(executor);
         }
         long cost = System.currentTimeMillis() - startTime;
         if (cost >= 1000) {
@@ -2485,6 +2747,46 @@ public class Catalog {
         return hasLog;
     }
 
+    public long getJournalReplayLag() {
+        return Math.max(replayTargetJournalId - replayedJournalId.get(), 0);
+    }
+
+    // Replay the journals in parallel only for the serving catalog, the checkpoint catalog is only visible
+    // to the checkpoint thread.
+    private JournalReplayExecutor getJournalReplayExecutor() {
+        if (Config.journal_replay_parallelism <= 1 || isCheckpointThread()) {
+            return null;
+        }
+        if (journalReplayExecutor == null || journalReplayExecutor.getLaneNum() != Config.journal_replay_parallelism) {
+            if (journalReplayExecutor != null) {
+                journalReplayExecutor.shutdown();
+            }
+            journalReplayExecutor = new JournalReplayExecutor(Config.journal_replay_parallelism);
+        }
+        return journalReplayExecutor;
+    }
+
+    private void waitParallelReplay(JournalReplayExecutor executor) {
+        if (executor != null && executor.getPendingNum() > 0) {
+            int num = executor.getPendingNum();
+            executor.waitAll();
+            advanceReplayedJournalId(num);
+        }
+    }
+
+    // The replayed journal id is advanced only after the journals are applied, so the observers never see
+    // the journals being replayed.
+    private void advanceReplayedJournalId(int num) {
+        replayedJournalId.addAndGet(num);
+        if (feType != FrontendNodeType.MASTER) {
+            journalObservable.notifyObservers(replayedJournalId.get());
+        }
+        if (MetricRepo.isInit) {
+            // Metric repo may not init after this replay thread start
+            MetricRepo.COUNTER_EDIT_LOG_READ.increase((long) num);
+        }
+    }
+
     public void createTimePrinter() {
         // time printer will write timestamp edit log every 10 seconds
         timePrinter = new MasterDaemon("timePrinter", 10 * 1000L) {
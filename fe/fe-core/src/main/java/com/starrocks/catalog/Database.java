@@ -36,6 +36,7 @@ import com.starrocks.common.io.Text;
 import com.starrocks.common.io.Writable;
 import com.starrocks.common.util.DebugUtil;
 import com.starrocks.persist.CreateTableInfo;
+import com.starrocks.sql.plan.PlanCache;
 import com.starrocks.system.SystemInfoService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -288,6 +289,7 @@ public class Database extends MetaObject implements Writable {
             } else {
                 idToTable.put(table.getId(), table);
                 nameToTable.put(table.getName(), table);
+                PlanCache.getInstance().invalidateAll();
 
                 if (!isReplay) {
                     // Write edit log
@@ -311,6 +313,7 @@ public class Database extends MetaObject implements Writable {
         } else {
             idToTable.put(table.getId(), table);
             nameToTable.put(table.getName(), table);
+            PlanCache.getInstance().invalidateAll();
         }
         return result;
     }
@@ -322,6 +325,7 @@ public class Database extends MetaObject implements Writable {
             if (table != null) {
                 this.nameToTable.remove(tableName);
                 this.idToTable.remove(table.getId());
+                PlanCache.getInstance().invalidateAll();
             }
         } finally {
             writeUnlock();
@@ -333,6 +337,7 @@ public class Database extends MetaObject implements Writable {
         if (table != null) {
             this.nameToTable.remove(tableName);
             this.idToTable.remove(table.getId());
+            PlanCache.getInstance().invalidateAll();
         }
     }
 
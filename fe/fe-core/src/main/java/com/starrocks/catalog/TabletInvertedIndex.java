@@ -30,6 +30,9 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Table;
 import com.starrocks.catalog.Replica.ReplicaState;
 import com.starrocks.common.Pair;
+import com.starrocks.common.util.LongLongHashMap;
+import com.starrocks.common.util.LongObjectHashMap;
+import com.starrocks.metric.MetricRepo;
 import com.starrocks.thrift.TPartitionVersionInfo;
 import com.starrocks.thrift.TStorageMedium;
 import com.starrocks.thrift.TTablet;
@@ -43,12 +46,13 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Collectors;
 
 /*
  * this class stores a inverted index
@@ -64,13 +68,21 @@ public class TabletInvertedIndex {
     public static final TabletMeta NOT_EXIST_TABLET_META = new TabletMeta(NOT_EXIST_VALUE, NOT_EXIST_VALUE,
             NOT_EXIST_VALUE, NOT_EXIST_VALUE, NOT_EXIST_VALUE, TStorageMedium.HDD);
 
-    private ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // The index is partitioned into stripes by tablet id, and each stripe is guarded by its own lock.
+    // So the tablet reports from different backends and the replica changes from clone, schema change
+    // and create table only block each other on the stripe they are visiting.
+    // Lock order: tablet stripe lock -> replica stripe lock -> tabletMetaTableLock.
+    private static final int STRIPE_NUM = 64;
 
-    // tablet id -> tablet meta
-    private Map<Long, TabletMeta> tabletMetaMap = Maps.newHashMap();
+    // The object header and the length field of an array with compressed class pointers
+    private static final int ARRAY_HEADER_BYTES = 16;
 
-    // replica id -> tablet id
-    private Map<Long, Long> replicaToTabletMap = Maps.newHashMap();
+    private final Stripe[] stripes = new Stripe[STRIPE_NUM];
+
+    // replica id -> tablet id, partitioned by replica id
+    private final ReplicaStripe[] replicaStripes = new ReplicaStripe[STRIPE_NUM];
+
+    private final ReentrantReadWriteLock tabletMetaTableLock = new ReentrantReadWriteLock();
 
     /*
      *  we use this to save memory.
@@ -83,29 +95,93 @@ public class TabletInvertedIndex {
      */
     private Table<Long, Long, TabletMeta> tabletMetaTable = HashBasedTable.create();
 
-    // tablet id -> (backend id -> replica)
-    private Table<Long, Long, Replica> replicaMetaTable = HashBasedTable.create();
-    // backing replica table, for visiting backend replicas faster.
-    // backend id -> (tablet id -> replica)
-    private Table<Long, Long, Replica> backingReplicaMetaTable = HashBasedTable.create();
+    private class StripeLock {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        void readLock() {
+            lockWithStats(lock.readLock());
+        }
+
+        void readUnlock() {
+            lock.readLock().unlock();
+        }
+
+        void writeLock() {
+            lockWithStats(lock.writeLock());
+        }
+
+        void writeUnlock() {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private class Stripe extends StripeLock {
+        // There may be tens of millions of tablets and replicas in a large cluster, so the id-keyed indexes
+        // below use primitive long keys to avoid the boxed keys and map entries of java.util collections.
+
+        // tablet id -> tablet meta
+        private final LongObjectHashMap<TabletMeta> tabletMetaMap = new LongObjectHashMap<>();
+
+        // tablet id -> replicas of the tablet
+        // a tablet only has a few replicas, so a small array is much more compact than a map keyed by backend id.
+        private final LongObjectHashMap<Replica[]> replicaMetaTable = new LongObjectHashMap<>();
+
+        // backing replica table, for visiting backend replicas faster.
+        // backend id -> (tablet id -> replica)
+        private final Map<Long, LongObjectHashMap<Replica>> backingReplicaMetaTable = Maps.newHashMap();
+    }
+
+    private class ReplicaStripe extends StripeLock {
+        // replica id -> tablet id
+        private final LongLongHashMap replicaToTabletMap = new LongLongHashMap();
+    }
 
     public TabletInvertedIndex() {
+        for (int i = 0; i < STRIPE_NUM; i++) {
+            stripes[i] = new Stripe();
+            replicaStripes[i] = new ReplicaStripe();
+        }
     }
 
-    private void readLock() {
-        this.lock.readLock().lock();
+    private int getStripeIndex(long tabletId) {
+        return Long.hashCode(tabletId) & (STRIPE_NUM - 1);
     }
 
-    private void readUnlock() {
-        this.lock.readLock().unlock();
+    private Stripe getStripe(long tabletId) {
+        return stripes[getStripeIndex(tabletId)];
     }
 
-    private void writeLock() {
-        this.lock.writeLock().lock();
+    private ReplicaStripe getReplicaStripe(long replicaId) {
+        return replicaStripes[Long.hashCode(replicaId) & (STRIPE_NUM - 1)];
     }
 
-    private void writeUnlock() {
-        this.lock.writeLock().unlock();
+    private void lockWithStats(Lock lock) {
+        if (lock.tryLock()) {
+            return;
+        }
+        long start = System.nanoTime();
+        lock.lock();
+        // count the lock acquisitions which were blocked by other threads
+        if (MetricRepo.isInit) {
+            MetricRepo.COUNTER_TABLET_INVERTED_INDEX_LOCK_WAIT.increase(1L);
+            MetricRepo.COUNTER_TABLET_INVERTED_INDEX_LOCK_WAIT_US.increase((System.nanoTime() - start) / 1000);
+        }
+    }
+
+    private void tabletMetaTableReadLock() {
+        lockWithStats(tabletMetaTableLock.readLock());
+    }
+
+    private void tabletMetaTableReadUnlock() {
+        tabletMetaTableLock.readLock().unlock();
+    }
+
+    private void tabletMetaTableWriteLock() {
+        lockWithStats(tabletMetaTableLock.writeLock());
+    }
+
+    private void tabletMetaTableWriteUnlock() {
+        tabletMetaTableLock.writeLock().unlock();
     }
 
     public void tabletReport(long backendId, Map<Long, TTablet> backendTablets,
@@ -119,6 +195,27 @@ public class TabletInvertedIndex {
                              ListMultimap<Long, Long> transactionsToClear,
                              ListMultimap<Long, Long> tabletRecoveryMap,
                              Set<Pair<Long, Integer>> tabletWithoutPartitionId) {
+        tabletReport(backendId, backendTablets, null, storageMediumMap, tabletSyncMap, tabletDeleteFromMeta,
+                foundTabletsWithValidSchema, foundTabletsWithInvalidSchema, tabletMigrationMap,
+                transactionsToPublish, transactionsToClear, tabletRecoveryMap, tabletWithoutPartitionId);
+    }
+
+    /**
+     * Diff the tablets reported by the backend with the replicas of the backend in meta.
+     * If removedTabletIds is not null, the report is incremental, backendTablets only contains the tablets changed
+     * since the last report and removedTabletIds contains the dropped ones, so only these tablets are diffed.
+     */
+    public void tabletReport(long backendId, Map<Long, TTablet> backendTablets, List<Long> removedTabletIds,
+                             final HashMap<Long, TStorageMedium> storageMediumMap,
+                             ListMultimap<Long, Long> tabletSyncMap,
+                             ListMultimap<Long, Long> tabletDeleteFromMeta,
+                             Set<Long> foundTabletsWithValidSchema,
+                             Map<Long, TTabletInfo> foundTabletsWithInvalidSchema,
+                             ListMultimap<TStorageMedium, Long> tabletMigrationMap,
+                             Map<Long, ListMultimap<Long, TPartitionVersionInfo>> transactionsToPublish,
+                             ListMultimap<Long, Long> transactionsToClear,
+                             ListMultimap<Long, Long> tabletRecoveryMap,
+                             Set<Pair<Long, Integer>> tabletWithoutPartitionId) {
 
         for (TTablet backendTablet : backendTablets.values()) {
             for (TTabletInfo tabletInfo : backendTablet.tablet_infos) {
@@ -128,139 +225,175 @@ public class TabletInvertedIndex {
             }
         }
 
-        readLock();
+        // stripe index -> the reported and removed tablet ids of the incremental report
+        List<List<Long>> stripeTabletIds = null;
+        if (removedTabletIds != null) {
+            stripeTabletIds = Lists.newArrayListWithCapacity(STRIPE_NUM);
+            for (int i = 0; i < STRIPE_NUM; i++) {
+                stripeTabletIds.add(Lists.newArrayList());
+            }
+            for (long tabletId : backendTablets.keySet()) {
+                stripeTabletIds.get(getStripeIndex(tabletId)).add(tabletId);
+            }
+            for (long tabletId : removedTabletIds) {
+                stripeTabletIds.get(getStripeIndex(tabletId)).add(tabletId);
+            }
+        }
+
         long start = System.currentTimeMillis();
-        try {
-            LOG.info("begin to do tablet diff with backend[{}]. num: {}", backendId, backendTablets.size());
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                // traverse replicas in meta with this backend
-                for (Map.Entry<Long, Replica> entry : replicaMetaWithBackend.entrySet()) {
-                    long tabletId = entry.getKey();
-                    Preconditions.checkState(tabletMetaMap.containsKey(tabletId));
-                    TabletMeta tabletMeta = tabletMetaMap.get(tabletId);
-
-                    if (backendTablets.containsKey(tabletId)) {
+        LOG.info("begin to do tablet diff with backend[{}]. num: {}, incremental: {}",
+                backendId, backendTablets.size(), removedTabletIds != null);
+        // each stripe is diffed under its own read lock, so writers on other stripes are not blocked
+        for (int stripeIndex = 0; stripeIndex < STRIPE_NUM; stripeIndex++) {
+            if (stripeTabletIds != null && stripeTabletIds.get(stripeIndex).isEmpty()) {
+                continue;
+            }
+            Stripe stripe = stripes[stripeIndex];
+            stripe.readLock();
+            try {
+                LongObjectHashMap<Replica> replicaMetaWithBackend = stripe.backingReplicaMetaTable.get(backendId);
+                if (replicaMetaWithBackend != null && stripeTabletIds != null) {
+                    // only diff the replicas of the reported and removed tablets
+                    LongObjectHashMap<Replica> reportedReplicas = new LongObjectHashMap<>();
+                    for (long tabletId : stripeTabletIds.get(stripeIndex)) {
+                        Replica replica = replicaMetaWithBackend.get(tabletId);
+                        if (replica != null) {
+                            reportedReplicas.put(tabletId, replica);
+                        }
+                    }
+                    replicaMetaWithBackend = reportedReplicas;
+                }
+                if (replicaMetaWithBackend != null) {
+                    // traverse replicas in meta with this backend
+                    LongObjectHashMap.Cursor<Replica> cursor = replicaMetaWithBackend.cursor();
+                    while (cursor.advance()) {
+                        long tabletId = cursor.key();
+                        TabletMeta tabletMeta = stripe.tabletMetaMap.get(tabletId);
+                        Preconditions.checkState(tabletMeta != null);
+
                         TTablet backendTablet = backendTablets.get(tabletId);
-                        Replica replica = entry.getValue();
-                        for (TTabletInfo backendTabletInfo : backendTablet.getTablet_infos()) {
-                            if (tabletMeta.containsSchemaHash(backendTabletInfo.getSchema_hash())) {
-                                foundTabletsWithValidSchema.add(tabletId);
-                                // 1. (intersection)
-                                if (needSync(replica, backendTabletInfo)) {
-                                    // need sync
-                                    tabletSyncMap.put(tabletMeta.getDbId(), tabletId);
-                                }
-
-                                // check and set path
-                                // path info of replica is only saved in Master FE
-                                if (backendTabletInfo.isSetPath_hash() &&
-                                        replica.getPathHash() != backendTabletInfo.getPath_hash()) {
-                                    replica.setPathHash(backendTabletInfo.getPath_hash());
-                                }
-
-                                if (backendTabletInfo.isSetSchema_hash() && replica.getState() == ReplicaState.NORMAL
-                                        && replica.getSchemaHash() != backendTabletInfo.getSchema_hash()) {
-                                    // update the schema hash only when replica is normal
-                                    replica.setSchemaHash(backendTabletInfo.getSchema_hash());
-                                }
-
-                                if (needRecover(replica, tabletMeta.getOldSchemaHash(), backendTabletInfo)) {
-                                    LOG.warn("replica {} of tablet {} on backend {} need recovery. "
-                                                    + "replica in FE: {}, report version {}-{}, report schema hash: {},"
-                                                    + " is bad: {}, is version missing: {}",
-                                            replica.getId(), tabletId, backendId, replica,
-                                            backendTabletInfo.getVersion(),
-                                            backendTabletInfo.getVersion_hash(),
-                                            backendTabletInfo.getSchema_hash(),
-                                            backendTabletInfo.isSetUsed() ? backendTabletInfo.isUsed() : "unknown",
-                                            backendTabletInfo.isSetVersion_miss() ? backendTabletInfo.isVersion_miss() :
-                                                    "unset");
-                                    tabletRecoveryMap.put(tabletMeta.getDbId(), tabletId);
-                                }
-
-                                // check if need migration
-                                long partitionId = tabletMeta.getPartitionId();
-                                TStorageMedium storageMedium = storageMediumMap.get(partitionId);
-                                if (storageMedium != null && backendTabletInfo.isSetStorage_medium()) {
-                                    if (storageMedium != backendTabletInfo.getStorage_medium()) {
-                                        tabletMigrationMap.put(storageMedium, tabletId);
+                        if (backendTablet != null) {
+                            Replica replica = cursor.value();
+                            for (TTabletInfo backendTabletInfo : backendTablet.getTablet_infos()) {
+                                if (tabletMeta.containsSchemaHash(backendTabletInfo.getSchema_hash())) {
+                                    foundTabletsWithValidSchema.add(tabletId);
+                                    // 1. (intersection)
+                                    if (needSync(replica, backendTabletInfo)) {
+                                        // need sync
+                                        tabletSyncMap.put(tabletMeta.getDbId(), tabletId);
                                     }
-                                    if (storageMedium != tabletMeta.getStorageMedium()) {
-                                        tabletMeta.setStorageMedium(storageMedium);
+
+                                    // check and set path
+                                    // path info of replica is only saved in Master FE
+                                    if (backendTabletInfo.isSetPath_hash() &&
+                                            replica.getPathHash() != backendTabletInfo.getPath_hash()) {
+                                        replica.setPathHash(backendTabletInfo.getPath_hash());
                                     }
-                                }
-                                // check if should clear transactions
-                                if (backendTabletInfo.isSetTransaction_ids()) {
-                                    List<Long> transactionIds = backendTabletInfo.getTransaction_ids();
-                                    GlobalTransactionMgr transactionMgr = Catalog.getCurrentGlobalTransactionMgr();
-                                    for (Long transactionId : transactionIds) {
-                                        TransactionState transactionState =
-                                                transactionMgr.getTransactionState(tabletMeta.getDbId(), transactionId);
-                                        if (transactionState == null ||
-                                                transactionState.getTransactionStatus() == TransactionStatus.ABORTED) {
-                                            transactionsToClear.put(transactionId, tabletMeta.getPartitionId());
-                                            LOG.debug("transaction id [{}] is not valid any more, "
-                                                    + "clear it from backend [{}]", transactionId, backendId);
-                                        } else if (transactionState.getTransactionStatus() ==
-                                                TransactionStatus.VISIBLE) {
-                                            TableCommitInfo tableCommitInfo =
-                                                    transactionState.getTableCommitInfo(tabletMeta.getTableId());
-                                            PartitionCommitInfo partitionCommitInfo =
-                                                    tableCommitInfo.getPartitionCommitInfo(partitionId);
-                                            if (partitionCommitInfo == null) {
-                                                /*
-                                                 * This may happen as follows:
-                                                 * 1. txn is committed on BE, and report commit info to FE
-                                                 * 2. FE received report and begin to assemble partitionCommitInfos.
-                                                 * 3. At the same time, some of partitions have been dropped, so
-                                                 *    partitionCommitInfos does not contain these partitions.
-                                                 * 4. So we will not able to get partitionCommitInfo here.
-                                                 *
-                                                 * Just print a log to observe
-                                                 */
-                                                LOG.info(
-                                                        "failed to find partition commit info. table: {}, " +
-                                                                "partition: {}, tablet: {}, txn id: {}",
-                                                        tabletMeta.getTableId(), partitionId, tabletId,
-                                                        transactionState.getTransactionId());
-                                            } else {
-                                                TPartitionVersionInfo versionInfo =
-                                                        new TPartitionVersionInfo(tabletMeta.getPartitionId(),
-                                                                partitionCommitInfo.getVersion(),
-                                                                partitionCommitInfo.getVersionHash());
-                                                ListMultimap<Long, TPartitionVersionInfo> map =
-                                                        transactionsToPublish.get(transactionState.getDbId());
-                                                if (map == null) {
-                                                    map = ArrayListMultimap.create();
-                                                    transactionsToPublish.put(transactionState.getDbId(), map);
+
+                                    if (backendTabletInfo.isSetSchema_hash() && replica.getState() == ReplicaState.NORMAL
+                                            && replica.getSchemaHash() != backendTabletInfo.getSchema_hash()) {
+                                        // update the schema hash only when replica is normal
+                                        replica.setSchemaHash(backendTabletInfo.getSchema_hash());
+                                    }
+
+                                    if (needRecover(replica, tabletMeta.getOldSchemaHash(), backendTabletInfo)) {
+                                        LOG.warn("replica {} of tablet {} on backend {} need recovery. "
+                                                        + "replica in FE: {}, report version {}-{}, report schema hash: {},"
+                                                        + " is bad: {}, is version missing: {}",
+                                                replica.getId(), tabletId, backendId, replica,
+                                                backendTabletInfo.getVersion(),
+                                                backendTabletInfo.getVersion_hash(),
+                                                backendTabletInfo.getSchema_hash(),
+                                                backendTabletInfo.isSetUsed() ? backendTabletInfo.isUsed() : "unknown",
+                                                backendTabletInfo.isSetVersion_miss() ? backendTabletInfo.isVersion_miss() :
+                                                        "unset");
+                                        tabletRecoveryMap.put(tabletMeta.getDbId(), tabletId);
+                                    }
+
+                                    // check if need migration
+                                    long partitionId = tabletMeta.getPartitionId();
+                                    TStorageMedium storageMedium = storageMediumMap.get(partitionId);
+                                    if (storageMedium != null && backendTabletInfo.isSetStorage_medium()) {
+                                        if (storageMedium != backendTabletInfo.getStorage_medium()) {
+                                            tabletMigrationMap.put(storageMedium, tabletId);
+                                        }
+                                        if (storageMedium != tabletMeta.getStorageMedium()) {
+                                            tabletMeta.setStorageMedium(storageMedium);
+                                        }
+                                    }
+                                    // check if should clear transactions
+                                    if (backendTabletInfo.isSetTransaction_ids()) {
+                                        List<Long> transactionIds = backendTabletInfo.getTransaction_ids();
+                                        GlobalTransactionMgr transactionMgr = Catalog.getCurrentGlobalTransactionMgr();
+                                        for (Long transactionId : transactionIds) {
+                                            TransactionState transactionState =
+                                                    transactionMgr.getTransactionState(tabletMeta.getDbId(), transactionId);
+                                            if (transactionState == null ||
+                                                    transactionState.getTransactionStatus() == TransactionStatus.ABORTED
+                                                    || isCompactedVisibleTxn(transactionState, tabletMeta)) {
+                                                transactionsToClear.put(transactionId, tabletMeta.getPartitionId());
+                                                LOG.debug("transaction id [{}] is not valid any more, "
+                                                        + "clear it from backend [{}]", transactionId, backendId);
+                                            } else if (transactionState.getTransactionStatus() ==
+                                                    TransactionStatus.VISIBLE) {
+                                                TableCommitInfo tableCommitInfo =
+                                                        transactionState.getTableCommitInfo(tabletMeta.getTableId());
+                                                PartitionCommitInfo partitionCommitInfo =
+                                                        tableCommitInfo.getPartitionCommitInfo(partitionId);
+                                                if (partitionCommitInfo == null) {
+                                                    /*
+                                                     * This may happen as follows:
+                                                     * 1. txn is committed on BE, and report commit info to FE
+                                                     * 2. FE received report and begin to assemble partitionCommitInfos.
+                                                     * 3. At the same time, some of partitions have been dropped, so
+                                                     *    partitionCommitInfos does not contain these partitions.
+                                                     * 4. So we will not able to get partitionCommitInfo here.
+                                                     *
+                                                     * Just print a log to observe
+                                                     */
+                                                    LOG.info(
+                                                            "failed to find partition commit info. table: {}, " +
+                                                                    "partition: {}, tablet: {}, txn id: {}",
+                                                            tabletMeta.getTableId(), partitionId, tabletId,
+                                                            transactionState.getTransactionId());
+                                                } else {
+                                                    TPartitionVersionInfo versionInfo =
+                                                            new TPartitionVersionInfo(tabletMeta.getPartitionId(),
+                                                                    partitionCommitInfo.getVersion(),
+                                                                    partitionCommitInfo.getVersionHash());
+                                                    ListMultimap<Long, TPartitionVersionInfo> map =
+                                                            transactionsToPublish.get(transactionState.getDbId());
+                                                    if (map == null) {
+                                                        map = ArrayListMultimap.create();
+                                                        transactionsToPublish.put(transactionState.getDbId(), map);
+                                                    }
+                                                    map.put(transactionId, versionInfo);
                                                 }
-                                                map.put(transactionId, versionInfo);
                                             }
                                         }
+                                    } // end for txn id
+
+                                    // update replicas's version count
+                                    // no need to write log, and no need to get db lock.
+                                    if (backendTabletInfo.isSetVersion_count()) {
+                                        replica.setVersionCount(backendTabletInfo.getVersion_count());
                                     }
-                                } // end for txn id
-
-                                // update replicas's version count
-                                // no need to write log, and no need to get db lock.
-                                if (backendTabletInfo.isSetVersion_count()) {
-                                    replica.setVersionCount(backendTabletInfo.getVersion_count());
-                                }
-                            } else {
-                                // tablet with invalid schemahash
-                                foundTabletsWithInvalidSchema.put(tabletId, backendTabletInfo);
-                            } // end for be tablet info
+                                } else {
+                                    // tablet with invalid schemahash
+                                    foundTabletsWithInvalidSchema.put(tabletId, backendTabletInfo);
+                                } // end for be tablet info
+                            }
+                        } else {
+                            // 2. (meta - be)
+                            // may need delete from meta
+                            LOG.debug("backend[{}] does not report tablet[{}-{}]", backendId, tabletId, tabletMeta);
+                            tabletDeleteFromMeta.put(tabletMeta.getDbId(), tabletId);
                         }
-                    } else {
-                        // 2. (meta - be)
-                        // may need delete from meta
-                        LOG.debug("backend[{}] does not report tablet[{}-{}]", backendId, tabletId, tabletMeta);
-                        tabletDeleteFromMeta.put(tabletMeta.getDbId(), tabletId);
-                    }
-                } // end for replicaMetaWithBackend
+                    } // end for replicaMetaWithBackend
+                }
+            } finally {
+                stripe.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
 
         long end = System.currentTimeMillis();
@@ -272,34 +405,46 @@ public class TabletInvertedIndex {
     }
 
     public Long getTabletIdByReplica(long replicaId) {
-        readLock();
+        ReplicaStripe replicaStripe = getReplicaStripe(replicaId);
+        replicaStripe.readLock();
         try {
-            return replicaToTabletMap.get(replicaId);
+            if (!replicaStripe.replicaToTabletMap.containsKey(replicaId)) {
+                return null;
+            }
+            return replicaStripe.replicaToTabletMap.getOrDefault(replicaId, NOT_EXIST_VALUE);
         } finally {
-            readUnlock();
+            replicaStripe.readUnlock();
         }
     }
 
     public TabletMeta getTabletMeta(long tabletId) {
-        readLock();
+        Stripe stripe = getStripe(tabletId);
+        stripe.readLock();
         try {
-            return tabletMetaMap.get(tabletId);
+            return stripe.tabletMetaMap.get(tabletId);
         } finally {
-            readUnlock();
+            stripe.readUnlock();
         }
     }
 
     public List<TabletMeta> getTabletMetaList(List<Long> tabletIdList) {
         List<TabletMeta> tabletMetaList = new ArrayList<>(tabletIdList.size());
-        readLock();
-        try {
-            for (Long tabletId : tabletIdList) {
-                tabletMetaList.add(tabletMetaMap.getOrDefault(tabletId, NOT_EXIST_TABLET_META));
+        for (Long tabletId : tabletIdList) {
+            Stripe stripe = getStripe(tabletId);
+            stripe.readLock();
+            try {
+                tabletMetaList.add(stripe.tabletMetaMap.getOrDefault(tabletId, NOT_EXIST_TABLET_META));
+            } finally {
+                stripe.readUnlock();
             }
-            return tabletMetaList;
-        } finally {
-            readUnlock();
         }
+        return tabletMetaList;
+    }
+
+    // the commit infos of the compacted txn are dropped, it can't be published to the backend any more
+    private boolean isCompactedVisibleTxn(TransactionState transactionState, TabletMeta tabletMeta) {
+        return transactionState.getTransactionStatus() == TransactionStatus.VISIBLE
+                && transactionState.getTableCommitInfo(tabletMeta.getTableId()) == null;
     }
 
     private boolean needSync(Replica replicaInFe, TTabletInfo backendTabletInfo) {
@@ -385,20 +530,26 @@ public class TabletInvertedIndex {
         if (Catalog.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Stripe stripe = getStripe(tabletId);
+        stripe.writeLock();
         try {
-            if (tabletMetaMap.containsKey(tabletId)) {
+            if (stripe.tabletMetaMap.containsKey(tabletId)) {
                 return;
             }
-            tabletMetaMap.put(tabletId, tabletMeta);
-            if (!tabletMetaTable.contains(tabletMeta.getPartitionId(), tabletMeta.getIndexId())) {
-                tabletMetaTable.put(tabletMeta.getPartitionId(), tabletMeta.getIndexId(), tabletMeta);
-                LOG.debug("add tablet meta: {}", tabletId);
+            stripe.tabletMetaMap.put(tabletId, tabletMeta);
+            tabletMetaTableWriteLock();
+            try {
+                if (!tabletMetaTable.contains(tabletMeta.getPartitionId(), tabletMeta.getIndexId())) {
+                    tabletMetaTable.put(tabletMeta.getPartitionId(), tabletMeta.getIndexId(), tabletMeta);
+                    LOG.debug("add tablet meta: {}", tabletId);
+                }
+            } finally {
+                tabletMetaTableWriteUnlock();
             }
 
             LOG.debug("add tablet: {}", tabletId);
         } finally {
-            writeUnlock();
+            stripe.writeUnlock();
         }
     }
 
@@ -406,27 +557,30 @@ public class TabletInvertedIndex {
         if (Catalog.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Stripe stripe = getStripe(tabletId);
+        stripe.writeLock();
         try {
-            Map<Long, Replica> replicas = replicaMetaTable.rowMap().remove(tabletId);
+            Replica[] replicas = stripe.replicaMetaTable.remove(tabletId);
             if (replicas != null) {
-                for (Replica replica : replicas.values()) {
-                    replicaToTabletMap.remove(replica.getId());
-                }
-
-                for (long backendId : replicas.keySet()) {
-                    backingReplicaMetaTable.remove(backendId, tabletId);
+                for (Replica replica : replicas) {
+                    removeReplicaToTablet(replica.getId());
+                    removeBackingReplica(stripe, replica.getBackendId(), tabletId);
                 }
             }
-            TabletMeta tabletMeta = tabletMetaMap.remove(tabletId);
+            TabletMeta tabletMeta = stripe.tabletMetaMap.remove(tabletId);
             if (tabletMeta != null) {
-                tabletMetaTable.remove(tabletMeta.getPartitionId(), tabletMeta.getIndexId());
+                tabletMetaTableWriteLock();
+                try {
+                    tabletMetaTable.remove(tabletMeta.getPartitionId(), tabletMeta.getIndexId());
+                } finally {
+                    tabletMetaTableWriteUnlock();
+                }
                 LOG.debug("delete tablet meta: {}", tabletId);
             }
 
             LOG.debug("delete tablet: {}", tabletId);
         } finally {
-            writeUnlock();
+            stripe.writeUnlock();
         }
     }
 
@@ -434,16 +588,36 @@ public class TabletInvertedIndex {
         if (Catalog.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Stripe stripe = getStripe(tabletId);
+        stripe.writeLock();
         try {
-            Preconditions.checkState(tabletMetaMap.containsKey(tabletId));
-            replicaMetaTable.put(tabletId, replica.getBackendId(), replica);
-            replicaToTabletMap.put(replica.getId(), tabletId);
-            backingReplicaMetaTable.put(replica.getBackendId(), tabletId, replica);
+            Preconditions.checkState(stripe.tabletMetaMap.containsKey(tabletId));
+            Replica[] replicas = stripe.replicaMetaTable.get(tabletId);
+            int idx = indexOfBackend(replicas, replica.getBackendId());
+            if (idx >= 0) {
+                // replace the replica on the same backend
+                removeReplicaToTablet(replicas[idx].getId());
+                replicas[idx] = replica;
+            } else if (replicas == null) {
+                stripe.replicaMetaTable.put(tabletId, new Replica[] {replica});
+            } else {
+                Replica[] newReplicas = Arrays.copyOf(replicas, replicas.length + 1);
+                newReplicas[replicas.length] = replica;
+                stripe.replicaMetaTable.put(tabletId, newReplicas);
+            }
+            ReplicaStripe replicaStripe = getReplicaStripe(replica.getId());
+            replicaStripe.writeLock();
+            try {
+                replicaStripe.replicaToTabletMap.put(replica.getId(), tabletId);
+            } finally {
+                replicaStripe.writeUnlock();
+            }
+            stripe.backingReplicaMetaTable.computeIfAbsent(replica.getBackendId(), k -> new LongObjectHashMap<>())
+                    .put(tabletId, replica);
             LOG.debug("add replica {} of tablet {} in backend {}",
                     replica.getId(), tabletId, replica.getBackendId());
         } finally {
-            writeUnlock();
+            stripe.writeUnlock();
         }
     }
 
@@ -451,14 +625,26 @@ public class TabletInvertedIndex {
         if (Catalog.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Stripe stripe = getStripe(tabletId);
+        stripe.writeLock();
         try {
-            Preconditions.checkState(tabletMetaMap.containsKey(tabletId));
-            if (replicaMetaTable.containsRow(tabletId)) {
-                Replica replica = replicaMetaTable.remove(tabletId, backendId);
-                replicaToTabletMap.remove(replica.getId());
-                replicaMetaTable.remove(tabletId, backendId);
-                backingReplicaMetaTable.remove(backendId, tabletId);
+            Preconditions.checkState(stripe.tabletMetaMap.containsKey(tabletId));
+            Replica[] replicas = stripe.replicaMetaTable.get(tabletId);
+            if (replicas != null) {
+                int idx = indexOfBackend(replicas, backendId);
+                Preconditions.checkState(idx >= 0,
+                        "replica of tablet " + tabletId + " not found in backend " + backendId);
+                Replica replica = replicas[idx];
+                if (replicas.length == 1) {
+                    stripe.replicaMetaTable.remove(tabletId);
+                } else {
+                    Replica[] newReplicas = new Replica[replicas.length - 1];
+                    System.arraycopy(replicas, 0, newReplicas, 0, idx);
+                    System.arraycopy(replicas, idx + 1, newReplicas, idx, replicas.length - idx - 1);
+                    stripe.replicaMetaTable.put(tabletId, newReplicas);
+                }
+                removeReplicaToTablet(replica.getId());
+                removeBackingReplica(stripe, backendId, tabletId);
                 LOG.debug("delete replica {} of tablet {} in backend {}",
                         replica.getId(), tabletId, backendId);
             } else {
@@ -467,29 +653,66 @@ public class TabletInvertedIndex {
                 LOG.error("tablet[{}] contains no replica in inverted index", tabletId);
             }
         } finally {
-            writeUnlock();
+            stripe.writeUnlock();
         }
     }
 
     public Replica getReplica(long tabletId, long backendId) {
-        readLock();
+        Stripe stripe = getStripe(tabletId);
+        stripe.readLock();
         try {
-            Preconditions.checkState(tabletMetaMap.containsKey(tabletId), tabletId);
-            return replicaMetaTable.get(tabletId, backendId);
+            Preconditions.checkState(stripe.tabletMetaMap.containsKey(tabletId), tabletId);
+            Replica[] replicas = stripe.replicaMetaTable.get(tabletId);
+            int idx = indexOfBackend(replicas, backendId);
+            return idx >= 0 ? replicas[idx] : null;
         } finally {
-            readUnlock();
+            stripe.readUnlock();
         }
     }
 
     public List<Replica> getReplicasByTabletId(long tabletId) {
-        readLock();
+        Stripe stripe = getStripe(tabletId);
+        stripe.readLock();
         try {
-            if (replicaMetaTable.containsRow(tabletId)) {
-                return Lists.newArrayList(replicaMetaTable.row(tabletId).values());
+            Replica[] replicas = stripe.replicaMetaTable.get(tabletId);
+            if (replicas != null) {
+                return Lists.newArrayList(replicas);
             }
             return Lists.newArrayList();
         } finally {
-            readUnlock();
+            stripe.readUnlock();
+        }
+    }
+
+    private static int indexOfBackend(Replica[] replicas, long backendId) {
+        if (replicas != null) {
+            for (int i = 0; i < replicas.length; i++) {
+                if (replicas[i].getBackendId() == backendId) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    // must be called with the write lock of the stripe held
+    private void removeBackingReplica(Stripe stripe, long backendId, long tabletId) {
+        LongObjectHashMap<Replica> replicaMetaWithBackend = stripe.backingReplicaMetaTable.get(backendId);
+        if (replicaMetaWithBackend != null) {
+            replicaMetaWithBackend.remove(tabletId);
+            if (replicaMetaWithBackend.isEmpty()) {
+                stripe.backingReplicaMetaTable.remove(backendId);
+            }
+        }
+    }
+
+    private void removeReplicaToTablet(long replicaId) {
+        ReplicaStripe replicaStripe = getReplicaStripe(replicaId);
+        replicaStripe.writeLock();
+        try {
+            replicaStripe.replicaToTabletMap.remove(replicaId);
+        } finally {
+            replicaStripe.writeUnlock();
         }
     }
 
@@ -497,12 +720,12 @@ public class TabletInvertedIndex {
         if (Catalog.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        tabletMetaTableWriteLock();
         try {
             Preconditions.checkState(tabletMetaTable.contains(partitionId, indexId));
             tabletMetaTable.get(partitionId, indexId).setNewSchemaHash(newSchemaHash);
         } finally {
-            writeUnlock();
+            tabletMetaTableWriteUnlock();
         }
     }
 
@@ -510,12 +733,12 @@ public class TabletInvertedIndex {
         if (Catalog.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        tabletMetaTableWriteLock();
         try {
             Preconditions.checkState(tabletMetaTable.contains(partitionId, indexId));
             tabletMetaTable.get(partitionId, indexId).updateToNewSchemaHash();
         } finally {
-            writeUnlock();
+            tabletMetaTableWriteUnlock();
         }
     }
 
@@ -523,14 +746,14 @@ public class TabletInvertedIndex {
         if (Catalog.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        tabletMetaTableWriteLock();
         try {
             TabletMeta tabletMeta = tabletMetaTable.get(partitionId, indexId);
             if (tabletMeta != null) {
                 tabletMeta.deleteNewSchemaHash();
             }
         } finally {
-            writeUnlock();
+            tabletMetaTableWriteUnlock();
         }
     }
 
@@ -538,91 +761,115 @@ public class TabletInvertedIndex {
      * @return array of pair(partitionId, indexId)
      */
     public List<Pair<Long, Long>> getAllPartitionIndex() {
-        List<Pair<Long, Long>> partitionIndexList = new ArrayList<>(tabletMetaTable.size());
-        readLock();
+        tabletMetaTableReadLock();
         try {
+            List<Pair<Long, Long>> partitionIndexList = new ArrayList<>(tabletMetaTable.size());
             tabletMetaTable.values().forEach(tabletMeta ->
                     partitionIndexList.add(new Pair<>(tabletMeta.getPartitionId(), tabletMeta.getIndexId()))
             );
+            return partitionIndexList;
         } finally {
-            readUnlock();
+            tabletMetaTableReadUnlock();
         }
-        return partitionIndexList;
     }
 
     public List<Long> getTabletIdsByBackendId(long backendId) {
         List<Long> tabletIds = Lists.newArrayList();
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                tabletIds.addAll(replicaMetaWithBackend.keySet());
+        for (Stripe stripe : stripes) {
+            stripe.readLock();
+            try {
+                LongObjectHashMap<Replica> replicaMetaWithBackend = stripe.backingReplicaMetaTable.get(backendId);
+                if (replicaMetaWithBackend != null) {
+                    for (long tabletId : replicaMetaWithBackend.keys()) {
+                        tabletIds.add(tabletId);
+                    }
+                }
+            } finally {
+                stripe.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
         return tabletIds;
     }
 
     public List<Long> getTabletIdsByBackendIdAndStorageMedium(long backendId, TStorageMedium storageMedium) {
         List<Long> tabletIds = Lists.newArrayList();
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                tabletIds = replicaMetaWithBackend.keySet().stream().filter(
-                        id -> tabletMetaMap.get(id).getStorageMedium() == storageMedium).collect(Collectors.toList());
+        for (Stripe stripe : stripes) {
+            stripe.readLock();
+            try {
+                LongObjectHashMap<Replica> replicaMetaWithBackend = stripe.backingReplicaMetaTable.get(backendId);
+                if (replicaMetaWithBackend != null) {
+                    LongObjectHashMap.Cursor<Replica> cursor = replicaMetaWithBackend.cursor();
+                    while (cursor.advance()) {
+                        if (stripe.tabletMetaMap.get(cursor.key()).getStorageMedium() == storageMedium) {
+                            tabletIds.add(cursor.key());
+                        }
+                    }
+                }
+            } finally {
+                stripe.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
         return tabletIds;
     }
 
     public long getTabletNumByBackendId(long backendId) {
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                return replicaMetaWithBackend.size();
+        long num = 0;
+        for (Stripe stripe : stripes) {
+            stripe.readLock();
+            try {
+                LongObjectHashMap<Replica> replicaMetaWithBackend = stripe.backingReplicaMetaTable.get(backendId);
+                if (replicaMetaWithBackend != null) {
+                    num += replicaMetaWithBackend.size();
+                }
+            } finally {
+                stripe.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
-        return 0;
+        return num;
     }
 
     public long getTabletNumByBackendIdAndPathHash(long backendId, long pathHash) {
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                return replicaMetaWithBackend.values().stream().filter(r -> r.getPathHash() == pathHash).count();
+        long num = 0;
+        for (Stripe stripe : stripes) {
+            stripe.readLock();
+            try {
+                LongObjectHashMap<Replica> replicaMetaWithBackend = stripe.backingReplicaMetaTable.get(backendId);
+                if (replicaMetaWithBackend != null) {
+                    LongObjectHashMap.Cursor<Replica> cursor = replicaMetaWithBackend.cursor();
+                    while (cursor.advance()) {
+                        if (cursor.value().getPathHash() == pathHash) {
+                            num++;
+                        }
+                    }
+                }
+            } finally {
+                stripe.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
-        return 0;
+        return num;
     }
 
     public Map<TStorageMedium, Long> getReplicaNumByBeIdAndStorageMedium(long backendId) {
         Map<TStorageMedium, Long> replicaNumMap = Maps.newHashMap();
         long hddNum = 0;
         long ssdNum = 0;
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                for (long tabletId : replicaMetaWithBackend.keySet()) {
-                    if (tabletMetaMap.get(tabletId).getStorageMedium() == TStorageMedium.HDD) {
-                        hddNum++;
-                    } else {
-                        ssdNum++;
+        for (Stripe stripe : stripes) {
+            stripe.readLock();
+            try {
+                LongObjectHashMap<Replica> replicaMetaWithBackend = stripe.backingReplicaMetaTable.get(backendId);
+                if (replicaMetaWithBackend != null) {
+                    LongObjectHashMap.Cursor<Replica> cursor = replicaMetaWithBackend.cursor();
+                    while (cursor.advance()) {
+                        if (stripe.tabletMetaMap.get(cursor.key()).getStorageMedium() == TStorageMedium.HDD) {
+                            hddNum++;
+                        } else {
+                            ssdNum++;
+                        }
                     }
                 }
+            } finally {
+                stripe.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
         replicaNumMap.put(TStorageMedium.HDD, hddNum);
         replicaNumMap.put(TStorageMedium.SSD, ssdNum);
@@ -631,20 +878,88 @@ public class TabletInvertedIndex {
 
     // just for test
     public void clear() {
-        writeLock();
+        for (Stripe stripe : stripes) {
+            stripe.writeLock();
+            try {
+                stripe.tabletMetaMap.clear();
+                stripe.replicaMetaTable.clear();
+                stripe.backingReplicaMetaTable.clear();
+            } finally {
+                stripe.writeUnlock();
+            }
+        }
+        for (ReplicaStripe replicaStripe : replicaStripes) {
+            replicaStripe.writeLock();
+            try {
+                replicaStripe.replicaToTabletMap.clear();
+            } finally {
+                replicaStripe.writeUnlock();
+            }
+        }
+        tabletMetaTableWriteLock();
         try {
-            tabletMetaMap.clear();
-            replicaToTabletMap.clear();
             tabletMetaTable.clear();
-            replicaMetaTable.clear();
-            backingReplicaMetaTable.clear();
         } finally {
-            writeUnlock();
+            tabletMetaTableWriteUnlock();
         }
     }
 
-    public Map<Long, Long> getReplicaToTabletMap() {
-        return replicaToTabletMap;
+    public long getTabletNum() {
+        long num = 0;
+        for (Stripe stripe : stripes) {
+            stripe.readLock();
+            try {
+                num += stripe.tabletMetaMap.size();
+            } finally {
+                stripe.readUnlock();
+            }
+        }
+        return num;
     }
-}
 
+    public long getReplicaNum() {
+        long num = 0;
+        for (ReplicaStripe replicaStripe : replicaStripes) {
+            replicaStripe.readLock();
+            try {
+                num += replicaStripe.replicaToTabletMap.size();
+            } finally {
+                replicaStripe.readUnlock();
+            }
+        }
+        return num;
+    }
+
+    /**
+     * Approximate heap bytes used by this inverted index, not including the TabletMeta and Replica objects,
+     * which are shared with the catalog.
+     */
+    public long getEstimatedHeapBytes() {
+        long bytes = 0;
+        for (Stripe stripe : stripes) {
+            stripe.readLock();
+            try {
+                bytes += stripe.tabletMetaMap.estimatedBytes() + stripe.replicaMetaTable.estimatedBytes();
+                // the array header of each tablet's replica array, and a compressed reference for each replica
+                LongObjectHashMap.Cursor<Replica[]> cursor = stripe.replicaMetaTable.cursor();
+                while (cursor.advance()) {
+                    bytes += ARRAY_HEADER_BYTES + (long) cursor.value().length * Integer.BYTES;
+                }
+                for (LongObjectHashMap<Replica> replicaMetaWithBackend : stripe.backingReplicaMetaTable.values()) {
+                    bytes += replicaMetaWithBackend.estimatedBytes();
+                }
+            } finally {
+                stripe.readUnlock();
+            }
+        }
+        for (ReplicaStripe replicaStripe : replicaStripes) {
+            replicaStripe.readLock();
+            try {
+                bytes += replicaStripe.replicaToTabletMap.estimatedBytes();
+            } finally {
+                replicaStripe.readUnlock();
+            }
+        }
+        return bytes;
+    }
+}
@@ -199,6 +199,14 @@ public class Config extends ConfigBase {
     @ConfField
     public static int transaction_clean_interval_second = 30;
 
+    /**
+     * The commit infos of the visible or aborted transaction will be dropped after transaction_compact_delay_second,
+     * only its label and status are kept until label_keep_max_second to check the duplicated label.
+     * The backend which has not published the transaction before it's compacted will repair the replica by clone.
+     */
+    @ConfField(mutable = true)
+    public static int transaction_compact_delay_second = 1800;
+
     // Configurations for meta data durability
     /**
      * StarRocks meta data will be saved here.
@@ -236,6 +244,54 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static int edit_log_roll_num = 50000;
 
+    /**
+     * Whether to write the journals of concurrent operations in one bdb transaction (group commit).
+     * It's not mutable, because the journals queued for group commit could be overtaken by the journals
+     * written directly after it is turned off, which breaks the journal order.
+     */
+    @ConfField
+    public static boolean edit_log_group_commit_enable = true;
+
+    /**
+     * The max number of journals written in one bdb transaction
+     */
+    @ConfField(mutable = true)
+    public static int edit_log_group_commit_max_batch_size = 256;
+
+    /**
+     * The max time in milliseconds to wait for more journals before writing a batch.
+     * 0 means only the journals already queued are written together.
+     */
+    @ConfField(mutable = true)
+    public static long edit_log_group_commit_max_delay_ms = 0;
+
+    /**
+     * The number of threads to replay the transaction and replica journals of different databases in parallel.
+     * 1 means replaying all the journals one by one.
+     */
+    @ConfField(mutable = true)
+    public static int journal_replay_parallelism = 4;
+
+    /**
+     * The number of threads to deserialize the databases in parallel when loading image.
+     * 1 means loading the databases one by one.
+     */
+    @ConfField(mutable = true)
+    public static int image_load_parallelism = 8;
+
+    /**
+     * The number of threads to serialize the databases in parallel when saving image.
+     * 1 means saving the databases one by one.
+     */
+    @ConfField(mutable = true)
+    public static int image_save_parallelism = 8;
+
+    /**
+     * Whether to read the database sections of image through memory mapped file when loading in parallel
+     */
+    @ConfField(mutable = true)
+    public static boolean image_load_use_mmap = false;
+
     /**
      * whether ignore unknown log id
      * when fe rolls back to low version, there may be log id that low version fe can not recognise
@@ -467,6 +523,15 @@ public class Config extends ConfigBase {
     @ConfField
     public static int max_mysql_service_task_threads_num = 4096;
 
+    /**
+     * Run the tasks of mysql connections in virtual threads rather than the thread pools limited by
+     * max_mysql_service_task_threads_num and max_connection_scheduler_threads_num, so a connection or a query
+     * blocked on network io doesn't hold a platform thread.
+     * It only takes effect when FE runs on JDK 21 or later, otherwise the thread pools are still used.
+     */
+    @ConfField
+    public static boolean mysql_service_use_virtual_threads = false;
+
     /**
      * node(FE or BE) will be considered belonging to the same StarRocks cluster if they have same cluster id.
      * Cluster id is usually a random integer generated when master FE start at first time.
@@ -500,7 +565,8 @@ public class Config extends ConfigBase {
     public static int tablet_create_timeout_second = 1;
 
     /**
-     * minimal intervals between two publish version action
+     * minimal intervals between two publish version action.
+     * Publish version also runs right after a transaction is committed or a publish task is finished.
      */
     @ConfField
     public static int publish_version_interval_ms = 10;
@@ -844,6 +910,13 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static int max_query_retry_time = 2;
 
+    /**
+     * The max number of result fetch requests in flight for a query, so that backend prepares the next
+     * result batches while the current batch is sent to client. 1 means fetching the batches one by one.
+     */
+    @ConfField(mutable = true)
+    public static int result_receiver_prefetch_num = 3;
+
     /**
      * In order not to wait too long for create table(index), set a max timeout.
      */
@@ -999,6 +1072,16 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static int report_queue_size = 100;
 
+    /**
+     * The backend with enable_incremental_tablet_report only reports the tablets changed since its last tablet
+     * report, and FE only diffs these tablets. FE requires a full tablet report if the backend hasn't sent one
+     * for full_tablet_report_interval_second, so that the changes of meta are checked against all the tablets.
+     * The full tablet report is also required after a publish version or clone task failed on the backend.
+     * Set it to 0 to always require the full tablet report.
+     */
+    @ConfField(mutable = true)
+    public static int full_tablet_report_interval_second = 600;
+
     /**
      * If set to true, metric collector will be run as a daemon timer to collect metrics at fix interval
      */
@@ -1105,6 +1188,14 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static boolean force_do_metadata_checkpoint = false;
 
+    /**
+     * If set to true, the checkpoint thread asks an alive follower to save the image of its serving catalog,
+     * and downloads the image from it, instead of loading the image and replaying the journals into another
+     * catalog on master. Master makes the checkpoint by itself only if no follower succeeds.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_checkpoint_on_follower = false;
+
     /**
      * control rollup job concurrent limit
      */
@@ -1219,6 +1310,46 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static long statistic_update_interval_sec = 24 * 60 * 60;
 
+    /**
+     * The interval of saving the column statistic cache to a snapshot file in meta dir.
+     * The snapshot is loaded when FE starts, so the queries after restart or failover
+     * don't wait for loading the statistics. Set to 0 to disable the snapshot.
+     */
+    @ConfField(mutable = true)
+    public static long statistic_cache_snapshot_interval_sec = 10 * 60;
+
+    /**
+     * The interval of rebuilding the missing and stale global dicts of low cardinality string columns
+     */
+    @ConfField(mutable = true)
+    public static long global_dict_refresh_interval_sec = 30;
+
+    /**
+     * Whether to load the global dicts of low cardinality string columns when FE starts,
+     * the columns are found by column statistics
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_global_dict_prewarm = true;
+
+    /**
+     * The max number of plans in plan cache
+     */
+    @ConfField
+    public static long plan_cache_max_size = 10000;
+
+    /**
+     * The plan in plan cache expires after this time, so that the plan is refreshed
+     * by the statistics loaded asynchronously
+     */
+    @ConfField
+    public static long plan_cache_expire_sec = 10 * 60;
+
+    /**
+     * The max number of server-side prepared statements in one connection
+     */
+    @ConfField(mutable = true)
+    public static int max_prepared_stmt_count_per_connection = 1024;
+
     /**
      * The row number of sample collect, default 20w rows
      */
@@ -1231,6 +1362,24 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static boolean enable_statistic_collect = true;
 
+    /**
+     * Whether to collect the histogram of numeric and date columns when collecting statistics
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_histogram_collect = true;
+
+    /**
+     * The max bucket number of histogram
+     */
+    @ConfField(mutable = true)
+    public static int histogram_buckets_size = 64;
+
+    /**
+     * The max number of most common values recorded in histogram
+     */
+    @ConfField(mutable = true)
+    public static int histogram_mcv_size = 100;
+
     /**
      * If set to true, Planner will try to select replica of tablet on same host as this Frontend.
      * This may reduce network transmission in following case:
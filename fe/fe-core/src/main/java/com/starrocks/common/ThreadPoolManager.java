@@ -32,6 +32,8 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.RejectedExecutionHandler;
@@ -54,6 +56,8 @@ import java.util.concurrent.TimeUnit;
  * Wrapper over ThreadPoolExecutor, user can use it to construct thread pool more flexibly.
  * 4. newDaemonScheduledThreadPool
  * Wrapper over ScheduledThreadPoolExecutor, but without delay task num limit and thread num limit now(NOTICE).
+ * 5. newVirtualThreadPerTaskExecutor
+ * Run each task in a new virtual thread, only available on JDK 21 or later.
  * <p>
  * All thread pool constructed by ThreadPoolManager will be added to the nameToThreadPoolMap,
  * so the thread pool name in fe must be unique.
@@ -62,6 +66,7 @@ import java.util.concurrent.TimeUnit;
  */
 
 public class ThreadPoolManager {
+    private static final Logger LOG = LogManager.getLogger(ThreadPoolManager.class);
 
     private static Map<String, ThreadPoolExecutor> nameToThreadPoolMap = Maps.newConcurrentMap();
 
@@ -146,6 +151,43 @@ public class ThreadPoolManager {
         return scheduledThreadPoolExecutor;
     }
 
+    /**
+     * Create the executor for the tasks of mysql connections, which block on network io most of the time.
+     * The tasks run in virtual threads if Config.mysql_service_use_virtual_threads is set and supported,
+     * otherwise in a cached thread pool.
+     */
+    public static ExecutorService newDaemonConnectionExecutor(int maxNumThread, String poolName,
+                                                              boolean needRegisterMetric) {
+        if (Config.mysql_service_use_virtual_threads) {
+            ExecutorService executor = newVirtualThreadPerTaskExecutor(poolName);
+            if (executor != null) {
+                LOG.info("tasks of {} run in virtual threads", poolName);
+                return executor;
+            }
+            LOG.warn("virtual threads are not supported by the jvm, {} falls back to thread pool", poolName);
+        }
+        return newDaemonCacheThreadPool(maxNumThread, poolName, needRegisterMetric);
+    }
+
+    /**
+     * Create an executor which starts a new virtual thread named poolName-ID for each task.
+     * FE is compiled for JDK 8, so the JDK 21 api is called by reflection.
+     * Return null if the running jvm doesn't support virtual threads.
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor(String poolName) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, poolName + "-", 0L);
+            ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            // not found before JDK 19, or preview feature not enabled on JDK 19 and 20
+            return null;
+        }
+    }
+
     /**
      * Create a thread factory that names threads with a prefix and also sets the threads to daemon.
      */
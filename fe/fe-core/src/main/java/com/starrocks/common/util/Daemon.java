@@ -38,6 +38,10 @@ public class Daemon extends Thread {
 
     private MetaContext metaContext = null;
 
+    // wakeUp() makes the daemon run the next cycle without waiting for the interval
+    private final Object wakeUpLock = new Object();
+    private boolean isWakeUp = false;
+
     {
         setDaemon(true);
     }
@@ -101,6 +105,16 @@ public class Daemon extends Thread {
         this.intervalMs = intervalMs;
     }
 
+    /**
+     * Run the next cycle immediately, or right after the running one.
+     */
+    public void wakeUp() {
+        synchronized (wakeUpLock) {
+            isWakeUp = true;
+            wakeUpLock.notifyAll();
+        }
+    }
+
     /**
      * implement in child
      */
@@ -122,7 +136,13 @@ public class Daemon extends Thread {
             }
 
             try {
-                Thread.sleep(intervalMs);
+                synchronized (wakeUpLock) {
+                    // wait(0) waits forever, sleep nothing just like Thread.sleep(0)
+                    if (!isWakeUp && intervalMs > 0) {
+                        wakeUpLock.wait(intervalMs);
+                    }
+                    isWakeUp = false;
+                }
             } catch (InterruptedException e) {
                 LOG.error("InterruptedException: ", e);
             }
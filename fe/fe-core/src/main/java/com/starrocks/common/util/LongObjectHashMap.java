@@ -0,0 +1,267 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.common.util;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An open addressing hash map from primitive long keys to object values.
+ *
+ * Compared with HashMap<Long, V>, this map does not box keys and does not allocate an entry object per mapping,
+ * so it is used for the large id-keyed indexes in FE, such as tablet id -> tablet meta.
+ *
+ * Linear probing is used, and removal shifts the following entries back instead of leaving tombstones,
+ * so the map never degrades after lots of put/remove.
+ * Null values are not allowed. This class is not thread safe.
+ */
+public class LongObjectHashMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    // key 0 is used as the empty slot flag, so the value of key 0 is stored separately
+    private long[] keys;
+    private Object[] values;
+    private Object zeroValue;
+    private int mask;
+    private int size;
+    private int maxFill;
+
+    public LongObjectHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongObjectHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == 0) {
+            return zeroValue != null;
+        }
+        return values[find(key)] != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == 0) {
+            return (V) zeroValue;
+        }
+        return (V) values[find(key)];
+    }
+
+    public V getOrDefault(long key, V defaultValue) {
+        V value = get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * @return the previous value of the key, or null if there is no mapping for the key
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        Preconditions.checkNotNull(value);
+        if (key == 0) {
+            Object old = zeroValue;
+            zeroValue = value;
+            if (old == null) {
+                size++;
+            }
+            return (V) old;
+        }
+
+        int pos = find(key);
+        Object old = values[pos];
+        values[pos] = value;
+        if (old == null) {
+            keys[pos] = key;
+            if (++size >= maxFill) {
+                rehash(keys.length << 1);
+            }
+        }
+        return (V) old;
+    }
+
+    /**
+     * @return the removed value, or null if there is no mapping for the key
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == 0) {
+            Object old = zeroValue;
+            if (old != null) {
+                zeroValue = null;
+                size--;
+            }
+            return (V) old;
+        }
+
+        int pos = find(key);
+        Object old = values[pos];
+        if (old != null) {
+            size--;
+            shiftKeys(pos);
+        }
+        return (V) old;
+    }
+
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        Arrays.fill(keys, 0L);
+        Arrays.fill(values, null);
+        zeroValue = null;
+        size = 0;
+    }
+
+    public long[] keys() {
+        long[] result = new long[size];
+        int i = 0;
+        Cursor<V> cursor = cursor();
+        while (cursor.advance()) {
+            result[i++] = cursor.key();
+        }
+        return result;
+    }
+
+    public List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        Cursor<V> cursor = cursor();
+        while (cursor.advance()) {
+            result.add(cursor.value());
+        }
+        return result;
+    }
+
+    /**
+     * Returns a cursor to traverse the map without allocating an entry object for each mapping.
+     * The map must not be modified while traversing.
+     */
+    public Cursor<V> cursor() {
+        return new Cursor<>(this);
+    }
+
+    /**
+     * Approximate heap bytes of the hash table itself, not including the values.
+     */
+    public long estimatedBytes() {
+        // long key + compressed object reference for each slot, and the object headers of the arrays
+        return (long) keys.length * (Long.BYTES + Integer.BYTES) + 64;
+    }
+
+    private int find(long key) {
+        int pos = mix(key) & mask;
+        long current;
+        while ((current = keys[pos]) != 0) {
+            if (current == key) {
+                return pos;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return pos;
+    }
+
+    // Shifts entries after the removed slot back, so that all the keys are still reachable from their home slot.
+    private void shiftKeys(int pos) {
+        int last;
+        int slot;
+        long current;
+        while (true) {
+            last = pos;
+            pos = (pos + 1) & mask;
+            while (true) {
+                if ((current = keys[pos]) == 0) {
+                    keys[last] = 0;
+                    values[last] = null;
+                    return;
+                }
+                slot = mix(current) & mask;
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = current;
+            values[last] = values[pos];
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int pos = find(oldKeys[i]);
+                keys[pos] = oldKeys[i];
+                values[pos] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        maxFill = Math.min(capacity - 1, (int) Math.ceil(capacity * LOAD_FACTOR));
+    }
+
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        return (int) (h ^ (h >>> 16));
+    }
+
+    static int tableSizeFor(int expectedSize) {
+        long capacity = Math.max(2, (long) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR));
+        capacity = Long.highestOneBit(capacity - 1) << 1;
+        Preconditions.checkArgument(capacity <= (1 << 30), "expected size is too large: " + expectedSize);
+        return (int) capacity;
+    }
+
+    public static class Cursor<V> {
+        private final LongObjectHashMap<V> map;
+        // -1 is the zero key
+        private int pos = -2;
+
+        private Cursor(LongObjectHashMap<V> map) {
+            this.map = map;
+        }
+
+        public boolean advance() {
+            if (pos == -2) {
+                pos = -1;
+                if (map.zeroValue != null) {
+                    return true;
+                }
+            }
+            while (++pos < map.keys.length) {
+                if (map.values[pos] != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public long key() {
+            return pos == -1 ? 0 : map.keys[pos];
+        }
+
+        @SuppressWarnings("unchecked")
+        public V value() {
+            return (V) (pos == -1 ? map.zeroValue : map.values[pos]);
+        }
+    }
+}
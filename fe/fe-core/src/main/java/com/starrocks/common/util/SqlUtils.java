@@ -39,4 +39,9 @@ public class SqlUtils {
         sb.append('`');
         return sb.toString();
     }
+
+    // Quote the string as a single quoted literal, the backslash and the single quote in it are escaped
+    public static String getStringLiteralSql(String str) {
+        return "'" + str.replace("\\", "\\\\").replace("'", "''") + "'";
+    }
 }
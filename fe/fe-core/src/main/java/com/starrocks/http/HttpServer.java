@@ -36,6 +36,7 @@ import com.starrocks.http.action.VariableAction;
 import com.starrocks.http.common.StarRocksHttpPostObjectAggregator;
 import com.starrocks.http.meta.ColocateMetaService;
 import com.starrocks.http.meta.MetaService.CheckAction;
+import com.starrocks.http.meta.MetaService.CheckpointAction;
 import com.starrocks.http.meta.MetaService.DumpAction;
 import com.starrocks.http.meta.MetaService.ImageAction;
 import com.starrocks.http.meta.MetaService.InfoAction;
@@ -166,6 +167,7 @@ public class HttpServer {
         CheckAction.registerAction(controller, imageDir);
         DumpAction.registerAction(controller, imageDir);
         RoleAction.registerAction(controller, imageDir);
+        CheckpointAction.registerAction(controller, imageDir);
 
         // external usage
         TableRowCountAction.registerAction(controller);
@@ -245,6 +245,73 @@ public class MetaService {
         }
     }
 
+    // Save the image of serving catalog on non-master FE, called by the checkpoint thread of master
+    public static class CheckpointAction extends MetaBaseAction {
+        private static final Logger LOG = LogManager.getLogger(CheckpointAction.class);
+
+        private static final String VERSION = "version";
+
+        public CheckpointAction(ActionController controller, File imageDir) {
+            super(controller, imageDir);
+        }
+
+        public static void registerAction(ActionController controller, File imageDir)
+                throws IllegalArgException {
+            controller.registerHandler(HttpMethod.GET, "/checkpoint", new CheckpointAction(controller, imageDir));
+        }
+
+        @Override
+        public void executeGet(BaseRequest request, BaseResponse response) {
+            String versionStr = request.getSingleParameter(VERSION);
+            if (Strings.isNullOrEmpty(versionStr)) {
+                response.appendContent("Miss version parameter");
+                writeResponse(request, response, HttpResponseStatus.BAD_REQUEST);
+                return;
+            }
+            long version = checkLongParam(versionStr);
+            if (version < 0) {
+                writeResponse(request, response, HttpResponseStatus.BAD_REQUEST);
+                return;
+            }
+
+            Catalog catalog = Catalog.getCurrentCatalog();
+            if (catalog.isMaster()) {
+                response.appendContent("this node is master, reject checkpoint");
+                writeResponse(request, response, HttpResponseStatus.BAD_REQUEST);
+                return;
+            }
+            // the image must contain all the journals of the requested version
+            if (catalog.getReplayedJournalId() < version) {
+                response.appendContent("replayed journal id is less than " + version);
+                writeResponse(request, response, HttpResponseStatus.SERVICE_UNAVAILABLE);
+                return;
+            }
+
+            long imageVersion;
+            try {
+                long startTime = System.currentTimeMillis();
+                imageVersion = catalog.saveServingImage();
+                LOG.info("finished to save image.{} of serving catalog in {} ms", imageVersion,
+                        System.currentTimeMillis() - startTime);
+            } catch (IOException e) {
+                LOG.warn("failed to save image of serving catalog", e);
+                writeResponse(request, response, HttpResponseStatus.INTERNAL_SERVER_ERROR);
+                return;
+            }
+
+            // Delete old image files
+            MetaCleaner cleaner = new MetaCleaner(Config.meta_dir + "/image");
+            try {
+                cleaner.clean();
+            } catch (IOException e) {
+                LOG.error("Follower delete old image file fail.", e);
+            }
+
+            response.updateHeader("id", Long.toString(imageVersion));
+            writeResponse(request, response);
+        }
+    }
+
     public static class RoleAction extends MetaBaseAction {
         private static final String HOST = "host";
         private static final String PORT = "port";
@@ -52,6 +52,9 @@ public interface Journal {
     // Write a journal and sync to disk
     public void write(short op, Writable writable);
 
+    // Write the journals in one transaction and sync to disk
+    public void batchWrite(List<JournalEntity> entities);
+
     // Delete journals whose max id is less than deleteToJournalId
     public void deleteJournals(long deleteJournalToId);
 
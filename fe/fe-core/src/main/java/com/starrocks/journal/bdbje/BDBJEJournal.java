@@ -21,11 +21,13 @@
 
 package com.starrocks.journal.bdbje;
 
+import com.google.common.collect.Lists;
 import com.sleepycat.bind.tuple.TupleBinding;
 import com.sleepycat.je.Database;
 import com.sleepycat.je.DatabaseEntry;
 import com.sleepycat.je.DatabaseException;
 import com.sleepycat.je.OperationStatus;
+import com.sleepycat.je.Transaction;
 import com.sleepycat.je.rep.InsufficientLogException;
 import com.sleepycat.je.rep.NetworkRestore;
 import com.sleepycat.je.rep.NetworkRestoreConfig;
@@ -128,65 +130,103 @@ public class BDBJEJournal implements Journal {
         JournalEntity entity = new JournalEntity();
         entity.setOpCode(op);
         entity.setData(writable);
+        batchWrite(Lists.newArrayList(entity));
+    }
 
+    /*
+     * Write the journals in one bdb transaction, so that they share one replicated commit.
+     * The journal ids are continuous and in the order of the list.
+     */
+    @Override
+    public synchronized void batchWrite(List<JournalEntity> entities) {
         // id is the key
-        long id = nextJournalId.getAndIncrement();
-        Long idLong = id;
-        DatabaseEntry theKey = new DatabaseEntry();
+        long firstId = nextJournalId.get();
         TupleBinding<Long> idBinding = TupleBinding.getPrimitiveBinding(Long.class);
-        idBinding.objectToEntry(idLong, theKey);
-
-        // entity is the value
-        DataOutputBuffer buffer = new DataOutputBuffer(OUTPUT_BUFFER_INIT_SIZE);
-        try {
-            entity.write(buffer);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        DatabaseEntry theData = new DatabaseEntry(buffer.getData());
-        if (MetricRepo.isInit) {
-            MetricRepo.COUNTER_EDIT_LOG_SIZE_BYTES.increase((long) theData.getSize());
+        List<DatabaseEntry> keys = Lists.newArrayListWithCapacity(entities.size());
+        List<DatabaseEntry> datas = Lists.newArrayListWithCapacity(entities.size());
+        boolean allTimestamp = true;
+        for (int i = 0; i < entities.size(); i++) {
+            JournalEntity entity = entities.get(i);
+            DatabaseEntry theKey = new DatabaseEntry();
+            idBinding.objectToEntry(firstId + i, theKey);
+            keys.add(theKey);
+
+            // entity is the value
+            DataOutputBuffer buffer = new DataOutputBuffer(OUTPUT_BUFFER_INIT_SIZE);
+            try {
+                entity.write(buffer);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            DatabaseEntry theData = new DatabaseEntry(buffer.getData());
+            datas.add(theData);
+            if (MetricRepo.isInit) {
+                MetricRepo.COUNTER_EDIT_LOG_SIZE_BYTES.increase((long) theData.getSize());
+            }
+            LOG.debug("opCode = {}, journal size = {}", entity.getOpCode(), theData.getSize());
+            allTimestamp &= entity.getOpCode() == OperationType.OP_TIMESTAMP;
         }
-        LOG.debug("opCode = {}, journal size = {}", op, theData.getSize());
-        // Write the key value pair to bdb.
+
+        // Write the key value pairs to bdb.
         boolean writeSuccessed = false;
-        for (int i = 0; i < RETRY_TIME; i++) {
+        for (int i = 0; i < RETRY_TIME && !writeSuccessed; i++) {
+            Transaction txn = null;
             try {
-                // Parameter null means auto commit
-                if (currentJournalDB.put(null, theKey, theData) == OperationStatus.SUCCESS) {
+                txn = bdbEnvironment.getReplicatedEnvironment().beginTransaction(null, null);
+                boolean putSuccessed = true;
+                for (int j = 0; j < keys.size() && putSuccessed; j++) {
+                    putSuccessed = currentJournalDB.put(txn, keys.get(j), datas.get(j)) == OperationStatus.SUCCESS;
+                }
+                if (putSuccessed) {
+                    txn.commit();
+                    txn = null;
                     writeSuccessed = true;
-                    LOG.debug("master write journal {} finished. db name {}, current time {}",
-                            id, currentJournalDB.getDb().getDatabaseName(), System.currentTimeMillis());
-                    break;
+                    LOG.debug("master write journal {} to {} finished. db name {}, current time {}",
+                            firstId, firstId + keys.size() - 1, currentJournalDB.getDb().getDatabaseName(),
+                            System.currentTimeMillis());
                 }
             } catch (DatabaseException e) {
-                LOG.error("catch an exception when writing to database. sleep and retry. journal id {}", id, e);
+                LOG.error("catch an exception when writing to database. sleep and retry. journal id {}", firstId, e);
+                abort(txn);
+                txn = null;
                 try {
                     Thread.sleep(5 * 1000);
                 } catch (InterruptedException e1) {
                     e1.printStackTrace();
                 }
-                continue;
+            } finally {
+                abort(txn);
             }
         }
 
         if (!writeSuccessed) {
-            if (op == OperationType.OP_TIMESTAMP) {
+            if (allTimestamp) {
                 /*
                  * Do not exit if the write operation is OP_TIMESTAMP.
                  * If all the followers exit except master, master should continue provide query service.
                  * To prevent master exit, we should exempt OP_TIMESTAMP write
                  */
-                nextJournalId.set(id);
                 LOG.warn("master can not achieve quorum. write timestamp fail. but will not exit.");
                 return;
             }
-            String msg = "write bdb failed. will exit. journalId: " + id + ", bdb database Name: " +
+            String msg = "write bdb failed. will exit. journalId: " + firstId + ", bdb database Name: " +
                     currentJournalDB.getDb().getDatabaseName();
             LOG.error(msg);
             Util.stdoutWithTime(msg);
             System.exit(-1);
         }
+        nextJournalId.addAndGet(entities.size());
+    }
+
+    private void abort(Transaction txn) {
+        if (txn == null) {
+            return;
+        }
+        try {
+            txn.abort();
+        } catch (DatabaseException e) {
+            LOG.warn("failed to abort bdb transaction", e);
+        }
     }
 
     @Deprecated
@@ -25,6 +25,7 @@ import com.starrocks.catalog.Catalog;
 import com.starrocks.common.Config;
 import com.starrocks.common.FeConstants;
 import com.starrocks.common.util.MasterDaemon;
+import com.starrocks.ha.FrontendNodeType;
 import com.starrocks.metric.MetricRepo;
 import com.starrocks.monitor.jvm.JvmService;
 import com.starrocks.monitor.jvm.JvmStats;
@@ -36,6 +37,7 @@ import com.starrocks.system.Frontend;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
@@ -90,39 +92,18 @@ public class Checkpoint extends MasterDaemon {
             return;
         }
 
-        if (!checkMemoryEnoughToDoCheckpoint()) {
-            return;
-        }
-
         long replayedJournalId = -1;
-        // generate new image file
-        LOG.info("begin to generate new image: image.{}", checkPointVersion);
-        catalog = Catalog.getCurrentCatalog();
-        catalog.setEditLog(editLog);
-        try {
-            catalog.loadImage(imageDir);
-            catalog.replayJournal(checkPointVersion);
-            if (catalog.getReplayedJournalId() != checkPointVersion) {
-                LOG.error("checkpoint version should be {}, actual replayed journal id is {}",
-                        checkPointVersion, catalog.getReplayedJournalId());
+        if (Config.enable_checkpoint_on_follower) {
+            replayedJournalId = checkpointOnFollower(checkPointVersion);
+        }
+        if (replayedJournalId < 0) {
+            if (!checkMemoryEnoughToDoCheckpoint()) {
                 return;
             }
-
-            catalog.saveImage();
-            replayedJournalId = catalog.getReplayedJournalId();
-            if (MetricRepo.isInit) {
-                MetricRepo.COUNTER_IMAGE_WRITE.increase(1L);
+            replayedJournalId = checkpointOnMaster(checkPointVersion);
+            if (replayedJournalId < 0) {
+                return;
             }
-            Catalog.getServingCatalog().setImageJournalId(checkPointVersion);
-            LOG.info("checkpoint finished save image.{}", replayedJournalId);
-        } catch (Exception e) {
-            e.printStackTrace();
-            LOG.error("Exception when generate new image file", e);
-            return;
-        } finally {
-            // destroy checkpoint catalog, reclaim memory
-            catalog = null;
-            Catalog.destroyCheckpoint();
         }
 
         // push image file to all the other non master nodes
@@ -217,6 +198,100 @@ public class Checkpoint extends MasterDaemon {
 
     }
 
+    /*
+     * Load the image and replay the journals into the checkpoint catalog, then save it as the new image.
+     * Return the journal id of the new image, or -1 if failed.
+     */
+    private long checkpointOnMaster(long checkPointVersion) {
+        // generate new image file
+        LOG.info("begin to generate new image: image.{}", checkPointVersion);
+        catalog = Catalog.getCurrentCatalog();
+        catalog.setEditLog(editLog);
+        try {
+            catalog.loadImage(imageDir);
+            catalog.replayJournal(checkPointVersion);
+            if (catalog.getReplayedJournalId() != checkPointVersion) {
+                LOG.error("checkpoint version should be {}, actual replayed journal id is {}",
+                        checkPointVersion, catalog.getReplayedJournalId());
+                return -1;
+            }
+
+            catalog.saveImage();
+            long replayedJournalId = catalog.getReplayedJournalId();
+            if (MetricRepo.isInit) {
+                MetricRepo.COUNTER_IMAGE_WRITE.increase(1L);
+            }
+            Catalog.getServingCatalog().setImageJournalId(checkPointVersion);
+            LOG.info("checkpoint finished save image.{}", replayedJournalId);
+            return replayedJournalId;
+        } catch (Exception e) {
+            e.printStackTrace();
+            LOG.error("Exception when generate new image file", e);
+            return -1;
+        } finally {
+            // destroy checkpoint catalog, reclaim memory
+            catalog = null;
+            Catalog.destroyCheckpoint();
+        }
+    }
+
+    /*
+     * Ask an alive follower to save the image of its serving catalog, which has replayed the journals
+     * up to checkPointVersion at least, then download the image from it. No checkpoint catalog is loaded
+     * on master, so it's not limited by the memory used percent.
+     * Return the journal id of the new image, or -1 if no follower succeeds.
+     */
+    private long checkpointOnFollower(long checkPointVersion) {
+        File dir = new File(imageDir);
+        for (Frontend fe : Catalog.getServingCatalog().getFrontends(FrontendNodeType.FOLLOWER)) {
+            String host = fe.getHost();
+            if (!fe.isAlive() || host.equals(Catalog.getServingCatalog().getMasterIp())
+                    || fe.getReplayedJournalId() < checkPointVersion) {
+                continue;
+            }
+            int port = Config.http_port;
+            String checkpointUrl = "http://" + host + ":" + port + "/checkpoint?version=" + checkPointVersion;
+            LOG.info("begin to generate new image on follower: {}", checkpointUrl);
+            HttpURLConnection conn = null;
+            try {
+                conn = (HttpURLConnection) new URL(checkpointUrl).openConnection();
+                conn.setConnectTimeout(CONNECT_TIMEOUT_SECOND * 1000);
+                conn.setReadTimeout(PUT_TIMEOUT_SECOND * 1000);
+                if (conn.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                    LOG.warn("failed to generate new image on follower {}, response code: {}", host,
+                            conn.getResponseCode());
+                    continue;
+                }
+                long version = Long.parseLong(conn.getHeaderField("id"));
+                if (version < checkPointVersion) {
+                    LOG.warn("version of the image on follower {} is {}, less than {}", host, version,
+                            checkPointVersion);
+                    continue;
+                }
+
+                String imageUrl = "http://" + host + ":" + port + "/image?version=" + version;
+                String filename = Storage.IMAGE + "." + version;
+                OutputStream out = MetaHelper.getOutputStream(filename, dir);
+                MetaHelper.getRemoteFile(imageUrl, PUT_TIMEOUT_SECOND * 1000, out);
+                MetaHelper.complete(filename, dir);
+
+                if (MetricRepo.isInit) {
+                    MetricRepo.COUNTER_IMAGE_WRITE.increase(1L);
+                }
+                Catalog.getServingCatalog().setImageJournalId(version);
+                LOG.info("checkpoint finished download image.{} from follower {}", version, host);
+                return version;
+            } catch (IOException | NumberFormatException e) {
+                LOG.warn("Exception when generate new image on follower {}", host, e);
+            } finally {
+                if (conn != null) {
+                    conn.disconnect();
+                }
+            }
+        }
+        return -1;
+    }
+
     /*
      * Check whether can we do the checkpoint due to the memory used percent.
      */
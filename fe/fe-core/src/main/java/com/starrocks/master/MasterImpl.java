@@ -682,6 +682,12 @@ public class MasterImpl {
         publishVersionTask.addErrorTablets(errorTabletIds);
         publishVersionTask.setIsFinished(true);
 
+        if (request.getTask_status().getStatus_code() != TStatusCode.OK
+                || (errorTabletIds != null && !errorTabletIds.isEmpty())) {
+            // the versions of the tablets on backend may be different from the incremental tablet report
+            reportHandler.requireFullTabletReport(task.getBackendId());
+        }
+
         if (request.getTask_status().getStatus_code() != TStatusCode.OK) {
             // not remove the task from queue and be will retry
             return;
@@ -689,6 +695,8 @@ public class MasterImpl {
         AgentTaskQueue.removeTask(publishVersionTask.getBackendId(),
                 publishVersionTask.getTaskType(),
                 publishVersionTask.getSignature());
+        // finish the transaction right now if the quorum replicas are published
+        Catalog.getCurrentCatalog().getPublishVersionDaemon().wakeUp();
     }
 
     private ReplicaPersistInfo updateReplicaInfo(OlapTable olapTable, Partition partition,
@@ -811,6 +819,11 @@ public class MasterImpl {
             LOG.warn("invalid clone task, ignore it. {}", task);
         }
 
+        if (request.getTask_status().getStatus_code() != TStatusCode.OK) {
+            // the clone may leave some files of the tablet on backend
+            reportHandler.requireFullTabletReport(task.getBackendId());
+        }
+
         AgentTaskQueue.removeTask(task.getBackendId(), TTaskType.CLONE, task.getSignature());
     }
 
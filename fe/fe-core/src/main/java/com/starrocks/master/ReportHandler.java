@@ -95,12 +95,30 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentMap;
 
 public class ReportHandler extends Daemon {
     private static final Logger LOG = LogManager.getLogger(ReportHandler.class);
 
     private BlockingQueue<ReportTask> reportQueue = Queues.newLinkedBlockingQueue();
 
+    // backend id -> the last processed tablet report of the backend,
+    // the incremental tablet report is only accepted if it's based on the last processed one
+    private final ConcurrentMap<Long, TabletReportState> tabletReportStates = Maps.newConcurrentMap();
+
+    static class TabletReportState {
+        // the state of the backend which must send the full tablet report, no incremental report is based on it
+        static final TabletReportState FULL_REPORT_REQUIRED = new TabletReportState(-1, 0);
+
+        final long reportVersion;
+        final long lastFullReportTime;
+
+        TabletReportState(long reportVersion, long lastFullReportTime) {
+            this.reportVersion = reportVersion;
+            this.lastFullReportTime = lastFullReportTime;
+        }
+    }
+
     public ReportHandler() {
         GaugeMetric<Long> gaugeQueueSize = new GaugeMetric<Long>(
                 "report_queue_size", MetricUnit.NOUNIT, "report queue size") {
@@ -158,11 +176,28 @@ public class ReportHandler extends Daemon {
             reportType += "tablet";
         }
 
+        List<Long> removedTabletIds = null;
+        long baseTabletReportVersion = -1;
+        if (tablets != null && request.isSetBase_tablet_report_version()) {
+            baseTabletReportVersion = request.getBase_tablet_report_version();
+            if (!canAcceptIncrementalTabletReport(beId, baseTabletReportVersion)) {
+                // the backend will send the full tablet report
+                tStatus.setStatus_code(TStatusCode.INTERNAL_ERROR);
+                tStatus.setError_msgs(Lists.newArrayList("full tablet report is required. base report version: "
+                        + baseTabletReportVersion));
+                return result;
+            }
+            removedTabletIds = request.isSetRemoved_tablet_ids() ? request.getRemoved_tablet_ids()
+                    : Lists.newArrayList();
+            reportType += "(incremental)";
+        }
+
         if (request.isSetTablet_max_compaction_score()) {
             backend.setTabletMaxCompactionScore(request.getTablet_max_compaction_score());
         }
 
-        ReportTask reportTask = new ReportTask(beId, tasks, disks, tablets, reportVersion);
+        ReportTask reportTask = new ReportTask(beId, tasks, disks, tablets, reportVersion, removedTabletIds,
+                baseTabletReportVersion);
         try {
             putToQueue(reportTask);
         } catch (Exception e) {
@@ -179,6 +214,29 @@ public class ReportHandler extends Daemon {
         return result;
     }
 
+    /**
+     * Reject the following incremental tablet reports of the backend until it sends a full one.
+     * It's called when a publish version or clone task failed on the backend, whose tablets may be
+     * different from the meta but not changed since its last tablet report.
+     */
+    public void requireFullTabletReport(long backendId) {
+        tabletReportStates.put(backendId, TabletReportState.FULL_REPORT_REQUIRED);
+    }
+
+    // The reports of the dropped backends are rejected, so their states are removed here, including the state
+    // updated by the report which was received before the backend is dropped.
+    private void removeDroppedBackendStates() {
+        SystemInfoService systemInfoService = Catalog.getCurrentSystemInfo();
+        tabletReportStates.keySet().removeIf(backendId -> systemInfoService.getBackend(backendId) == null);
+    }
+
+    boolean canAcceptIncrementalTabletReport(long backendId, long baseTabletReportVersion) {
+        TabletReportState state = tabletReportStates.get(backendId);
+        return state != null && state.reportVersion == baseTabletReportVersion
+                && System.currentTimeMillis() - state.lastFullReportTime
+                < Config.full_tablet_report_interval_second * 1000L;
+    }
+
     private void putToQueue(ReportTask reportTask) throws Exception {
         int currentSize = reportQueue.size();
         if (currentSize > Config.report_queue_size) {
@@ -202,22 +260,28 @@ public class ReportHandler extends Daemon {
         return tabletMap;
     }
 
-    private class ReportTask extends MasterTask {
+    class ReportTask extends MasterTask {
 
         private long beId;
         private Map<TTaskType, Set<Long>> tasks;
         private Map<String, TDisk> disks;
         private Map<Long, TTablet> tablets;
         private long reportVersion;
+        // not null if the tablet report is incremental
+        private List<Long> removedTabletIds;
+        private long baseTabletReportVersion;
 
         public ReportTask(long beId, Map<TTaskType, Set<Long>> tasks,
                           Map<String, TDisk> disks,
-                          Map<Long, TTablet> tablets, long reportVersion) {
+                          Map<Long, TTablet> tablets, long reportVersion,
+                          List<Long> removedTabletIds, long baseTabletReportVersion) {
             this.beId = beId;
             this.tasks = tasks;
             this.disks = disks;
             this.tablets = tablets;
             this.reportVersion = reportVersion;
+            this.removedTabletIds = removedTabletIds;
+            this.baseTabletReportVersion = baseTabletReportVersion;
         }
 
         @Override
@@ -229,21 +293,53 @@ public class ReportHandler extends Daemon {
                 ReportHandler.diskReport(beId, disks);
             }
             if (tablets != null) {
-                long backendReportVersion = Catalog.getCurrentSystemInfo().getBackendReportVersion(beId);
-                if (reportVersion < backendReportVersion) {
-                    LOG.warn("out of date report version {} from backend[{}]. current report version[{}]",
-                            reportVersion, beId, backendReportVersion);
-                } else {
-                    ReportHandler.tabletReport(beId, tablets, reportVersion);
+                TabletReportState state = tabletReportStates.get(beId);
+                if (canProcessTabletReport(state)) {
+                    ReportHandler.tabletReport(beId, tablets, removedTabletIds, reportVersion);
+                    updateTabletReportState(state);
                 }
+                removeDroppedBackendStates();
+            }
+        }
+
+        // The tablet report is skipped if it's out of date, or it's incremental but not based on the last
+        // processed report. The following incremental reports based on it can't be accepted either.
+        boolean canProcessTabletReport(TabletReportState state) {
+            long backendReportVersion = Catalog.getCurrentSystemInfo().getBackendReportVersion(beId);
+            if (reportVersion < backendReportVersion) {
+                LOG.warn("out of date report version {} from backend[{}]. current report version[{}]",
+                        reportVersion, beId, backendReportVersion);
+                tabletReportStates.remove(beId);
+                return false;
+            }
+            if (removedTabletIds != null && (state == null || state.reportVersion != baseTabletReportVersion)) {
+                LOG.warn("base report version {} of incremental tablet report from backend[{}] is not processed",
+                        baseTabletReportVersion, beId);
+                tabletReportStates.remove(beId);
+                return false;
+            }
+            return true;
+        }
+
+        void updateTabletReportState(TabletReportState state) {
+            long lastFullReportTime = removedTabletIds == null ? System.currentTimeMillis()
+                    : state.lastFullReportTime;
+            TabletReportState newState = new TabletReportState(reportVersion, lastFullReportTime);
+            // keep the state changed while processing the report, e.g. by requireFullTabletReport()
+            if (state == null) {
+                tabletReportStates.putIfAbsent(beId, newState);
+            } else {
+                tabletReportStates.replace(beId, state, newState);
             }
         }
     }
 
-    private static void tabletReport(long backendId, Map<Long, TTablet> backendTablets, long backendReportVersion) {
+    private static void tabletReport(long backendId, Map<Long, TTablet> backendTablets, List<Long> removedTabletIds,
+                                     long backendReportVersion) {
         long start = System.currentTimeMillis();
-        LOG.info("backend[{}] reports {} tablet(s). report version: {}",
-                backendId, backendTablets.size(), backendReportVersion);
+        LOG.info("backend[{}] reports {} tablet(s). removed: {}. report version: {}",
+                backendId, backendTablets.size(), removedTabletIds == null ? "-" : removedTabletIds.size(),
+                backendReportVersion);
 
         // storage medium map
         HashMap<Long, TStorageMedium> storageMediumMap = Catalog.getCurrentCatalog().getPartitionIdToStorageMediumMap();
@@ -269,7 +365,7 @@ public class ReportHandler extends Daemon {
         Set<Pair<Long, Integer>> tabletWithoutPartitionId = Sets.newHashSet();
 
         // 1. do the diff. find out (intersection) / (be - meta) / (meta - be)
-        Catalog.getCurrentInvertedIndex().tabletReport(backendId, backendTablets, storageMediumMap,
+        Catalog.getCurrentInvertedIndex().tabletReport(backendId, backendTablets, removedTabletIds, storageMediumMap,
                 tabletSyncMap,
                 tabletDeleteFromMeta,
                 foundTabletsWithValidSchema,
@@ -23,6 +23,8 @@ package com.starrocks.metric;
 
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.starrocks.alter.Alter;
 import com.starrocks.alter.AlterJob.JobType;
@@ -41,9 +43,17 @@ import com.starrocks.metric.Metric.MetricType;
 import com.starrocks.metric.Metric.MetricUnit;
 import com.starrocks.monitor.jvm.JvmService;
 import com.starrocks.monitor.jvm.JvmStats;
+import com.starrocks.qe.QueryResultCache;
 import com.starrocks.service.ExecuteEnv;
+import com.starrocks.sql.optimizer.statistics.CacheDictManager;
+import com.starrocks.sql.optimizer.statistics.CachedStatisticStorage;
+import com.starrocks.sql.optimizer.statistics.IDictManager;
+import com.starrocks.sql.optimizer.statistics.StatisticStorage;
+import com.starrocks.sql.plan.PlanCache;
 import com.starrocks.system.Backend;
 import com.starrocks.system.SystemInfoService;
+import com.starrocks.task.AgentTaskQueue;
+import com.starrocks.thrift.TTaskType;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -86,9 +96,21 @@ public final class MetricRepo {
     public static LongCounterMetric COUNTER_ROUTINE_LOAD_RECEIVED_BYTES;
     public static LongCounterMetric COUNTER_ROUTINE_LOAD_ERROR_ROWS;
     public static LongCounterMetric COUNTER_ROUTINE_LOAD_PAUSED;
+    public static LongCounterMetric COUNTER_TABLET_INVERTED_INDEX_LOCK_WAIT;
+    public static LongCounterMetric COUNTER_TABLET_INVERTED_INDEX_LOCK_WAIT_US;
 
     public static Histogram HISTO_QUERY_LATENCY;
     public static Histogram HISTO_EDIT_LOG_WRITE_LATENCY;
+    public static Histogram HISTO_EDIT_LOG_WRITE_BATCH_SIZE;
+    public static Histogram HISTO_EDIT_LOG_WRITE_BATCH_LATENCY;
+    public static Histogram HISTO_RESULT_FETCH_WAIT;
+    public static Histogram HISTO_TXN_PUBLISH_LATENCY;
+
+    // the cost of each image section in the last image load and save, keyed by action and section
+    private static final Map<String, GaugeMetricImpl<Long>> GAUGE_IMAGE_SECTION_COST = Maps.newConcurrentMap();
+    // the number and cost of the replayed journals, keyed by op code
+    private static final Map<Short, LongCounterMetric> COUNTER_JOURNAL_REPLAY = Maps.newConcurrentMap();
+    private static final Map<Short, LongCounterMetric> COUNTER_JOURNAL_REPLAY_TIME = Maps.newConcurrentMap();
 
     // following metrics will be updated by metric calculator
     public static GaugeMetricImpl<Double> GAUGE_QUERY_PER_SECOND;
@@ -210,6 +232,198 @@ public final class MetricRepo {
         };
         STARROCKS_METRIC_REGISTER.addMetric(scheduledTabletNum);
 
+        // agent tasks waiting for the backends to finish
+        for (TTaskType taskType : TTaskType.values()) {
+            GaugeMetric<Long> agentTaskNum = new GaugeMetric<Long>(
+                    "agent_task_num", MetricUnit.NOUNIT, "number of agent tasks in the task queue") {
+                @Override
+                public Long getValue() {
+                    return (long) AgentTaskQueue.getTaskNum(taskType);
+                }
+            };
+            agentTaskNum.addLabel(new MetricLabel("type", taskType.name()));
+            STARROCKS_METRIC_REGISTER.addMetric(agentTaskNum);
+        }
+
+        // tablet inverted index
+        GaugeMetric<Long> invertedIndexReplicaNum = new GaugeMetric<Long>(
+                "tablet_inverted_index_replica_num", MetricUnit.NOUNIT, "number of replicas in tablet inverted index") {
+            @Override
+            public Long getValue() {
+                return Catalog.getCurrentInvertedIndex().getReplicaNum();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(invertedIndexReplicaNum);
+
+        GaugeMetric<Long> invertedIndexHeapBytes = new GaugeMetric<Long>(
+                "tablet_inverted_index_heap_bytes", MetricUnit.BYTES,
+                "estimated heap bytes used by tablet inverted index") {
+            @Override
+            public Long getValue() {
+                return Catalog.getCurrentInvertedIndex().getEstimatedHeapBytes();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(invertedIndexHeapBytes);
+
+        // plan cache
+        GaugeMetric<Long> planCacheHitCount = new GaugeMetric<Long>(
+                "plan_cache_hit_count", MetricUnit.REQUESTS, "number of queries using the cached plan") {
+            @Override
+            public Long getValue() {
+                return PlanCache.getInstance().getHitCount();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(planCacheHitCount);
+
+        GaugeMetric<Long> planCacheMissCount = new GaugeMetric<Long>(
+                "plan_cache_miss_count", MetricUnit.REQUESTS, "number of cacheable queries not found in plan cache") {
+            @Override
+            public Long getValue() {
+                return PlanCache.getInstance().getMissCount();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(planCacheMissCount);
+
+        GaugeMetric<Long> planCacheSize = new GaugeMetric<Long>(
+                "plan_cache_size", MetricUnit.NOUNIT, "number of plans in plan cache") {
+            @Override
+            public Long getValue() {
+                return PlanCache.getInstance().getSize();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(planCacheSize);
+
+        // column statistic cache
+        GaugeMetric<Long> statisticCacheHitCount = new GaugeMetric<Long>(
+                "statistic_cache_hit_count", MetricUnit.REQUESTS, "number of column statistics found in cache") {
+            @Override
+            public Long getValue() {
+                return getStatisticCacheStats().hitCount();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(statisticCacheHitCount);
+
+        GaugeMetric<Long> statisticCacheMissCount = new GaugeMetric<Long>(
+                "statistic_cache_miss_count", MetricUnit.REQUESTS, "number of column statistics not found in cache") {
+            @Override
+            public Long getValue() {
+                return getStatisticCacheStats().missCount();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(statisticCacheMissCount);
+
+        GaugeMetric<Long> statisticCacheLoadLatency = new GaugeMetric<Long>(
+                "statistic_cache_load_avg_latency_ms", MetricUnit.MILLISECONDS,
+                "average latency of loading column statistics") {
+            @Override
+            public Long getValue() {
+                return (long) (getStatisticCacheStats().averageLoadPenalty() / 1000000);
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(statisticCacheLoadLatency);
+
+        GaugeMetric<Long> statisticCacheSize = new GaugeMetric<Long>(
+                "statistic_cache_size", MetricUnit.NOUNIT, "number of column statistics in cache") {
+            @Override
+            public Long getValue() {
+                StatisticStorage storage = Catalog.getCurrentStatisticStorage();
+                return storage instanceof CachedStatisticStorage ?
+                        ((CachedStatisticStorage) storage).getCacheSize() : 0L;
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(statisticCacheSize);
+
+        // global dict of low cardinality string columns
+        GaugeMetric<Long> globalDictHitCount = new GaugeMetric<Long>(
+                "global_dict_hit_count", MetricUnit.REQUESTS, "number of string columns using global dict in queries") {
+            @Override
+            public Long getValue() {
+                CacheDictManager dictManager = getCacheDictManager();
+                return dictManager == null ? 0L : dictManager.getHitCount();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(globalDictHitCount);
+
+        GaugeMetric<Long> globalDictMissCount = new GaugeMetric<Long>(
+                "global_dict_miss_count", MetricUnit.REQUESTS,
+                "number of low cardinality string columns without usable global dict in queries") {
+            @Override
+            public Long getValue() {
+                CacheDictManager dictManager = getCacheDictManager();
+                return dictManager == null ? 0L : dictManager.getMissCount();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(globalDictMissCount);
+
+        GaugeMetric<Long> globalDictColumnNum = new GaugeMetric<Long>(
+                "global_dict_column_num", MetricUnit.NOUNIT, "number of low cardinality string columns") {
+            @Override
+            public Long getValue() {
+                CacheDictManager dictManager = getCacheDictManager();
+                return dictManager == null ? 0L : dictManager.getDictColumnNum();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(globalDictColumnNum);
+
+        GaugeMetric<Long> globalDictFreshNum = new GaugeMetric<Long>(
+                "global_dict_fresh_num", MetricUnit.NOUNIT,
+                "number of low cardinality string columns whose global dict is up to date") {
+            @Override
+            public Long getValue() {
+                CacheDictManager dictManager = getCacheDictManager();
+                return dictManager == null ? 0L : dictManager.getFreshDictNum();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(globalDictFreshNum);
+
+        // query result cache
+        GaugeMetric<Long> queryCacheHitCount = new GaugeMetric<Long>(
+                "query_cache_hit_count", MetricUnit.REQUESTS, "number of query results found in cache") {
+            @Override
+            public Long getValue() {
+                return QueryResultCache.INSTANCE.getHitCount();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(queryCacheHitCount);
+
+        GaugeMetric<Long> queryCacheMissCount = new GaugeMetric<Long>(
+                "query_cache_miss_count", MetricUnit.REQUESTS,
+                "number of cacheable query results not found in cache") {
+            @Override
+            public Long getValue() {
+                return QueryResultCache.INSTANCE.getMissCount();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(queryCacheMissCount);
+
+        GaugeMetric<Long> queryCacheBytes = new GaugeMetric<Long>(
+                "query_cache_bytes", MetricUnit.BYTES, "total size of cached query results") {
+            @Override
+            public Long getValue() {
+                return QueryResultCache.INSTANCE.getTotalBytes();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(queryCacheBytes);
+
+        GaugeMetric<Long> queryCacheEntryNum = new GaugeMetric<Long>(
+                "query_cache_entry_num", MetricUnit.NOUNIT, "number of cached query results") {
+            @Override
+            public Long getValue() {
+                return (long) QueryResultCache.INSTANCE.getEntryNum();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(queryCacheEntryNum);
+
+        // journal replay
+        GaugeMetric<Long> journalReplayLag = new GaugeMetric<Long>(
+                "journal_replay_lag", MetricUnit.OPERATIONS, "number of journals not replayed yet") {
+            @Override
+            public Long getValue() {
+                return Catalog.getCurrentCatalog().getJournalReplayLag();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(journalReplayLag);
+
         // routine load jobs
         RoutineLoadManager routineLoadManger = Catalog.getCurrentCatalog().getRoutineLoadManager();
         for (RoutineLoadJob.JobState state : RoutineLoadJob.JobState.values()) {
@@ -344,10 +558,27 @@ public final class MetricRepo {
                 "total error rows of routine load");
         STARROCKS_METRIC_REGISTER.addMetric(COUNTER_ROUTINE_LOAD_ERROR_ROWS);
 
+        COUNTER_TABLET_INVERTED_INDEX_LOCK_WAIT = new LongCounterMetric("tablet_inverted_index_lock_wait_count",
+                MetricUnit.OPERATIONS, "counter of blocked lock acquisitions of tablet inverted index stripes");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_TABLET_INVERTED_INDEX_LOCK_WAIT);
+        COUNTER_TABLET_INVERTED_INDEX_LOCK_WAIT_US = new LongCounterMetric("tablet_inverted_index_lock_wait_us",
+                MetricUnit.MICROSECONDS, "total wait time of blocked lock acquisitions of tablet inverted index stripes");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_TABLET_INVERTED_INDEX_LOCK_WAIT_US);
+
         // 3. histogram
         HISTO_QUERY_LATENCY = METRIC_REGISTER.histogram(MetricRegistry.name("query", "latency", "ms"));
         HISTO_EDIT_LOG_WRITE_LATENCY =
                 METRIC_REGISTER.histogram(MetricRegistry.name("editlog", "write", "latency", "ms"));
+        HISTO_EDIT_LOG_WRITE_BATCH_SIZE =
+                METRIC_REGISTER.histogram(MetricRegistry.name("editlog", "write", "batch", "size"));
+        HISTO_EDIT_LOG_WRITE_BATCH_LATENCY =
+                METRIC_REGISTER.histogram(MetricRegistry.name("editlog", "write", "batch", "latency", "ms"));
+        // the time of waiting for the result batches from backend
+        HISTO_RESULT_FETCH_WAIT =
+                METRIC_REGISTER.histogram(MetricRegistry.name("query", "result", "fetch", "wait", "us"));
+        // the time from the transaction is committed to it's visible
+        HISTO_TXN_PUBLISH_LATENCY =
+                METRIC_REGISTER.histogram(MetricRegistry.name("txn", "publish", "latency", "ms"));
 
         // init system metrics
         initSystemMetrics();
@@ -360,6 +591,46 @@ public final class MetricRepo {
         }
     }
 
+    private static CacheStats getStatisticCacheStats() {
+        StatisticStorage storage = Catalog.getCurrentStatisticStorage();
+        return storage instanceof CachedStatisticStorage ?
+                ((CachedStatisticStorage) storage).getCacheStats() : CacheStats.empty();
+    }
+
+    // It may be called before init(), e.g. when loading image at startup
+    public static void updateImageSectionCost(String action, String section, long costMs) {
+        GaugeMetricImpl<Long> gauge = GAUGE_IMAGE_SECTION_COST.computeIfAbsent(action + "." + section, k -> {
+            GaugeMetricImpl<Long> metric = new GaugeMetricImpl<>("image_section_cost_ms", MetricUnit.MILLISECONDS,
+                    "the cost of the image section in the last image load or save");
+            metric.addLabel(new MetricLabel("action", action)).addLabel(new MetricLabel("section", section));
+            STARROCKS_METRIC_REGISTER.addMetric(metric);
+            return metric;
+        });
+        gauge.setValue(costMs);
+    }
+
+    public static void updateJournalReplay(short opCode, long costUs) {
+        getOpCounter(COUNTER_JOURNAL_REPLAY, opCode, "journal_replay_count", MetricUnit.OPERATIONS,
+                "number of replayed journals").increase(1L);
+        getOpCounter(COUNTER_JOURNAL_REPLAY_TIME, opCode, "journal_replay_time_us", MetricUnit.MICROSECONDS,
+                "total time of replaying journals").increase(costUs);
+    }
+
+    private static LongCounterMetric getOpCounter(Map<Short, LongCounterMetric> counters, short opCode, String name,
+                                                  MetricUnit unit, String description) {
+        return counters.computeIfAbsent(opCode, k -> {
+            LongCounterMetric counter = new LongCounterMetric(name, unit, description);
+            counter.addLabel(new MetricLabel("op_type", String.valueOf(opCode)));
+            STARROCKS_METRIC_REGISTER.addMetric(counter);
+            return counter;
+        });
+    }
+
+    private static CacheDictManager getCacheDictManager() {
+        IDictManager dictManager = IDictManager.getInstance();
+        return dictManager instanceof CacheDictManager ? (CacheDictManager) dictManager : null;
+    }
+
     private static void initSystemMetrics() {
         // TCP retransSegs
         GaugeMetric<Long> tcpRetransSegs = (GaugeMetric<Long>) new GaugeMetric<Long>(
@@ -490,6 +761,17 @@ public final class MetricRepo {
         return visitor.build();
     }
 
+    // Get or create the histogram of the database, the name is suffixed by the database id
+    public static Histogram getDbHistogram(String name, long dbId) {
+        return METRIC_REGISTER.histogram(MetricRegistry.name(name, "db", String.valueOf(dbId)));
+    }
+
+    // Remove the histograms of the dropped database
+    public static void removeDbHistograms(long dbId) {
+        String suffix = ".db." + dbId;
+        METRIC_REGISTER.removeMatching((name, metric) -> name.endsWith(suffix));
+    }
+
     // update some metrics to make a ready to be visited
     private static void updateMetrics() {
         SYSTEM_METRICS.update();
@@ -0,0 +1,288 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.mysql;
+
+import com.starrocks.analysis.DecimalLiteral;
+import com.starrocks.analysis.FloatLiteral;
+import com.starrocks.analysis.IntLiteral;
+import com.starrocks.analysis.LargeIntLiteral;
+import com.starrocks.analysis.LiteralExpr;
+import com.starrocks.analysis.NullLiteral;
+import com.starrocks.analysis.StringLiteral;
+import com.starrocks.catalog.Type;
+import com.starrocks.common.AnalysisException;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Encode and decode the values of MySQL binary protocol, which is used by prepared statements.
+ * https://dev.mysql.com/doc/internals/en/binary-protocol-value.html
+ */
+public class MysqlBinaryProtocol {
+    // the high byte of parameter type, indicates the integer parameter is unsigned
+    public static final int UNSIGNED_FLAG = 0x80;
+
+    private static final int NULL_BYTE = 251;
+
+    /**
+     * Read one parameter value of COM_STMT_EXECUTE as literal.
+     * The temporal values are read as string literals, which are cast to the types required by the statement.
+     *
+     * @param type the parameter type, the low byte is MysqlColType code and the high byte is the unsigned flag
+     */
+    public static LiteralExpr readParam(ByteBuffer buffer, int type) throws AnalysisException {
+        boolean unsigned = ((type >> 8) & UNSIGNED_FLAG) != 0;
+        switch (type & 0xFF) {
+            case 1: // MYSQL_TYPE_TINY
+                return new IntLiteral(unsigned ? MysqlProto.readInt1(buffer) : buffer.get());
+            case 2: // MYSQL_TYPE_SHORT
+            case 13: // MYSQL_TYPE_YEAR
+                return new IntLiteral(unsigned ? MysqlProto.readInt2(buffer) : (short) MysqlProto.readInt2(buffer));
+            case 3: // MYSQL_TYPE_LONG
+            case 9: // MYSQL_TYPE_INT24
+                return new IntLiteral(unsigned ? MysqlProto.readInt4(buffer) & 0xFFFFFFFFL :
+                        MysqlProto.readInt4(buffer));
+            case 8: { // MYSQL_TYPE_LONGLONG
+                long value = MysqlProto.readInt8(buffer);
+                if (unsigned && value < 0) {
+                    return new LargeIntLiteral(Long.toUnsignedString(value));
+                }
+                return new IntLiteral(value);
+            }
+            case 4: // MYSQL_TYPE_FLOAT
+                return toFloatLiteral(Float.intBitsToFloat(MysqlProto.readInt4(buffer)), Type.FLOAT);
+            case 5: // MYSQL_TYPE_DOUBLE
+                return toFloatLiteral(Double.longBitsToDouble(MysqlProto.readInt8(buffer)), Type.DOUBLE);
+            case 6: // MYSQL_TYPE_NULL
+                return new NullLiteral();
+            case 7: // MYSQL_TYPE_TIMESTAMP
+            case 10: // MYSQL_TYPE_DATE
+            case 12: // MYSQL_TYPE_DATETIME
+                return new StringLiteral(readDatetime(buffer));
+            case 11: // MYSQL_TYPE_TIME
+                return new StringLiteral(readTime(buffer));
+            case 0: // MYSQL_TYPE_DECIMAL
+            case 246: // MYSQL_TYPE_NEWDECIMAL
+                return readDecimal(buffer);
+            default:
+                // string and blob types
+                return new StringLiteral(new String(MysqlProto.readLenEncodedString(buffer), StandardCharsets.UTF_8));
+        }
+    }
+
+    // the decimal is sent as string, reject it if it's not a number
+    private static LiteralExpr readDecimal(ByteBuffer buffer) {
+        String value = new String(MysqlProto.readLenEncodedString(buffer), StandardCharsets.UTF_8);
+        try {
+            return new DecimalLiteral(new BigDecimal(value.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid decimal parameter value " + value);
+        }
+    }
+
+    private static LiteralExpr toFloatLiteral(double value, Type type) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Unsupported parameter value " + value);
+        }
+        return new FloatLiteral(value, type);
+    }
+
+    private static String readDatetime(ByteBuffer buffer) {
+        int length = MysqlProto.readInt1(buffer);
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int microsecond = 0;
+        if (length >= 4) {
+            year = MysqlProto.readInt2(buffer);
+            month = MysqlProto.readInt1(buffer);
+            day = MysqlProto.readInt1(buffer);
+        }
+        if (length >= 7) {
+            hour = MysqlProto.readInt1(buffer);
+            minute = MysqlProto.readInt1(buffer);
+            second = MysqlProto.readInt1(buffer);
+        }
+        if (length >= 11) {
+            microsecond = MysqlProto.readInt4(buffer);
+        }
+        if (length <= 4) {
+            return String.format("%04d-%02d-%02d", year, month, day);
+        }
+        if (microsecond == 0) {
+            return String.format("%04d-%02d-%02d %02d:%02d:%02d", year, month, day, hour, minute, second);
+        }
+        return String.format("%04d-%02d-%02d %02d:%02d:%02d.%06d", year, month, day, hour, minute, second,
+                microsecond);
+    }
+
+    private static String readTime(ByteBuffer buffer) {
+        int length = MysqlProto.readInt1(buffer);
+        if (length == 0) {
+            return "00:00:00";
+        }
+        boolean negative = MysqlProto.readInt1(buffer) == 1;
+        long days = MysqlProto.readInt4(buffer) & 0xFFFFFFFFL;
+        long hours = days * 24 + MysqlProto.readInt1(buffer);
+        int minute = MysqlProto.readInt1(buffer);
+        int second = MysqlProto.readInt1(buffer);
+        String time = String.format("%s%02d:%02d:%02d", negative ? "-" : "", hours, minute, second);
+        if (length >= 12) {
+            time += String.format(".%06d", MysqlProto.readInt4(buffer));
+        }
+        return time;
+    }
+
+    /**
+     * Convert one result row of text protocol to binary protocol.
+     * The text row is a list of length encoded strings, 0xFB means NULL.
+     * https://dev.mysql.com/doc/internals/en/binary-protocol-resultset-row.html
+     */
+    public static ByteBuffer toBinaryRow(ByteBuffer textRow, List<MysqlColType> types, MysqlSerializer serializer) {
+        ByteBuffer buffer = textRow.duplicate();
+        int columnNum = types.size();
+        // the first 2 bits of null bitmap are reserved
+        byte[] nullBitmap = new byte[(columnNum + 7 + 2) / 8];
+        String[] values = new String[columnNum];
+        for (int i = 0; i < columnNum; i++) {
+            if ((buffer.get(buffer.position()) & 0xFF) == NULL_BYTE) {
+                buffer.get();
+                nullBitmap[(i + 2) / 8] |= (byte) (1 << ((i + 2) % 8));
+            } else {
+                values[i] = new String(MysqlProto.readLenEncodedString(buffer), StandardCharsets.UTF_8);
+            }
+        }
+
+        serializer.reset();
+        serializer.writeInt1(0x00);
+        serializer.writeBytes(nullBitmap);
+        for (int i = 0; i < columnNum; i++) {
+            if (values[i] != null) {
+                writeBinaryValue(serializer, types.get(i), values[i]);
+            }
+        }
+        return serializer.toByteBuffer();
+    }
+
+    private static void writeBinaryValue(MysqlSerializer serializer, MysqlColType type, String value) {
+        switch (type) {
+            case MYSQL_TYPE_TINY:
+                serializer.writeInt1((int) parseInteger(value));
+                break;
+            case MYSQL_TYPE_SHORT:
+            case MYSQL_TYPE_YEAR:
+                serializer.writeInt2((int) parseInteger(value));
+                break;
+            case MYSQL_TYPE_LONG:
+            case MYSQL_TYPE_INT24:
+                serializer.writeInt4((int) parseInteger(value));
+                break;
+            case MYSQL_TYPE_LONGLONG:
+                serializer.writeInt8(parseInteger(value));
+                break;
+            case MYSQL_TYPE_FLOAT:
+                serializer.writeInt4(Float.floatToIntBits((float) parseDouble(value)));
+                break;
+            case MYSQL_TYPE_DOUBLE:
+                serializer.writeInt8(Double.doubleToLongBits(parseDouble(value)));
+                break;
+            case MYSQL_TYPE_DATE:
+            case MYSQL_TYPE_DATETIME:
+            case MYSQL_TYPE_TIMESTAMP:
+                writeDatetime(serializer, value);
+                break;
+            case MYSQL_TYPE_TIME:
+                writeTime(serializer, value);
+                break;
+            default:
+                serializer.writeLenEncodedString(value);
+                break;
+        }
+    }
+
+    private static long parseInteger(String value) {
+        if (value.equalsIgnoreCase("true")) {
+            return 1;
+        } else if (value.equalsIgnoreCase("false")) {
+            return 0;
+        }
+        return Long.parseLong(value);
+    }
+
+    private static double parseDouble(String value) {
+        switch (value.toLowerCase()) {
+            case "inf":
+            case "infinity":
+                return Double.POSITIVE_INFINITY;
+            case "-inf":
+            case "-infinity":
+                return Double.NEGATIVE_INFINITY;
+            case "nan":
+                return Double.NaN;
+            default:
+                return Double.parseDouble(value);
+        }
+    }
+
+    // value is formatted as yyyy-MM-dd[ HH:mm:ss[.ffffff]]
+    private static void writeDatetime(MysqlSerializer serializer, String value) {
+        int year = Integer.parseInt(value.substring(0, 4));
+        int month = Integer.parseInt(value.substring(5, 7));
+        int day = Integer.parseInt(value.substring(8, 10));
+        if (value.length() < 19) {
+            serializer.writeInt1(4);
+            serializer.writeInt2(year);
+            serializer.writeInt1(month);
+            serializer.writeInt1(day);
+            return;
+        }
+        int hour = Integer.parseInt(value.substring(11, 13));
+        int minute = Integer.parseInt(value.substring(14, 16));
+        int second = Integer.parseInt(value.substring(17, 19));
+        int microsecond = value.length() > 20 ? parseMicrosecond(value.substring(20)) : 0;
+        serializer.writeInt1(microsecond == 0 ? 7 : 11);
+        serializer.writeInt2(year);
+        serializer.writeInt1(month);
+        serializer.writeInt1(day);
+        serializer.writeInt1(hour);
+        serializer.writeInt1(minute);
+        serializer.writeInt1(second);
+        if (microsecond != 0) {
+            serializer.writeInt4(microsecond);
+        }
+    }
+
+    // value is formatted as [-]HH:mm:ss[.ffffff], the hours may be larger than 24
+    private static void writeTime(MysqlSerializer serializer, String value) {
+        boolean negative = value.startsWith("-");
+        String[] parts = (negative ? value.substring(1) : value).split(":");
+        long hours = Long.parseLong(parts[0]);
+        int minute = Integer.parseInt(parts[1]);
+        String[] secondParts = parts[2].split("\\.");
+        int second = Integer.parseInt(secondParts[0]);
+        int microsecond = secondParts.length > 1 ? parseMicrosecond(secondParts[1]) : 0;
+        serializer.writeInt1(microsecond == 0 ? 8 : 12);
+        serializer.writeInt1(negative ? 1 : 0);
+        serializer.writeInt4((int) (hours / 24));
+        serializer.writeInt1((int) (hours % 24));
+        serializer.writeInt1(minute);
+        serializer.writeInt1(second);
+        if (microsecond != 0) {
+            serializer.writeInt4(microsecond);
+        }
+    }
+
+    private static int parseMicrosecond(String fraction) {
+        StringBuilder sb = new StringBuilder(fraction);
+        while (sb.length() < 6) {
+            sb.append('0');
+        }
+        return Integer.parseInt(sb.substring(0, 6));
+    }
+}
@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
+import java.util.List;
 
 /**
  * This class used to read/write MySQL logical packet.
@@ -264,6 +265,64 @@ public class MysqlChannel {
         accSequenceId();
     }
 
+    /**
+     * Send the packets without copying them to the send buffer.
+     * The rows of a result batch deserialized from thrift are the slices of one array, and each row is preceded
+     * by its 4 bytes length which has been consumed. It's the same size as the mysql packet header, so the
+     * headers are written in place and all the packets are sent in one write.
+     * NOTE: the 4 bytes ahead of each packet are overwritten. If the packets are not laid out like that or
+     * one of them must be split, they are sent one by one through the send buffer.
+     */
+    public void sendPacketsInPlace(List<ByteBuffer> packets) throws IOException {
+        if (packets.isEmpty()) {
+            return;
+        }
+        if (!isLaidOutInPlace(packets)) {
+            for (ByteBuffer packet : packets) {
+                sendOnePacket(packet);
+            }
+            return;
+        }
+
+        byte[] array = packets.get(0).array();
+        for (ByteBuffer packet : packets) {
+            int headerOffset = packet.arrayOffset() + packet.position() - PACKET_HEADER_LEN;
+            int length = packet.remaining();
+            array[headerOffset] = (byte) length;
+            array[headerOffset + 1] = (byte) (length >> 8);
+            array[headerOffset + 2] = (byte) (length >> 16);
+            array[headerOffset + 3] = (byte) sequenceId;
+            accSequenceId();
+        }
+        ByteBuffer first = packets.get(0);
+        ByteBuffer last = packets.get(packets.size() - 1);
+        int start = first.arrayOffset() + first.position() - PACKET_HEADER_LEN;
+        int end = last.arrayOffset() + last.limit();
+        // keep the order with the packets in the send buffer
+        flush();
+        realNetSend(ByteBuffer.wrap(array, start, end - start));
+    }
+
+    private static boolean isLaidOutInPlace(List<ByteBuffer> packets) {
+        ByteBuffer prev = null;
+        for (ByteBuffer packet : packets) {
+            if (!packet.hasArray() || packet.remaining() >= MAX_PHYSICAL_PACKET_LENGTH) {
+                return false;
+            }
+            int offset = packet.arrayOffset() + packet.position();
+            if (prev == null) {
+                if (offset < PACKET_HEADER_LEN) {
+                    return false;
+                }
+            } else if (packet.array() != prev.array()
+                    || offset != prev.arrayOffset() + prev.limit() + PACKET_HEADER_LEN) {
+                return false;
+            }
+            prev = packet;
+        }
+        return true;
+    }
+
     public void sendAndFlush(ByteBuffer packet) throws IOException {
         sendOnePacket(packet);
         flush();
@@ -51,7 +51,7 @@ public class NMysqlServer extends MysqlServer {
 
     // default task service.
     private ExecutorService taskService = ThreadPoolManager
-            .newDaemonCacheThreadPool(Config.max_mysql_service_task_threads_num, "starrocks-mysql-nio-pool", true);
+            .newDaemonConnectionExecutor(Config.max_mysql_service_task_threads_num, "starrocks-mysql-nio-pool", true);
 
     public NMysqlServer(int port, ConnectScheduler connectScheduler) {
         this.port = port;
@@ -89,6 +89,8 @@ public class EditLog {
     private long totalTimeTransactions;
 
     private Journal journal;
+    // created when the first journal is written in group commit mode
+    private EditLogWriter editLogWriter;
 
     public EditLog(String nodeName) {
         journal = new BDBJEJournal(nodeName);
@@ -128,6 +130,7 @@ public class EditLog {
 
     public static void loadJournal(Catalog catalog, JournalEntity journal) {
         short opCode = journal.getOpCode();
+        long startTime = System.nanoTime();
         if (opCode != OperationType.OP_SAVE_NEXTID && opCode != OperationType.OP_TIMESTAMP) {
             LOG.debug("replay journal op code: {}", opCode);
         }
@@ -819,6 +822,9 @@ public class EditLog {
             LOG.error("Operation Type {}", opCode, e);
             System.exit(-1);
         }
+        if (MetricRepo.isInit) {
+            MetricRepo.updateJournalReplay(opCode, (System.nanoTime() - startTime) / 1000);
+        }
     }
 
     /**
@@ -840,13 +846,27 @@ public class EditLog {
     }
 
     /**
-     * Write an operation to the edit log. Do not sync to persistent store yet.
+     * Write an operation to the edit log and wait until it's written. The journals of concurrent
+     * operations are written in batch if edit_log_group_commit_enable is true.
      */
-    private synchronized void logEdit(short op, Writable writable) {
-        if (this.getNumEditStreams() == 0) {
-            LOG.error("Fatal Error : no editLog stream", new Exception());
-            throw new Error("Fatal Error : no editLog stream");
+    private void logEdit(short op, Writable writable) {
+        if (Config.edit_log_group_commit_enable) {
+            getEditLogWriter().write(op, writable);
+        } else {
+            logEditSync(op, writable);
         }
+    }
+
+    private synchronized EditLogWriter getEditLogWriter() {
+        if (editLogWriter == null) {
+            editLogWriter = new EditLogWriter(this);
+            editLogWriter.start();
+        }
+        return editLogWriter;
+    }
+
+    private synchronized void logEditSync(short op, Writable writable) {
+        checkEditStream();
 
         long start = System.currentTimeMillis();
 
@@ -857,20 +877,54 @@ public class EditLog {
             System.exit(-1);
         }
 
-        // get a new transactionId
-        txId++;
-
-        // update statistics
         long end = System.currentTimeMillis();
-        numTransactions++;
-        totalTimeTransactions += (end - start);
         if (MetricRepo.isInit) {
             MetricRepo.HISTO_EDIT_LOG_WRITE_LATENCY.update((end - start));
         }
+        afterLogEdit(1, end - start, op);
+    }
+
+    /**
+     * Write the operations in one journal transaction, it's called by EditLogWriter.
+     */
+    synchronized void logEditBatch(List<JournalEntity> entities) {
+        checkEditStream();
+
+        long start = System.currentTimeMillis();
+
+        try {
+            journal.batchWrite(entities);
+        } catch (Exception e) {
+            LOG.error("Fatal Error : write stream Exception", e);
+            System.exit(-1);
+        }
+
+        long end = System.currentTimeMillis();
+        if (MetricRepo.isInit) {
+            MetricRepo.HISTO_EDIT_LOG_WRITE_BATCH_SIZE.update(entities.size());
+            MetricRepo.HISTO_EDIT_LOG_WRITE_BATCH_LATENCY.update(end - start);
+        }
+        afterLogEdit(entities.size(), end - start, entities.get(entities.size() - 1).getOpCode());
+    }
+
+    private void checkEditStream() {
+        if (this.getNumEditStreams() == 0) {
+            LOG.error("Fatal Error : no editLog stream", new Exception());
+            throw new Error("Fatal Error : no editLog stream");
+        }
+    }
+
+    private void afterLogEdit(int num, long costMs, short lastOp) {
+        // get a new transactionId
+        txId += num;
+
+        // update statistics
+        numTransactions += num;
+        totalTimeTransactions += costMs;
 
         if (LOG.isDebugEnabled()) {
             LOG.debug("nextId = {}, numTransactions = {}, totalTimeTransactions = {}, op = {}",
-                    txId, numTransactions, totalTimeTransactions, op);
+                    txId, numTransactions, totalTimeTransactions, lastOp);
         }
 
         if (txId >= Config.edit_log_roll_num) {
@@ -881,7 +935,7 @@ public class EditLog {
         }
 
         if (MetricRepo.isInit) {
-            MetricRepo.COUNTER_EDIT_LOG_WRITE.increase(1L);
+            MetricRepo.COUNTER_EDIT_LOG_WRITE.increase((long) num);
         }
     }
 
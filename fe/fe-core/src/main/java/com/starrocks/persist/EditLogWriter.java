@@ -0,0 +1,135 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.persist;
+
+import com.google.common.collect.Lists;
+import com.starrocks.common.Config;
+import com.starrocks.common.io.Writable;
+import com.starrocks.journal.JournalEntity;
+import com.starrocks.metric.MetricRepo;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * EditLogWriter writes the journals of concurrent operations in batch (group commit).
+ * The callers put the journals into the queue and wait. The writer thread takes the queued journals,
+ * writes them in one journal transaction and then wakes up the callers, so that the cost of one
+ * replicated commit is shared by all the journals in the batch.
+ * The journals are written in the order they are put into the queue.
+ */
+public class EditLogWriter extends Thread {
+    private static final Logger LOG = LogManager.getLogger(EditLogWriter.class);
+
+    private final EditLog editLog;
+    private final BlockingQueue<JournalTask> queue = new LinkedBlockingQueue<>();
+
+    private static class JournalTask {
+        private final JournalEntity entity;
+        private final long createTime;
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        JournalTask(short op, Writable writable) {
+            entity = new JournalEntity();
+            entity.setOpCode(op);
+            entity.setData(writable);
+            createTime = System.currentTimeMillis();
+        }
+    }
+
+    public EditLogWriter(EditLog editLog) {
+        super("EditLogWriter");
+        this.editLog = editLog;
+        setDaemon(true);
+    }
+
+    /**
+     * Write the journal and wait until it's written.
+     */
+    public void write(short op, Writable writable) {
+        JournalTask task = new JournalTask(op, writable);
+        queue.add(task);
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                task.latch.await();
+                break;
+            } catch (InterruptedException e) {
+                // the journal must be written before the operation continues
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    @Override
+    public void run() {
+        List<JournalTask> batch = Lists.newArrayList();
+        List<JournalEntity> entities = Lists.newArrayList();
+        while (true) {
+            try {
+                batch.add(queue.take());
+                collectBatch(batch);
+
+                for (JournalTask task : batch) {
+                    entities.add(task.entity);
+                }
+                editLog.logEditBatch(entities);
+
+                long now = System.currentTimeMillis();
+                for (JournalTask task : batch) {
+                    if (MetricRepo.isInit) {
+                        MetricRepo.HISTO_EDIT_LOG_WRITE_LATENCY.update(now - task.createTime);
+                    }
+                    task.latch.countDown();
+                }
+            } catch (InterruptedException e) {
+                LOG.warn("edit log writer is interrupted", e);
+            } catch (Throwable t) {
+                // the callers can't go on without the journal
+                LOG.error("Fatal Error : write edit log batch failed", t);
+                System.exit(-1);
+            } finally {
+                batch.clear();
+                entities.clear();
+            }
+        }
+    }
+
+    // Take more journals from the queue, wait at most edit_log_group_commit_max_delay_ms for the batch
+    private void collectBatch(List<JournalTask> batch) {
+        int maxBatchSize = Math.max(Config.edit_log_group_commit_max_batch_size, 1);
+        long deadline = System.currentTimeMillis() + Math.max(Config.edit_log_group_commit_max_delay_ms, 0);
+        while (batch.size() < maxBatchSize) {
+            JournalTask task = queue.poll();
+            if (task == null) {
+                long waitMs = deadline - System.currentTimeMillis();
+                if (waitMs <= 0) {
+                    break;
+                }
+                try {
+                    task = queue.poll(waitMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    // write the taken journals first
+                    break;
+                }
+                if (task == null) {
+                    break;
+                }
+            }
+            batch.add(task);
+        }
+    }
+}
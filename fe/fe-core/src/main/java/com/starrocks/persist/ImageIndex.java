@@ -0,0 +1,172 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.persist;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import com.starrocks.common.io.Text;
+
+import java.io.BufferedInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+/**
+ * ImageIndex records the offset, length and crc32 of each section of the image file.
+ * It's appended after the last checksum of the image as a footer:
+ * [section num][section]...[index offset][magic]
+ * The loader of old version stops reading at the last checksum and ignores the footer, and the image
+ * without footer is loaded sequentially as before.
+ */
+public class ImageIndex {
+    private static final long MAGIC = 0x5352494D47494458L;
+    // index offset and magic
+    private static final int FOOTER_LENGTH = 16;
+
+    public static class Section {
+        private final String name;
+        private final long offset;
+        private final long length;
+        private final long checksum;
+
+        public Section(String name, long offset, long length, long checksum) {
+            this.name = name;
+            this.offset = offset;
+            this.length = length;
+            this.checksum = checksum;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public long getChecksum() {
+            return checksum;
+        }
+    }
+
+    private final List<Section> sections;
+
+    public ImageIndex(List<Section> sections) {
+        this.sections = sections;
+    }
+
+    public List<Section> getSections() {
+        return sections;
+    }
+
+    // The sections whose name starts with prefix, in the order of offset
+    public List<Section> getSections(String prefix) {
+        List<Section> result = Lists.newArrayList();
+        for (Section section : sections) {
+            if (section.name.startsWith(prefix)) {
+                result.add(section);
+            }
+        }
+        return result;
+    }
+
+    public void write(DataOutputStream dos, long indexOffset) throws IOException {
+        dos.writeInt(sections.size());
+        for (Section section : sections) {
+            Text.writeString(dos, section.name);
+            dos.writeLong(section.offset);
+            dos.writeLong(section.length);
+            dos.writeLong(section.checksum);
+        }
+        dos.writeLong(indexOffset);
+        dos.writeLong(MAGIC);
+    }
+
+    /**
+     * Read the index from the footer of image file, return null if the image has no index.
+     */
+    public static ImageIndex read(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long fileLength = raf.length();
+            if (fileLength < FOOTER_LENGTH) {
+                return null;
+            }
+            raf.seek(fileLength - FOOTER_LENGTH);
+            long indexOffset = raf.readLong();
+            if (raf.readLong() != MAGIC || indexOffset < 0 || indexOffset > fileLength - FOOTER_LENGTH) {
+                return null;
+            }
+            raf.seek(indexOffset);
+            int sectionNum = raf.readInt();
+            List<Section> sections = Lists.newArrayListWithCapacity(sectionNum);
+            for (int i = 0; i < sectionNum; i++) {
+                String name = Text.readString(raf);
+                sections.add(new Section(name, raf.readLong(), raf.readLong(), raf.readLong()));
+            }
+            return new ImageIndex(sections);
+        }
+    }
+
+    /**
+     * Open the section of image file as an independent stream, so that the sections can be read in parallel.
+     * The section is read through memory mapped file if useMmap is true.
+     */
+    public static InputStream openSection(File file, Section section, boolean useMmap) throws IOException {
+        if (useMmap && section.length <= Integer.MAX_VALUE) {
+            try (FileChannel channel = new RandomAccessFile(file, "r").getChannel()) {
+                // the mapping is valid after the channel is closed
+                return new ByteBufferInputStream(channel.map(FileChannel.MapMode.READ_ONLY, section.offset,
+                        section.length));
+            }
+        }
+        FileInputStream fis = new FileInputStream(file);
+        try {
+            fis.getChannel().position(section.offset);
+        } catch (IOException e) {
+            fis.close();
+            throw e;
+        }
+        return new BufferedInputStream(ByteStreams.limit(fis, section.length));
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            len = Math.min(len, buffer.remaining());
+            buffer.get(b, off, len);
+            return len;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.persist;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * ImageSectionOutputStream counts the written bytes and computes the crc32 of the current section,
+ * the sections are recorded into ImageIndex. The sections may be nested, e.g. each database is a
+ * sub section of the db section, the crc32 is only computed for the innermost section.
+ */
+public class ImageSectionOutputStream extends FilterOutputStream {
+    private final List<ImageIndex.Section> sections = Lists.newArrayList();
+    private final List<String> openNames = Lists.newArrayList();
+    private final List<Long> openOffsets = Lists.newArrayList();
+    private final CRC32 crc32 = new CRC32();
+    private long position = 0;
+
+    public ImageSectionOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public void beginSection(String name) {
+        openNames.add(name);
+        openOffsets.add(position);
+        crc32.reset();
+    }
+
+    public ImageIndex.Section endSection() {
+        Preconditions.checkState(!openNames.isEmpty(), "no section is open");
+        int last = openNames.size() - 1;
+        long offset = openOffsets.remove(last);
+        // the outer section covers the inner ones, so its crc32 is not computed
+        boolean isInnermost = sections.isEmpty() || sections.get(sections.size() - 1).getOffset() < offset;
+        ImageIndex.Section section = new ImageIndex.Section(openNames.remove(last), offset, position - offset,
+                isInnermost ? crc32.getValue() : 0);
+        sections.add(section);
+        return section;
+    }
+
+    public ImageIndex getIndex() {
+        Preconditions.checkState(openNames.isEmpty(), "section %s is not ended", openNames);
+        List<ImageIndex.Section> sorted = Lists.newArrayList(sections);
+        sorted.sort((s1, s2) -> s1.getOffset() != s2.getOffset() ? Long.compare(s1.getOffset(), s2.getOffset()) :
+                Long.compare(s2.getLength(), s1.getLength()));
+        return new ImageIndex(sorted);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        crc32.update(b);
+        position++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        crc32.update(b, off, len);
+        position += len;
+    }
+}
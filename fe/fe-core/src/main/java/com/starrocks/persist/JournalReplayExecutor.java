@@ -0,0 +1,104 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.persist;
+
+import com.google.common.collect.Lists;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.common.ThreadPoolManager;
+import com.starrocks.journal.JournalEntity;
+import com.starrocks.meta.MetaContext;
+import com.starrocks.transaction.TransactionState;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * JournalReplayExecutor replays the journals of different databases in parallel.
+ * The journals are dispatched to the lanes by the replay key, each lane is a single thread, so the journals
+ * of the same key are replayed in order. The journal without replay key is a barrier, the caller must wait
+ * for all the submitted journals to finish before replaying it.
+ */
+public class JournalReplayExecutor {
+    private static final Logger LOG = LogManager.getLogger(JournalReplayExecutor.class);
+
+    // the max number of journals submitted before waiting them to finish
+    public static final int MAX_PENDING_NUM = 4096;
+
+    private final ThreadPoolExecutor[] lanes;
+    private final List<Future<?>> pendingFutures = Lists.newArrayList();
+
+    public JournalReplayExecutor(int laneNum) {
+        lanes = new ThreadPoolExecutor[laneNum];
+        for (int i = 0; i < laneNum; i++) {
+            lanes[i] = ThreadPoolManager.newDaemonFixedThreadPool(1, MAX_PENDING_NUM, "journal-replayer-" + i, false);
+        }
+    }
+
+    public int getLaneNum() {
+        return lanes.length;
+    }
+
+    /**
+     * Return the key of the journal which can be replayed in parallel with the journals of other keys,
+     * or -1 if the journal must be replayed exclusively. Only the frequent operations which touch one database
+     * and its transaction manager are replayed in parallel, the key is the database id.
+     */
+    public static long getReplayKey(JournalEntity journal) {
+        switch (journal.getOpCode()) {
+            case OperationType.OP_UPSERT_TRANSACTION_STATE:
+            case OperationType.OP_DELETE_TRANSACTION_STATE:
+                return ((TransactionState) journal.getData()).getDbId();
+            case OperationType.OP_ADD_REPLICA:
+            case OperationType.OP_UPDATE_REPLICA:
+            case OperationType.OP_DELETE_REPLICA:
+                return ((ReplicaPersistInfo) journal.getData()).getDbId();
+            default:
+                return -1;
+        }
+    }
+
+    public void submit(Catalog catalog, long key, JournalEntity journal) {
+        // the replay needs the meta version of the replayer thread
+        MetaContext metaContext = MetaContext.get();
+        ThreadPoolExecutor lane = lanes[(int) (key % lanes.length)];
+        pendingFutures.add(lane.submit(() -> {
+            if (metaContext != null) {
+                metaContext.setThreadLocalInfo();
+            }
+            try {
+                EditLog.loadJournal(catalog, journal);
+            } finally {
+                MetaContext.remove();
+            }
+        }));
+    }
+
+    public int getPendingNum() {
+        return pendingFutures.size();
+    }
+
+    // Wait for all the submitted journals to finish
+    public void waitAll() {
+        try {
+            for (Future<?> future : pendingFutures) {
+                future.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            // same as the failure of EditLog.loadJournal, the catalog is not consistent with the journals
+            LOG.error("failed to replay journal in parallel", e);
+            System.exit(-1);
+        } finally {
+            pendingFutures.clear();
+        }
+    }
+
+    public void shutdown() {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+    }
+}
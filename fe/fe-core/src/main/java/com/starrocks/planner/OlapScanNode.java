@@ -28,6 +28,7 @@ import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Range;
+import com.google.common.collect.Sets;
 import com.starrocks.analysis.Analyzer;
 import com.starrocks.analysis.BinaryPredicate;
 import com.starrocks.analysis.CastExpr;
@@ -53,6 +54,8 @@ import com.starrocks.catalog.PartitionType;
 import com.starrocks.catalog.RangePartitionInfo;
 import com.starrocks.catalog.Replica;
 import com.starrocks.catalog.Tablet;
+import com.starrocks.catalog.TabletInvertedIndex;
+import com.starrocks.catalog.TabletMeta;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.common.Config;
 import com.starrocks.common.ErrorCode;
@@ -83,6 +86,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 // Our new cost based query optimizer is more powerful and stable than old query optimizer,
@@ -119,6 +123,8 @@ public class OlapScanNode extends ScanNode {
     private long selectedIndexId = -1;
     private int selectedPartitionNum = 0;
     private Collection<Long> selectedPartitionIds = Lists.newArrayList();
+    // the visible versions of the partitions in scan ranges, partition id -> version
+    private final Map<Long, Long> scanPartitionVersions = Maps.newHashMap();
     private long totalBytes = 0;
     private long actualRows = 0;
 
@@ -171,6 +177,42 @@ public class OlapScanNode extends ScanNode {
         return selectedPartitionIds;
     }
 
+    public Map<Long, Long> getScanPartitionVersions() {
+        return scanPartitionVersions;
+    }
+
+    /**
+     * Remove the scan ranges of the partitions not in partitionIds after the scan ranges are computed,
+     * the result of the removed partitions is got from elsewhere, see PartitionResultCache.
+     * The versions of the removed partitions are kept, it's still the version of the query plan.
+     * Return false if the partition of a scan range is unknown, nothing is removed in this case.
+     */
+    public boolean retainScanPartitions(Set<Long> partitionIds) {
+        TabletInvertedIndex invertedIndex = Catalog.getCurrentInvertedIndex();
+        Set<Long> retainedTabletIds = Sets.newHashSet();
+        for (TScanRangeLocations locations : result) {
+            long tabletId = locations.getScan_range().getInternal_scan_range().getTablet_id();
+            TabletMeta tabletMeta = invertedIndex.getTabletMeta(tabletId);
+            if (tabletMeta == null) {
+                return false;
+            }
+            if (partitionIds.contains(tabletMeta.getPartitionId())) {
+                retainedTabletIds.add(tabletId);
+            }
+        }
+
+        Predicate<TScanRangeLocations> isRemoved = locations ->
+                !retainedTabletIds.contains(locations.getScan_range().getInternal_scan_range().getTablet_id());
+        result.removeIf(isRemoved);
+        bucketSeq2locations.values().removeIf(isRemoved);
+        scanTabletIds.retainAll(retainedTabletIds);
+        selectedTabletsNum = scanTabletIds.size();
+        selectedPartitionIds = selectedPartitionIds.stream().filter(partitionIds::contains)
+                .collect(Collectors.toList());
+        selectedPartitionNum = selectedPartitionIds.size();
+        return true;
+    }
+
     // The dict id int column ids to dict string column ids
     private Map<Integer, Integer> dictStringIdToIntIds = Maps.newHashMap();
 
@@ -373,6 +415,7 @@ public class OlapScanNode extends ScanNode {
         String schemaHashStr = String.valueOf(schemaHash);
         long visibleVersion = partition.getVisibleVersion();
         long visibleVersionHash = partition.getVisibleVersionHash();
+        scanPartitionVersions.put(partition.getId(), visibleVersion);
         String visibleVersionStr = String.valueOf(visibleVersion);
         String visibleVersionHashStr = String.valueOf(partition.getVisibleVersionHash());
 
@@ -77,6 +77,9 @@ public class AuditEvent {
     public boolean isQuery = false;
     @AuditField(value = "feIp")
     public String feIp = "";
+    // HIT or MISS if the query result can be cached, see QueryResultCache
+    @AuditField(value = "QueryCache")
+    public String queryCache = "";
     @AuditField(value = "Stmt")
     public String stmt = "";
 
@@ -161,6 +164,11 @@ public class AuditEvent {
             return this;
         }
 
+        public AuditEventBuilder setQueryCache(String queryCache) {
+            auditEvent.queryCache = queryCache;
+            return this;
+        }
+
         public AuditEventBuilder setStmt(String stmt) {
             auditEvent.stmt = stmt;
             return this;
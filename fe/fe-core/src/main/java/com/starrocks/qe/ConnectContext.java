@@ -22,7 +22,9 @@
 package com.starrocks.qe;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.starrocks.analysis.LiteralExpr;
 import com.starrocks.analysis.UserIdentity;
 import com.starrocks.catalog.Catalog;
 import com.starrocks.cluster.ClusterNamespace;
@@ -40,6 +42,7 @@ import org.apache.logging.log4j.Logger;
 
 import java.nio.channels.SocketChannel;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -135,6 +138,14 @@ public class ConnectContext {
 
     // The related db ids for current sql
     protected Set<Long> currentSqlDbIds = Sets.newHashSet();
+    // The literals of current sql parameterized by the plan cache when transforming the query, keyed by identity
+    protected Map<LiteralExpr, Integer> planCacheParameters;
+
+    // The server-side prepared statements of this connection, only accessed by the connection thread
+    protected Map<Integer, PreparedStatementContext> preparedStatements = Maps.newHashMap();
+    protected int nextPreparedStmtId = 1;
+    // The prepared statement being executed by COM_STMT_EXECUTE
+    protected PreparedStatementContext executingPreparedStatement;
 
     public static ConnectContext get() {
         return threadLocalInfo.get();
@@ -439,6 +450,46 @@ public class ConnectContext {
         this.currentSqlDbIds = currentSqlDbIds;
     }
 
+    public Map<LiteralExpr, Integer> getPlanCacheParameters() {
+        return planCacheParameters;
+    }
+
+    public void setPlanCacheParameters(Map<LiteralExpr, Integer> planCacheParameters) {
+        this.planCacheParameters = planCacheParameters;
+    }
+
+    public int getNextPreparedStmtId() {
+        return nextPreparedStmtId++;
+    }
+
+    public void addPreparedStatement(PreparedStatementContext preparedStatement) {
+        preparedStatements.put(preparedStatement.getStmtId(), preparedStatement);
+    }
+
+    public PreparedStatementContext getPreparedStatement(int stmtId) {
+        return preparedStatements.get(stmtId);
+    }
+
+    public int getPreparedStatementNum() {
+        return preparedStatements.size();
+    }
+
+    public void removePreparedStatement(int stmtId) {
+        preparedStatements.remove(stmtId);
+    }
+
+    public void clearPreparedStatements() {
+        preparedStatements.clear();
+    }
+
+    public PreparedStatementContext getExecutingPreparedStatement() {
+        return executingPreparedStatement;
+    }
+
+    public void setExecutingPreparedStatement(PreparedStatementContext executingPreparedStatement) {
+        this.executingPreparedStatement = executingPreparedStatement;
+    }
+
     // kill operation with no protect.
     public void kill(boolean killConnection) {
         LOG.warn("kill timeout query, {}, kill connection: {}",
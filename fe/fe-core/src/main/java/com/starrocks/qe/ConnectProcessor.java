@@ -22,7 +22,10 @@
 package com.starrocks.qe;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 import com.starrocks.analysis.KillStmt;
+import com.starrocks.analysis.QueryStmt;
+import com.starrocks.analysis.ShowStmt;
 import com.starrocks.analysis.SqlParser;
 import com.starrocks.analysis.SqlScanner;
 import com.starrocks.analysis.StatementBase;
@@ -31,6 +34,7 @@ import com.starrocks.catalog.Catalog;
 import com.starrocks.catalog.Column;
 import com.starrocks.catalog.Database;
 import com.starrocks.catalog.Table;
+import com.starrocks.catalog.Type;
 import com.starrocks.cluster.ClusterNamespace;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.common.Config;
@@ -44,6 +48,7 @@ import com.starrocks.common.util.UUIDUtil;
 import com.starrocks.metric.MetricRepo;
 import com.starrocks.mysql.MysqlChannel;
 import com.starrocks.mysql.MysqlCommand;
+import com.starrocks.mysql.MysqlEofPacket;
 import com.starrocks.mysql.MysqlPacket;
 import com.starrocks.mysql.MysqlProto;
 import com.starrocks.mysql.MysqlSerializer;
@@ -51,6 +56,9 @@ import com.starrocks.mysql.MysqlServerStatusFlag;
 import com.starrocks.plugin.AuditEvent.EventType;
 import com.starrocks.proto.PQueryStatistics;
 import com.starrocks.service.FrontendOptions;
+import com.starrocks.sql.analyzer.SemanticException;
+import com.starrocks.sql.common.ErrorType;
+import com.starrocks.sql.common.StarRocksPlannerException;
 import com.starrocks.thrift.TMasterOpRequest;
 import com.starrocks.thrift.TMasterOpResult;
 import com.starrocks.thrift.TQueryOptions;
@@ -62,6 +70,7 @@ import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
 import java.nio.channels.AsynchronousCloseException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -115,6 +124,7 @@ public class ConnectProcessor {
     // COM_RESET_CONNECTION: reset current connection session variables
     private void handleResetConnnection() throws IOException {
         resetConnectionSession();
+        ctx.clearPreparedStatements();
         ctx.getState().setOk();
     }
 
@@ -203,7 +213,6 @@ public class ConnectProcessor {
 
     // process COM_QUERY statement,
     private void handleQuery() {
-        MetricRepo.COUNTER_REQUEST_ALL.increase(1L);
         // convert statement to Java string
         String originStmt = null;
         try {
@@ -219,6 +228,12 @@ public class ConnectProcessor {
             ctx.getState().setError("Unsupported character set(UTF-8)");
             return;
         }
+        executeQuery(originStmt, null);
+    }
+
+    // execute the statements of COM_QUERY and COM_STMT_EXECUTE, boundStmt is the query bound by COM_STMT_EXECUTE
+    private void executeQuery(String originStmt, QueryStmt boundStmt) {
+        MetricRepo.COUNTER_REQUEST_ALL.increase(1L);
         ctx.getAuditEventBuilder().reset();
         ctx.getAuditEventBuilder()
                 .setTimestamp(System.currentTimeMillis())
@@ -230,7 +245,7 @@ public class ConnectProcessor {
         StatementBase parsedStmt = null;
         try {
             ctx.setQueryId(UUIDUtil.genUUID());
-            List<StatementBase> stmts = analyze(originStmt);
+            List<StatementBase> stmts = boundStmt != null ? Lists.newArrayList(boundStmt) : analyze(originStmt);
             for (int i = 0; i < stmts.size(); ++i) {
                 ctx.getState().reset();
                 if (i > 0) {
@@ -238,7 +253,9 @@ public class ConnectProcessor {
                     ctx.setQueryId(UUIDUtil.genUUID());
                 }
                 parsedStmt = stmts.get(i);
-                parsedStmt.setOrigStmt(new OriginStatement(originStmt, i));
+                if (boundStmt == null) {
+                    parsedStmt.setOrigStmt(new OriginStatement(originStmt, i));
+                }
 
                 executor = new StmtExecutor(ctx, parsedStmt);
                 ctx.setExecutor(executor);
@@ -297,10 +314,17 @@ public class ConnectProcessor {
 
     // analyze the origin stmt and return multi-statements
     private List<StatementBase> analyze(String originStmt) throws AnalysisException {
-        LOG.debug("the originStmts are: {}", originStmt);
+        return analyze(originStmt, createParser(originStmt));
+    }
+
+    private SqlParser createParser(String originStmt) {
         // Parse statement with parser generated by CUP&FLEX
         SqlScanner input = new SqlScanner(new StringReader(originStmt), ctx.getSessionVariable().getSqlMode());
-        SqlParser parser = new SqlParser(input);
+        return new SqlParser(input);
+    }
+
+    private List<StatementBase> analyze(String originStmt, SqlParser parser) throws AnalysisException {
+        LOG.debug("the originStmts are: {}", originStmt);
         try {
             return SqlParserUtils.getMultiStmts(parser);
         } catch (Error e) {
@@ -326,6 +350,160 @@ public class ConnectProcessor {
         }
     }
 
+    // COM_STMT_PREPARE: parse the statement, send the statement id, the parameters and the result columns
+    private void handleStmtPrepare() throws IOException {
+        String originStmt = new String(packetBuf.array(), packetBuf.position(), packetBuf.remaining(),
+                StandardCharsets.UTF_8);
+        if (ctx.getPreparedStatementNum() >= Config.max_prepared_stmt_count_per_connection) {
+            ctx.getState().setError("Too many prepared statements, the max number is " +
+                    Config.max_prepared_stmt_count_per_connection);
+            return;
+        }
+        PreparedStatementContext preparedStmt;
+        try {
+            SqlParser parser = createParser(originStmt);
+            List<StatementBase> stmts = analyze(originStmt, parser);
+            if (stmts.size() != 1) {
+                ctx.getState().setError("Multi-statements are not supported in prepared statement");
+                return;
+            }
+            StatementBase stmt = stmts.get(0);
+            // the result set of prepared statement is sent in binary protocol, which is only supported by query
+            if (stmt instanceof ShowStmt || (stmt instanceof QueryStmt && ((QueryStmt) stmt).isExplain())) {
+                ctx.getState().setError("This statement is not supported in prepared statement protocol");
+                return;
+            }
+            preparedStmt = new PreparedStatementContext(ctx.getNextPreparedStmtId(), originStmt, stmt,
+                    parser.placeholders);
+            analyzePreparedStatement(preparedStmt);
+        } catch (AnalysisException | SemanticException e) {
+            ctx.getState().setError(e.getMessage());
+            ctx.getState().setErrType(QueryState.ErrType.ANALYSIS_ERR);
+            return;
+        }
+        ctx.addPreparedStatement(preparedStmt);
+
+        MysqlSerializer serializer = ctx.getSerializer();
+        MysqlChannel channel = ctx.getMysqlChannel();
+        List<String> columnNames = preparedStmt.getColumnNames();
+        List<Type> columnTypes = preparedStmt.getColumnTypes();
+        serializer.reset();
+        serializer.writeInt1(0x00);
+        serializer.writeInt4(preparedStmt.getStmtId());
+        serializer.writeInt2(columnNames.size());
+        serializer.writeInt2(preparedStmt.getParamNum());
+        serializer.writeInt1(0x00);
+        // warning count
+        serializer.writeInt2(0);
+        channel.sendOnePacket(serializer.toByteBuffer());
+        if (preparedStmt.getParamNum() > 0) {
+            for (int i = 0; i < preparedStmt.getParamNum(); i++) {
+                serializer.reset();
+                serializer.writeField("?", Type.VARCHAR);
+                channel.sendOnePacket(serializer.toByteBuffer());
+            }
+            serializer.reset();
+            new MysqlEofPacket(ctx.getState()).writeTo(serializer);
+            channel.sendOnePacket(serializer.toByteBuffer());
+        }
+        if (!columnNames.isEmpty()) {
+            for (int i = 0; i < columnNames.size(); i++) {
+                serializer.reset();
+                serializer.writeField(columnNames.get(i), columnTypes.get(i));
+                channel.sendOnePacket(serializer.toByteBuffer());
+            }
+            serializer.reset();
+            new MysqlEofPacket(ctx.getState()).writeTo(serializer);
+            channel.sendOnePacket(serializer.toByteBuffer());
+        }
+        channel.flush();
+        // the response has been sent
+        ctx.getState().setStateType(QueryState.MysqlStateType.NOOP);
+    }
+
+    private void analyzePreparedStatement(PreparedStatementContext preparedStmt) throws AnalysisException {
+        try {
+            preparedStmt.analyze(ctx);
+        } catch (StarRocksPlannerException e) {
+            if (e.getType() == ErrorType.USER_ERROR) {
+                throw new AnalysisException(e.getMessage());
+            }
+            // the query not supported by the new analyzer is checked by the old planner when executing,
+            // and its result columns are unknown until then
+            LOG.info("Failed to analyze prepared statement: {}", preparedStmt.getSql(), e);
+        }
+    }
+
+    // COM_STMT_EXECUTE: bind the parameters and execute the prepared statement
+    private void handleStmtExecute() {
+        int stmtId = MysqlProto.readInt4(packetBuf);
+        PreparedStatementContext preparedStmt = ctx.getPreparedStatement(stmtId);
+        if (preparedStmt == null) {
+            ctx.getState().setError("Unknown prepared statement handler(" + stmtId + ")");
+            return;
+        }
+        // flags, the cursor is not supported
+        MysqlProto.readInt1(packetBuf);
+        // iteration count, always 1
+        MysqlProto.readInt4(packetBuf);
+        if (!preparedStmt.isQuery()) {
+            // the statement without parameters
+            executeQuery(preparedStmt.getSql(), null);
+            return;
+        }
+        QueryStmt boundStmt;
+        try {
+            boundStmt = preparedStmt.bind(packetBuf);
+        } catch (AnalysisException | RuntimeException e) {
+            LOG.warn("Failed to bind parameters of prepared statement {}", stmtId, e);
+            ctx.getState().setError("Malformed parameters of prepared statement(" + stmtId + ")");
+            return;
+        } finally {
+            preparedStmt.resetLongData();
+        }
+        ctx.setExecutingPreparedStatement(preparedStmt);
+        try {
+            executeQuery(boundStmt.getOrigStmt().originStmt, boundStmt);
+        } finally {
+            ctx.setExecutingPreparedStatement(null);
+        }
+    }
+
+    // COM_STMT_SEND_LONG_DATA: append the data of one parameter, no response is sent
+    private void handleStmtSendLongData() {
+        int stmtId = MysqlProto.readInt4(packetBuf);
+        int paramId = MysqlProto.readInt2(packetBuf);
+        PreparedStatementContext preparedStmt = ctx.getPreparedStatement(stmtId);
+        if (preparedStmt != null) {
+            byte[] data = new byte[packetBuf.remaining()];
+            packetBuf.get(data);
+            try {
+                preparedStmt.appendLongData(paramId, data);
+            } catch (IllegalArgumentException e) {
+                LOG.warn("Failed to send long data of prepared statement {}", stmtId, e);
+            }
+        }
+        ctx.getState().setStateType(QueryState.MysqlStateType.NOOP);
+    }
+
+    // COM_STMT_CLOSE: deallocate the prepared statement, no response is sent
+    private void handleStmtClose() {
+        ctx.removePreparedStatement(MysqlProto.readInt4(packetBuf));
+        ctx.getState().setStateType(QueryState.MysqlStateType.NOOP);
+    }
+
+    // COM_STMT_RESET: clear the data sent by COM_STMT_SEND_LONG_DATA
+    private void handleStmtReset() {
+        int stmtId = MysqlProto.readInt4(packetBuf);
+        PreparedStatementContext preparedStmt = ctx.getPreparedStatement(stmtId);
+        if (preparedStmt == null) {
+            ctx.getState().setError("Unknown prepared statement handler(" + stmtId + ")");
+            return;
+        }
+        preparedStmt.resetLongData();
+        ctx.getState().setOk();
+    }
+
     // Get the column definitions of a table
     private void handleFieldList() throws IOException {
         // Already get command code.
@@ -409,6 +587,22 @@ public class ConnectProcessor {
             case COM_PING:
                 handlePing();
                 break;
+            case COM_STMT_PREPARE:
+                handleStmtPrepare();
+                break;
+            case COM_STMT_EXECUTE:
+                handleStmtExecute();
+                ctx.setStartTime();
+                break;
+            case COM_STMT_SEND_LONG_DATA:
+                handleStmtSendLongData();
+                break;
+            case COM_STMT_CLOSE:
+                handleStmtClose();
+                break;
+            case COM_STMT_RESET:
+                handleStmtReset();
+                break;
             default:
                 ctx.getState().setError("Unsupported command(" + command + ")");
                 LOG.warn("Unsupported command(" + command + ")");
@@ -479,8 +673,8 @@ public class ConnectProcessor {
         MysqlChannel channel = ctx.getMysqlChannel();
         channel.sendAndFlush(packet);
 
-        // only change lastQueryId when current command is COM_QUERY
-        if (ctx.getCommand() == MysqlCommand.COM_QUERY) {
+        // only change lastQueryId when current command is COM_QUERY or COM_STMT_EXECUTE
+        if (ctx.getCommand() == MysqlCommand.COM_QUERY || ctx.getCommand() == MysqlCommand.COM_STMT_EXECUTE) {
             ctx.setLastQueryId(ctx.queryId);
             ctx.setQueryId(null);
         }
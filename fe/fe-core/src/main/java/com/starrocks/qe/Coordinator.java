@@ -92,6 +92,7 @@ import com.starrocks.thrift.TScanRangeParams;
 import com.starrocks.thrift.TStatusCode;
 import com.starrocks.thrift.TTabletCommitInfo;
 import com.starrocks.thrift.TUniqueId;
+import com.starrocks.thrift.TUnit;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.thrift.TException;
@@ -486,7 +487,13 @@ public class Coordinator {
         }
         lock();
         try {
-            // execute all instances from up to bottom
+            long dispatchStartTime = System.nanoTime();
+            // The instances of a fragment must have been prepared before the instances of its child fragments send
+            // data to them, and the fragments don't depend on each other otherwise. So the fragments are dispatched
+            // level by level from up to bottom, the instances of all the fragments in one level are dispatched
+            // together, rather than waiting for the instances of each fragment in turn.
+            Map<PlanFragmentId, Integer> fragmentLevels = Maps.newHashMap();
+            List<List<BackendExecState>> levelExecStates = Lists.newArrayList();
             int backendId = 0;
             int profileFragmentId = 0;
             for (PlanFragment fragment : fragments) {
@@ -496,7 +503,6 @@ public class Coordinator {
                 int instanceNum = params.instanceExecParams.size();
                 Preconditions.checkState(instanceNum > 0);
                 List<TExecPlanFragmentParams> tParams = params.toThrift(backendId);
-                List<Pair<BackendExecState, Future<PExecPlanFragmentResult>>> futures = Lists.newArrayList();
 
                 boolean needCheckBackendState = false;
                 if (queryOptions.getQuery_type() == TQueryType.LOAD && profileFragmentId == 0) {
@@ -506,6 +512,10 @@ public class Coordinator {
                     needCheckBackendState = true;
                 }
 
+                int level = getFragmentLevel(fragment, fragmentLevels);
+                while (levelExecStates.size() <= level) {
+                    levelExecStates.add(Lists.newArrayList());
+                }
                 int instanceId = 0;
                 for (TExecPlanFragmentParams tParam : tParams) {
                     // TODO: pool of pre-formatted BackendExecStates?
@@ -519,10 +529,18 @@ public class Coordinator {
                                     fragment.getFragmentId().asInt(), jobId);
                         }
                     }
-                    futures.add(Pair.create(execState, execState.execRemoteFragmentAsync()));
+                    levelExecStates.get(level).add(execState);
 
                     backendId++;
                 }
+                profileFragmentId += 1;
+            }
+
+            for (List<BackendExecState> execStates : levelExecStates) {
+                List<Pair<BackendExecState, Future<PExecPlanFragmentResult>>> futures = Lists.newArrayList();
+                for (BackendExecState execState : execStates) {
+                    futures.add(Pair.create(execState, execState.execRemoteFragmentAsync()));
+                }
                 for (Pair<BackendExecState, Future<PExecPlanFragmentResult>> pair : futures) {
                     TStatusCode code;
                     String errMsg = null;
@@ -550,7 +568,7 @@ public class Coordinator {
                         }
                         queryStatus.setStatus(errMsg);
                         LOG.warn("exec plan fragment failed, errmsg={}, code: {}, fragmentId={}, backend={}:{}",
-                                errMsg, code, fragment.getFragmentId(),
+                                errMsg, code, pair.first.fragmentId,
                                 pair.first.address.hostname, pair.first.address.port);
                         cancelInternal(PPlanFragmentCancelReason.INTERNAL_ERROR);
                         switch (Objects.requireNonNull(code)) {
@@ -564,14 +582,27 @@ public class Coordinator {
                         }
                     }
                 }
-                profileFragmentId += 1;
             }
+            queryProfile.addCounter("DispatchTime", TUnit.TIME_NS, "")
+                    .setValue(System.nanoTime() - dispatchStartTime);
+            queryProfile.addCounter("DispatchLevelNum", TUnit.UNIT, "").setValue(levelExecStates.size());
             attachInstanceProfileToFragmentProfile();
         } finally {
             unlock();
         }
     }
 
+    // The level of the root fragment is 0, and the level of a fragment is the level of its destination plus 1
+    private static int getFragmentLevel(PlanFragment fragment, Map<PlanFragmentId, Integer> fragmentLevels) {
+        Integer level = fragmentLevels.get(fragment.getFragmentId());
+        if (level == null) {
+            PlanFragment dest = fragment.getDestFragment();
+            level = dest == null ? 0 : getFragmentLevel(dest, fragmentLevels) + 1;
+            fragmentLevels.put(fragment.getFragmentId(), level);
+        }
+        return level;
+    }
+
     private final Map<TNetworkAddress, Integer> hostToNumbers = Maps.newHashMap();
 
     // Compute the fragment instance numbers in every BE for one query
@@ -42,6 +42,7 @@ public final class GlobalVariable {
     public static final String INIT_CONNECT = "init_connect";
     public static final String SYSTEM_TIME_ZONE = "system_time_zone";
     public static final String QUERY_CACHE_SIZE = "query_cache_size";
+    public static final String QUERY_CACHE_LIMIT = "query_cache_limit";
     public static final String DEFAULT_ROWSET_TYPE = "default_rowset_type";
 
     @VariableMgr.VarAttr(name = VERSION_COMMENT, flag = VariableMgr.READ_ONLY)
@@ -72,7 +73,11 @@ public final class GlobalVariable {
 
     // The amount of memory allocated for caching query results
     @VariableMgr.VarAttr(name = QUERY_CACHE_SIZE, flag = VariableMgr.GLOBAL)
-    private static volatile long queryCacheSize = 1048576;
+    public static volatile long queryCacheSize = 1048576;
+
+    // Do not cache the results that are larger than this number of bytes
+    @VariableMgr.VarAttr(name = QUERY_CACHE_LIMIT, flag = VariableMgr.GLOBAL)
+    public static volatile long queryCacheLimit = 1048576;
 
     @VariableMgr.VarAttr(name = DEFAULT_ROWSET_TYPE, flag = VariableMgr.GLOBAL)
     public static volatile String defaultRowsetType = "alpha";
@@ -0,0 +1,314 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.qe;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Range;
+import com.starrocks.analysis.AnalyticExpr;
+import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.GroupByClause;
+import com.starrocks.analysis.InlineViewRef;
+import com.starrocks.analysis.OrderByElement;
+import com.starrocks.analysis.PartitionValue;
+import com.starrocks.analysis.QueryStmt;
+import com.starrocks.analysis.SelectListItem;
+import com.starrocks.analysis.SelectStmt;
+import com.starrocks.analysis.SlotRef;
+import com.starrocks.analysis.TableRef;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.PartitionInfo;
+import com.starrocks.catalog.PartitionKey;
+import com.starrocks.catalog.PartitionType;
+import com.starrocks.catalog.RangePartitionInfo;
+import com.starrocks.common.AnalysisException;
+import com.starrocks.mysql.MysqlChannel;
+import com.starrocks.mysql.MysqlProto;
+import com.starrocks.planner.OlapScanNode;
+import com.starrocks.planner.ScanNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PartitionResultCache caches the result of a query per partition, so that only the partitions whose versions
+ * changed are executed when the query is repeated, e.g. the aggregation over a date range where only the latest
+ * partition is loaded.
+ * The query must scan one range partitioned table, group by its partition column and output the column, so each
+ * row of the result is computed from exactly one partition, and is assigned to the partition by the value of the
+ * partition column. The scan ranges of the cached partitions are removed from the plan, the fresh rows are merged
+ * with the cached ones in the order of partition ranges, so ORDER BY the partition column is kept as well.
+ * The entries of partitions are stored in QueryResultCache.
+ */
+public class PartitionResultCache {
+    private static final Logger LOG = LogManager.getLogger(PartitionResultCache.class);
+
+    private static final int NULL_BYTE = 251;
+
+    private final String stmt;
+    private final OlapScanNode scanNode;
+    private final List<Column> partitionColumns;
+    // the index of partition column in the result columns
+    private final int partitionColumnIndex;
+    // the scanned partitions in the order of the result
+    private final List<Long> partitionIds = Lists.newArrayList();
+    private final Map<Long, Integer> partitionIndexes = Maps.newHashMap();
+    private final Map<Long, Range<PartitionKey>> partitionRanges = Maps.newHashMap();
+
+    // partition id -> rows, for the cached partitions
+    private final Map<Long, List<ByteBuffer>> cachedRows = Maps.newHashMap();
+    // partition id -> rows to cache, for the partitions executed
+    private final Map<Long, QueryResultCache.ResultBuilder> resultBuilders = Maps.newHashMap();
+    // the cached rows of partitions before this index in partitionIds have been sent
+    private int nextPartitionIndex = 0;
+    // some fresh row can't be assigned to a partition, nothing is cached
+    private boolean isUnassigned = false;
+
+    private PartitionResultCache(String stmt, OlapScanNode scanNode, List<Column> partitionColumns,
+                                 int partitionColumnIndex) {
+        this.stmt = stmt;
+        this.scanNode = scanNode;
+        this.partitionColumns = partitionColumns;
+        this.partitionColumnIndex = partitionColumnIndex;
+    }
+
+    /**
+     * Create the partition cache of the query, or return null if the result can't be cached per partition.
+     */
+    public static PartitionResultCache create(ConnectContext context, QueryStmt queryStmt, String sql,
+                                              List<ScanNode> scanNodes, List<String> colNames,
+                                              List<Expr> outputExprs) {
+        QueryResultCache.Key key = QueryResultCache.createKey(context, sql, scanNodes, colNames, outputExprs);
+        if (key == null || scanNodes.size() != 1 || !(queryStmt instanceof SelectStmt)) {
+            return null;
+        }
+        // the rows of partitions are not limited independently
+        SelectStmt selectStmt = (SelectStmt) queryStmt;
+        if (selectStmt.hasWithClause() || selectStmt.hasLimit() || selectStmt.hasOffset()
+                || context.getSessionVariable().getSqlSelectLimit() != SessionVariable.DEFAULT_SELECT_LIMIT) {
+            return null;
+        }
+
+        OlapScanNode scanNode = (OlapScanNode) scanNodes.get(0);
+        OlapTable table = scanNode.getOlapTable();
+        if (selectStmt.getTableRefs().size() != 1) {
+            return null;
+        }
+        TableRef tableRef = selectStmt.getTableRefs().get(0);
+        if (tableRef instanceof InlineViewRef || tableRef.getName() == null
+                || !table.getName().equals(tableRef.getName().getTbl())) {
+            return null;
+        }
+        PartitionInfo partitionInfo = table.getPartitionInfo();
+        if (partitionInfo.getType() != PartitionType.RANGE
+                || ((RangePartitionInfo) partitionInfo).getPartitionColumns().size() != 1) {
+            return null;
+        }
+        RangePartitionInfo rangePartitionInfo = (RangePartitionInfo) partitionInfo;
+        String partitionColumn = rangePartitionInfo.getPartitionColumns().get(0).getName();
+
+        GroupByClause groupByClause = selectStmt.getGroupByClause();
+        if (groupByClause == null || groupByClause.isGroupByExtension()
+                || groupByClause.getOriGroupingExprs().stream().noneMatch(e -> isColumn(e, partitionColumn))) {
+            return null;
+        }
+
+        List<SelectListItem> items = selectStmt.getSelectList().getItems();
+        if (items.size() != colNames.size()) {
+            return null;
+        }
+        int partitionColumnIndex = -1;
+        for (int i = 0; i < items.size(); i++) {
+            SelectListItem item = items.get(i);
+            // the window function computes across the groups of partitions
+            if (item.isStar() || item.getExpr().contains(AnalyticExpr.class)) {
+                return null;
+            }
+            if (partitionColumnIndex < 0 && isColumn(item.getExpr(), partitionColumn)) {
+                partitionColumnIndex = i;
+            }
+        }
+        if (partitionColumnIndex < 0) {
+            return null;
+        }
+
+        // the nulls are in the first partition, same as the default order of nulls
+        boolean isAsc = true;
+        List<OrderByElement> orderByElements = selectStmt.getOrderByElements();
+        if (orderByElements != null && !orderByElements.isEmpty()) {
+            if (orderByElements.size() != 1 || orderByElements.get(0).getNullsFirstParam() != null) {
+                return null;
+            }
+            Expr orderByExpr = orderByElements.get(0).getExpr();
+            String alias = items.get(partitionColumnIndex).getAlias();
+            if (!isColumn(orderByExpr, partitionColumn) && (alias == null || !isColumn(orderByExpr, alias))) {
+                return null;
+            }
+            isAsc = orderByElements.get(0).getIsAsc();
+        }
+
+        Map<Long, Long> partitionVersions = key.getPartitionVersions();
+        if (partitionVersions.isEmpty()) {
+            return null;
+        }
+        List<Map.Entry<Long, Range<PartitionKey>>> sortedRanges;
+        try {
+            sortedRanges = rangePartitionInfo.getSortedRangeMap(partitionVersions.keySet());
+        } catch (AnalysisException e) {
+            // the partition is dropped
+            return null;
+        }
+        if (!isAsc) {
+            Collections.reverse(sortedRanges);
+        }
+
+        PartitionResultCache cache = new PartitionResultCache(key.getStmt(), scanNode,
+                rangePartitionInfo.getPartitionColumns(), partitionColumnIndex);
+        for (Map.Entry<Long, Range<PartitionKey>> entry : sortedRanges) {
+            cache.partitionIndexes.put(entry.getKey(), cache.partitionIds.size());
+            cache.partitionIds.add(entry.getKey());
+            cache.partitionRanges.put(entry.getKey(), entry.getValue());
+        }
+        return cache;
+    }
+
+    private static boolean isColumn(Expr expr, String columnName) {
+        return expr instanceof SlotRef && columnName.equalsIgnoreCase(((SlotRef) expr).getColumnName());
+    }
+
+    private QueryResultCache.Key getPartitionKey(long partitionId) {
+        long version = scanNode.getScanPartitionVersions().get(partitionId);
+        return new QueryResultCache.Key(stmt + "|partition " + partitionId, ImmutableMap.of(partitionId, version));
+    }
+
+    /**
+     * Look up the cached results of partitions, and remove the scan ranges of the cached partitions.
+     * Return the cache status of the query.
+     */
+    public String lookup() {
+        for (long partitionId : partitionIds) {
+            List<ByteBuffer> rows = QueryResultCache.INSTANCE.get(getPartitionKey(partitionId));
+            if (rows != null) {
+                cachedRows.put(partitionId, rows);
+            } else {
+                resultBuilders.put(partitionId, new QueryResultCache.ResultBuilder());
+            }
+        }
+        if (resultBuilders.isEmpty()) {
+            return QueryResultCache.STATUS_HIT;
+        }
+        if (cachedRows.isEmpty()) {
+            return QueryResultCache.STATUS_MISS;
+        }
+        if (!scanNode.retainScanPartitions(resultBuilders.keySet())) {
+            // all the partitions are executed
+            for (long partitionId : cachedRows.keySet()) {
+                resultBuilders.put(partitionId, new QueryResultCache.ResultBuilder());
+            }
+            cachedRows.clear();
+            return QueryResultCache.STATUS_MISS;
+        }
+        return QueryResultCache.STATUS_PARTIAL_HIT;
+    }
+
+    public boolean isAllCached() {
+        return resultBuilders.isEmpty();
+    }
+
+    // Return the partition of the row, or null if it's unknown
+    private Long getPartitionOfRow(ByteBuffer row) {
+        ByteBuffer buffer = row.duplicate();
+        for (int i = 0; i < partitionColumnIndex; i++) {
+            if ((buffer.get(buffer.position()) & 0xFF) == NULL_BYTE) {
+                buffer.get();
+            } else {
+                long length = MysqlProto.readVInt(buffer);
+                buffer.position(buffer.position() + (int) length);
+            }
+        }
+
+        PartitionKey partitionKey;
+        try {
+            if ((buffer.get(buffer.position()) & 0xFF) == NULL_BYTE) {
+                partitionKey = PartitionKey.createInfinityPartitionKey(partitionColumns, false);
+            } else {
+                String value = new String(MysqlProto.readLenEncodedString(buffer), StandardCharsets.UTF_8);
+                partitionKey = PartitionKey.createPartitionKey(
+                        Lists.newArrayList(new PartitionValue(value)), partitionColumns);
+            }
+        } catch (AnalysisException e) {
+            LOG.warn("failed to get partition key of row, stmt: {}", stmt, e);
+            return null;
+        }
+        for (Map.Entry<Long, Range<PartitionKey>> entry : partitionRanges.entrySet()) {
+            if (entry.getValue().contains(partitionKey)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    // Send the cached rows of partitions before endIndex, return the number of rows
+    private int sendCachedRows(MysqlChannel channel, int endIndex) throws IOException {
+        int rowNum = 0;
+        for (; nextPartitionIndex < endIndex; nextPartitionIndex++) {
+            List<ByteBuffer> rows = cachedRows.get(partitionIds.get(nextPartitionIndex));
+            if (rows != null) {
+                channel.sendPacketsInPlace(rows);
+                rowNum += rows.size();
+            }
+        }
+        return rowNum;
+    }
+
+    /**
+     * Send the fresh rows, the cached rows of the partitions before them are sent first.
+     * Return the number of cached rows sent.
+     */
+    public int sendRows(MysqlChannel channel, List<ByteBuffer> rows) throws IOException {
+        int cachedRowNum = 0;
+        int start = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            Long partitionId = getPartitionOfRow(rows.get(i));
+            if (partitionId == null) {
+                isUnassigned = true;
+                continue;
+            }
+            int index = partitionIndexes.get(partitionId);
+            if (index > nextPartitionIndex) {
+                channel.sendPacketsInPlace(rows.subList(start, i));
+                start = i;
+                cachedRowNum += sendCachedRows(channel, index);
+            }
+            QueryResultCache.ResultBuilder builder = resultBuilders.get(partitionId);
+            if (builder != null) {
+                builder.addRow(rows.get(i));
+            }
+        }
+        channel.sendPacketsInPlace(rows.subList(start, rows.size()));
+        return cachedRowNum;
+    }
+
+    /**
+     * Send the rest cached rows after all the fresh rows are sent, and cache the results of the executed
+     * partitions. Return the number of cached rows sent.
+     */
+    public int finish(MysqlChannel channel) throws IOException {
+        int cachedRowNum = sendCachedRows(channel, partitionIds.size());
+        if (isUnassigned) {
+            return cachedRowNum;
+        }
+        for (Map.Entry<Long, QueryResultCache.ResultBuilder> entry : resultBuilders.entrySet()) {
+            QueryResultCache.INSTANCE.put(getPartitionKey(entry.getKey()), entry.getValue().build());
+        }
+        return cachedRowNum;
+    }
+}
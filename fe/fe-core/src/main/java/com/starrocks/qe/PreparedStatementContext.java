@@ -0,0 +1,264 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.qe;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.IntLiteral;
+import com.starrocks.analysis.LiteralExpr;
+import com.starrocks.analysis.NullLiteral;
+import com.starrocks.analysis.PlaceholderExpr;
+import com.starrocks.analysis.QueryStmt;
+import com.starrocks.analysis.StatementBase;
+import com.starrocks.analysis.StringLiteral;
+import com.starrocks.catalog.Type;
+import com.starrocks.common.AnalysisException;
+import com.starrocks.mysql.MysqlBinaryProtocol;
+import com.starrocks.mysql.MysqlProto;
+import com.starrocks.sql.analyzer.relation.QueryRelation;
+import com.starrocks.sql.plan.PlanCache;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * PreparedStatementContext is the server-side prepared statement created by COM_STMT_PREPARE.
+ * <p>
+ * The statement is parsed only once when preparing, the '?' placeholders are parsed as {@link PlaceholderExpr}.
+ * Each COM_STMT_EXECUTE binds the parameters to the placeholders and clones the parsed statement as the executed
+ * statement. Only query statement can have parameters, other statements are executed by their text.
+ * <p>
+ * The plan of the last execution is kept in the prepared statement instead of the global plan cache. It's reused
+ * if the parameters pruning partitions or tablets are not changed, the other parameters are bound to the plan,
+ * see {@link PlanCache}.
+ */
+public class PreparedStatementContext {
+    private final int stmtId;
+    private final String sql;
+    // The text between the placeholders, the size is the number of parameters plus one
+    private final List<String> sqlParts;
+    // The statement parsed when preparing, it's never analyzed and is cloned by every execution
+    private final StatementBase stmt;
+    private final List<PlaceholderExpr> placeholders;
+    // The result columns sent by COM_STMT_PREPARE, empty if the statement is not a query
+    private List<String> columnNames = Collections.emptyList();
+    private List<Type> columnTypes = Collections.emptyList();
+    // The parameter types sent by the first execution, the later executions may not send them again
+    private int[] paramTypes;
+    // The parameter values sent by COM_STMT_SEND_LONG_DATA
+    private final ByteArrayOutputStream[] longData;
+    // The plan of the last execution
+    private PlanCache.PlanCacheKey cachedPlanKey;
+    private PlanCache.CachedPlan cachedPlan;
+
+    public PreparedStatementContext(int stmtId, String sql, StatementBase stmt, List<PlaceholderExpr> placeholders)
+            throws AnalysisException {
+        this.stmtId = stmtId;
+        this.sql = sql;
+        this.sqlParts = splitByPlaceholder(sql);
+        this.stmt = stmt;
+        this.placeholders = placeholders;
+        if (!placeholders.isEmpty() && !(stmt instanceof QueryStmt)) {
+            throw new AnalysisException("Only query statement supports parameters in prepared statement");
+        }
+        // the text of executions is built by the split parts, which must match the parsed placeholders
+        if (sqlParts.size() - 1 != placeholders.size()) {
+            throw new AnalysisException("Unsupported parameter placeholders in prepared statement");
+        }
+        this.longData = new ByteArrayOutputStream[placeholders.size()];
+    }
+
+    public int getStmtId() {
+        return stmtId;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public int getParamNum() {
+        return placeholders.size();
+    }
+
+    public boolean isQuery() {
+        return stmt instanceof QueryStmt;
+    }
+
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    public List<Type> getColumnTypes() {
+        return columnTypes;
+    }
+
+    /**
+     * Analyze the query with NULL parameters to check it and get the result columns.
+     */
+    public void analyze(ConnectContext session) {
+        if (!isQuery()) {
+            return;
+        }
+        for (PlaceholderExpr placeholder : placeholders) {
+            placeholder.setValue(placeholder.isCount() ? new IntLiteral(0) : new NullLiteral());
+        }
+        QueryRelation relation = (QueryRelation) new com.starrocks.sql.analyzer.Analyzer(session.getCatalog(),
+                session).analyze(((QueryStmt) stmt).clone());
+        columnNames = relation.getColumnOutputNames();
+        columnTypes = relation.getOutputExpr().stream().map(Expr::getType).collect(Collectors.toList());
+    }
+
+    public void appendLongData(int paramId, byte[] data) {
+        if (paramId < 0 || paramId >= longData.length) {
+            throw new IllegalArgumentException("Invalid parameter id " + paramId);
+        }
+        if (longData[paramId] == null) {
+            longData[paramId] = new ByteArrayOutputStream();
+        }
+        longData[paramId].write(data, 0, data.length);
+    }
+
+    public void resetLongData() {
+        for (int i = 0; i < longData.length; i++) {
+            longData[i] = null;
+        }
+    }
+
+    /**
+     * Bind the parameters of COM_STMT_EXECUTE and return the query to execute.
+     * The buffer is positioned at the null bitmap of the parameters.
+     * https://dev.mysql.com/doc/internals/en/com-stmt-execute.html
+     */
+    public QueryStmt bind(ByteBuffer buffer) throws AnalysisException {
+        Preconditions.checkState(isQuery());
+        int paramNum = getParamNum();
+        StringBuilder sb = new StringBuilder(sql.length() + paramNum * 8);
+        sb.append(sqlParts.get(0));
+        if (paramNum > 0) {
+            byte[] nullBitmap = new byte[(paramNum + 7) / 8];
+            buffer.get(nullBitmap);
+            boolean newParamsBound = MysqlProto.readInt1(buffer) == 1;
+            if (newParamsBound) {
+                paramTypes = new int[paramNum];
+                for (int i = 0; i < paramNum; i++) {
+                    paramTypes[i] = MysqlProto.readInt2(buffer);
+                }
+            } else if (paramTypes == null) {
+                throw new IllegalArgumentException("The parameter types are not sent");
+            }
+
+            for (int i = 0; i < paramNum; i++) {
+                LiteralExpr value;
+                if ((nullBitmap[i / 8] & (1 << (i % 8))) != 0) {
+                    value = new NullLiteral();
+                } else if (longData[i] != null) {
+                    value = new StringLiteral(new String(longData[i].toByteArray(), StandardCharsets.UTF_8));
+                } else {
+                    value = MysqlBinaryProtocol.readParam(buffer, paramTypes[i]);
+                }
+                placeholders.get(i).setValue(value);
+                sb.append(toSqlText(value)).append(sqlParts.get(i + 1));
+            }
+        }
+
+        QueryStmt boundStmt = ((QueryStmt) stmt).clone();
+        // the text with the parameters is shown in audit log and profile, and is the key of plan and result cache
+        boundStmt.setOrigStmt(new OriginStatement(sb.toString(), 0));
+        return boundStmt;
+    }
+
+    // The string literal holds the unescaped value, so quote it as the literal in sql text
+    private static String toSqlText(LiteralExpr value) {
+        if (value instanceof NullLiteral) {
+            return "NULL";
+        } else if (value instanceof StringLiteral) {
+            return quote(value.getStringValue());
+        }
+        return value.getStringValue();
+    }
+
+    private static String quote(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2);
+        sb.append('\'');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\'' || c == '\\') {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+        sb.append('\'');
+        return sb.toString();
+    }
+
+    /**
+     * Return the plan of the last execution if it has the same key and is still valid.
+     */
+    public PlanCache.CachedPlan getCachedPlan(PlanCache.PlanCacheKey key) {
+        if (cachedPlan != null && key.withParameters(cachedPlan.getParameters()).equals(cachedPlanKey) &&
+                cachedPlan.isValid()) {
+            return cachedPlan;
+        }
+        return null;
+    }
+
+    public void setCachedPlan(PlanCache.PlanCacheKey key, PlanCache.CachedPlan plan) {
+        this.cachedPlanKey = plan != null ? key.withParameters(plan.getParameters()) : null;
+        this.cachedPlan = plan;
+    }
+
+    /**
+     * Split the statement by the '?' placeholders, which are not in quoted strings, quoted identifiers or comments.
+     */
+    public static List<String> splitByPlaceholder(String sql) {
+        List<String> parts = Lists.newArrayList();
+        int start = 0;
+        int i = 0;
+        int length = sql.length();
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = skipQuoted(sql, i, c);
+            } else if (c == '#' || (c == '-' && sql.startsWith("-- ", i))) {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? length : end + 1;
+            } else if (c == '/' && sql.startsWith("/*", i)) {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else if (c == '?') {
+                parts.add(sql.substring(start, i));
+                start = ++i;
+            } else {
+                i++;
+            }
+        }
+        parts.add(sql.substring(start));
+        return parts;
+    }
+
+    // Return the position after the closing quote
+    private static int skipQuoted(String sql, int begin, char quote) {
+        int i = begin + 1;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\\' && quote != '`') {
+                i += 2;
+            } else if (c == quote) {
+                // two quotes is the escaped quote
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        return sql.length();
+    }
+}
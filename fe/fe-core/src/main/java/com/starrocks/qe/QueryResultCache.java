@@ -0,0 +1,239 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.qe;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.analysis.Expr;
+import com.starrocks.catalog.Table;
+import com.starrocks.mysql.MysqlCommand;
+import com.starrocks.planner.OlapScanNode;
+import com.starrocks.planner.ScanNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * QueryResultCache caches the results of the repeated queries on FE, it's enabled by the session variable
+ * query_cache_type. Only the queries which scan olap tables and are deterministic are cached, the caller checks
+ * the latter with DeterministicChecker.
+ * The cache key is the sql together with the session variables and the result columns which affect the result.
+ * The entry records the visible versions of the partitions it scanned, it's stale and removed once the versions
+ * of the partitions scanned by the new query plan are different, e.g. a partition is loaded or dropped.
+ * The total size of the entries is limited by the global variable query_cache_size, the least recently used
+ * entries are evicted first. The result larger than query_cache_limit is not cached.
+ */
+public class QueryResultCache {
+    public static final QueryResultCache INSTANCE = new QueryResultCache();
+
+    public static final String STATUS_HIT = "HIT";
+    public static final String STATUS_PARTIAL_HIT = "PARTIAL_HIT";
+    public static final String STATUS_MISS = "MISS";
+
+    public static class Key {
+        private final String stmt;
+        // partition id -> visible version
+        private final Map<Long, Long> partitionVersions;
+
+        public Key(String stmt, Map<Long, Long> partitionVersions) {
+            this.stmt = stmt;
+            this.partitionVersions = partitionVersions;
+        }
+
+        public String getStmt() {
+            return stmt;
+        }
+
+        public Map<Long, Long> getPartitionVersions() {
+            return partitionVersions;
+        }
+    }
+
+    private static class Entry {
+        private final Map<Long, Long> partitionVersions;
+        // the rows, each one is preceded by its length in 4 bytes
+        private final byte[] data;
+        private final long bytes;
+
+        Entry(Key key, byte[] data) {
+            this.partitionVersions = key.getPartitionVersions();
+            this.data = data;
+            this.bytes = data.length + key.getStmt().length();
+        }
+    }
+
+    /**
+     * ResultBuilder collects the rows of a query for caching, it gives up once the result is larger than
+     * query_cache_limit.
+     */
+    public static class ResultBuilder {
+        private final long limit;
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(buffer);
+
+        public ResultBuilder() {
+            this.limit = Math.min(GlobalVariable.queryCacheLimit, GlobalVariable.queryCacheSize);
+        }
+
+        public void addRows(List<ByteBuffer> rows) throws IOException {
+            for (ByteBuffer row : rows) {
+                addRow(row);
+            }
+        }
+
+        public void addRow(ByteBuffer row) throws IOException {
+            if (buffer == null) {
+                return;
+            }
+            out.writeInt(row.remaining());
+            if (row.hasArray()) {
+                out.write(row.array(), row.arrayOffset() + row.position(), row.remaining());
+            } else {
+                byte[] bytes = new byte[row.remaining()];
+                row.duplicate().get(bytes);
+                out.write(bytes);
+            }
+            if (buffer.size() > limit) {
+                buffer = null;
+            }
+        }
+
+        // Return null if the result is too large to cache
+        public byte[] build() {
+            return buffer == null ? null : buffer.toByteArray();
+        }
+    }
+
+    // stmt -> entry, in the access order
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0;
+
+    private final AtomicLong hitCount = new AtomicLong(0);
+    private final AtomicLong missCount = new AtomicLong(0);
+
+    /**
+     * Create the cache key of the deterministic query, or return null if the query can't be cached.
+     */
+    public static Key createKey(ConnectContext context, String sql, List<ScanNode> scanNodes,
+                                List<String> colNames, List<Expr> outputExprs) {
+        SessionVariable sessionVariable = context.getSessionVariable();
+        if (!sessionVariable.isQueryCacheOn() || GlobalVariable.queryCacheSize <= 0) {
+            return null;
+        }
+        // the parameters of prepared statement are not in the sql
+        if (context.getCommand() == MysqlCommand.COM_STMT_EXECUTE) {
+            return null;
+        }
+        if (scanNodes.isEmpty()) {
+            return null;
+        }
+
+        Map<Long, Long> partitionVersions = Maps.newHashMap();
+        for (ScanNode scanNode : scanNodes) {
+            if (!(scanNode instanceof OlapScanNode)) {
+                return null;
+            }
+            OlapScanNode olapScanNode = (OlapScanNode) scanNode;
+            if (olapScanNode.getOlapTable().getType() != Table.TableType.OLAP) {
+                return null;
+            }
+            partitionVersions.putAll(olapScanNode.getScanPartitionVersions());
+        }
+
+        StringBuilder sb = new StringBuilder();
+        // the session variables which change the result of the same sql
+        sb.append(context.getDatabase()).append('|').append(sessionVariable.getTimeZone())
+                .append('|').append(sessionVariable.getSqlMode())
+                .append('|').append(sessionVariable.getSqlSelectLimit())
+                .append('|').append(sessionVariable.getCharsetResults())
+                .append('|').append(sessionVariable.getEnableGroupbyUseOutputAlias());
+        // the schema of table may be changed without new versions
+        for (int i = 0; i < colNames.size(); i++) {
+            sb.append('|').append(colNames.get(i)).append(' ').append(outputExprs.get(i).getOriginType());
+        }
+        sb.append('|').append(sql.trim());
+        return new Key(sb.toString(), partitionVersions);
+    }
+
+    /**
+     * Return the cached rows of the query, or null if there is no entry or the entry is stale.
+     * The rows are laid out as MysqlChannel.sendPacketsInPlace requires.
+     */
+    public List<ByteBuffer> get(Key key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key.getStmt());
+            if (entry != null && !entry.partitionVersions.equals(key.getPartitionVersions())) {
+                entries.remove(key.getStmt());
+                totalBytes -= entry.bytes;
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+
+        // the headers are written in the copy when sending
+        byte[] data = entry.data.clone();
+        List<ByteBuffer> rows = Lists.newArrayList();
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining()) {
+            int length = buffer.getInt();
+            rows.add(ByteBuffer.wrap(data, buffer.position(), length));
+            buffer.position(buffer.position() + length);
+        }
+        return rows;
+    }
+
+    public synchronized void put(Key key, byte[] data) {
+        if (data == null) {
+            return;
+        }
+        Entry entry = new Entry(key, data);
+        long capacity = GlobalVariable.queryCacheSize;
+        if (entry.bytes > capacity) {
+            return;
+        }
+        Entry prev = entries.put(key.getStmt(), entry);
+        if (prev != null) {
+            totalBytes -= prev.bytes;
+        }
+        totalBytes += entry.bytes;
+
+        Iterator<Map.Entry<String, Entry>> iter = entries.entrySet().iterator();
+        while (totalBytes > capacity && iter.hasNext()) {
+            totalBytes -= iter.next().getValue().bytes;
+            iter.remove();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int getEntryNum() {
+        return entries.size();
+    }
+}
@@ -21,6 +21,8 @@
 
 package com.starrocks.qe;
 
+import com.google.common.collect.Maps;
+import com.starrocks.common.Config;
 import com.starrocks.common.Status;
 import com.starrocks.metric.MetricRepo;
 import com.starrocks.proto.PFetchDataResult;
@@ -37,6 +39,9 @@ import org.apache.logging.log4j.Logger;
 import org.apache.thrift.TDeserializer;
 import org.apache.thrift.TException;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -53,6 +58,25 @@ public class ResultReceiver {
     private final Long backendId;
     private Thread currentThread;
 
+    // The fetch requests in flight, in the order of sending. Backend fills the requests in the order of
+    // arrival, so the packets may be received out of order, and they are reordered by packet sequence.
+    private final Deque<FetchTask> pendingFetches = new ArrayDeque<>();
+    private final Map<Long, FetchTask> receivedPackets = Maps.newHashMap();
+    // no more request is sent after the eos packet is received
+    private boolean isEosReceived = false;
+    private final TDeserializer deserializer = new TDeserializer();
+
+    private static class FetchTask {
+        private final PFetchDataRequest request;
+        private final Future<PFetchDataResult> future;
+        private PFetchDataResult result;
+
+        FetchTask(PFetchDataRequest request, Future<PFetchDataResult> future) {
+            this.request = request;
+            this.future = future;
+        }
+    }
+
     public ResultReceiver(TUniqueId tid, Long backendId, TNetworkAddress address, int timeoutMs) {
         this.finstId = new PUniqueId();
         this.finstId.hi = tid.hi;
@@ -69,48 +93,20 @@ public class ResultReceiver {
         final RowBatch rowBatch = new RowBatch();
         try {
             while (!isDone && !isCancel) {
-                PFetchDataRequest request = new PFetchDataRequest(finstId);
-
                 currentThread = Thread.currentThread();
-                Future<PFetchDataResult> future = BackendServiceProxy.getInstance().fetchDataAsync(address, request);
-                PFetchDataResult pResult = null;
-                while (pResult == null) {
-                    long currentTs = System.currentTimeMillis();
-                    if (currentTs >= timeoutTs) {
-                        throw new TimeoutException("query timeout");
-                    }
-                    try {
-                        pResult = future.get(timeoutTs - currentTs, TimeUnit.MILLISECONDS);
-                    } catch (InterruptedException e) {
-                        // continue to get result
-                        LOG.info("future get interrupted Exception");
-                        if (isCancel) {
-                            status.setStatus(Status.CANCELLED);
-                            return null;
-                        }
-                    }
-                }
-                TStatusCode code = TStatusCode.findByValue(pResult.status.status_code);
-                if (code != TStatusCode.OK) {
-                    status.setPstatus(pResult.status);
+                FetchTask task = fetchNextPacket(status);
+                if (task == null) {
                     return null;
                 }
-
+                PFetchDataResult pResult = task.result;
                 rowBatch.setQueryStatistics(pResult.query_statistics);
 
-                if (packetIdx != pResult.packet_seq) {
-                    LOG.warn("receive packet failed, expect={}, receive={}", packetIdx, pResult.packet_seq);
-                    status.setRpcStatus("receive error packet");
-                    return null;
-                }
-
                 packetIdx++;
                 isDone = pResult.eos;
 
-                byte[] serialResult = request.getSerializedResult();
+                byte[] serialResult = task.request.getSerializedResult();
                 if (serialResult != null && serialResult.length > 0) {
                     TResultBatch resultBatch = new TResultBatch();
-                    TDeserializer deserializer = new TDeserializer();
                     deserializer.deserialize(resultBatch, serialResult);
                     rowBatch.setBatch(resultBatch);
                     rowBatch.setEos(pResult.eos);
@@ -148,6 +144,88 @@ public class ResultReceiver {
         return rowBatch;
     }
 
+    /*
+     * Return the packet of packetIdx, or null if failed and the status is set.
+     * At most result_receiver_prefetch_num fetch requests are kept in flight, so that backend prepares the
+     * next batches while the current batch is sent to client.
+     */
+    private FetchTask fetchNextPacket(Status status) throws RpcException, ExecutionException, TimeoutException {
+        long startTime = System.nanoTime();
+        try {
+            while (true) {
+                FetchTask task = receivedPackets.remove(packetIdx);
+                if (task != null) {
+                    return task;
+                }
+
+                sendFetches();
+                task = pendingFetches.pollFirst();
+                if (task == null) {
+                    LOG.warn("receive packet failed, expect={}, no fetch request in flight", packetIdx);
+                    status.setRpcStatus("receive error packet");
+                    return null;
+                }
+                PFetchDataResult pResult = waitResult(task.future);
+                if (pResult == null) {
+                    status.setStatus(Status.CANCELLED);
+                    return null;
+                }
+                TStatusCode code = TStatusCode.findByValue(pResult.status.status_code);
+                if (code != TStatusCode.OK) {
+                    status.setPstatus(pResult.status);
+                    return null;
+                }
+                task.result = pResult;
+                if (pResult.eos) {
+                    isEosReceived = true;
+                }
+
+                if (pResult.packet_seq == packetIdx) {
+                    return task;
+                } else if (pResult.packet_seq > packetIdx) {
+                    // all the requests waiting in backend receive the eos packet of the same sequence
+                    receivedPackets.putIfAbsent(pResult.packet_seq, task);
+                } else {
+                    LOG.warn("receive packet failed, expect={}, receive={}", packetIdx, pResult.packet_seq);
+                    status.setRpcStatus("receive error packet");
+                    return null;
+                }
+            }
+        } finally {
+            if (MetricRepo.isInit) {
+                MetricRepo.HISTO_RESULT_FETCH_WAIT.update((System.nanoTime() - startTime) / 1000);
+            }
+        }
+    }
+
+    private void sendFetches() throws RpcException {
+        int prefetchNum = Math.max(Config.result_receiver_prefetch_num, 1);
+        while (!isEosReceived && pendingFetches.size() < prefetchNum) {
+            PFetchDataRequest request = new PFetchDataRequest(finstId);
+            Future<PFetchDataResult> future = BackendServiceProxy.getInstance().fetchDataAsync(address, request);
+            pendingFetches.addLast(new FetchTask(request, future));
+        }
+    }
+
+    // Return null if the query is cancelled
+    private PFetchDataResult waitResult(Future<PFetchDataResult> future) throws ExecutionException, TimeoutException {
+        while (true) {
+            long currentTs = System.currentTimeMillis();
+            if (currentTs >= timeoutTs) {
+                throw new TimeoutException("query timeout");
+            }
+            try {
+                return future.get(timeoutTs - currentTs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                // continue to get result
+                LOG.info("future get interrupted Exception");
+                if (isCancel) {
+                    return null;
+                }
+            }
+        }
+    }
+
     public void cancel() {
         isCancel = true;
         synchronized (this) {
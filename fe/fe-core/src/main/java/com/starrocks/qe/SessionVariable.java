@@ -153,6 +153,8 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     public static final String CBO_ENABLE_REPLICATED_JOIN = "cbo_enable_replicated_join";
     public static final String CBO_USE_CORRELATED_JOIN_ESTIMATE = "cbo_use_correlated_join_estimate";
     public static final String CBO_ENABLE_LOW_CARDINALITY_OPTIMIZE = "cbo_enable_low_cardinality_optimize";
+    public static final String CBO_SEARCH_PARALLELISM = "cbo_search_parallelism";
+    public static final String ENABLE_PLAN_CACHE = "enable_plan_cache";
     // --------  New planner session variables end --------
 
     // Type of compression of transmitted data
@@ -237,7 +239,9 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     @VariableMgr.VarAttr(name = AUTO_INCREMENT_INCREMENT)
     private int autoIncrementIncrement = 1;
 
-    // this is used to make c3p0 library happy
+    // 0: OFF, 1: ON, the results of queries are cached on FE, see QueryResultCache.
+    // 2: DEMAND is not supported, because SQL_CACHE is not supported, it's the same as OFF.
+    // it's also used to make c3p0 library happy
     @VariableMgr.VarAttr(name = QUERY_CACHE_TYPE)
     private int queryCacheType = 0;
 
@@ -374,6 +378,14 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     @VariableMgr.VarAttr(name = CBO_ENABLE_LOW_CARDINALITY_OPTIMIZE)
     private boolean enableLowCardinalityOptimize = true;
 
+    // The max number of threads used by the cascades search of one query, 1 means search serially
+    @VariableMgr.VarAttr(name = CBO_SEARCH_PARALLELISM)
+    private int cboSearchParallelism = 1;
+
+    // Reuse the optimized plan of the same query statement
+    @VariableMgr.VarAttr(name = ENABLE_PLAN_CACHE)
+    private boolean enablePlanCache = false;
+
     // value should be 0~4
     // 0 represents automatic selection, and 1, 2, 3, and 4 represent forced selection of AGG of
     // corresponding stages respectively. However, stages 3 and 4 can only be generated in
@@ -494,6 +506,10 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         return timeZone;
     }
 
+    public boolean isQueryCacheOn() {
+        return queryCacheType == 1;
+    }
+
     public void setTimeZone(String timeZone) {
         this.timeZone = timeZone;
     }
@@ -650,6 +666,22 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         this.optimizerExecuteTimeout = optimizerExecuteTimeout;
     }
 
+    public int getCboSearchParallelism() {
+        return cboSearchParallelism;
+    }
+
+    public void setCboSearchParallelism(int cboSearchParallelism) {
+        this.cboSearchParallelism = cboSearchParallelism;
+    }
+
+    public boolean isEnablePlanCache() {
+        return enablePlanCache;
+    }
+
+    public void setEnablePlanCache(boolean enablePlanCache) {
+        this.enablePlanCache = enablePlanCache;
+    }
+
     public boolean getEnableGroupbyUseOutputAlias() {
         return enableGroupbyUseOutputAlias;
     }
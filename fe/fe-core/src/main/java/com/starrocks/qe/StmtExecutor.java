@@ -83,7 +83,10 @@ import com.starrocks.meta.SqlBlackList;
 import com.starrocks.metric.MetricRepo;
 import com.starrocks.metric.TableMetricsEntity;
 import com.starrocks.metric.TableMetricsRegistry;
+import com.starrocks.mysql.MysqlBinaryProtocol;
 import com.starrocks.mysql.MysqlChannel;
+import com.starrocks.mysql.MysqlColType;
+import com.starrocks.mysql.MysqlCommand;
 import com.starrocks.mysql.MysqlEofPacket;
 import com.starrocks.mysql.MysqlSerializer;
 import com.starrocks.mysql.privilege.PrivPredicate;
@@ -106,6 +109,7 @@ import com.starrocks.sql.analyzer.SemanticException;
 import com.starrocks.sql.common.ErrorType;
 import com.starrocks.sql.common.MetaUtils;
 import com.starrocks.sql.common.StarRocksPlannerException;
+import com.starrocks.sql.optimizer.OptimizerProfile;
 import com.starrocks.sql.plan.ExecPlan;
 import com.starrocks.statistic.AnalyzeJob;
 import com.starrocks.statistic.Constants;
@@ -155,6 +159,7 @@ public class StmtExecutor {
     private final boolean isProxy;
     private ShowResultSet proxyResultSet = null;
     private PQueryStatistics statisticsForAuditLog;
+    private OptimizerProfile optimizerProfile;
 
     // this constructor is mainly for proxy
     public StmtExecutor(ConnectContext context, OriginStatement originStmt, boolean isProxy) {
@@ -197,6 +202,9 @@ public class StmtExecutor {
         summaryProfile.addInfoString(ProfileManager.DEFAULT_DB, context.getDatabase());
         summaryProfile.addInfoString(ProfileManager.SQL_STATEMENT, originStmt.originStmt);
         profile.addChild(summaryProfile);
+        if (optimizerProfile != null) {
+            profile.addChild(optimizerProfile.toRuntimeProfile());
+        }
         if (coord != null) {
             coord.getQueryProfile().getCounterTotalTime().setValue(TimeUtils.getEstimatedTime(beginTimeInNanoSecond));
             coord.endProfile();
@@ -298,6 +306,7 @@ public class StmtExecutor {
                         context.getDumpInfo().setOriginStmt(parsedStmt.getOrigStmt().originStmt);
                         execPlan = new StatementPlanner().plan(parsedStmt, context);
                         execPlanBuildByNewPlanner = true;
+                        optimizerProfile = execPlan != null ? execPlan.getOptimizerProfile() : null;
                     }
                 } catch (SemanticException e) {
                     dumpException(e);
@@ -367,14 +376,15 @@ public class StmtExecutor {
                                 explainStringBuilder.append(execPlan.getExplainString(level));
                             }
                             handleQueryStmt(execPlan.getFragments(), execPlan.getScanNodes(),
-                                    execPlan.getDescTbl().toThrift(),
-                                    execPlan.getColNames(), execPlan.getOutputExprs(), explainStringBuilder.toString());
+                                    execPlan.getDescTbl().toThrift(), execPlan.getColNames(),
+                                    execPlan.getOutputExprs(), explainStringBuilder.toString(),
+                                    execPlan.isDeterministic());
                         } else {
                             TExplainLevel level = parsedStmt.isVerbose() ? TExplainLevel.VERBOSE : TExplainLevel.NORMAL;
                             String explainString = planner.getExplainString(planner.getFragments(), level);
                             handleQueryStmt(planner.getFragments(), planner.getScanNodes(),
                                     analyzer.getDescTbl().toThrift(),
-                                    parsedStmt.getColLabels(), parsedStmt.getResultExprs(), explainString);
+                                    parsedStmt.getColLabels(), parsedStmt.getResultExprs(), explainString, false);
                         }
 
                         if (context.getSessionVariable().isReportSucc()) {
@@ -747,8 +757,10 @@ public class StmtExecutor {
     }
 
     // Process a select statement.
+    // The result is cached only if it's deterministic, which is checked by the new planner only.
     private void handleQueryStmt(List<PlanFragment> fragments, List<ScanNode> scanNodes, TDescriptorTable descTable,
-                                 List<String> colNames, List<Expr> outputExprs, String explainString) throws Exception {
+                                 List<String> colNames, List<Expr> outputExprs, String explainString,
+                                 boolean isDeterministic) throws Exception {
         // Every time set no send flag and clean all data in buffer
         context.getMysqlChannel().reset();
         QueryStmt queryStmt = (QueryStmt) parsedStmt;
@@ -761,6 +773,38 @@ public class StmtExecutor {
             context.getQueryDetail().setExplain(explainString);
         }
 
+        boolean isOutfileQuery = queryStmt.hasOutFileClause();
+        PartitionResultCache partitionCache = null;
+        QueryResultCache.Key cacheKey = null;
+        if (!isOutfileQuery && isDeterministic) {
+            partitionCache = PartitionResultCache.create(context, queryStmt, originStmt.originStmt, scanNodes,
+                    colNames, outputExprs);
+            if (partitionCache == null) {
+                cacheKey = QueryResultCache.createKey(context, originStmt.originStmt, scanNodes, colNames,
+                        outputExprs);
+            }
+        }
+        if (partitionCache != null) {
+            context.getAuditEventBuilder().setQueryCache(partitionCache.lookup());
+            if (partitionCache.isAllCached()) {
+                sendFields(colNames, outputExprs);
+                context.updateReturnRows(partitionCache.finish(context.getMysqlChannel()));
+                context.getState().setEof();
+                return;
+            }
+        }
+        QueryResultCache.ResultBuilder cacheResultBuilder = null;
+        if (cacheKey != null) {
+            List<ByteBuffer> cachedRows = QueryResultCache.INSTANCE.get(cacheKey);
+            if (cachedRows != null) {
+                context.getAuditEventBuilder().setQueryCache(QueryResultCache.STATUS_HIT);
+                sendCachedResult(colNames, outputExprs, cachedRows);
+                return;
+            }
+            context.getAuditEventBuilder().setQueryCache(QueryResultCache.STATUS_MISS);
+            cacheResultBuilder = new QueryResultCache.ResultBuilder();
+        }
+
         coord = new Coordinator(context, fragments, scanNodes, descTable);
 
         QeProcessorImpl.INSTANCE.registerQuery(context.getExecutionId(),
@@ -778,8 +822,15 @@ public class StmtExecutor {
         // 2. If this is a query, send the result expr fields first, and send result data back to client.
         RowBatch batch;
         MysqlChannel channel = context.getMysqlChannel();
-        boolean isOutfileQuery = queryStmt.hasOutFileClause();
         boolean isSendFields = false;
+        // the rows of prepared statement are sent in binary protocol
+        List<MysqlColType> binaryColTypes = null;
+        if (context.getCommand() == MysqlCommand.COM_STMT_EXECUTE) {
+            binaryColTypes = Lists.newArrayList();
+            for (Expr expr : outputExprs) {
+                binaryColTypes.add(expr.getOriginType().getMysqlResultType());
+            }
+        }
         while (true) {
             batch = coord.getNext();
             // for outfile query, there will be only one empty batch send back with eos flag
@@ -790,10 +841,22 @@ public class StmtExecutor {
                     sendFields(colNames, outputExprs);
                     isSendFields = true;
                 }
-                for (ByteBuffer row : batch.getBatch().getRows()) {
-                    channel.sendOnePacket(row);
+                List<ByteBuffer> rows = batch.getBatch().getRows();
+                if (cacheResultBuilder != null) {
+                    cacheResultBuilder.addRows(rows);
+                }
+                if (binaryColTypes != null) {
+                    for (ByteBuffer row : rows) {
+                        channel.sendOnePacket(MysqlBinaryProtocol.toBinaryRow(row, binaryColTypes, serializer));
+                    }
+                } else if (partitionCache != null) {
+                    // the cached rows are merged with the fresh ones
+                    context.updateReturnRows(partitionCache.sendRows(channel, rows));
+                } else {
+                    // the text rows encoded by backend are sent as they are
+                    channel.sendPacketsInPlace(rows);
                 }
-                context.updateReturnRows(batch.getBatch().getRows().size());
+                context.updateReturnRows(rows.size());
             }
             if (batch.isEos()) {
                 break;
@@ -802,6 +865,12 @@ public class StmtExecutor {
         if (!isSendFields && !isOutfileQuery) {
             sendFields(colNames, outputExprs);
         }
+        if (partitionCache != null) {
+            context.updateReturnRows(partitionCache.finish(channel));
+        }
+        if (cacheResultBuilder != null) {
+            QueryResultCache.INSTANCE.put(cacheKey, cacheResultBuilder.build());
+        }
 
         statisticsForAuditLog = batch.getQueryStatistics();
         if (!isOutfileQuery) {
@@ -1060,7 +1129,7 @@ public class StmtExecutor {
         try {
             statisticExecutor.collectStatisticSync(db.getId(), table.getId(), analyzeStmt.getColumnNames(),
                     analyzeStmt.isSample(), job.getSampleCollectRows());
-            Catalog.getCurrentStatisticStorage().expireColumnStatistics(table, job.getColumns());
+            Catalog.getCurrentStatisticStorage().refreshColumnStatistics(table, job.getColumns());
         } catch (Exception e) {
             job.setReason(e.getMessage());
             throw e;
@@ -1124,6 +1193,14 @@ public class StmtExecutor {
         context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
     }
 
+    private void sendCachedResult(List<String> colNames, List<Expr> exprs, List<ByteBuffer> rows)
+            throws IOException {
+        sendFields(colNames, exprs);
+        context.getMysqlChannel().sendPacketsInPlace(rows);
+        context.updateReturnRows(rows.size());
+        context.getState().setEof();
+    }
+
     private void sendFields(List<String> colNames, List<Expr> exprs) throws IOException {
         // sends how many columns
         serializer.reset();
@@ -96,6 +96,7 @@ public class InsertPlanner {
         ExecPlan execPlan = new PlanFragmentBuilder().createPhysicalPlan(
                 optimizedPlan, plannerContext, session, logicalPlan.getOutputColumn(), columnRefFactory,
                 insertRelation.getQueryRelation().getColumnOutputNames());
+        execPlan.setOptimizerProfile(optimizer.getContext().getProfile());
 
         DescriptorTable descriptorTable = execPlan.getDescTbl();
         TupleDescriptor olapTuple = descriptorTable.createTupleDescriptor();
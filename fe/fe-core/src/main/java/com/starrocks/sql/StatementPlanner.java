@@ -9,6 +9,8 @@ import com.starrocks.catalog.Database;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.planner.PlannerContext;
 import com.starrocks.qe.ConnectContext;
+import com.starrocks.qe.PreparedStatementContext;
+import com.starrocks.sql.analyzer.DeterministicChecker;
 import com.starrocks.sql.analyzer.PrivilegeChecker;
 import com.starrocks.sql.analyzer.relation.QueryRelation;
 import com.starrocks.sql.analyzer.relation.Relation;
@@ -17,13 +19,16 @@ import com.starrocks.sql.optimizer.Optimizer;
 import com.starrocks.sql.optimizer.base.ColumnRefFactory;
 import com.starrocks.sql.optimizer.base.ColumnRefSet;
 import com.starrocks.sql.optimizer.base.PhysicalPropertySet;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
 import com.starrocks.sql.optimizer.transformer.LogicalPlan;
 import com.starrocks.sql.optimizer.transformer.RelationTransformer;
 import com.starrocks.sql.plan.ExecPlan;
+import com.starrocks.sql.plan.PlanCache;
 import com.starrocks.sql.plan.PlanFragmentBuilder;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class StatementPlanner {
@@ -43,7 +48,11 @@ public class StatementPlanner {
             try {
                 lock(dbs);
                 session.setCurrentSqlDbIds(dbs.values().stream().map(Database::getId).collect(Collectors.toSet()));
-                return createQueryPlan(relation, session);
+                boolean isDeterministic = DeterministicChecker.isDeterministic(relation);
+                ExecPlan execPlan = createQueryPlan(relation, session,
+                        PlanCache.createKey(stmt, isDeterministic, session));
+                execPlan.setDeterministic(isDeterministic);
+                return execPlan;
             } finally {
                 unLock(dbs);
             }
@@ -62,13 +71,35 @@ public class StatementPlanner {
         return null;
     }
 
-    private ExecPlan createQueryPlan(Relation relation, ConnectContext session) {
+    private ExecPlan createQueryPlan(Relation relation, ConnectContext session, PlanCache.PlanCacheKey cacheKey) {
         QueryRelation query = (QueryRelation) relation;
         List<String> colNames = query.getColumnOutputNames();
 
+        // the plan of prepared statement is cached in the statement instead of the global cache
+        PreparedStatementContext preparedStmt = session.getExecutingPreparedStatement();
+        if (cacheKey != null) {
+            PlanCache.CachedPlan cachedPlan = preparedStmt != null ? preparedStmt.getCachedPlan(cacheKey) :
+                    PlanCache.getInstance().get(cacheKey);
+            Map<ConstantOperator, ConstantOperator> parameters = cachedPlan != null ? cachedPlan.bind(cacheKey) : null;
+            if (parameters != null) {
+                PlannerContext plannerContext =
+                        new PlannerContext(null, null, session.getSessionVariable().toThrift(), null);
+                return new PlanFragmentBuilder().createPhysicalPlan(cachedPlan.getOptimizedPlan(), plannerContext,
+                        session, cachedPlan.getOutputColumns(), cachedPlan.getColumnRefFactory(), colNames,
+                        parameters);
+            }
+        }
+
         //1. Build Logical plan
         ColumnRefFactory columnRefFactory = new ColumnRefFactory();
-        LogicalPlan logicalPlan = new RelationTransformer(columnRefFactory).transform(query);
+        LogicalPlan logicalPlan;
+        // the constants of the literals parameterized by the plan cache are tagged when transforming
+        session.setPlanCacheParameters(cacheKey != null ? cacheKey.getLiteralIndexes() : null);
+        try {
+            logicalPlan = new RelationTransformer(columnRefFactory).transform(query);
+        } finally {
+            session.setPlanCacheParameters(null);
+        }
 
         //2. Optimize logical plan and build physical plan
         Optimizer optimizer = new Optimizer();
@@ -79,10 +110,23 @@ public class StatementPlanner {
                 new ColumnRefSet(logicalPlan.getOutputColumn()),
                 columnRefFactory);
 
+        if (cacheKey != null) {
+            Set<Integer> keyParameters = optimizer.getContext().getKeyParameters();
+            if (preparedStmt != null) {
+                preparedStmt.setCachedPlan(cacheKey, PlanCache.createPlan(cacheKey, optimizedPlan, columnRefFactory,
+                        logicalPlan.getOutputColumn(), keyParameters));
+            } else {
+                PlanCache.getInstance().put(cacheKey, optimizedPlan, columnRefFactory, logicalPlan.getOutputColumn(),
+                        keyParameters);
+            }
+        }
+
         //3. Build fragment exec plan
         PlannerContext plannerContext = new PlannerContext(null, null, session.getSessionVariable().toThrift(), null);
-        return new PlanFragmentBuilder().createPhysicalPlan(
+        ExecPlan execPlan = new PlanFragmentBuilder().createPhysicalPlan(
                 optimizedPlan, plannerContext, session, logicalPlan.getOutputColumn(), columnRefFactory, colNames);
+        execPlan.setOptimizerProfile(optimizer.getContext().getProfile());
+        return execPlan;
     }
 
     private ExecPlan createInsertPlan(Relation relation, ConnectContext session) {
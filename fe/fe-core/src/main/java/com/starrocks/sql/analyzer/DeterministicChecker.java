@@ -0,0 +1,167 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+package com.starrocks.sql.analyzer;
+
+import com.google.common.collect.ImmutableSet;
+import com.starrocks.analysis.AnalyticExpr;
+import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.FunctionCallExpr;
+import com.starrocks.analysis.InformationFunction;
+import com.starrocks.analysis.Subquery;
+import com.starrocks.analysis.SysVariableDesc;
+import com.starrocks.catalog.Function;
+import com.starrocks.sql.analyzer.relation.ExceptRelation;
+import com.starrocks.sql.analyzer.relation.IntersectRelation;
+import com.starrocks.sql.analyzer.relation.JoinRelation;
+import com.starrocks.sql.analyzer.relation.QueryRelation;
+import com.starrocks.sql.analyzer.relation.QuerySpecification;
+import com.starrocks.sql.analyzer.relation.Relation;
+import com.starrocks.sql.analyzer.relation.RelationVisitor;
+import com.starrocks.sql.analyzer.relation.SetOperationRelation;
+import com.starrocks.sql.analyzer.relation.SubqueryRelation;
+import com.starrocks.sql.analyzer.relation.TableFunctionRelation;
+import com.starrocks.sql.analyzer.relation.TableRelation;
+import com.starrocks.sql.analyzer.relation.UnionRelation;
+import com.starrocks.sql.analyzer.relation.ValuesRelation;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * DeterministicChecker checks whether the result of an analyzed query only depends on the data it reads,
+ * which is required by the plan cache and the query result cache.
+ * <p>
+ * It walks all expressions of the query, including the queries of views, WITH clauses and subqueries, and
+ * rejects the time, session and random functions, the user defined functions and the system variables.
+ */
+public class DeterministicChecker {
+    // The functions whose results depend on the time, the session or randomness rather than the arguments.
+    // They are folded to constants by the optimizer or evaluated differently in every execution.
+    private static final Set<String> NON_DETERMINISTIC_FUNCTIONS = ImmutableSet.of(
+            "now", "curdate", "curtime", "current_date", "current_time", "current_timestamp", "localtime",
+            "localtimestamp", "sysdate", "utc_timestamp", "rand", "random", "uuid", "sleep", "connection_id",
+            "user", "current_user", "session_user", "database", "schema", "last_query_id");
+
+    public static boolean isDeterministic(Relation relation) {
+        return new RelationChecker().visit(relation);
+    }
+
+    public static boolean isDeterministic(Expr expr) {
+        if (expr == null) {
+            return true;
+        }
+        if (expr instanceof InformationFunction || expr instanceof SysVariableDesc) {
+            return false;
+        }
+        if (expr instanceof FunctionCallExpr && !isDeterministic((FunctionCallExpr) expr)) {
+            return false;
+        }
+        if (expr instanceof AnalyticExpr && !isDeterministic(((AnalyticExpr) expr).getFnCall())) {
+            return false;
+        }
+        if (expr instanceof Subquery && ((Subquery) expr).getQueryBlock() != null &&
+                !isDeterministic(((Subquery) expr).getQueryBlock())) {
+            return false;
+        }
+        return isDeterministic(expr.getChildren());
+    }
+
+    private static boolean isDeterministic(FunctionCallExpr call) {
+        String name = call.getFnName().getFunction().toLowerCase();
+        // unix_timestamp() is the current time, while unix_timestamp(x) only depends on x
+        if (NON_DETERMINISTIC_FUNCTIONS.contains(name) || (name.equals("unix_timestamp") && call.getChildren().isEmpty())) {
+            return false;
+        }
+        return !isUdf(call.getFn());
+    }
+
+    // The user defined functions are not known to be deterministic
+    private static boolean isUdf(Function fn) {
+        return fn != null && fn.isUdf();
+    }
+
+    private static boolean isDeterministic(List<? extends Expr> exprs) {
+        if (exprs == null) {
+            return true;
+        }
+        for (Expr expr : exprs) {
+            if (!isDeterministic(expr)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class RelationChecker extends RelationVisitor<Boolean, Void> {
+        @Override
+        public Boolean visitQuery(QueryRelation node, Void context) {
+            return isDeterministic(node.getOutputExpr());
+        }
+
+        @Override
+        public Boolean visitQuerySpecification(QuerySpecification node, Void context) {
+            return isDeterministic(node.getOutputExpr()) &&
+                    isDeterministic(node.getPredicate()) &&
+                    isDeterministic(node.getGroupBy()) &&
+                    isDeterministic(node.getAggregate()) &&
+                    isDeterministic(node.getHaving()) &&
+                    isDeterministic(node.getOutputAnalytic()) &&
+                    isDeterministic(node.getOrderByAnalytic()) &&
+                    (!node.hasOrderBy() || isDeterministic(node.getOrderByExpressions())) &&
+                    (node.getRelation() == null || visit(node.getRelation()));
+        }
+
+        @Override
+        public Boolean visitTable(TableRelation node, Void context) {
+            return true;
+        }
+
+        @Override
+        public Boolean visitJoin(JoinRelation node, Void context) {
+            return isDeterministic(node.getOnPredicate()) && visit(node.getLeft()) && visit(node.getRight());
+        }
+
+        @Override
+        public Boolean visitSubquery(SubqueryRelation node, Void context) {
+            return visit(node.getQuery());
+        }
+
+        @Override
+        public Boolean visitUnion(UnionRelation node, Void context) {
+            return visitSetOperation(node);
+        }
+
+        @Override
+        public Boolean visitExcept(ExceptRelation node, Void context) {
+            return visitSetOperation(node);
+        }
+
+        @Override
+        public Boolean visitIntersect(IntersectRelation node, Void context) {
+            return visitSetOperation(node);
+        }
+
+        private boolean visitSetOperation(SetOperationRelation node) {
+            for (QueryRelation relation : node.getRelations()) {
+                if (!visit(relation)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Boolean visitValues(ValuesRelation node, Void context) {
+            for (List<Expr> row : node.getRows()) {
+                if (!isDeterministic(row)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Boolean visitTableFunction(TableFunctionRelation node, Void context) {
+            return !isUdf(node.getTableFunction()) && isDeterministic(node.getChildExpressions());
+        }
+    }
+}
@@ -25,32 +25,35 @@ import java.util.Map;
  * <p>
  * In the initial search space, each group includes only one logical expression,
  * which came from the initial query tree.
+ * <p>
+ * A group may be visited by the concurrent search threads of {@link com.starrocks.sql.optimizer.task.ParallelTaskScheduler},
+ * so the expressions are stored in copy-on-write lists and the best expressions are guarded by the group itself.
  */
 public class Group {
     private static final Logger LOG = LogManager.getLogger(Group.class);
 
     private final int id;
 
-    private boolean hasExplored = false;
+    private volatile boolean hasExplored = false;
 
     private final List<GroupExpression> logicalExpressions;
     private final List<GroupExpression> physicalExpressions;
 
-    private Statistics statistics;
+    private volatile Statistics statistics;
     // confidence statistics record the statistics when group expression has lowest cost,
     // confidence statistics is the statistics in group with highest confidence
-    private Statistics confidenceStatistics;
+    private volatile Statistics confidenceStatistics;
     private final Map<PhysicalPropertySet, Pair<Double, GroupExpression>> lowestCostExpressions;
 
     // All expressions in one group have same logical property.
-    private LogicalProperty logicalProperty;
+    private volatile LogicalProperty logicalProperty;
 
     private double costLowerBound = -1000;
 
     public Group(int groupId) {
         this.id = groupId;
-        logicalExpressions = Lists.newArrayList();
-        physicalExpressions = Lists.newArrayList();
+        logicalExpressions = Lists.newCopyOnWriteArrayList();
+        physicalExpressions = Lists.newCopyOnWriteArrayList();
         lowestCostExpressions = Maps.newHashMap();
     }
 
@@ -104,7 +107,7 @@ public class Group {
         return costLowerBound;
     }
 
-    public void setBestExpression(GroupExpression expression, double cost, PhysicalPropertySet physicalPropertySet) {
+    public synchronized void setBestExpression(GroupExpression expression, double cost, PhysicalPropertySet physicalPropertySet) {
         if (lowestCostExpressions.containsKey(physicalPropertySet)) {
             if (lowestCostExpressions.get(physicalPropertySet).first > cost) {
                 lowestCostExpressions.put(physicalPropertySet, new Pair<>(cost, expression));
@@ -116,7 +119,7 @@ public class Group {
         }
     }
 
-    public void setBestExpressionWithStatistics(GroupExpression expression, double cost,
+    public synchronized void setBestExpressionWithStatistics(GroupExpression expression, double cost,
                                                 PhysicalPropertySet physicalPropertySet,
                                                 Statistics newStatistics) {
         if (lowestCostExpressions.containsKey(physicalPropertySet)) {
@@ -132,7 +135,7 @@ public class Group {
         }
     }
 
-    public void replaceBestExpressionProperty(PhysicalPropertySet oldProperty, PhysicalPropertySet newProperty,
+    public synchronized void replaceBestExpressionProperty(PhysicalPropertySet oldProperty, PhysicalPropertySet newProperty,
                                               double cost) {
         Pair<Double, GroupExpression> lowestExpression = lowestCostExpressions.get(oldProperty);
         lowestExpression.second
@@ -142,14 +145,14 @@ public class Group {
         lowestCostExpressions.put(newProperty, lowestExpression);
     }
 
-    public GroupExpression getBestExpression(PhysicalPropertySet physicalPropertySet) {
+    public synchronized GroupExpression getBestExpression(PhysicalPropertySet physicalPropertySet) {
         if (hasBestExpression(physicalPropertySet)) {
             return lowestCostExpressions.get(physicalPropertySet).second;
         }
         return null;
     }
 
-    public boolean hasBestExpression(PhysicalPropertySet physicalPropertySet) {
+    public synchronized boolean hasBestExpression(PhysicalPropertySet physicalPropertySet) {
         return lowestCostExpressions.containsKey(physicalPropertySet);
     }
 
@@ -161,12 +164,16 @@ public class Group {
         this.logicalProperty = logicalProperty;
     }
 
-    public void mergeGroup(Group other) {
+    public synchronized void mergeGroup(Group other) {
         other.getLogicalExpressions().removeAll(logicalExpressions);
         other.getPhysicalExpressions().removeAll(physicalExpressions);
         logicalExpressions.addAll(other.getLogicalExpressions());
         physicalExpressions.addAll(other.getPhysicalExpressions());
-        for (Map.Entry<PhysicalPropertySet, Pair<Double, GroupExpression>> entry : other.lowestCostExpressions
+        Map<PhysicalPropertySet, Pair<Double, GroupExpression>> otherLowestCostExpressions;
+        synchronized (other) {
+            otherLowestCostExpressions = Maps.newHashMap(other.lowestCostExpressions);
+        }
+        for (Map.Entry<PhysicalPropertySet, Pair<Double, GroupExpression>> entry : otherLowestCostExpressions
                 .entrySet()) {
             setBestExpressionWithStatistics(entry.getValue().second, entry.getValue().first, entry.getKey(),
                     other.confidenceStatistics != null ? other.confidenceStatistics : other.statistics);
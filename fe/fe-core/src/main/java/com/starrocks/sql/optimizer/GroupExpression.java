@@ -29,12 +29,15 @@ import java.util.Objects;
 public class GroupExpression {
     // The group this group expression belong to,
     // will set by setGroup method
-    private Group group;
+    private volatile Group group;
     private final List<Group> inputs;
     private final Operator op;
     private final BitSet ruleMasks = new BitSet(RuleType.NUM_RULES.ordinal() + 1);
-    private boolean statsDerived = false;
+    private volatile boolean statsDerived = false;
     private final Map<PhysicalPropertySet, Pair<Double, List<PhysicalPropertySet>>> lowestCostTable;
+    // Cache of hashCode, memo looks up group expressions frequently and the operator hash is not cheap.
+    // 0 means not computed, like String.hashCode
+    private int hash = 0;
 
     public GroupExpression(Operator op, List<Group> inputs) {
         this.op = op;
@@ -62,6 +65,15 @@ public class GroupExpression {
         return inputs.get(i);
     }
 
+    /**
+     * Replace the input group, the GroupExpression must be removed from memo before,
+     * because the hashCode will change
+     */
+    public void replaceInput(int i, Group input) {
+        inputs.set(i, input);
+        hash = 0;
+    }
+
     public Operator getOp() {
         return op;
     }
@@ -86,21 +98,30 @@ public class GroupExpression {
         statsDerived = true;
     }
 
-    public void setRuleExplored(Rule rule) {
+    public synchronized void setRuleExplored(Rule rule) {
         ruleMasks.set(rule.type().ordinal());
     }
 
-    public boolean hasRuleExplored(Rule rule) {
+    public synchronized boolean hasRuleExplored(Rule rule) {
         return ruleMasks.get(rule.type().ordinal());
     }
 
+    // Mark the rule explored, return false if it has been explored or is being explored by other search thread
+    public synchronized boolean tryClaimRule(Rule rule) {
+        if (ruleMasks.get(rule.type().ordinal())) {
+            return false;
+        }
+        ruleMasks.set(rule.type().ordinal());
+        return true;
+    }
+
     /**
      * Retrieves the lowest cost satisfying a given set of properties
      *
      * @param require PropertySet that needs to be satisfied
      * @return Lowest cost to satisfy that PropertySet
      */
-    public double getCost(PhysicalPropertySet require) {
+    public synchronized double getCost(PhysicalPropertySet require) {
         Preconditions.checkState(lowestCostTable.containsKey(require));
         return lowestCostTable.get(require).first;
     }
@@ -111,7 +132,7 @@ public class GroupExpression {
      * @param require PhysicalPropertySet that needs to be satisfied
      * @return List of children input physical properties required
      */
-    public List<PhysicalPropertySet> getInputProperties(PhysicalPropertySet require) {
+    public synchronized List<PhysicalPropertySet> getInputProperties(PhysicalPropertySet require) {
         Preconditions.checkState(lowestCostTable.containsKey(require));
         return lowestCostTable.get(require).second;
     }
@@ -124,7 +145,7 @@ public class GroupExpression {
      * @param inputProperties  List of children input properties required
      * @param cost             Cost
      */
-    public void setPropertyWithCost(PhysicalPropertySet outputProperties,
+    public synchronized void setPropertyWithCost(PhysicalPropertySet outputProperties,
                                     List<PhysicalPropertySet> inputProperties,
                                     double cost) {
         if (lowestCostTable.containsKey(outputProperties)) {
@@ -159,7 +180,12 @@ public class GroupExpression {
 
     @Override
     public int hashCode() {
-        return Objects.hash(op, inputs);
+        int h = hash;
+        if (h == 0) {
+            h = Objects.hash(op, inputs);
+            hash = h;
+        }
+        return h;
     }
 
     @Override
@@ -171,6 +197,9 @@ public class GroupExpression {
         if (this == rhs) {
             return true;
         }
+        if (hashCode() != rhs.hashCode()) {
+            return false;
+        }
         if (!op.equals(rhs.getOp())) {
             return false;
         }
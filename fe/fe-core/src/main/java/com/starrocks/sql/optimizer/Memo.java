@@ -10,8 +10,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 
@@ -30,14 +29,18 @@ import java.util.Map;
  * which is efficient to look up if there is already GroupExpression.
  * <p>
  * All the group should be created from this class.
+ * <p>
+ * The methods changing memo are synchronized, because memo may be changed by the concurrent
+ * search threads of {@link com.starrocks.sql.optimizer.task.ParallelTaskScheduler}.
  */
 public class Memo {
     private static final Logger LOG = LogManager.getLogger(Memo.class);
 
     private int nextGroupId = 0;
 
-    // The group id is same with the group index in groups List
-    private final List<Group> groups;
+    // The group id is the index of groupTable, the slot of a removed group is null
+    private final ArrayList<Group> groupTable;
+    private int groupNum = 0;
 
     private Group rootGroup;
     /**
@@ -48,17 +51,43 @@ public class Memo {
      */
     private final Map<GroupExpression, GroupExpression> groupExpressions;
 
+    // Index of the GroupExpressions in groupExpressions map, the list index is the group id.
+    // ownedExpressions[id] are the expressions belong to the group,
+    // parentExpressions[id] are the expressions take the group as input.
+    // So merging or removing a group only visits the related expressions instead of the whole map.
+    private final ArrayList<List<GroupExpression>> ownedExpressions;
+    private final ArrayList<List<GroupExpression>> parentExpressions;
+
+    /**
+     * Returns the groups in memo ordered by group id
+     */
     public List<Group> getGroups() {
+        List<Group> groups = Lists.newArrayListWithCapacity(groupNum);
+        for (Group group : groupTable) {
+            if (group != null) {
+                groups.add(group);
+            }
+        }
         return groups;
     }
 
+    public int getGroupNum() {
+        return groupNum;
+    }
+
+    public int getCreatedGroupNum() {
+        return nextGroupId;
+    }
+
     public Map<GroupExpression, GroupExpression> getGroupExpressions() {
         return groupExpressions;
     }
 
     public Memo() {
-        groups = Lists.newLinkedList();
+        groupTable = Lists.newArrayList();
         groupExpressions = Maps.newHashMap();
+        ownedExpressions = Lists.newArrayList();
+        parentExpressions = Lists.newArrayList();
     }
 
     public Group getRootGroup() {
@@ -73,17 +102,17 @@ public class Memo {
      * Scan(A) and Scan(B).
      * We return GroupExpression rather than Group because we can get Group from GroupExpression
      */
-    public GroupExpression init(OptExpression originExpression) {
-        Preconditions.checkState(groups.size() == 0);
+    public synchronized GroupExpression init(OptExpression originExpression) {
+        Preconditions.checkState(groupNum == 0);
         Preconditions.checkState(groupExpressions.size() == 0);
         GroupExpression rootGroupExpression = copyIn(null, originExpression).second;
         rootGroup = rootGroupExpression.getGroup();
         return rootGroupExpression;
     }
 
-    public Pair<Boolean, GroupExpression> insertGroupExpression(GroupExpression groupExpression, Group targetGroup) {
-        if (groupExpressions.get(groupExpression) != null) {
-            GroupExpression existedGroupExpression = groupExpressions.get(groupExpression);
+    public synchronized Pair<Boolean, GroupExpression> insertGroupExpression(GroupExpression groupExpression, Group targetGroup) {
+        GroupExpression existedGroupExpression = groupExpressions.get(groupExpression);
+        if (existedGroupExpression != null) {
             Group existedGroup = existedGroupExpression.getGroup();
 
             if (needMerge(targetGroup, existedGroup)) {
@@ -95,12 +124,10 @@ public class Memo {
 
         if (targetGroup == null) {
             targetGroup = newGroup();
-            groups.add(targetGroup);
         }
 
-        groupExpressions.put(groupExpression, groupExpression);
-
         targetGroup.addExpression(groupExpression);
+        putGroupExpression(groupExpression);
 
         return new Pair<>(true, groupExpression);
     }
@@ -108,15 +135,61 @@ public class Memo {
     /**
      * Insert an enforce expression into the target group.
      */
-    public void insertEnforceExpression(GroupExpression groupExpression, Group targetGroup) {
+    public synchronized void insertEnforceExpression(GroupExpression groupExpression, Group targetGroup) {
         groupExpression.setGroup(targetGroup);
     }
 
     private Group newGroup() {
-        return new Group(nextGroupId++);
+        Group group = new Group(nextGroupId++);
+        groupTable.add(group);
+        ownedExpressions.add(Lists.newArrayList());
+        parentExpressions.add(Lists.newArrayList());
+        groupNum++;
+        return group;
+    }
+
+    private void putGroupExpression(GroupExpression groupExpression) {
+        groupExpressions.put(groupExpression, groupExpression);
+        ownedExpressions.get(groupExpression.getGroup().getId()).add(groupExpression);
+        for (Group input : groupExpression.getInputs()) {
+            parentExpressions.get(input.getId()).add(groupExpression);
+        }
+    }
+
+    // Remove the GroupExpression equals to the given one from groupExpressions map
+    private void removeGroupExpression(GroupExpression groupExpression) {
+        GroupExpression removed = groupExpressions.remove(groupExpression);
+        if (removed == null) {
+            return;
+        }
+        removeByIdentity(ownedExpressions.get(removed.getGroup().getId()), removed);
+        for (Group input : removed.getInputs()) {
+            removeByIdentity(parentExpressions.get(input.getId()), removed);
+        }
     }
 
-    public Pair<Boolean, GroupExpression> copyIn(Group targetGroup, OptExpression expression) {
+    // GroupExpression equals by content, but the index needs the exactly same object
+    private static void removeByIdentity(List<GroupExpression> expressions, GroupExpression groupExpression) {
+        for (int i = 0; i < expressions.size(); i++) {
+            if (expressions.get(i) == groupExpression) {
+                expressions.remove(i);
+                return;
+            }
+        }
+    }
+
+    private boolean isRemoved(Group group) {
+        return groupTable.get(group.getId()) != group;
+    }
+
+    private void removeFromGroupTable(Group group) {
+        if (!isRemoved(group)) {
+            groupTable.set(group.getId(), null);
+            groupNum--;
+        }
+    }
+
+    public synchronized Pair<Boolean, GroupExpression> copyIn(Group targetGroup, OptExpression expression) {
         List<Group> inputs = Lists.newArrayList();
         for (OptExpression input : expression.getInputs()) {
             Group group;
@@ -151,7 +224,7 @@ public class Memo {
 
     // Merge srcGroup to dstGroup, srcGroup will be deleted
     private void mergeGroup(Group srcGroup, Group dstGroup) {
-        groups.remove(srcGroup);
+        removeFromGroupTable(srcGroup);
 
         // Reset root group, rewrite rule maybe eliminate the root group
         if (srcGroup == rootGroup) {
@@ -161,36 +234,36 @@ public class Memo {
         // If we change the GroupExpression child group, the hash value of GroupExpression
         // will change, so we must reinsert the GroupExpression to groupExpressions map
         List<GroupExpression> needReinsertedExpressions = Lists.newArrayList();
-        for (Iterator<Map.Entry<GroupExpression, GroupExpression>>
-                iterator = groupExpressions.entrySet().iterator(); iterator.hasNext(); ) {
-            GroupExpression groupExpr = iterator.next().getKey();
-
-            // 1 Find which group expression need to reinsert
-            int referSrcGroupIndex = -1;
-            for (int i = 0; i < groupExpr.getInputs().size(); i++) {
-                if (groupExpr.getInputs().get(i) == srcGroup) {
-                    referSrcGroupIndex = i;
-                    break;
-                }
+        for (GroupExpression groupExpr : Lists.newArrayList(parentExpressions.get(srcGroup.getId()))) {
+            // A GroupExpression may refer srcGroup more than once
+            if (groupExpressions.get(groupExpr) != groupExpr) {
+                continue;
             }
-
-            // 2 Remove the GroupExpression from the groupExpressions map
-            // 3 Change the child group from srcGroup to dstGroup
-            if (referSrcGroupIndex >= 0) {
-                iterator.remove();
-                groupExpr.getInputs().set(referSrcGroupIndex, dstGroup);
-                needReinsertedExpressions.add(groupExpr);
+            removeGroupExpression(groupExpr);
+            for (int i = 0; i < groupExpr.arity(); i++) {
+                if (groupExpr.inputAt(i) == srcGroup) {
+                    groupExpr.replaceInput(i, dstGroup);
+                }
             }
+            needReinsertedExpressions.add(groupExpr);
+        }
 
-            // 4 Change the group of GroupExpression
-            if (groupExpr.getGroup() == srcGroup) {
-                groupExpr.setGroup(dstGroup);
-            }
+        // Change the group of GroupExpression
+        List<GroupExpression> srcExpressions = ownedExpressions.get(srcGroup.getId());
+        for (GroupExpression groupExpr : srcExpressions) {
+            groupExpr.setGroup(dstGroup);
         }
+        ownedExpressions.get(dstGroup.getId()).addAll(srcExpressions);
+        srcExpressions.clear();
 
         for (GroupExpression groupExpression : needReinsertedExpressions) {
+            // The parent expressions of srcGroup owned by srcGroup itself have been removed from
+            // the owned index above, so they must be moved to dstGroup before reinserting
+            if (groupExpression.getGroup() == srcGroup) {
+                groupExpression.setGroup(dstGroup);
+            }
             if (!groupExpressions.containsKey(groupExpression)) {
-                groupExpressions.put(groupExpression, groupExpression);
+                putGroupExpression(groupExpression);
             }
         }
 
@@ -207,7 +280,10 @@ public class Memo {
 
     private List<Group> getAllEmptyGroups() {
         List<Group> groups = Lists.newArrayList();
-        for (Group group : getGroups()) {
+        for (Group group : groupTable) {
+            if (group == null) {
+                continue;
+            }
             if (group.isEmpty()) {
                 groups.add(group);
                 continue;
@@ -222,7 +298,7 @@ public class Memo {
         return groups;
     }
 
-    public void removeAllEmptyGroup() {
+    public synchronized void removeAllEmptyGroup() {
         List<Group> groups = getAllEmptyGroups();
         while (!groups.isEmpty()) {
             for (Group group : groups) {
@@ -233,29 +309,26 @@ public class Memo {
     }
 
     private void removeOneGroup(Group group) {
-        groups.remove(group);
+        removeFromGroupTable(group);
 
-        for (Iterator<Map.Entry<GroupExpression, GroupExpression>>
-                iterator = groupExpressions.entrySet().iterator(); iterator.hasNext(); ) {
-            GroupExpression groupExpr = iterator.next().getKey();
-            if (groupExpr.getGroup() == group) {
-                iterator.remove();
-                continue;
-            }
-            for (int i = 0; i < groupExpr.getInputs().size(); i++) {
-                if (groupExpr.getInputs().get(i) == group) {
-                    groupExpr.getGroup().removeGroupExpression(groupExpr);
-                    iterator.remove();
-                    break;
-                }
+        for (GroupExpression groupExpr : Lists.newArrayList(ownedExpressions.get(group.getId()))) {
+            removeGroupExpression(groupExpr);
+        }
+        for (GroupExpression groupExpr : Lists.newArrayList(parentExpressions.get(group.getId()))) {
+            if (groupExpressions.get(groupExpr) == groupExpr) {
+                groupExpr.getGroup().removeGroupExpression(groupExpr);
+                removeGroupExpression(groupExpr);
             }
         }
     }
 
-    private void deepSearchGroup(Group root, LinkedList<Integer> touch) {
+    private void markReachableGroup(Group root, BitSet reachable) {
+        reachable.set(root.getId());
         for (Group group : root.getFirstLogicalExpression().getInputs()) {
-            touch.add(group.getId());
-            deepSearchGroup(group, touch);
+            // The memo is a DAG, the shared groups only need to be visited once
+            if (!reachable.get(group.getId())) {
+                markReachableGroup(group, reachable);
+            }
         }
     }
 
@@ -265,21 +338,20 @@ public class Memo {
      * In order to reduce the number of groups entering Memo,
      * we will delete inaccessible groups in this function.
      */
-    public void removeUnreachableGroup() {
-        LinkedList<Integer> touch = new LinkedList<>();
-        touch.add(rootGroup.getId());
-        deepSearchGroup(rootGroup, touch);
-
-        List<Group> groupsCopy = new ArrayList<>(groups);
-        for (Group group : groupsCopy) {
-            if (!touch.contains(group.getId())) {
+    public synchronized void removeUnreachableGroup() {
+        BitSet reachable = new BitSet(groupTable.size());
+        markReachableGroup(rootGroup, reachable);
+
+        for (int id = 0; id < groupTable.size(); id++) {
+            Group group = groupTable.get(id);
+            if (group != null && !reachable.get(id)) {
                 removeOneGroup(group);
             }
         }
     }
 
     // For rewrite rule, we directly replace the old group expression by new expression
-    public void replaceRewriteExpression(Group targetGroup, OptExpression expression) {
+    public synchronized void replaceRewriteExpression(Group targetGroup, OptExpression expression) {
         removeGroupInitLogicExpression(targetGroup);
         GroupExpression groupExpression = copyIn(targetGroup, expression).second;
 
@@ -289,7 +361,7 @@ public class Memo {
 
     private void removeGroupInitLogicExpression(Group group) {
         GroupExpression initGroupExpression = group.getFirstLogicalExpression();
-        groupExpressions.remove(initGroupExpression);
+        removeGroupExpression(initGroupExpression);
 
         Preconditions.checkState(group.isValidInitState());
 
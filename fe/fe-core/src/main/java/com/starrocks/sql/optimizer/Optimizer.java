@@ -59,6 +59,7 @@ public class Optimizer {
                                   PhysicalPropertySet requiredProperty,
                                   ColumnRefSet requiredColumns,
                                   ColumnRefFactory columnRefFactory) {
+        long startTime = System.nanoTime();
         // Phase 1: none
         // Phase 2: rewrite based on memo and group
         Memo memo = new Memo();
@@ -152,6 +153,9 @@ public class Optimizer {
         // Rewrite Exchange on top of Sort to Final Sort
         result = new ExchangeSortToMergeRule().rewrite(result);
         result = new AddDecodeNodeForDictStringRule().rewrite(result, rootTaskContext);
+
+        context.getProfile().recordMemo(memo);
+        context.getProfile().setTotalTimeNs(System.nanoTime() - startTime);
         return result;
     }
 
@@ -3,17 +3,27 @@
 package com.starrocks.sql.optimizer;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.Column;
 import com.starrocks.qe.SessionVariable;
 import com.starrocks.qe.VariableMgr;
 import com.starrocks.sql.optimizer.base.ColumnRefFactory;
 import com.starrocks.sql.optimizer.dump.DumpInfo;
+import com.starrocks.sql.optimizer.operator.logical.LogicalScanOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
 import com.starrocks.sql.optimizer.rule.RuleSet;
+import com.starrocks.sql.optimizer.task.ParallelTaskScheduler;
 import com.starrocks.sql.optimizer.task.SeriallyTaskScheduler;
 import com.starrocks.sql.optimizer.task.TaskContext;
 import com.starrocks.sql.optimizer.task.TaskScheduler;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class OptimizerContext {
     private final Memo memo;
@@ -22,8 +32,11 @@ public class OptimizerContext {
     private final List<TaskContext> taskContext;
     private final TaskScheduler taskScheduler;
     private final ColumnRefFactory columnRefFactory;
+    private final OptimizerProfile profile = new OptimizerProfile();
     private SessionVariable sessionVariable;
     private DumpInfo dumpInfo;
+    // The indexes of the plan cache parameters whose values the plan depends on, see PlanCache
+    private final Set<Integer> keyParameters = Sets.newConcurrentHashSet();
 
     public OptimizerContext(Memo memo, ColumnRefFactory columnRefFactory) {
         this.memo = memo;
@@ -40,8 +53,13 @@ public class OptimizerContext {
         this.memo = memo;
         this.ruleSet = new RuleSet();
         this.catalog = Catalog.getCurrentCatalog();
-        this.taskContext = Lists.newArrayList();
-        this.taskScheduler = SeriallyTaskScheduler.create();
+        // task contexts may be added by the concurrent search threads
+        this.taskContext = Collections.synchronizedList(Lists.newArrayList());
+        if (sessionVariable.getCboSearchParallelism() > 1) {
+            this.taskScheduler = ParallelTaskScheduler.create(sessionVariable.getCboSearchParallelism());
+        } else {
+            this.taskScheduler = SeriallyTaskScheduler.create();
+        }
         this.columnRefFactory = columnRefFactory;
         this.sessionVariable = sessionVariable;
         this.dumpInfo = dumpInfo;
@@ -83,7 +101,50 @@ public class OptimizerContext {
         this.sessionVariable = sessionVariable;
     }
 
+    public OptimizerProfile getProfile() {
+        return profile;
+    }
+
     public DumpInfo getDumpInfo() {
         return dumpInfo;
     }
+
+    public Set<Integer> getKeyParameters() {
+        return keyParameters;
+    }
+
+    /**
+     * Record the plan cache parameters in the predicates of the scan which reference the pruning columns,
+     * because the partitions and tablets selected by them are fixed in the plan.
+     */
+    public void addPruningParameters(LogicalScanOperator scan, List<Column> pruningColumns) {
+        for (ScalarOperator conjunct : Utils.extractConjuncts(scan.getPredicate())) {
+            for (Map.Entry<ColumnRefOperator, Column> entry : scan.getColRefToColumnMetaMap().entrySet()) {
+                if (conjunct.getUsedColumns().contains(entry.getKey()) && pruningColumns.stream()
+                        .anyMatch(column -> column.getName().equalsIgnoreCase(entry.getValue().getName()))) {
+                    addKeyParameters(conjunct);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Record the plan cache parameters in the predicate if new range predicates are derived from it,
+     * because the derived predicates are built by comparing the values, see ScalarRangePredicateExtractor.
+     */
+    public void addDerivedParameters(ScalarOperator predicate, ScalarOperator derivedPredicate) {
+        if (predicate != null && !predicate.equals(derivedPredicate)) {
+            addKeyParameters(predicate);
+        }
+    }
+
+    private void addKeyParameters(ScalarOperator operator) {
+        if (operator instanceof ConstantOperator && ((ConstantOperator) operator).getParameterIndex() >= 0) {
+            keyParameters.add(((ConstantOperator) operator).getParameterIndex());
+        }
+        for (ScalarOperator child : operator.getChildren()) {
+            addKeyParameters(child);
+        }
+    }
 }
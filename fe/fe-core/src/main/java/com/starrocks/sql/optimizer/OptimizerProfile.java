@@ -0,0 +1,85 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer;
+
+import com.google.common.collect.Maps;
+import com.starrocks.common.util.RuntimeProfile;
+import com.starrocks.sql.optimizer.task.OptimizerTask;
+import com.starrocks.thrift.TUnit;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OptimizerProfile collects the counters of one optimization, such as the memo size,
+ * the rule applications and the time spent by each type of search task,
+ * and shows them as the "Optimizer" child of the query profile.
+ * <p>
+ * The counters may be updated by the concurrent search threads, so all of them are atomic.
+ */
+public class OptimizerProfile {
+    private final AtomicLong ruleApplyNum = new AtomicLong();
+    private final Map<String, TaskCounter> taskCounters = Maps.newConcurrentMap();
+    private long totalTimeNs = 0;
+    private int groupNum = 0;
+    private int createdGroupNum = 0;
+    private int groupExpressionNum = 0;
+
+    private static class TaskCounter {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong timeNs = new AtomicLong();
+    }
+
+    public void addRuleApply() {
+        ruleApplyNum.incrementAndGet();
+    }
+
+    public long getRuleApplyNum() {
+        return ruleApplyNum.get();
+    }
+
+    public void addTaskTime(OptimizerTask task, long timeNs) {
+        TaskCounter counter = taskCounters.computeIfAbsent(task.getClass().getSimpleName(), k -> new TaskCounter());
+        counter.count.incrementAndGet();
+        counter.timeNs.addAndGet(timeNs);
+    }
+
+    public long getTaskNum(String taskName) {
+        TaskCounter counter = taskCounters.get(taskName);
+        return counter == null ? 0 : counter.count.get();
+    }
+
+    public void setTotalTimeNs(long totalTimeNs) {
+        this.totalTimeNs = totalTimeNs;
+    }
+
+    // Record the memo size when the search is finished
+    public void recordMemo(Memo memo) {
+        groupNum = memo.getGroupNum();
+        createdGroupNum = memo.getCreatedGroupNum();
+        groupExpressionNum = memo.getGroupExpressions().size();
+    }
+
+    public int getGroupNum() {
+        return groupNum;
+    }
+
+    public int getGroupExpressionNum() {
+        return groupExpressionNum;
+    }
+
+    public RuntimeProfile toRuntimeProfile() {
+        RuntimeProfile profile = new RuntimeProfile("Optimizer");
+        profile.getCounterTotalTime().setValue(totalTimeNs);
+        profile.addCounter("GroupNum", TUnit.UNIT, "").setValue(groupNum);
+        profile.addCounter("CreatedGroupNum", TUnit.UNIT, "").setValue(createdGroupNum);
+        profile.addCounter("GroupExpressionNum", TUnit.UNIT, "").setValue(groupExpressionNum);
+        profile.addCounter("RuleApplyNum", TUnit.UNIT, "").setValue(ruleApplyNum.get());
+        for (Map.Entry<String, TaskCounter> entry : taskCounters.entrySet()) {
+            String taskName = entry.getKey();
+            profile.addCounter(taskName + "Time", TUnit.TIME_NS, "").setValue(entry.getValue().timeNs.get());
+            profile.addCounter(taskName + "Num", TUnit.UNIT, taskName + "Time").setValue(entry.getValue().count.get());
+        }
+        return profile;
+    }
+}
@@ -16,6 +16,7 @@ import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
 import java.util.List;
 import java.util.Map;
 
+// Rules may create column refs in the concurrent search threads, so all the methods are synchronized
 public class ColumnRefFactory {
     private int nextId = 1;
     // The unique id for each scan operator
@@ -25,7 +26,7 @@ public class ColumnRefFactory {
     private final Map<Integer, Integer> columnToRelationIds = Maps.newHashMap();
     private final Map<ColumnRefOperator, Column> columnRefToColumns = Maps.newHashMap();
 
-    public ColumnRefOperator create(Expr expression, Type type, boolean nullable) {
+    public synchronized ColumnRefOperator create(Expr expression, Type type, boolean nullable) {
         String nameHint = "expr";
         if (expression instanceof SlotRef) {
             nameHint = ((SlotRef) expression).getColumnName();
@@ -35,7 +36,7 @@ public class ColumnRefFactory {
         return create(nextId++, nameHint, type, nullable);
     }
 
-    public ColumnRefOperator create(ScalarOperator operator, Type type, boolean nullable) {
+    public synchronized ColumnRefOperator create(ScalarOperator operator, Type type, boolean nullable) {
         String nameHint = "expr";
         if (operator.isColumnRef()) {
             nameHint = ((ColumnRefOperator) operator).getName();
@@ -45,37 +46,37 @@ public class ColumnRefFactory {
         return create(nextId++, nameHint, type, nullable);
     }
 
-    public ColumnRefOperator create(String name, Type type, boolean nullable) {
+    public synchronized ColumnRefOperator create(String name, Type type, boolean nullable) {
         return create(nextId++, name, type, nullable);
     }
 
-    private ColumnRefOperator create(int id, String name, Type type, boolean nullable) {
+    private synchronized ColumnRefOperator create(int id, String name, Type type, boolean nullable) {
         ColumnRefOperator columnRef = new ColumnRefOperator(id, type, name, nullable);
         columnRefs.add(columnRef);
         return columnRef;
     }
 
-    public ColumnRefOperator getColumnRef(int id) {
+    public synchronized ColumnRefOperator getColumnRef(int id) {
         return columnRefs.get(id - 1);
     }
 
-    public void updateColumnRefToColumns(ColumnRefOperator columnRef, Column column, Table table) {
+    public synchronized void updateColumnRefToColumns(ColumnRefOperator columnRef, Column column, Table table) {
         columnRefToColumns.put(columnRef, column);
     }
 
-    public Column getColumn(ColumnRefOperator columnRef) {
+    public synchronized Column getColumn(ColumnRefOperator columnRef) {
         return columnRefToColumns.get(columnRef);
     }
 
-    public void updateColumnToRelationIds(int columnId, int tableId) {
+    public synchronized void updateColumnToRelationIds(int columnId, int tableId) {
         columnToRelationIds.put(columnId, tableId);
     }
 
-    public Integer getRelationId(int id) {
+    public synchronized Integer getRelationId(int id) {
         return columnToRelationIds.getOrDefault(id, -1);
     }
 
-    public int getNextRelationId() {
+    public synchronized int getNextRelationId() {
         return nextRelationId++;
     }
 }
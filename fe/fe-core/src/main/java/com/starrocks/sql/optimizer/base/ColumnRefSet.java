@@ -4,91 +4,190 @@ package com.starrocks.sql.optimizer.base;
 
 import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
 
-import java.util.BitSet;
+import java.util.Arrays;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.stream.IntStream;
 
-// BitSet used to accelerate column processing
+// Bit set used to accelerate column processing.
+// The column ids are small and dense, so the bits are stored in a long array directly. The empty sets share
+// one empty array, and the array is only grown when setting a larger id, so that the set operations are
+// done in place without allocation.
 public class ColumnRefSet implements Cloneable {
-    public BitSet bitSet;
+    private static final long[] EMPTY_WORDS = new long[0];
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    private long[] words;
 
     public ColumnRefSet() {
-        bitSet = new BitSet();
+        words = EMPTY_WORDS;
     }
 
     public ColumnRefSet(int id) {
-        bitSet = new BitSet();
-        bitSet.set(id);
+        words = new long[wordIndex(id) + 1];
+        set(id);
     }
 
     public ColumnRefSet(List<ColumnRefOperator> refs) {
-        bitSet = new BitSet();
+        words = EMPTY_WORDS;
         for (ColumnRefOperator ref : refs) {
-            bitSet.set(ref.getId());
+            set(ref.getId());
+        }
+    }
+
+    private static int wordIndex(int id) {
+        return id >> ADDRESS_BITS_PER_WORD;
+    }
+
+    private void ensureCapacity(int wordNum) {
+        if (words.length < wordNum) {
+            words = Arrays.copyOf(words, Math.max(wordNum, words.length * 2));
+        }
+    }
+
+    private void set(int id) {
+        int index = wordIndex(id);
+        ensureCapacity(index + 1);
+        words[index] |= 1L << id;
+    }
+
+    private void clear(int id) {
+        int index = wordIndex(id);
+        if (index < words.length) {
+            words[index] &= ~(1L << id);
+        }
+    }
+
+    // The number of words ignoring the trailing zero words
+    private int wordsInUse() {
+        int n = words.length;
+        while (n > 0 && words[n - 1] == 0) {
+            n--;
+        }
+        return n;
+    }
+
+    /**
+     * Return the first id which is not less than fromId, or -1 if there is no such id.
+     * It's used to iterate the ids without allocation:
+     * for (int id = set.nextId(0); id >= 0; id = set.nextId(id + 1))
+     */
+    public int nextId(int fromId) {
+        int index = wordIndex(fromId);
+        if (index >= words.length) {
+            return -1;
+        }
+        long word = words[index] & (-1L << fromId);
+        while (true) {
+            if (word != 0) {
+                return (index << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+            }
+            if (++index == words.length) {
+                return -1;
+            }
+            word = words[index];
         }
     }
 
     public int[] getColumnIds() {
-        return bitSet.stream().toArray();
+        int[] ids = new int[cardinality()];
+        int i = 0;
+        for (int id = nextId(0); id >= 0; id = nextId(id + 1)) {
+            ids[i++] = id;
+        }
+        return ids;
     }
 
     public IntStream getStream() {
-        return bitSet.stream();
+        return IntStream.of(getColumnIds());
     }
 
     public int getFirstId() {
-        return bitSet.stream().findFirst().getAsInt();
+        int id = nextId(0);
+        if (id < 0) {
+            throw new NoSuchElementException("ColumnRefSet is empty");
+        }
+        return id;
     }
 
     @Override
     public Object clone() {
         try {
             ColumnRefSet result = (ColumnRefSet) super.clone();
-            result.bitSet = (BitSet) bitSet.clone();
+            int wordNum = wordsInUse();
+            result.words = wordNum == 0 ? EMPTY_WORDS : Arrays.copyOf(words, wordNum);
             return result;
         } catch (CloneNotSupportedException e) {
             throw new InternalError(e);
         }
     }
 
+    // Same with java.util.BitSet
     @Override
     public int hashCode() {
-        return bitSet.hashCode();
+        long h = 1234;
+        for (int i = wordsInUse(); --i >= 0; ) {
+            h ^= words[i] * (i + 1);
+        }
+        return (int) ((h >> 32) ^ h);
     }
 
     @Override
     public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
         if (!(obj instanceof ColumnRefSet)) {
             return false;
         }
         ColumnRefSet rhs = (ColumnRefSet) obj;
-        return bitSet.equals(rhs.bitSet);
+        int wordNum = wordsInUse();
+        if (wordNum != rhs.wordsInUse()) {
+            return false;
+        }
+        for (int i = 0; i < wordNum; i++) {
+            if (words[i] != rhs.words[i]) {
+                return false;
+            }
+        }
+        return true;
     }
 
     // The meaning is same with SQL Union Operation
     public void union(int id) {
-        bitSet.set(id);
+        set(id);
     }
 
     public void union(ColumnRefOperator ref) {
-        bitSet.set(ref.getId());
+        set(ref.getId());
     }
 
     public void union(List<ColumnRefOperator> refs) {
-        union(new ColumnRefSet(refs));
+        for (ColumnRefOperator ref : refs) {
+            set(ref.getId());
+        }
     }
 
     public void union(ColumnRefSet set) {
-        bitSet.or(set.bitSet);
+        int wordNum = set.wordsInUse();
+        ensureCapacity(wordNum);
+        for (int i = 0; i < wordNum; i++) {
+            words[i] |= set.words[i];
+        }
     }
 
     // The meaning is same with SQL Except Operation
     public void except(List<ColumnRefOperator> refs) {
-        except(new ColumnRefSet(refs));
+        for (ColumnRefOperator ref : refs) {
+            clear(ref.getId());
+        }
     }
 
     public void except(ColumnRefSet set) {
-        bitSet.andNot(set.bitSet);
+        int wordNum = Math.min(words.length, set.words.length);
+        for (int i = 0; i < wordNum; i++) {
+            words[i] &= ~set.words[i];
+        }
     }
 
     // The meaning is same with SQL Intersect Operation
@@ -97,58 +196,90 @@ public class ColumnRefSet implements Cloneable {
     }
 
     public void intersect(ColumnRefOperator column) {
-        intersect(new ColumnRefSet(column.getId()));
+        intersect(column.getId());
     }
 
     public void intersect(int id) {
-        intersect(new ColumnRefSet(id));
+        boolean contains = contains(id);
+        Arrays.fill(words, 0);
+        if (contains) {
+            set(id);
+        }
     }
 
     public void intersect(ColumnRefSet set) {
-        bitSet.and(set.bitSet);
+        int wordNum = Math.min(words.length, set.words.length);
+        for (int i = 0; i < wordNum; i++) {
+            words[i] &= set.words[i];
+        }
+        Arrays.fill(words, wordNum, words.length, 0);
     }
 
     public boolean isIntersect(ColumnRefSet other) {
-        return bitSet.intersects(other.bitSet);
+        int wordNum = Math.min(words.length, other.words.length);
+        for (int i = 0; i < wordNum; i++) {
+            if ((words[i] & other.words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public int cardinality() {
-        return bitSet.cardinality();
+        int sum = 0;
+        for (long word : words) {
+            sum += Long.bitCount(word);
+        }
+        return sum;
     }
 
     public boolean isEmpty() {
-        return bitSet.isEmpty();
+        return wordsInUse() == 0;
     }
 
     public void and(ColumnRefSet set) {
-        bitSet.and(set.bitSet);
+        intersect(set);
     }
 
     public boolean isSame(ColumnRefSet columnRefSet) {
-        final ColumnRefSet tmp = new ColumnRefSet();
-        tmp.union(columnRefSet);
-        tmp.bitSet.xor(bitSet);
-        return tmp.cardinality() == 0;
+        return equals(columnRefSet);
     }
 
     public void clear() {
-        bitSet.clear();
+        Arrays.fill(words, 0);
     }
 
     public boolean contains(ColumnRefOperator ref) {
-        return bitSet.get(ref.getId());
+        return contains(ref.getId());
     }
 
     public boolean contains(int id) {
-        return bitSet.get(id);
+        int index = wordIndex(id);
+        return index < words.length && (words[index] & (1L << id)) != 0;
     }
 
     public boolean contains(ColumnRefSet rhs) {
-        return rhs.bitSet.stream().allMatch(bit -> bitSet.get(bit));
+        for (int i = 0; i < rhs.words.length; i++) {
+            long word = i < words.length ? words[i] : 0;
+            if ((rhs.words[i] & ~word) != 0) {
+                return false;
+            }
+        }
+        return true;
     }
 
+    // Same format with java.util.BitSet
     @Override
     public String toString() {
-        return bitSet.toString();
+        StringBuilder sb = new StringBuilder();
+        sb.append('{');
+        for (int id = nextId(0); id >= 0; id = nextId(id + 1)) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(id);
+        }
+        sb.append('}');
+        return sb.toString();
     }
 }
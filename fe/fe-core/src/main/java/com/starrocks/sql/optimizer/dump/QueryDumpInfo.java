@@ -10,22 +10,24 @@ import com.starrocks.qe.VariableMgr;
 import com.starrocks.sql.optimizer.statistics.ColumnStatistic;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+// The statistics are added by the parallel search threads of optimizer, so the maps must be thread-safe
 public class QueryDumpInfo implements DumpInfo {
     private String originStmt = "";
     // tableId-><dbName, table>
-    private Map<Long, Pair<String, Table>> tableMap = new HashMap<>();
+    private Map<Long, Pair<String, Table>> tableMap = new ConcurrentHashMap<>();
     // tableName->partitionName->partitionRowCount
-    private Map<String, Map<String, Long>> partitionRowCountMap = new HashMap<>();
+    private Map<String, Map<String, Long>> partitionRowCountMap = new ConcurrentHashMap<>();
     // tableName->columnName->column statistics
-    private Map<String, Map<String, ColumnStatistic>> tableStatisticsMap = new HashMap<>();
+    private Map<String, Map<String, ColumnStatistic>> tableStatisticsMap = new ConcurrentHashMap<>();
     private SessionVariable sessionVariable;
     // tableName->createTableStmt
-    private Map<String, String> createTableStmtMap = new HashMap<>();
-    private List<String> exceptionList = new ArrayList<>();
+    private Map<String, String> createTableStmtMap = new ConcurrentHashMap<>();
+    private List<String> exceptionList = Collections.synchronizedList(new ArrayList<>());
     private int beNum;
 
     public QueryDumpInfo(SessionVariable sessionVariable) {
@@ -75,10 +77,7 @@ public class QueryDumpInfo implements DumpInfo {
     }
 
     public void addPartitionRowCount(String tableName, String partition, long rowCount) {
-        if (!partitionRowCountMap.containsKey(tableName)) {
-            partitionRowCountMap.put(tableName, new HashMap<>());
-        }
-        partitionRowCountMap.get(tableName).put(partition, rowCount);
+        partitionRowCountMap.computeIfAbsent(tableName, k -> new ConcurrentHashMap<>()).put(partition, rowCount);
     }
 
     public Map<String, Map<String, Long>> getPartitionRowCountMap() {
@@ -91,17 +90,11 @@ public class QueryDumpInfo implements DumpInfo {
 
     @Override
     public void addTableStatistics(Table table, String column, ColumnStatistic columnStatistic) {
-        if (!tableStatisticsMap.containsKey(getTableName(table.getId()))) {
-            tableStatisticsMap.put(getTableName(table.getId()), new HashMap<>());
-        }
-        tableStatisticsMap.get(getTableName(table.getId())).put(column, columnStatistic);
+        addTableStatistics(getTableName(table.getId()), column, columnStatistic);
     }
 
     public void addTableStatistics(String tableName, String column, ColumnStatistic columnStatistic) {
-        if (!tableStatisticsMap.containsKey(tableName)) {
-            tableStatisticsMap.put(tableName, new HashMap<>());
-        }
-        tableStatisticsMap.get(tableName).put(column, columnStatistic);
+        tableStatisticsMap.computeIfAbsent(tableName, k -> new ConcurrentHashMap<>()).put(column, columnStatistic);
     }
 
     public Map<String, Map<String, ColumnStatistic>> getTableStatisticsMap() {
@@ -59,6 +59,9 @@ public final class ConstantOperator extends ScalarOperator implements Comparable
 
     private final Object value;
     private final boolean isNull;
+    // The index of the literal in the plan cache parameters which the constant is translated from,
+    // it's not part of the equality, see PlanCache
+    private int parameterIndex = -1;
 
     private ConstantOperator(Type type) {
         super(OperatorType.CONSTANT, type);
@@ -247,6 +250,14 @@ public final class ConstantOperator extends ScalarOperator implements Comparable
         return String.valueOf(value);
     }
 
+    public int getParameterIndex() {
+        return parameterIndex;
+    }
+
+    public void setParameterIndex(int parameterIndex) {
+        this.parameterIndex = parameterIndex;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(value, type, isNull);
@@ -320,6 +331,13 @@ public final class ConstantOperator extends ScalarOperator implements Comparable
     }
 
     public ConstantOperator castTo(Type desc) throws Exception {
+        ConstantOperator result = castToType(desc);
+        // the parameter cast to another type is still the parameter
+        result.parameterIndex = parameterIndex;
+        return result;
+    }
+
+    private ConstantOperator castToType(Type desc) throws Exception {
         if (type.isTime() || desc.isTime()) {
             // Don't support constant time cast in FE
             throw UnsupportedException
@@ -47,7 +47,8 @@ public class DistributionPruneRule extends TransformationRule {
         for (Long partitionId : olapScanOperator.getSelectedPartitionId()) {
             Partition partition = olapTable.getPartition(partitionId);
             MaterializedIndex table = partition.getIndex(olapScanOperator.getSelectedIndexId());
-            Collection<Long> tabletIds = distributionPrune(table, partition.getDistributionInfo(), olapScanOperator);
+            Collection<Long> tabletIds = distributionPrune(table, partition.getDistributionInfo(), olapScanOperator,
+                    context);
             result.addAll(tabletIds);
         }
 
@@ -67,11 +68,12 @@ public class DistributionPruneRule extends TransformationRule {
     }
 
     private Collection<Long> distributionPrune(MaterializedIndex index, DistributionInfo distributionInfo,
-                                               LogicalOlapScanOperator operator) {
+                                               LogicalOlapScanOperator operator, OptimizerContext context) {
         try {
             DistributionPruner distributionPruner;
             if (distributionInfo.getType() == DistributionInfo.DistributionInfoType.HASH) {
                 HashDistributionInfo info = (HashDistributionInfo) distributionInfo;
+                context.addPruningParameters(operator, info.getDistributionColumns());
                 distributionPruner = new HashDistributionPruner(index.getTabletIdsInOrder(),
                         info.getDistributionColumns(),
                         operator.getColumnFilters(),
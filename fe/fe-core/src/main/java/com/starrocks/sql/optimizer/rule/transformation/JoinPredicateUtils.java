@@ -9,6 +9,7 @@ import com.starrocks.sql.analyzer.SemanticException;
 import com.starrocks.sql.common.ErrorType;
 import com.starrocks.sql.common.StarRocksPlannerException;
 import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptimizerContext;
 import com.starrocks.sql.optimizer.Utils;
 import com.starrocks.sql.optimizer.base.ColumnRefSet;
 import com.starrocks.sql.optimizer.operator.OperatorType;
@@ -223,9 +224,11 @@ public class JoinPredicateUtils {
         return Utils.compoundAnd(Lists.newArrayList(allPredicate));
     }
 
-    public static ScalarOperator rangePredicateDerive(ScalarOperator predicate) {
+    public static ScalarOperator rangePredicateDerive(ScalarOperator predicate, OptimizerContext context) {
         ScalarRangePredicateExtractor scalarRangePredicateExtractor = new ScalarRangePredicateExtractor();
-        return scalarRangePredicateExtractor.rewriteAll(predicate);
+        ScalarOperator result = scalarRangePredicateExtractor.rewriteAll(predicate);
+        context.addDerivedParameters(predicate, result);
+        return result;
     }
 
     public static void getJoinOnPredicatesColumns(List<BinaryPredicateOperator> equalOnPredicates,
@@ -68,6 +68,7 @@ public class PartitionPredicatePrune extends TransformationRule {
         if (partitionInfo.getPartitionColumns().size() != 1 || partitionIds.isEmpty()) {
             return Collections.emptyList();
         }
+        context.addPruningParameters(logicalOlapScanOperator, partitionInfo.getPartitionColumns());
 
         List<ScalarOperator> allPredicate = Utils.extractConjuncts(logicalOlapScanOperator.getPredicate());
         List<ScalarOperator> removePredicate = Lists.newArrayList();
@@ -53,6 +53,7 @@ public class PartitionPruneRule extends TransformationRule {
         List<Long> selectedPartitionIds = null;
 
         if (partitionInfo.getType() == PartitionType.RANGE) {
+            context.addPruningParameters(olapScanOperator, partitionInfo.getPartitionColumns());
             selectedPartitionIds =
                     partitionPrune(table, (RangePartitionInfo) partitionInfo, olapScanOperator);
         }
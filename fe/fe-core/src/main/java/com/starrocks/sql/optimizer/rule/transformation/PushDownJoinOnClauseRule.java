@@ -39,7 +39,7 @@ public class PushDownJoinOnClauseRule extends TransformationRule {
 
         ScalarOperator on = join.getOnPredicate();
 
-        on = JoinPredicateUtils.rangePredicateDerive(on);
+        on = JoinPredicateUtils.rangePredicateDerive(on, context);
         on = equivalenceDeriveOnPredicate(on, input, join);
 
         OptExpression root = pushDownOnPredicate(input, on);
@@ -201,7 +201,7 @@ public class PushDownPredicateJoinRule extends TransformationRule {
         if (join.getJoinType().isCrossJoin() || join.getJoinType().isInnerJoin()) {
             // The effect will be better, first do the range derive, and then do the equivalence derive
             ScalarOperator predicate = JoinPredicateUtils
-                    .rangePredicateDerive(Utils.compoundAnd(join.getOnPredicate(), filter.getPredicate()));
+                    .rangePredicateDerive(Utils.compoundAnd(join.getOnPredicate(), filter.getPredicate()), context);
             predicate = JoinPredicateUtils.equivalenceDerive(predicate, true);
             return Lists.newArrayList(pushDownOnPredicate(input.getInputs().get(0), predicate));
         } else {
@@ -212,11 +212,11 @@ public class PushDownPredicateJoinRule extends TransformationRule {
 
             if (join.getJoinType().isCrossJoin() || join.getJoinType().isInnerJoin()) {
                 ScalarOperator predicate = JoinPredicateUtils
-                        .rangePredicateDerive(Utils.compoundAnd(join.getOnPredicate(), filter.getPredicate()));
+                        .rangePredicateDerive(Utils.compoundAnd(join.getOnPredicate(), filter.getPredicate()), context);
                 predicate = JoinPredicateUtils.equivalenceDerive(predicate, true);
                 return Lists.newArrayList(pushDownOnPredicate(input.getInputs().get(0), predicate));
             } else {
-                ScalarOperator predicate = JoinPredicateUtils.rangePredicateDerive(filter.getPredicate());
+                ScalarOperator predicate = JoinPredicateUtils.rangePredicateDerive(filter.getPredicate(), context);
                 List<ScalarOperator> leftPushDown = Lists.newArrayList();
                 List<ScalarOperator> rightPushDown = Lists.newArrayList();
                 equivalenceDeriveOnOuterOrSemi(Utils.compoundAnd(join.getOnPredicate(), predicate), joinOpt, join,
@@ -44,7 +44,9 @@ public class PushDownPredicateScanRule extends TransformationRule {
 
         ScalarOperator predicates = Utils.compoundAnd(lfo.getPredicate(), logicalScanOperator.getPredicate());
         ScalarRangePredicateExtractor rangeExtractor = new ScalarRangePredicateExtractor();
-        predicates = rangeExtractor.rewriteOnlyColumn(predicates);
+        ScalarOperator derivedPredicates = rangeExtractor.rewriteOnlyColumn(predicates);
+        context.addDerivedParameters(predicates, derivedPredicates);
+        predicates = derivedPredicates;
 
         if (logicalScanOperator instanceof LogicalOlapScanOperator) {
             LogicalOlapScanOperator olapScanOperator = (LogicalOlapScanOperator) logicalScanOperator;
@@ -63,7 +63,7 @@ public class BinaryPredicateStatisticCalculator {
         StatisticRangeValues columnRange = StatisticRangeValues.from(columnStatistic);
         StatisticRangeValues intersectRange = columnRange.intersect(predicateRange);
 
-        double predicateFactor = 1.0 - columnRange.overlapPercentWith(intersectRange);
+        double predicateFactor = 1.0 - estimateOverlapFactor(columnStatistic, columnRange, intersectRange);
         double rowCount = statistics.getOutputRowCount() * predicateFactor;
         // TODO(ywb) use origin column distinct values as new column statistics now, we should re-compute column
         //  distinct values actually.
@@ -155,7 +155,7 @@ public class BinaryPredicateStatisticCalculator {
         StatisticRangeValues columnRange = StatisticRangeValues.from(columnStatistic);
         StatisticRangeValues intersectRange = columnRange.intersect(predicateRange);
 
-        double predicateFactor = columnRange.overlapPercentWith(intersectRange);
+        double predicateFactor = estimateOverlapFactor(columnStatistic, columnRange, intersectRange);
         double rowCount = statistics.getOutputRowCount() * predicateFactor;
         // TODO(ywb) use origin column distinct values as new column statistics now, we should re-compute column
         //  distinct values actually.
@@ -171,4 +171,16 @@ public class BinaryPredicateStatisticCalculator {
                 addColumnStatistic(operator, newEstimateColumnStatistics).build()).
                 orElseGet(() -> Statistics.buildFrom(statistics).setOutputRowCount(rowCount).build());
     }
+
+    // Use the histogram of column if it exists, otherwise assume the values are uniformly distributed
+    private static double estimateOverlapFactor(ColumnStatistic columnStatistic, StatisticRangeValues columnRange,
+                                                StatisticRangeValues intersectRange) {
+        Histogram histogram = columnStatistic.getHistogram();
+        if (histogram == null || histogram.getRowCount() <= 0 || intersectRange.isEmpty()) {
+            return columnRange.overlapPercentWith(intersectRange);
+        }
+        double nullsFraction = columnStatistic.getNullsFraction();
+        double nonNullFraction = Double.isNaN(nullsFraction) ? 1 : 1 - Math.min(Math.max(nullsFraction, 0), 1);
+        return histogram.estimateFraction(intersectRange.getLow(), intersectRange.getHigh()) * nonNullFraction;
+    }
 }
@@ -9,11 +9,17 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
 import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.Column;
 import com.starrocks.catalog.Database;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.Table;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.common.Config;
+import com.starrocks.common.ThreadPoolManager;
 import com.starrocks.qe.ConnectContext;
 import com.starrocks.sql.optimizer.base.ColumnIdentifier;
+import com.starrocks.statistic.StatisticUtils;
 import com.starrocks.thrift.TGlobalDict;
 import com.starrocks.thrift.TStatisticData;
 import org.apache.logging.log4j.LogManager;
@@ -28,7 +34,12 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 import static com.starrocks.statistic.StatisticExecutor.queryDictSync;
 
@@ -38,6 +49,8 @@ public class CacheDictManager implements IDictManager {
 
     public static final Integer LOW_CARDINALITY_THRESHOLD = 255;
 
+    private static final int DICT_LOAD_THREAD_NUM = 4;
+
     private CacheDictManager() {
     }
 
@@ -117,10 +130,24 @@ public class CacheDictManager implements IDictManager {
                 }
             };
 
+    // The dicts are loaded and rebuilt by the queries of statistic table, which shouldn't occupy the common pool
+    private final ThreadPoolExecutor dictExecutor = ThreadPoolManager.newDaemonFixedThreadPool(DICT_LOAD_THREAD_NUM,
+            Config.statistic_cache_columns, "global-dict-loader", true);
+
     private final AsyncLoadingCache<ColumnIdentifier, Optional<ColumnDict>> dictStatistics = Caffeine.newBuilder()
             .maximumSize(Config.statistic_cache_columns)
+            .executor(dictExecutor)
             .buildAsync(dictLoader);
 
+    // The low cardinality string columns which need global dict, with db id. The dicts of them are rebuilt
+    // when they are invalid or stale, so that the dict optimization doesn't depend on the first query to load them.
+    private final Set<ColumnIdentifier> dictColumns = ConcurrentHashMap.newKeySet();
+    // The columns whose dict is being rebuilt, to avoid rebuilding one dict concurrently
+    private final Set<ColumnIdentifier> rebuildingColumns = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong hitCount = new AtomicLong(0);
+    private final AtomicLong missCount = new AtomicLong(0);
+
     private ColumnDict deserializeColumnDict(TStatisticData statisticData) throws AnalysisException {
         TGlobalDict tGlobalDict = statisticData.dict;
         ImmutableMap.Builder<String, Integer> dicts = ImmutableMap.builder();
@@ -154,6 +181,7 @@ public class CacheDictManager implements IDictManager {
             LOG.debug("{} couldn't find db id", columnName);
             return false;
         }
+        dictColumns.add(columnIdentifier);
 
         CompletableFuture<Optional<ColumnDict>> result = dictStatistics.get(columnIdentifier);
         if (result.isDone()) {
@@ -162,15 +190,26 @@ public class CacheDictManager implements IDictManager {
                 realResult = result.get();
             } catch (Exception e) {
                 LOG.warn(e);
+                missCount.incrementAndGet();
                 return false;
             }
             if (!realResult.isPresent()) {
                 LOG.debug("invalidate {}", columnName);
                 dictStatistics.synchronous().invalidate(columnIdentifier);
             }
-            return realResult.filter(columnDict -> columnDict.getVersionTime() >= versionTime).isPresent();
+            if (realResult.filter(columnDict -> columnDict.getVersionTime() >= versionTime).isPresent()) {
+                hitCount.incrementAndGet();
+                return true;
+            }
+            if (realResult.isPresent()) {
+                LOG.debug("{} column dict is stale", columnName);
+                rebuildGlobalDict(columnIdentifier);
+            }
+            missCount.incrementAndGet();
+            return false;
         }
         LOG.debug("{} first get column dict", columnName);
+        missCount.incrementAndGet();
         return false;
     }
 
@@ -185,6 +224,138 @@ public class CacheDictManager implements IDictManager {
         LOG.debug("remove dict for column {}", columnName);
         ColumnIdentifier columnIdentifier = new ColumnIdentifier(tableId, columnName);
         dictStatistics.synchronous().invalidate(columnIdentifier);
+        // the load brings new values, rebuild the dict now instead of waiting for the next query
+        for (ColumnIdentifier dictColumn : dictColumns) {
+            if (dictColumn.equals(columnIdentifier)) {
+                rebuildGlobalDict(dictColumn);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Load the dict in background, the old dict is kept until the new one is loaded. The old dict isn't
+     * used by queries if it's stale, because its version time is older than the partitions.
+     */
+    private void rebuildGlobalDict(ColumnIdentifier columnIdentifier) {
+        if (!rebuildingColumns.add(columnIdentifier)) {
+            return;
+        }
+        CompletableFuture<Optional<ColumnDict>> future;
+        try {
+            future = dictLoader.asyncLoad(columnIdentifier, dictExecutor);
+        } catch (RejectedExecutionException e) {
+            rebuildingColumns.remove(columnIdentifier);
+            LOG.warn("rebuild dict for column {} is rejected", columnIdentifier.getColumnName(), e);
+            return;
+        }
+        future.whenComplete((dict, e) -> {
+            rebuildingColumns.remove(columnIdentifier);
+            if (e != null) {
+                LOG.warn("rebuild dict for column {} failed", columnIdentifier.getColumnName(), e);
+            } else {
+                dictStatistics.synchronous().put(columnIdentifier, dict);
+                LOG.debug("rebuild dict for column {}", columnIdentifier.getColumnName());
+            }
+        });
+    }
+
+    private static OlapTable getOlapTable(ColumnIdentifier columnIdentifier) {
+        Database db = Catalog.getCurrentCatalog().getDb(columnIdentifier.getDbId());
+        if (db == null) {
+            return null;
+        }
+        Table table = db.getTable(columnIdentifier.getTableId());
+        if (!(table instanceof OlapTable) || table.getColumn(columnIdentifier.getColumnName()) == null) {
+            return null;
+        }
+        return (OlapTable) table;
+    }
+
+    private static long getVersionTime(OlapTable table) {
+        return table.getPartitions().stream().map(Partition::getVisibleVersionTime).max(Long::compareTo).orElse(0L);
+    }
+
+    private boolean isGlobalDictFresh(ColumnIdentifier columnIdentifier, long versionTime) {
+        CompletableFuture<Optional<ColumnDict>> result = dictStatistics.getIfPresent(columnIdentifier);
+        if (result == null || !result.isDone() || result.isCompletedExceptionally()) {
+            return false;
+        }
+        return result.join().filter(columnDict -> columnDict.getVersionTime() >= versionTime).isPresent();
+    }
+
+    /**
+     * Rebuild the missing and stale dicts of the low cardinality string columns, the columns of dropped
+     * tables are removed.
+     */
+    public void refreshGlobalDicts() {
+        for (ColumnIdentifier columnIdentifier : dictColumns) {
+            OlapTable table = getOlapTable(columnIdentifier);
+            if (table == null) {
+                dictColumns.remove(columnIdentifier);
+                dictStatistics.synchronous().invalidate(columnIdentifier);
+                continue;
+            }
+            if (!isGlobalDictFresh(columnIdentifier, getVersionTime(table))) {
+                rebuildGlobalDict(columnIdentifier);
+            }
+        }
+    }
+
+    /**
+     * Find the low cardinality string columns by the column statistics already loaded, e.g. from the statistic
+     * cache snapshot, so that their dicts are loaded before they are queried. The statistics aren't loaded here,
+     * which would load the statistics of all string columns, and the columns without statistics aren't known
+     * to be low cardinality.
+     */
+    public void prewarmGlobalDicts() {
+        StatisticStorage statisticStorage = Catalog.getCurrentStatisticStorage();
+        for (Long dbId : Catalog.getCurrentCatalog().getDbIds()) {
+            Database db = Catalog.getCurrentCatalog().getDb(dbId);
+            if (db == null || StatisticUtils.statisticDatabaseBlackListCheck(db.getFullName())) {
+                continue;
+            }
+            for (Table table : db.getTables()) {
+                if (!(table instanceof OlapTable)) {
+                    continue;
+                }
+                List<String> columns = table.getBaseSchema().stream().filter(c -> c.getType().isVarchar())
+                        .map(Column::getName).collect(Collectors.toList());
+                if (columns.isEmpty()) {
+                    continue;
+                }
+                for (String column : columns) {
+                    ColumnStatistic statistic = statisticStorage.getLoadedColumnStatistic(table, column);
+                    if (!statistic.isUnknown() && statistic.getDistinctValuesCount() <= LOW_CARDINALITY_THRESHOLD) {
+                        dictColumns.add(new ColumnIdentifier(db.getId(), table.getId(), column));
+                    }
+                }
+            }
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getDictColumnNum() {
+        return dictColumns.size();
+    }
+
+    // The number of low cardinality string columns whose dict could be used by queries
+    public long getFreshDictNum() {
+        long num = 0;
+        for (ColumnIdentifier columnIdentifier : dictColumns) {
+            OlapTable table = getOlapTable(columnIdentifier);
+            if (table != null && isGlobalDictFresh(columnIdentifier, getVersionTime(table))) {
+                num++;
+            }
+        }
+        return num;
     }
 
     @Override
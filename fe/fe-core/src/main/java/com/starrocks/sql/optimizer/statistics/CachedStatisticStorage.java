@@ -7,7 +7,14 @@ import com.clearspring.analytics.util.Lists;
 import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
 import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
 import com.starrocks.catalog.Catalog;
 import com.starrocks.catalog.Column;
 import com.starrocks.catalog.Database;
@@ -18,6 +25,7 @@ import com.starrocks.common.AnalysisException;
 import com.starrocks.common.Config;
 import com.starrocks.common.ErrorCode;
 import com.starrocks.common.ErrorReport;
+import com.starrocks.sql.plan.PlanCache;
 import com.starrocks.statistic.StatisticExecutor;
 import com.starrocks.statistic.StatisticUtils;
 import com.starrocks.thrift.TStatisticData;
@@ -25,11 +33,24 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -44,6 +65,9 @@ import static com.starrocks.sql.optimizer.Utils.getLongFromDateTime;
 public class CachedStatisticStorage implements StatisticStorage {
     private static final Logger LOG = LogManager.getLogger(CachedStatisticStorage.class);
 
+    // the min and max value of column statistic may be infinite
+    private static final Gson SNAPSHOT_GSON = new GsonBuilder().serializeSpecialFloatingPointValues().create();
+
     private final StatisticExecutor statisticExecutor = new StatisticExecutor();
 
     private final AsyncCacheLoader<CacheKey, Optional<ColumnStatistic>> loader =
@@ -51,12 +75,25 @@ public class CachedStatisticStorage implements StatisticStorage {
                 @Override
                 public @NonNull CompletableFuture<Optional<ColumnStatistic>> asyncLoad(@NonNull CacheKey cacheKey,
                                                                                        @NonNull Executor executor) {
+                    // the plans built before the statistic is loaded used the unknown statistic
+                    return load(cacheKey, executor).thenApply(statistic -> {
+                        if (statistic.isPresent()) {
+                            PlanCache.getInstance().invalidateTable(cacheKey.tableId);
+                        }
+                        return statistic;
+                    });
+                }
+
+                private CompletableFuture<Optional<ColumnStatistic>> load(CacheKey cacheKey, Executor executor) {
                     return CompletableFuture.supplyAsync(() -> {
                         try {
                             List<TStatisticData> statisticData = queryStatisticsData(cacheKey.tableId, cacheKey.column);
                             // check TStatisticData is not empty, There may be no such column Statistics in BE
                             if (!statisticData.isEmpty()) {
-                                return Optional.of(convert2ColumnStatistics(statisticData.get(0)));
+                                Map<String, Histogram> histograms =
+                                        queryHistograms(cacheKey.tableId, ImmutableList.of(cacheKey.column));
+                                return Optional.of(attachHistogram(convert2ColumnStatistics(statisticData.get(0)),
+                                        histograms.get(cacheKey.column)));
                             } else {
                                 return Optional.empty();
                             }
@@ -83,11 +120,14 @@ public class CachedStatisticStorage implements StatisticStorage {
                             List<TStatisticData> statisticData = queryStatisticsData(tableId, columns);
                             // check TStatisticData is not empty, There may be no such column Statistics in BE
                             if (!statisticData.isEmpty()) {
+                                Map<String, Histogram> histograms = queryHistograms(tableId, columns);
                                 for (TStatisticData data : statisticData) {
-                                    ColumnStatistic columnStatistic = convert2ColumnStatistics(data);
+                                    ColumnStatistic columnStatistic = attachHistogram(convert2ColumnStatistics(data),
+                                            histograms.get(data.columnName));
                                     result.put(new CacheKey(data.tableId, data.columnName),
                                             Optional.of(columnStatistic));
                                 }
+                                PlanCache.getInstance().invalidateTable(tableId);
                             } else {
                                 // put null for cache key which can't get TStatisticData from BE
                                 for (CacheKey cacheKey : keys) {
@@ -107,14 +147,22 @@ public class CachedStatisticStorage implements StatisticStorage {
                 public CompletableFuture<Optional<ColumnStatistic>> asyncReload(
                         @NonNull CacheKey key, @NonNull Optional<ColumnStatistic> oldValue,
                         @NonNull Executor executor) {
-                    return asyncLoad(key, executor);
+                    // the old statistic is used until the new one is loaded, then the plans using it are invalidated
+                    return load(key, executor).thenApply(statistic -> {
+                        PlanCache.getInstance().invalidateTable(key.tableId);
+                        return statistic;
+                    });
                 }
             };
 
+    // table id -> columns, the statistics loaded from snapshot and not reloaded yet
+    private final Map<Long, List<String>> snapshotColumns = Maps.newConcurrentMap();
+
     AsyncLoadingCache<CacheKey, Optional<ColumnStatistic>> cachedStatistics = Caffeine.newBuilder()
             .expireAfterWrite(Config.statistic_update_interval_sec * 2, TimeUnit.SECONDS)
             .refreshAfterWrite(Config.statistic_update_interval_sec, TimeUnit.SECONDS)
             .maximumSize(Config.statistic_cache_columns)
+            .recordStats()
             .buildAsync(loader);
 
     @Override
@@ -125,6 +173,18 @@ public class CachedStatisticStorage implements StatisticStorage {
             allKeys.add(key);
         }
         cachedStatistics.synchronous().invalidateAll(allKeys);
+        PlanCache.getInstance().invalidateTable(table.getId());
+    }
+
+    @Override
+    public void refreshColumnStatistics(Table table, List<String> columns) {
+        for (String column : columns) {
+            CacheKey key = new CacheKey(table.getId(), column);
+            // only refresh the loaded statistics, the others are loaded when they are used
+            if (cachedStatistics.getIfPresent(key) != null) {
+                cachedStatistics.synchronous().refresh(key);
+            }
+        }
     }
 
     private List<TStatisticData> queryStatisticsData(long tableId, String column) throws Exception {
@@ -135,6 +195,23 @@ public class CachedStatisticStorage implements StatisticStorage {
         return statisticExecutor.queryStatisticSync(null, tableId, columns);
     }
 
+    // The histogram is optional, so the column statistic is still loaded if the histogram can't be queried
+    private Map<String, Histogram> queryHistograms(long tableId, List<String> columns) {
+        try {
+            return statisticExecutor.queryHistogramSync(tableId, columns);
+        } catch (Exception e) {
+            LOG.warn("query histogram failed, table : {}, columns : {}", tableId, columns, e);
+            return Collections.emptyMap();
+        }
+    }
+
+    private ColumnStatistic attachHistogram(ColumnStatistic columnStatistic, Histogram histogram) {
+        if (histogram == null) {
+            return columnStatistic;
+        }
+        return ColumnStatistic.buildFrom(columnStatistic).setHistogram(histogram).build();
+    }
+
     private ColumnStatistic convert2ColumnStatistics(TStatisticData statisticData) throws AnalysisException {
         Database db = Catalog.getCurrentCatalog().getDb(statisticData.dbId);
         if (db == null) {
@@ -220,6 +297,16 @@ public class CachedStatisticStorage implements StatisticStorage {
         }
     }
 
+    @Override
+    public ColumnStatistic getLoadedColumnStatistic(Table table, String column) {
+        CompletableFuture<Optional<ColumnStatistic>> result =
+                cachedStatistics.getIfPresent(new CacheKey(table.getId(), column));
+        if (result == null || !result.isDone() || result.isCompletedExceptionally()) {
+            return ColumnStatistic.unknown();
+        }
+        return result.join().orElseGet(ColumnStatistic::unknown);
+    }
+
     private List<ColumnStatistic> getDefaultColumnStatisticList(List<String> columns) {
         List<ColumnStatistic> columnStatisticList = new ArrayList<>();
         for (int i = 0; i < columns.size(); ++i) {
@@ -275,6 +362,148 @@ public class CachedStatisticStorage implements StatisticStorage {
 
     public void addColumnStatistic(Table table, String column, ColumnStatistic columnStatistic) {
         this.cachedStatistics.synchronous().put(new CacheKey(table.getId(), column), Optional.of(columnStatistic));
+        PlanCache.getInstance().invalidateTable(table.getId());
+    }
+
+    public CacheStats getCacheStats() {
+        return cachedStatistics.synchronous().stats();
+    }
+
+    public long getCacheSize() {
+        return cachedStatistics.synchronous().estimatedSize();
+    }
+
+    /**
+     * Save the loaded column statistics to the snapshot file. The file is written to a temporary file
+     * first and then renamed, so a crash during saving doesn't break the old snapshot.
+     */
+    public int saveSnapshot(File file) throws IOException {
+        List<SnapshotEntry> entries = Lists.newArrayList();
+        for (Map.Entry<CacheKey, CompletableFuture<Optional<ColumnStatistic>>> entry :
+                cachedStatistics.asMap().entrySet()) {
+            CompletableFuture<Optional<ColumnStatistic>> future = entry.getValue();
+            if (!future.isDone() || future.isCompletedExceptionally()) {
+                continue;
+            }
+            Optional<ColumnStatistic> statistic = future.join();
+            if (statistic.isPresent() && !statistic.get().isUnknown()) {
+                entries.add(new SnapshotEntry(entry.getKey(), statistic.get()));
+            }
+        }
+
+        File tmpFile = new File(file.getPath() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(tmpFile), StandardCharsets.UTF_8)) {
+            SNAPSHOT_GSON.toJson(entries, writer);
+        }
+        Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        return entries.size();
+    }
+
+    /**
+     * Load the column statistics from the snapshot file, the statistics already in cache are not replaced.
+     * The loaded statistics may be stale, they are reloaded from the statistics table by
+     * {@link #reloadSnapshotStatistics}.
+     */
+    public int loadSnapshot(File file) throws IOException {
+        if (!file.exists()) {
+            return 0;
+        }
+        List<SnapshotEntry> entries;
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            entries = SNAPSHOT_GSON.fromJson(reader, new TypeToken<List<SnapshotEntry>>() {
+            }.getType());
+        } catch (JsonParseException e) {
+            throw new IOException("invalid statistic cache snapshot " + file, e);
+        }
+        if (entries == null) {
+            return 0;
+        }
+        int loaded = 0;
+        for (SnapshotEntry entry : entries) {
+            CacheKey key = new CacheKey(entry.tableId, entry.column);
+            if (cachedStatistics.asMap().putIfAbsent(key,
+                    CompletableFuture.completedFuture(Optional.of(entry.toColumnStatistic()))) == null) {
+                snapshotColumns.computeIfAbsent(key.tableId, k -> Lists.newArrayList()).add(key.column);
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Reload the statistics loaded from snapshot, one query for the columns of a table. The snapshot statistics
+     * are kept if they can't be reloaded, e.g. the statistics table is not available yet, and the table is retried
+     * in the next call. Return whether all the snapshot statistics are reloaded.
+     */
+    public boolean reloadSnapshotStatistics() {
+        Iterator<Map.Entry<Long, List<String>>> iter = snapshotColumns.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry<Long, List<String>> entry = iter.next();
+            long tableId = entry.getKey();
+            try {
+                List<TStatisticData> statisticData = queryStatisticsData(tableId, entry.getValue());
+                Map<String, Histogram> histograms =
+                        statisticData.isEmpty() ? Collections.emptyMap() : queryHistograms(tableId, entry.getValue());
+                for (TStatisticData data : statisticData) {
+                    ColumnStatistic statistic =
+                            attachHistogram(convert2ColumnStatistics(data), histograms.get(data.columnName));
+                    cachedStatistics.synchronous().put(new CacheKey(data.tableId, data.columnName),
+                            Optional.of(statistic));
+                }
+                PlanCache.getInstance().invalidateTable(tableId);
+                iter.remove();
+            } catch (Exception e) {
+                LOG.warn("failed to reload the snapshot statistics of table {}", tableId, e);
+            }
+        }
+        return snapshotColumns.isEmpty();
+    }
+
+    private static class SnapshotEntry {
+        @SerializedName("tableId")
+        private long tableId;
+        @SerializedName("column")
+        private String column;
+        @SerializedName("min")
+        private double minValue;
+        @SerializedName("max")
+        private double maxValue;
+        @SerializedName("nullsFraction")
+        private double nullsFraction;
+        @SerializedName("averageRowSize")
+        private double averageRowSize;
+        @SerializedName("distinctValuesCount")
+        private double distinctValuesCount;
+        @SerializedName("histogram")
+        private Histogram histogram;
+        // null in the snapshot saved by old version, which only saves the estimated statistics
+        @SerializedName("type")
+        private ColumnStatistic.StatisticType type;
+
+        SnapshotEntry(CacheKey key, ColumnStatistic statistic) {
+            this.tableId = key.tableId;
+            this.column = key.column;
+            this.minValue = statistic.getMinValue();
+            this.maxValue = statistic.getMaxValue();
+            this.nullsFraction = statistic.getNullsFraction();
+            this.averageRowSize = statistic.getAverageRowSize();
+            this.distinctValuesCount = statistic.getDistinctValuesCount();
+            this.histogram = statistic.getHistogram();
+            this.type = statistic.getType();
+        }
+
+        ColumnStatistic toColumnStatistic() {
+            return ColumnStatistic.builder()
+                    .setMinValue(minValue)
+                    .setMaxValue(maxValue)
+                    .setNullsFraction(nullsFraction)
+                    .setAverageRowSize(averageRowSize)
+                    .setDistinctValuesCount(distinctValuesCount)
+                    .setHistogram(histogram)
+                    .setType(type == null ? ColumnStatistic.StatisticType.ESTIMATE : type)
+                    .build();
+        }
     }
 
     static class CacheKey {
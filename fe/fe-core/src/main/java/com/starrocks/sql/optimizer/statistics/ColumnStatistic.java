@@ -9,7 +9,7 @@ import static java.lang.Double.NaN;
 import static java.lang.Double.POSITIVE_INFINITY;
 
 public class ColumnStatistic {
-    private enum StatisticType {
+    public enum StatisticType {
         UNKNOWN,
         ESTIMATE
     }
@@ -23,6 +23,10 @@ public class ColumnStatistic {
     private final double averageRowSize;
     private final double distinctValuesCount;
     private final StatisticType type;
+    // The histogram is loaded with the column statistic of table, its fractions are of all the rows of table.
+    // So it's dropped when the value range or the rows are changed by partition pruning, predicate or
+    // aggregation, then the estimation falls back to the uniform distribution assumption
+    private final Histogram histogram;
 
     // TODO deal with string max, min
     public ColumnStatistic(
@@ -32,12 +36,18 @@ public class ColumnStatistic {
             double averageRowSize,
             double distinctValuesCount,
             StatisticType type) {
+        this(minValue, maxValue, nullsFraction, averageRowSize, distinctValuesCount, type, null);
+    }
+
+    private ColumnStatistic(double minValue, double maxValue, double nullsFraction, double averageRowSize,
+                            double distinctValuesCount, StatisticType type, Histogram histogram) {
         this.minValue = minValue;
         this.maxValue = maxValue;
         this.nullsFraction = nullsFraction;
         this.averageRowSize = averageRowSize;
         this.distinctValuesCount = distinctValuesCount;
         this.type = type;
+        this.histogram = histogram;
     }
 
     public ColumnStatistic(double minValue,
@@ -68,6 +78,10 @@ public class ColumnStatistic {
         return distinctValuesCount;
     }
 
+    public Histogram getHistogram() {
+        return histogram;
+    }
+
     public static ColumnStatistic unknown() {
         return UNKNOWN;
     }
@@ -97,7 +111,7 @@ public class ColumnStatistic {
 
     public static Builder buildFrom(ColumnStatistic other) {
         return new Builder(other.minValue, other.maxValue, other.nullsFraction, other.averageRowSize,
-                other.distinctValuesCount, other.type);
+                other.distinctValuesCount, other.type).setHistogram(other.histogram);
     }
 
     public static Builder buildFrom(String columnStatistic) {
@@ -125,6 +139,7 @@ public class ColumnStatistic {
         private double averageRowSize = NaN;
         private double distinctValuesCount = NaN;
         private StatisticType type = StatisticType.ESTIMATE;
+        private Histogram histogram = null;
 
         private Builder() {
         }
@@ -174,8 +189,14 @@ public class ColumnStatistic {
             return this;
         }
 
+        public Builder setHistogram(Histogram histogram) {
+            this.histogram = histogram;
+            return this;
+        }
+
         public ColumnStatistic build() {
-            return new ColumnStatistic(minValue, maxValue, nullsFraction, averageRowSize, distinctValuesCount, type);
+            return new ColumnStatistic(minValue, maxValue, nullsFraction, averageRowSize, distinctValuesCount, type,
+                    histogram);
         }
     }
 }
@@ -0,0 +1,220 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.statistics;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.gson.annotations.SerializedName;
+import com.starrocks.common.Pair;
+import com.starrocks.persist.gson.GsonUtils;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Histogram describes the value distribution of a numeric or date column, it's built from the sampled
+ * non-null values. The most common values are recorded with their exact count, and the other values are
+ * divided into equi-height buckets, each bucket records its bounds, row count and distinct value count.
+ * The values of date and datetime are converted to double as the min and max value of ColumnStatistic.
+ */
+public class Histogram {
+    @SerializedName("buckets")
+    private final List<Bucket> buckets;
+    @SerializedName("mcv")
+    private final List<MostCommonValue> mostCommonValues;
+    // the sampled non-null row count
+    @SerializedName("rows")
+    private final long rowCount;
+
+    public static class Bucket {
+        @SerializedName("lower")
+        private final double lower;
+        @SerializedName("upper")
+        private final double upper;
+        @SerializedName("count")
+        private final long count;
+        @SerializedName("ndv")
+        private final long distinctCount;
+
+        public Bucket(double lower, double upper, long count, long distinctCount) {
+            this.lower = lower;
+            this.upper = upper;
+            this.count = count;
+            this.distinctCount = distinctCount;
+        }
+
+        public double getLower() {
+            return lower;
+        }
+
+        public double getUpper() {
+            return upper;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+
+    public static class MostCommonValue {
+        @SerializedName("value")
+        private final double value;
+        @SerializedName("count")
+        private final long count;
+
+        public MostCommonValue(double value, long count) {
+            this.value = value;
+            this.count = count;
+        }
+
+        public double getValue() {
+            return value;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+
+    public Histogram(List<Bucket> buckets, List<MostCommonValue> mostCommonValues, long rowCount) {
+        this.buckets = buckets;
+        this.mostCommonValues = mostCommonValues;
+        this.rowCount = rowCount;
+    }
+
+    public List<Bucket> getBuckets() {
+        return buckets;
+    }
+
+    public List<MostCommonValue> getMostCommonValues() {
+        return mostCommonValues;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Build histogram from the distinct values and their counts, which are sorted by value.
+     * The values more frequent than the average are the most common value candidates, and the top
+     * mostCommonValueNum of them are chosen. The other values are put into at most bucketNum buckets,
+     * one value is never split into two buckets.
+     */
+    public static Histogram build(List<Pair<Double, Long>> valueCounts, int bucketNum, int mostCommonValueNum) {
+        Preconditions.checkArgument(bucketNum > 0);
+        long rowCount = 0;
+        for (Pair<Double, Long> valueCount : valueCounts) {
+            rowCount += valueCount.second;
+        }
+        if (rowCount == 0) {
+            return new Histogram(Lists.newArrayList(), Lists.newArrayList(), 0);
+        }
+
+        double avgCount = (double) rowCount / valueCounts.size();
+        List<Pair<Double, Long>> candidates = Lists.newArrayList();
+        for (Pair<Double, Long> valueCount : valueCounts) {
+            if (valueCount.second > avgCount) {
+                candidates.add(valueCount);
+            }
+        }
+        candidates.sort(Comparator.comparing((Pair<Double, Long> p) -> p.second).reversed());
+        List<MostCommonValue> mostCommonValues = Lists.newArrayList();
+        for (int i = 0; i < Math.min(mostCommonValueNum, candidates.size()); i++) {
+            mostCommonValues.add(new MostCommonValue(candidates.get(i).first, candidates.get(i).second));
+        }
+        mostCommonValues.sort(Comparator.comparingDouble(MostCommonValue::getValue));
+
+        long bucketRowCount = rowCount;
+        for (MostCommonValue mcv : mostCommonValues) {
+            bucketRowCount -= mcv.count;
+        }
+        double rowsPerBucket = Math.max((double) bucketRowCount / bucketNum, 1);
+
+        List<Bucket> buckets = Lists.newArrayList();
+        int mcvIndex = 0;
+        double lower = 0;
+        long count = 0;
+        long distinctCount = 0;
+        for (Pair<Double, Long> valueCount : valueCounts) {
+            double value = valueCount.first;
+            // the values are sorted, so the most common values are skipped in order
+            if (mcvIndex < mostCommonValues.size() && mostCommonValues.get(mcvIndex).value == value) {
+                mcvIndex++;
+                continue;
+            }
+            if (count == 0) {
+                lower = value;
+            }
+            count += valueCount.second;
+            distinctCount++;
+            if (count >= rowsPerBucket) {
+                buckets.add(new Bucket(lower, value, count, distinctCount));
+                count = 0;
+                distinctCount = 0;
+            }
+        }
+        if (count > 0) {
+            double upper = valueCounts.get(valueCounts.size() - 1).first;
+            // the last values may be the most common values
+            for (int i = valueCounts.size() - 1; i >= 0; i--) {
+                if (!isMostCommonValue(mostCommonValues, valueCounts.get(i).first)) {
+                    upper = valueCounts.get(i).first;
+                    break;
+                }
+            }
+            buckets.add(new Bucket(lower, upper, count, distinctCount));
+        }
+        return new Histogram(buckets, mostCommonValues, rowCount);
+    }
+
+    private static boolean isMostCommonValue(List<MostCommonValue> mostCommonValues, double value) {
+        for (MostCommonValue mcv : mostCommonValues) {
+            if (mcv.value == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Estimate the fraction of non-null rows whose value is in [low, high], low equals to high means
+     * the equality predicate.
+     */
+    public double estimateFraction(double low, double high) {
+        if (rowCount <= 0) {
+            return 0;
+        }
+        double rows = 0;
+        for (MostCommonValue mcv : mostCommonValues) {
+            if (mcv.value >= low && mcv.value <= high) {
+                rows += mcv.count;
+            }
+        }
+        if (low == high && rows > 0) {
+            return Math.min(rows / rowCount, 1);
+        }
+
+        for (Bucket bucket : buckets) {
+            if (bucket.upper < low || bucket.lower > high) {
+                continue;
+            }
+            double intersectLength = Math.min(high, bucket.upper) - Math.max(low, bucket.lower);
+            double bucketLength = bucket.upper - bucket.lower;
+            if (intersectLength <= 0 || bucketLength <= 0) {
+                // only one value of the bucket is matched
+                rows += (double) bucket.count / Math.max(bucket.distinctCount, 1);
+            } else {
+                rows += bucket.count * Math.min(intersectLength / bucketLength, 1);
+            }
+        }
+        return Math.min(rows / rowCount, 1);
+    }
+
+    public String toJson() {
+        return GsonUtils.GSON.toJson(this);
+    }
+
+    public static Histogram fromJson(String json) {
+        return GsonUtils.GSON.fromJson(json, Histogram.class);
+    }
+}
@@ -87,7 +87,7 @@ public class PredicateStatisticsCalculator {
             double rowCount = Math.min(statistics.getOutputRowCount() * selectivity, statistics.getOutputRowCount());
             return Statistics.buildFrom(statistics).setOutputRowCount(rowCount).
                     addColumnStatistic((ColumnRefOperator) child,
-                            ColumnStatistic.buildFrom(inColumnStatistic).setDistinctValuesCount(
+                            ColumnStatistic.buildFrom(inColumnStatistic).setHistogram(null).setDistinctValuesCount(
                                     predicate.isNotIn() ? inColumnStatistic.getDistinctValuesCount() : inValueSize).
                                     build()).build();
         }
@@ -202,7 +202,7 @@ public class PredicateStatisticsCalculator {
             Statistics.Builder builder = Statistics.buildFrom(inputStatistics);
             builder.setOutputRowCount(rowCount);
             leftStatistics.getColumnStatistics().forEach((columnRefOperator, columnStatistic) -> {
-                ColumnStatistic.Builder columnBuilder = ColumnStatistic.buildFrom(columnStatistic);
+                ColumnStatistic.Builder columnBuilder = ColumnStatistic.buildFrom(columnStatistic).setHistogram(null);
                 ColumnStatistic rightColumnStatistic = rightStatistics.getColumnStatistic(columnRefOperator);
                 columnBuilder.setMinValue(Math.min(columnStatistic.getMinValue(), rightColumnStatistic.getMinValue()));
                 columnBuilder.setMaxValue(Math.max(columnStatistic.getMaxValue(), rightColumnStatistic.getMaxValue()));
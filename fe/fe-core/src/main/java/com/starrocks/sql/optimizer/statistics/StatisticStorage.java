@@ -13,5 +13,15 @@ public interface StatisticStorage {
 
     void expireColumnStatistics(Table table, List<String> columns);
 
+    // Reload the statistics after they are collected, the old statistics are used until the reloading finishes
+    default void refreshColumnStatistics(Table table, List<String> columns) {
+        expireColumnStatistics(table, columns);
+    }
+
     void addColumnStatistic(Table table, String column, ColumnStatistic columnStatistic);
+
+    // Return the statistic which is already loaded, unknown statistic is returned instead of loading it
+    default ColumnStatistic getLoadedColumnStatistic(Table table, String column) {
+        return getColumnStatistic(table, column);
+    }
 }
@@ -432,7 +432,8 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
                 double distinctValues =
                         partitionColumnStatistic.getDistinctValuesCount() * 1.0 * selectedPartitionsSize /
                                 allPartitionsSize;
-                return buildFrom(partitionColumnStatistic).
+                // the row count is already pruned, the histogram of all partitions would count it twice
+                return buildFrom(partitionColumnStatistic).setHistogram(null).
                         setMinValue(min).setMaxValue(max).setDistinctValuesCount(max(distinctValues, 1)).build();
             }
         }
@@ -581,7 +582,8 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
         Map<ColumnRefOperator, ColumnStatistic> groupStatisticsMap = new HashMap<>();
         for (ColumnRefOperator groupByColumn : groupBys) {
             ColumnStatistic groupByColumnStatics = inputStatistics.getColumnStatistic(groupByColumn);
-            ColumnStatistic.Builder statsBuilder = buildFrom(groupByColumnStatics);
+            // each group is one row after aggregation
+            ColumnStatistic.Builder statsBuilder = buildFrom(groupByColumnStatics).setHistogram(null);
             if (groupByColumnStatics.getNullsFraction() == 0) {
                 statsBuilder.setNullsFraction(0);
             } else {
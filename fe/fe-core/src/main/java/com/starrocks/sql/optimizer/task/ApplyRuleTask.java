@@ -47,8 +47,8 @@ public class ApplyRuleTask extends OptimizerTask {
 
     @Override
     public void execute() {
-        if (groupExpression.hasRuleExplored(rule) ||
-                groupExpression.isUnused()) {
+        // The rule is claimed before applying, so the concurrent search threads never apply it twice
+        if (groupExpression.isUnused() || !groupExpression.tryClaimRule(rule)) {
             return;
         }
 
@@ -64,6 +64,7 @@ public class ApplyRuleTask extends OptimizerTask {
             }
 
             newExpressions.addAll(rule.transform(extractExpr, context.getOptimizerContext()));
+            context.getOptimizerContext().getProfile().addRuleApply();
             extractExpr = binder.next();
         }
 
@@ -89,7 +90,5 @@ public class ApplyRuleTask extends OptimizerTask {
                 pushTask(new EnforceAndCostTask(context, newGroupExpression));
             }
         }
-
-        groupExpression.setRuleExplored(rule);
     }
 }
@@ -119,8 +119,15 @@ public class EnforceAndCostTask extends OptimizerTask implements Cloneable {
 
                 if (childBestExpr == null) {
                     // We haven't optimized child group
-                    prevChildIndex = curChildIndex;
-                    optimizeChildGroup(inputProperty, childGroup);
+                    if (curChildIndex == 0 && groupExpression.arity() > 1 &&
+                            context.getOptimizerContext().getTaskScheduler().isParallel()) {
+                        // Optimize all the child groups concurrently
+                        prevChildIndex = groupExpression.arity() - 1;
+                        optimizeChildGroups(inputProperties);
+                    } else {
+                        prevChildIndex = curChildIndex;
+                        optimizeChildGroup(inputProperty, childGroup);
+                    }
                     return;
                 }
 
@@ -190,6 +197,26 @@ public class EnforceAndCostTask extends OptimizerTask implements Cloneable {
         context.getOptimizerContext().addTaskContext(taskContext);
     }
 
+    // The child groups are optimized with the same upper bound, the cost of the previous children
+    // can't be used to prune the later children like optimizeChildGroup.
+    private void optimizeChildGroups(List<PhysicalPropertySet> inputProperties) {
+        pushTask((EnforceAndCostTask) clone());
+        double newUpperBound = context.getUpperBoundCost() - curTotalCost;
+        List<OptimizerTask> childTasks = Lists.newArrayList();
+        for (int i = 0; i < groupExpression.arity(); i++) {
+            Group childGroup = groupExpression.inputAt(i);
+            PhysicalPropertySet inputProperty = inputProperties.get(i);
+            if (childGroup.hasBestExpression(inputProperty)) {
+                continue;
+            }
+            TaskContext taskContext = new TaskContext(context.getOptimizerContext(),
+                    inputProperty, context.getRequiredColumns(), newUpperBound, context.getAllScanOperators());
+            childTasks.add(new OptimizeGroupTask(taskContext, childGroup));
+            context.getOptimizerContext().addTaskContext(taskContext);
+        }
+        context.getOptimizerContext().getTaskScheduler().pushIndependentTasks(context, childTasks);
+    }
+
     // Check if the broadcast table row count exceeds the broadcastRowCountLimit.
     // This check needs to meet several criteria, such as the join type and the size of the left and right tables。
     private boolean checkBroadcastRowCountLimit(PhysicalPropertySet inputProperty, GroupExpression childBestExpr) {
@@ -29,10 +29,11 @@ public class OptimizeGroupTask extends OptimizerTask {
 
     @Override
     public void execute() {
-        // 1 Group Cost LB > Context Cost UB
-        // 2 Group has optimized given the context
-        if (group.getCostLowerBound() >= context.getUpperBoundCost() ||
-                group.hasBestExpression(context.getRequiredProperty())) {
+        if (isOptimized()) {
+            return;
+        }
+        // The group may be optimized by other search thread during waiting for it
+        if (!context.getOptimizerContext().getTaskScheduler().claimGroup(context, group) || isOptimized()) {
             return;
         }
 
@@ -46,4 +47,11 @@ public class OptimizeGroupTask extends OptimizerTask {
 
         group.setHasExplored();
     }
+
+    private boolean isOptimized() {
+        // 1 Group Cost LB > Context Cost UB
+        // 2 Group has optimized given the context
+        return group.getCostLowerBound() >= context.getUpperBoundCost() ||
+                group.hasBestExpression(context.getRequiredProperty());
+    }
 }
@@ -0,0 +1,280 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.task;
+
+import com.google.common.collect.Lists;
+import com.starrocks.common.ThreadPoolManager;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.common.ErrorType;
+import com.starrocks.sql.common.StarRocksPlannerException;
+import com.starrocks.sql.optimizer.Group;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ParallelTaskScheduler executes the independent tasks pushed by {@link #pushIndependentTasks} concurrently,
+ * eg. the OptimizeGroupTasks of the children groups of a join.
+ * <p>
+ * Every thread has its own task stack, tasks pushed by a task are pushed into the stack of the current
+ * thread, so the tasks in one stack are executed in the same order as SeriallyTaskScheduler.
+ * The independent tasks are executed by the search pool, and a WaitTask is pushed into the current stack
+ * to wait for them, so the tasks pushed before them are executed after them.
+ * <p>
+ * A task is submitted to the search pool only when both the query and the pool have free slots,
+ * otherwise it is executed by the current thread. So a submitted task never waits for a pool thread,
+ * and the threads waiting in WaitTask can't dead lock the pool.
+ * <p>
+ * A group shared by the independent tasks is optimized by only one thread at a time, see {@link #claimGroup}.
+ * The thread waiting for a group only waits for its descendant groups, because the groups claimed by a thread
+ * are the groups whose optimization is in progress in its stack, and the memo has no cycle.
+ */
+public class ParallelTaskScheduler implements TaskScheduler {
+    private static final int SEARCH_THREAD_NUM = Runtime.getRuntime().availableProcessors();
+    private static final ThreadPoolExecutor SEARCH_POOL = ThreadPoolManager.newDaemonFixedThreadPool(
+            SEARCH_THREAD_NUM, SEARCH_THREAD_NUM, "optimizer-search-pool", true);
+    private static final Semaphore SEARCH_POOL_SLOTS = new Semaphore(SEARCH_THREAD_NUM);
+
+    // the stack of the thread which calls executeTasks
+    private final Deque<OptimizerTask> mainTasks = new ArrayDeque<>();
+    // the stacks of the search pool threads working for this scheduler
+    private final ThreadLocal<Deque<OptimizerTask>> workerTasks = new ThreadLocal<>();
+    // the slots of this query, the thread calls executeTasks is not included
+    private final Semaphore querySlots;
+    // the groups being optimized by the threads of this query
+    private final Map<Group, GroupClaim> groupClaims = new ConcurrentHashMap<>();
+    private volatile long endTime = Long.MAX_VALUE;
+
+    private ParallelTaskScheduler(int parallelism) {
+        querySlots = new Semaphore(Math.max(0, parallelism - 1));
+    }
+
+    public static TaskScheduler create(int parallelism) {
+        return new ParallelTaskScheduler(parallelism);
+    }
+
+    @Override
+    public void executeTasks(TaskContext context, Group group) {
+        long startTime = System.currentTimeMillis();
+        long timeout = context.getOptimizerContext().getSessionVariable().getOptimizerExecuteTimeout();
+        endTime = startTime + timeout;
+        if (!runTasks(mainTasks)) {
+            // Should have at least one valid plan
+            if (!group.hasBestExpression(context.getRequiredProperty())) {
+                throw new StarRocksPlannerException("StarRocks planner use long time " + timeout +
+                        " remaining task num " + mainTasks.size(), ErrorType.INTERNAL_ERROR);
+            }
+            mainTasks.clear();
+        }
+    }
+
+    // return false if timeout
+    private boolean runTasks(Deque<OptimizerTask> tasks) {
+        try {
+            while (!tasks.isEmpty()) {
+                if (System.currentTimeMillis() >= endTime) {
+                    return false;
+                }
+                OptimizerTask task = tasks.pop();
+                long taskStartTime = System.nanoTime();
+                task.execute();
+                task.context.getOptimizerContext().getProfile().addTaskTime(task, System.nanoTime() - taskStartTime);
+            }
+            return true;
+        } finally {
+            // the dropped tasks may hold group claims, release them or the other threads wait for them forever
+            for (OptimizerTask task : tasks) {
+                if (task instanceof ReleaseGroupTask) {
+                    task.execute();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void pushTask(OptimizerTask task) {
+        currentTasks().push(task);
+    }
+
+    private Deque<OptimizerTask> currentTasks() {
+        Deque<OptimizerTask> tasks = workerTasks.get();
+        return tasks != null ? tasks : mainTasks;
+    }
+
+    @Override
+    public boolean isParallel() {
+        return true;
+    }
+
+    @Override
+    public void pushIndependentTasks(TaskContext context, List<OptimizerTask> tasks) {
+        ConnectContext connectContext = ConnectContext.get();
+        List<Future<?>> futures = Lists.newArrayList();
+        List<OptimizerTask> localTasks = Lists.newArrayList();
+        for (OptimizerTask task : tasks) {
+            if (tryAcquireSlot()) {
+                futures.add(SEARCH_POOL.submit(() -> runInPool(task, connectContext)));
+            } else {
+                localTasks.add(task);
+            }
+        }
+
+        Deque<OptimizerTask> current = currentTasks();
+        if (!futures.isEmpty()) {
+            current.push(new WaitTask(context, futures));
+        }
+        for (int i = localTasks.size() - 1; i >= 0; i--) {
+            current.push(localTasks.get(i));
+        }
+    }
+
+    @Override
+    public boolean claimGroup(TaskContext context, Group group) {
+        Thread current = Thread.currentThread();
+        while (true) {
+            GroupClaim claim = new GroupClaim(current);
+            GroupClaim existing = groupClaims.putIfAbsent(group, claim);
+            if (existing == null) {
+                // pushed before the tasks of the group, so it's executed after all of them
+                currentTasks().push(new ReleaseGroupTask(context, group, claim));
+                return true;
+            }
+            if (existing.owner == current) {
+                return true;
+            }
+            long waitTime = endTime - System.currentTimeMillis();
+            try {
+                if (waitTime <= 0 || !existing.released.await(waitTime, TimeUnit.MILLISECONDS)) {
+                    return false;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new StarRocksPlannerException("optimizer search is interrupted", ErrorType.INTERNAL_ERROR);
+            }
+        }
+    }
+
+    private boolean tryAcquireSlot() {
+        if (!querySlots.tryAcquire()) {
+            return false;
+        }
+        if (!SEARCH_POOL_SLOTS.tryAcquire()) {
+            querySlots.release();
+            return false;
+        }
+        return true;
+    }
+
+    private void runInPool(OptimizerTask task, ConnectContext connectContext) {
+        // rules and cost model read session variables from the thread local ConnectContext
+        if (connectContext != null) {
+            createSearchContext(connectContext).setThreadLocalInfo();
+        }
+        Deque<OptimizerTask> tasks = new ArrayDeque<>();
+        tasks.push(task);
+        workerTasks.set(tasks);
+        try {
+            // the remaining tasks are dropped when timeout, executeTasks of the main thread will check the result
+            runTasks(tasks);
+        } finally {
+            workerTasks.remove();
+            ConnectContext.remove();
+            SEARCH_POOL_SLOTS.release();
+            querySlots.release();
+        }
+    }
+
+    // ConnectContext is not thread-safe, so every search thread has its own one, which shares the session
+    // variables and the dump info of the query. They are only read, or written in a thread-safe way, by optimizer.
+    private static ConnectContext createSearchContext(ConnectContext connectContext) {
+        ConnectContext searchContext = new ConnectContext();
+        searchContext.setCatalog(connectContext.getCatalog());
+        searchContext.setCluster(connectContext.getClusterName());
+        searchContext.setDatabase(connectContext.getDatabase());
+        searchContext.setQualifiedUser(connectContext.getQualifiedUser());
+        searchContext.setCurrentUserIdentity(connectContext.getCurrentUserIdentity());
+        searchContext.setQueryId(connectContext.getQueryId());
+        searchContext.setSessionVariable(connectContext.getSessionVariable());
+        searchContext.setDumpInfo(connectContext.getDumpInfo());
+        searchContext.setCurrentSqlDbIds(connectContext.getCurrentSqlDbIds());
+        searchContext.setIsQueryDump(connectContext.isQueryDump());
+        return searchContext;
+    }
+
+    private static class GroupClaim {
+        private final Thread owner;
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        GroupClaim(Thread owner) {
+            this.owner = owner;
+        }
+    }
+
+    /**
+     * Release the group claimed by {@link #claimGroup} after all the tasks of the group finished.
+     */
+    private class ReleaseGroupTask extends OptimizerTask {
+        private final Group group;
+        private final GroupClaim claim;
+
+        ReleaseGroupTask(TaskContext context, Group group, GroupClaim claim) {
+            super(context);
+            this.group = group;
+            this.claim = claim;
+        }
+
+        @Override
+        public String toString() {
+            return "ReleaseGroupTask for group " + group;
+        }
+
+        @Override
+        public void execute() {
+            groupClaims.remove(group, claim);
+            claim.released.countDown();
+        }
+    }
+
+    /**
+     * Wait for the independent tasks executed by the search pool.
+     */
+    private static class WaitTask extends OptimizerTask {
+        private final List<Future<?>> futures;
+
+        WaitTask(TaskContext context, List<Future<?>> futures) {
+            super(context);
+            this.futures = futures;
+        }
+
+        @Override
+        public String toString() {
+            return "WaitTask for " + futures.size() + " tasks";
+        }
+
+        @Override
+        public void execute() {
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new StarRocksPlannerException("optimizer search is interrupted", ErrorType.INTERNAL_ERROR);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new StarRocksPlannerException(e.getCause().getMessage(), ErrorType.INTERNAL_ERROR);
+                }
+            }
+        }
+    }
+}
@@ -5,6 +5,7 @@ package com.starrocks.sql.optimizer.task;
 import com.starrocks.sql.common.ErrorType;
 import com.starrocks.sql.common.StarRocksPlannerException;
 import com.starrocks.sql.optimizer.Group;
+import com.starrocks.sql.optimizer.OptimizerProfile;
 
 import java.util.Stack;
 
@@ -24,6 +25,7 @@ public class SeriallyTaskScheduler implements TaskScheduler {
         long startTime = System.currentTimeMillis();
         long timeout = context.getOptimizerContext().getSessionVariable().getOptimizerExecuteTimeout();
         long endTime = startTime + timeout;
+        OptimizerProfile profile = context.getOptimizerContext().getProfile();
         while (!tasks.empty()) {
             if (System.currentTimeMillis() >= endTime) {
                 // Should have at least one valid plan
@@ -33,7 +35,10 @@ public class SeriallyTaskScheduler implements TaskScheduler {
                 }
                 break;
             }
-            tasks.pop().execute();
+            OptimizerTask task = tasks.pop();
+            long taskStartTime = System.nanoTime();
+            task.execute();
+            profile.addTaskTime(task, System.nanoTime() - taskStartTime);
         }
     }
 
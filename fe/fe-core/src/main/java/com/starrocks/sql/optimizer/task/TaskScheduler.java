@@ -4,10 +4,31 @@ package com.starrocks.sql.optimizer.task;
 
 import com.starrocks.sql.optimizer.Group;
 
+import java.util.List;
+
 // The scheduler for optimizer task
 // Store tasks in a stack
 public interface TaskScheduler {
     void executeTasks(TaskContext context, Group group);
 
     void pushTask(OptimizerTask task);
+
+    // Whether the tasks pushed by pushIndependentTasks may be executed concurrently
+    default boolean isParallel() {
+        return false;
+    }
+
+    // Claim the group before pushing the tasks optimizing it, so a group is optimized by only one thread at a time.
+    // Wait if the group is being optimized by other thread, return false if timeout.
+    default boolean claimGroup(TaskContext context, Group group) {
+        return true;
+    }
+
+    // Push tasks which don't depend on each other, the task pushed before them will be executed
+    // after all of them and their derived tasks finished.
+    default void pushIndependentTasks(TaskContext context, List<OptimizerTask> tasks) {
+        for (int i = tasks.size() - 1; i >= 0; i--) {
+            pushTask(tasks.get(i));
+        }
+    }
 }
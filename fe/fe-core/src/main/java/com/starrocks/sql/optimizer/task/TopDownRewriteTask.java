@@ -47,6 +47,7 @@ public abstract class TopDownRewriteTask extends OptimizerTask {
                     continue;
                 }
                 newExpressions.addAll(rule.transform(extractExpr, context.getOptimizerContext()));
+                context.getOptimizerContext().getProfile().addRuleApply();
                 Preconditions.checkState(newExpressions.size() <= 1,
                         "Rewrite rule should provide at most 1 expression");
 
@@ -28,6 +28,7 @@ import com.starrocks.analysis.Subquery;
 import com.starrocks.analysis.SysVariableDesc;
 import com.starrocks.analysis.TimestampArithmeticExpr;
 import com.starrocks.catalog.Type;
+import com.starrocks.qe.ConnectContext;
 import com.starrocks.sql.analyzer.ExprVisitor;
 import com.starrocks.sql.analyzer.ResolvedField;
 import com.starrocks.sql.analyzer.SemanticException;
@@ -301,6 +302,19 @@ public final class SqlToScalarOperatorTranslator {
 
         @Override
         public ScalarOperator visitLiteral(LiteralExpr node, Void context) {
+            ConstantOperator constant = createConstant(node);
+            // tag the literal parameterized by the plan cache, its value is bound when reusing the plan
+            ConnectContext session = ConnectContext.get();
+            if (session != null && session.getPlanCacheParameters() != null) {
+                Integer index = session.getPlanCacheParameters().get(node);
+                if (index != null) {
+                    constant.setParameterIndex(index);
+                }
+            }
+            return constant;
+        }
+
+        private ConstantOperator createConstant(LiteralExpr node) {
             if (node instanceof NullLiteral) {
                 return ConstantOperator.createNull(node.getType());
             }
@@ -7,10 +7,13 @@ import com.starrocks.planner.PlanFragment;
 import com.starrocks.planner.PlannerContext;
 import com.starrocks.planner.ScanNode;
 import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.optimizer.OptimizerProfile;
 import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
 import com.starrocks.thrift.TExplainLevel;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,6 +27,11 @@ public class ExecPlan {
     private final DescriptorTable descTbl = new DescriptorTable();
     private final Map<ColumnRefOperator, Expr> colRefToExpr = new HashMap<>();
     private final ArrayList<PlanFragment> fragments = new ArrayList<>();
+    private OptimizerProfile optimizerProfile;
+    // whether the result only depends on the data scanned, which is required by the query result cache
+    private boolean isDeterministic = false;
+    // The values bound to the parameters of the cached plan, keyed by the constants in plan, see PlanCache
+    private Map<ConstantOperator, ConstantOperator> planParameters = Collections.emptyMap();
 
     public ExecPlan(PlannerContext planCtx, ConnectContext connectContext, List<String> colNames) {
         this.planCtx = planCtx;
@@ -63,6 +71,30 @@ public class ExecPlan {
         return colRefToExpr;
     }
 
+    public OptimizerProfile getOptimizerProfile() {
+        return optimizerProfile;
+    }
+
+    public void setOptimizerProfile(OptimizerProfile optimizerProfile) {
+        this.optimizerProfile = optimizerProfile;
+    }
+
+    public boolean isDeterministic() {
+        return isDeterministic;
+    }
+
+    public void setDeterministic(boolean isDeterministic) {
+        this.isDeterministic = isDeterministic;
+    }
+
+    public Map<ConstantOperator, ConstantOperator> getPlanParameters() {
+        return planParameters;
+    }
+
+    public void setPlanParameters(Map<ConstantOperator, ConstantOperator> planParameters) {
+        this.planParameters = planParameters;
+    }
+
     public String getExplainString(TExplainLevel level) {
         StringBuilder str = new StringBuilder();
         for (int i = 0; i < fragments.size(); ++i) {
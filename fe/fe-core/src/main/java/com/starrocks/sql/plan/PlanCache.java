@@ -0,0 +1,753 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.plan;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hashing;
+import com.starrocks.analysis.BetweenPredicate;
+import com.starrocks.analysis.BinaryPredicate;
+import com.starrocks.analysis.DecimalLiteral;
+import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.InPredicate;
+import com.starrocks.analysis.InlineViewRef;
+import com.starrocks.analysis.IntLiteral;
+import com.starrocks.analysis.LargeIntLiteral;
+import com.starrocks.analysis.LiteralExpr;
+import com.starrocks.analysis.QueryStmt;
+import com.starrocks.analysis.SelectStmt;
+import com.starrocks.analysis.SetOperationStmt;
+import com.starrocks.analysis.StatementBase;
+import com.starrocks.analysis.StringLiteral;
+import com.starrocks.analysis.Subquery;
+import com.starrocks.analysis.TableRef;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.MaterializedIndexMeta;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.Table;
+import com.starrocks.catalog.View;
+import com.starrocks.common.Config;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.qe.OriginStatement;
+import com.starrocks.sql.analyzer.RelationFields;
+import com.starrocks.sql.analyzer.RelationId;
+import com.starrocks.sql.analyzer.Scope;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.operator.Operator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalDecodeOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalHashAggregateOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalHashJoinOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalProjectOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalScanOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalValuesOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalWindowOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.statistics.ColumnStatistic;
+import com.starrocks.sql.optimizer.statistics.StatisticStorage;
+import com.starrocks.sql.optimizer.statistics.Statistics;
+import com.starrocks.sql.optimizer.transformer.ExpressionMapping;
+import com.starrocks.sql.optimizer.transformer.SqlToScalarOperatorTranslator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PlanCache caches the optimized physical plan of query statements, so the statements
+ * executed repeatedly skip the logical plan transformation and the cascades search.
+ * The plan fragments are still built for every execution, because they are changed by the coordinator.
+ * <p>
+ * The cache key is the statement text, the current database and the digest of session variables.
+ * The literals compared in the predicates of the statement are parameterized: they are replaced by '?' in the key,
+ * and their values are bound to the constants of the cached plan when it's reused, see {@link CachedPlan#bind}.
+ * The literals used to prune partitions or tablets or to derive range predicates are still part of the key,
+ * and so are the literals whose constants are folded, removed or can't be told apart in the plan,
+ * because the plan depends on their values.
+ * The statistics of the parameterized literals are estimated by the values when the plan is cached.
+ * <p>
+ * A cached plan is valid only if the tables it scans are not changed, which is checked by the version of
+ * the tables when getting the plan. The plans scanning a table are invalidated when the statistics of the
+ * table are changed, and all plans are invalidated when a view or table is created, altered or dropped.
+ * The plan built before the statistics of its tables are loaded is not cached, see {@link #createPlan}.
+ */
+public class PlanCache {
+    private static final Logger LOG = LogManager.getLogger(PlanCache.class);
+
+    private static final PlanCache INSTANCE = new PlanCache();
+
+    private final Cache<PlanCacheKey, CachedPlan> cache = Caffeine.newBuilder()
+            .maximumSize(Config.plan_cache_max_size)
+            .expireAfterWrite(Config.plan_cache_expire_sec, TimeUnit.SECONDS)
+            .build();
+    // The parameterized literals of the statements, keyed by the statement without the values of literals
+    private final Cache<PlanCacheKey, BitSet> parameters = Caffeine.newBuilder()
+            .maximumSize(Config.plan_cache_max_size)
+            .expireAfterWrite(Config.plan_cache_expire_sec, TimeUnit.SECONDS)
+            .build();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public static PlanCache getInstance() {
+        return INSTANCE;
+    }
+
+    public static class PlanCacheKey {
+        // The statement with the literals which can be parameterized replaced by '?'
+        private final String sql;
+        private final int stmtIdx;
+        private final String database;
+        // The sha256 of the session variables json, which is much larger than the statement
+        private final String sessionVariablesDigest;
+        // The types of the replaced literals, and the values of them which are not parameterized,
+        // it's null in the key of the statement, see withParameters
+        private final String literalsKey;
+        // The analyzed literals replaced in sql, they are not part of the key
+        private final List<LiteralExpr> literals;
+
+        private PlanCacheKey(String sql, int stmtIdx, String database, String sessionVariablesDigest,
+                             String literalsKey, List<LiteralExpr> literals) {
+            this.sql = sql;
+            this.stmtIdx = stmtIdx;
+            this.database = database;
+            this.sessionVariablesDigest = sessionVariablesDigest;
+            this.literalsKey = literalsKey;
+            this.literals = literals;
+        }
+
+        /**
+         * Return the key of the plan whose parameters are the literals of the indexes.
+         */
+        public PlanCacheKey withParameters(BitSet parameters) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < literals.size(); i++) {
+                LiteralExpr literal = literals.get(i);
+                sb.append(parameters.get(i) ? "?" : literal.getStringValue()).append(':')
+                        .append(literal.getType()).append(',');
+            }
+            return new PlanCacheKey(sql, stmtIdx, database, sessionVariablesDigest, sb.toString(), literals);
+        }
+
+        /**
+         * The indexes of the replaced literals, which are set to the constants translated from them.
+         */
+        public Map<LiteralExpr, Integer> getLiteralIndexes() {
+            Map<LiteralExpr, Integer> indexes = new IdentityHashMap<>();
+            for (int i = 0; i < literals.size(); i++) {
+                indexes.put(literals.get(i), i);
+            }
+            return indexes;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PlanCacheKey that = (PlanCacheKey) o;
+            return stmtIdx == that.stmtIdx && sql.equals(that.sql) && Objects.equals(database, that.database) &&
+                    sessionVariablesDigest.equals(that.sessionVariablesDigest) &&
+                    Objects.equals(literalsKey, that.literalsKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sql, stmtIdx, database, sessionVariablesDigest, literalsKey);
+        }
+    }
+
+    public static class CachedPlan {
+        private final OptExpression optimizedPlan;
+        private final ColumnRefFactory columnRefFactory;
+        private final List<ColumnRefOperator> outputColumns;
+        private final List<TableVersion> tableVersions;
+        // The indexes of the parameterized literals in the key
+        private final BitSet parameters;
+        // The constants of the parameters in plan, keyed by identity
+        private final Map<ConstantOperator, Integer> parameterConstants;
+
+        CachedPlan(OptExpression optimizedPlan, ColumnRefFactory columnRefFactory,
+                   List<ColumnRefOperator> outputColumns, List<TableVersion> tableVersions,
+                   BitSet parameters, Map<ConstantOperator, Integer> parameterConstants) {
+            this.optimizedPlan = optimizedPlan;
+            this.columnRefFactory = columnRefFactory;
+            this.outputColumns = outputColumns;
+            this.tableVersions = tableVersions;
+            this.parameters = parameters;
+            this.parameterConstants = parameterConstants;
+        }
+
+        public OptExpression getOptimizedPlan() {
+            return optimizedPlan;
+        }
+
+        public ColumnRefFactory getColumnRefFactory() {
+            return columnRefFactory;
+        }
+
+        public List<ColumnRefOperator> getOutputColumns() {
+            return outputColumns;
+        }
+
+        public BitSet getParameters() {
+            return parameters;
+        }
+
+        /**
+         * Bind the literals of the key to the constants of the parameters in plan, return null if a value can't be
+         * cast to the type of its constant like the optimizer does, then the statement should be planned again.
+         */
+        public Map<ConstantOperator, ConstantOperator> bind(PlanCacheKey key) {
+            Map<ConstantOperator, ConstantOperator> values = new IdentityHashMap<>();
+            Map<Integer, ConstantOperator> literals = Maps.newHashMap();
+            for (Map.Entry<ConstantOperator, Integer> entry : parameterConstants.entrySet()) {
+                ConstantOperator constant = entry.getKey();
+                ConstantOperator literal = literals.computeIfAbsent(entry.getValue(),
+                        index -> translateLiteral(key.literals.get(index)));
+                if (literal == null || literal.isNull()) {
+                    return null;
+                }
+                if (literal.getType().equals(constant.getType())) {
+                    values.put(constant, literal);
+                    continue;
+                }
+                try {
+                    ConstantOperator value = literal.castTo(constant.getType());
+                    if (!isLosslessCast(literal, value)) {
+                        return null;
+                    }
+                    values.put(constant, value);
+                } catch (Exception e) {
+                    return null;
+                }
+            }
+            return values;
+        }
+
+        public boolean isValid() {
+            for (TableVersion tableVersion : tableVersions) {
+                if (!tableVersion.isCurrent()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean scanTable(long tableId) {
+            for (TableVersion tableVersion : tableVersions) {
+                if (tableVersion.table.getId() == tableId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The version of an olap table when the plan is cached. It changes when the schema, the indexes,
+     * the partitions or the visible versions of the partitions are changed.
+     */
+    private static class TableVersion {
+        private final OlapTable table;
+        private final long version;
+
+        TableVersion(OlapTable table) {
+            this.table = table;
+            this.version = computeVersion(table);
+        }
+
+        // The dropped table is handled by invalidating all plans when dropping table
+        boolean isCurrent() {
+            return computeVersion(table) == version;
+        }
+
+        // The iteration order of indexes and partitions is not stable, so combine them commutatively
+        private static long computeVersion(OlapTable table) {
+            long indexVersion = 0;
+            for (MaterializedIndexMeta indexMeta : table.getIndexIdToMeta().values()) {
+                indexVersion += (indexMeta.getIndexId() * 31 + indexMeta.getSchemaVersion()) * 0x9E3779B97F4A7C15L;
+            }
+            long partitionVersion = 0;
+            for (Partition partition : table.getAllPartitions()) {
+                partitionVersion += (partition.getId() * 31 + partition.getVisibleVersion()) * 0x9E3779B97F4A7C15L;
+            }
+            return (table.getState().ordinal() * 31 + indexVersion) * 31 + partitionVersion;
+        }
+    }
+
+    /**
+     * Create the cache key of the statement, return null if the statement can't be cached.
+     * The plans of prepared statements are always cached in the prepared statements, because they are
+     * executed repeatedly.
+     *
+     * @param isDeterministic whether the analyzed query is deterministic, see DeterministicChecker.
+     *                        Non-deterministic functions and variables are folded to constants in plan.
+     */
+    public static PlanCacheKey createKey(StatementBase stmt, boolean isDeterministic, ConnectContext session) {
+        OriginStatement originStmt = stmt.getOrigStmt();
+        if (originStmt == null || !isDeterministic || !(stmt instanceof QueryStmt)) {
+            return null;
+        }
+        if (!session.getSessionVariable().isEnablePlanCache() && session.getExecutingPreparedStatement() == null) {
+            return null;
+        }
+        try {
+            String sessionVariables = session.getSessionVariable().getJsonString();
+            List<LiteralExpr> literals = Lists.newArrayList();
+            String sql = replaceLiterals(originStmt.originStmt, (QueryStmt) stmt, literals);
+            return new PlanCacheKey(sql, originStmt.idx, session.getDatabase(),
+                    Hashing.sha256().hashString(sessionVariables, StandardCharsets.UTF_8).toString(), null, literals);
+        } catch (IOException e) {
+            LOG.warn("failed to create plan cache key", e);
+            return null;
+        }
+    }
+
+    public CachedPlan get(PlanCacheKey key) {
+        BitSet planParameters = parameters.getIfPresent(key);
+        PlanCacheKey planKey = planParameters != null ? key.withParameters(planParameters) : null;
+        CachedPlan plan = planKey != null ? cache.getIfPresent(planKey) : null;
+        if (plan != null && !plan.isValid()) {
+            cache.invalidate(planKey);
+            plan = null;
+        }
+        if (plan == null) {
+            missCount.incrementAndGet();
+        } else {
+            hitCount.incrementAndGet();
+        }
+        return plan;
+    }
+
+    public void put(PlanCacheKey key, OptExpression optimizedPlan, ColumnRefFactory columnRefFactory,
+                    List<ColumnRefOperator> outputColumns, Set<Integer> keyParameters) {
+        CachedPlan plan = createPlan(key, optimizedPlan, columnRefFactory, outputColumns, keyParameters);
+        if (plan != null) {
+            parameters.put(key, plan.getParameters());
+            cache.put(key.withParameters(plan.getParameters()), plan);
+        }
+    }
+
+    /**
+     * Create the plan to cache, return null if the plan can't be cached.
+     * <p>
+     * The statistics are loaded asynchronously, the plan built with unknown statistics is not cached if the
+     * statistics have been loaded during optimizing, because the invalidation by loading statistics happened
+     * before the plan is put. The plan of the table without statistics is still cached.
+     *
+     * @param keyParameters the indexes of the literals used to prune partitions or tablets or to derive
+     *                      predicates, see OptimizerContext#getKeyParameters
+     */
+    public static CachedPlan createPlan(PlanCacheKey key, OptExpression optimizedPlan,
+                                        ColumnRefFactory columnRefFactory, List<ColumnRefOperator> outputColumns,
+                                        Set<Integer> keyParameters) {
+        List<TableVersion> tableVersions = Lists.newArrayList();
+        if (!collectTableVersions(optimizedPlan, tableVersions)) {
+            return null;
+        }
+        Map<ConstantOperator, Integer> parameterConstants = new IdentityHashMap<>();
+        BitSet planParameters = collectParameters(key, optimizedPlan, keyParameters, parameterConstants);
+        return new CachedPlan(optimizedPlan, columnRefFactory, outputColumns, tableVersions, planParameters,
+                parameterConstants);
+    }
+
+    /**
+     * Replace the literals compared in the predicates of the statement by '?', and add their analyzed literals.
+     * A literal is replaced only if its value occurs once in the text and in the compared literals, so the literal
+     * of text can be matched by the analyzed literal. The literals in views are not replaced, they are not in
+     * the statement text.
+     */
+    private static String replaceLiterals(String sql, QueryStmt stmt, List<LiteralExpr> literals) {
+        Set<LiteralExpr> comparedLiterals = Collections.newSetFromMap(new IdentityHashMap<>());
+        collectComparedLiterals(stmt, comparedLiterals);
+        Map<String, LiteralExpr> analyzedLiterals = Maps.newHashMap();
+        Map<String, Integer> analyzedCounts = Maps.newHashMap();
+        for (LiteralExpr literal : comparedLiterals) {
+            String value = literal instanceof StringLiteral ? "'" + literal.getStringValue() :
+                    literal.getStringValue();
+            analyzedLiterals.put(value, literal);
+            analyzedCounts.merge(value, 1, Integer::sum);
+        }
+
+        List<LiteralToken> tokens = tokenize(sql);
+        Map<String, Integer> tokenCounts = Maps.newHashMap();
+        for (LiteralToken token : tokens) {
+            tokenCounts.merge(token.value, 1, Integer::sum);
+        }
+
+        StringBuilder sb = new StringBuilder(sql.length());
+        int last = 0;
+        for (LiteralToken token : tokens) {
+            if (token.isParameter && tokenCounts.get(token.value) == 1 &&
+                    analyzedCounts.getOrDefault(token.value, 0) == 1) {
+                sb.append(sql, last, token.begin).append('?');
+                last = token.end;
+                literals.add(analyzedLiterals.get(token.value));
+            }
+        }
+        sb.append(sql.substring(last));
+        return sb.toString();
+    }
+
+    // Collect the literals compared with the other expressions in the predicates, including the predicates of
+    // WITH clauses, inline views and subqueries
+    private static void collectComparedLiterals(QueryStmt stmt, Set<LiteralExpr> literals) {
+        if (stmt.hasWithClause()) {
+            for (View view : stmt.getWithClause().getViews()) {
+                collectComparedLiterals(view.getQueryStmt(), literals);
+            }
+        }
+        if (stmt instanceof SelectStmt) {
+            SelectStmt selectStmt = (SelectStmt) stmt;
+            for (TableRef tableRef : selectStmt.getTableRefs()) {
+                collectComparedLiterals(tableRef.getOnClause(), literals);
+                if (tableRef instanceof InlineViewRef) {
+                    collectComparedLiterals(((InlineViewRef) tableRef).getViewStmt(), literals);
+                }
+            }
+            collectComparedLiterals(selectStmt.getWhereClause(), literals);
+            collectComparedLiterals(selectStmt.getHavingClause(), literals);
+        } else if (stmt instanceof SetOperationStmt) {
+            for (SetOperationStmt.SetOperand operand : ((SetOperationStmt) stmt).getOperands()) {
+                collectComparedLiterals(operand.getQueryStmt(), literals);
+            }
+        }
+    }
+
+    private static void collectComparedLiterals(Expr predicate, Set<LiteralExpr> literals) {
+        if (predicate == null) {
+            return;
+        }
+        if ((predicate instanceof BinaryPredicate || predicate instanceof InPredicate ||
+                predicate instanceof BetweenPredicate) && !(predicate.getChild(0) instanceof LiteralExpr)) {
+            for (int i = 1; i < predicate.getChildren().size(); i++) {
+                if (isParameterLiteral(predicate.getChild(i))) {
+                    literals.add((LiteralExpr) predicate.getChild(i));
+                }
+            }
+        }
+        if (predicate instanceof BinaryPredicate && !(predicate.getChild(1) instanceof LiteralExpr) &&
+                isParameterLiteral(predicate.getChild(0))) {
+            literals.add((LiteralExpr) predicate.getChild(0));
+        }
+        if (predicate instanceof Subquery) {
+            collectComparedLiterals(((Subquery) predicate).getStatement(), literals);
+        }
+        for (Expr child : predicate.getChildren()) {
+            collectComparedLiterals(child, literals);
+        }
+    }
+
+    private static boolean isParameterLiteral(Expr expr) {
+        return expr instanceof StringLiteral || expr instanceof IntLiteral || expr instanceof LargeIntLiteral ||
+                expr instanceof DecimalLiteral;
+    }
+
+    // A quoted string or a number in the statement text
+    private static class LiteralToken {
+        private final int begin;
+        private final int end;
+        // The string is prefixed by a quote to be told apart from the number
+        private final String value;
+        // The escaped strings and the numbers in other forms are not parameterized, they are kept in the key
+        private final boolean isParameter;
+
+        LiteralToken(int begin, int end, String value, boolean isParameter) {
+            this.begin = begin;
+            this.end = end;
+            this.value = value;
+            this.isParameter = isParameter;
+        }
+    }
+
+    // Split the quoted strings and the numbers which are not in identifiers, quoted identifiers or comments
+    private static List<LiteralToken> tokenize(String sql) {
+        List<LiteralToken> tokens = Lists.newArrayList();
+        int i = 0;
+        int length = sql.length();
+        while (i < length) {
+            char c = sql.charAt(i);
+            boolean afterIdentifier = i > 0 && (isIdentifierChar(sql.charAt(i - 1)) || sql.charAt(i - 1) == '.');
+            if (c == '\'') {
+                int end = i + 1;
+                boolean isEscaped = false;
+                while (end < length && !(sql.charAt(end) == '\'' &&
+                        (end + 1 >= length || sql.charAt(end + 1) != '\''))) {
+                    if (sql.charAt(end) == '\\' || sql.charAt(end) == '\'') {
+                        isEscaped = true;
+                        end++;
+                    }
+                    end++;
+                }
+                if (end >= length) {
+                    break;
+                }
+                // the string with a charset introducer like _utf8'abc' or x'4D' isn't a plain string literal
+                tokens.add(new LiteralToken(i, end + 1, "'" + sql.substring(i + 1, end),
+                        !isEscaped && !afterIdentifier));
+                i = end + 1;
+            } else if (c == '"' || c == '`') {
+                int end = sql.indexOf(c, i + 1);
+                i = end < 0 ? length : end + 1;
+            } else if (c == '#' || (c == '-' && sql.startsWith("-- ", i))) {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? length : end + 1;
+            } else if (c == '/' && sql.startsWith("/*", i)) {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else if (Character.isDigit(c) && !afterIdentifier) {
+                int end = i;
+                while (end < length && (Character.isDigit(sql.charAt(end)) || sql.charAt(end) == '.')) {
+                    end++;
+                }
+                // the number like 1e3 or 0x1F is kept in the key
+                if (end < length && isIdentifierChar(sql.charAt(end))) {
+                    while (end < length && isIdentifierChar(sql.charAt(end))) {
+                        end++;
+                    }
+                } else {
+                    String value = sql.substring(i, end);
+                    tokens.add(new LiteralToken(i, end, value, value.indexOf('.') == value.lastIndexOf('.')));
+                }
+                i = end;
+            } else {
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isIdentifierChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    /**
+     * Collect the constants of the literals in plan, and return the indexes of the literals to be parameterized.
+     * <p>
+     * No literal is parameterized if the constant of a literal isn't in the plan, because the plan may depend on
+     * its value, e.g. the predicate "a = 1" is removed from "a = 1 AND a = 1.0" as a duplicate. The literal used to
+     * prune partitions or tablets or to derive predicates isn't parameterized. Neither is the literal whose value is
+     * equal to a constant not translated from it, because the constant may be derived from the literal.
+     * The constants are only searched in the operators known by {@link #getScalarOperators}.
+     */
+    private static BitSet collectParameters(PlanCacheKey key, OptExpression plan, Set<Integer> keyParameters,
+                                            Map<ConstantOperator, Integer> parameterConstants) {
+        List<ConstantOperator> otherConstants = Lists.newArrayList();
+        BitSet planParameters = new BitSet();
+        if (key.literals.isEmpty() || !collectConstants(plan, key.literals.size(), parameterConstants,
+                otherConstants)) {
+            parameterConstants.clear();
+            return planParameters;
+        }
+        for (Map.Entry<ConstantOperator, Integer> entry : parameterConstants.entrySet()) {
+            planParameters.set(entry.getValue());
+        }
+        if (planParameters.cardinality() != key.literals.size()) {
+            parameterConstants.clear();
+            return new BitSet();
+        }
+        for (int index : keyParameters) {
+            planParameters.clear(index);
+        }
+        for (Map.Entry<ConstantOperator, Integer> entry : parameterConstants.entrySet()) {
+            for (ConstantOperator other : otherConstants) {
+                if (isSameValue(entry.getKey(), other)) {
+                    planParameters.clear(entry.getValue());
+                }
+            }
+        }
+        parameterConstants.values().removeIf(index -> !planParameters.get(index));
+        return planParameters;
+    }
+
+    // Return false if there is an operator whose constants are unknown
+    private static boolean collectConstants(OptExpression expression, int literalNum,
+                                            Map<ConstantOperator, Integer> parameterConstants,
+                                            List<ConstantOperator> otherConstants) {
+        List<ScalarOperator> scalarOperators = getScalarOperators(expression.getOp());
+        if (scalarOperators == null) {
+            return false;
+        }
+        for (ScalarOperator scalarOperator : scalarOperators) {
+            collectConstants(scalarOperator, literalNum, parameterConstants, otherConstants);
+        }
+        for (OptExpression input : expression.getInputs()) {
+            if (!collectConstants(input, literalNum, parameterConstants, otherConstants)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void collectConstants(ScalarOperator scalarOperator, int literalNum,
+                                         Map<ConstantOperator, Integer> parameterConstants,
+                                         List<ConstantOperator> otherConstants) {
+        if (scalarOperator == null) {
+            return;
+        }
+        if (scalarOperator instanceof ConstantOperator) {
+            ConstantOperator constant = (ConstantOperator) scalarOperator;
+            if (constant.getParameterIndex() >= 0 && constant.getParameterIndex() < literalNum) {
+                parameterConstants.put(constant, constant.getParameterIndex());
+            } else if (!constant.isNull()) {
+                otherConstants.add(constant);
+            }
+        }
+        for (ScalarOperator child : scalarOperator.getChildren()) {
+            collectConstants(child, literalNum, parameterConstants, otherConstants);
+        }
+    }
+
+    // The scalar operators of the operators which can be in the plan of olap tables, these scalar operators are
+    // all built to expressions by PlanFragmentBuilder. Return null for the other operators.
+    private static List<ScalarOperator> getScalarOperators(Operator operator) {
+        List<ScalarOperator> scalarOperators = Lists.newArrayList();
+        scalarOperators.add(operator.getPredicate());
+        if (operator.getProjection() != null) {
+            scalarOperators.addAll(operator.getProjection().getColumnRefMap().values());
+            scalarOperators.addAll(operator.getProjection().getCommonSubOperatorMap().values());
+        }
+        switch (operator.getOpType()) {
+            case PHYSICAL_OLAP_SCAN:
+            case PHYSICAL_META_SCAN:
+            case PHYSICAL_FILTER:
+            case PHYSICAL_TOPN:
+            case PHYSICAL_LIMIT:
+            case PHYSICAL_DISTRIBUTION:
+            case PHYSICAL_UNION:
+            case PHYSICAL_EXCEPT:
+            case PHYSICAL_INTERSECT:
+            case PHYSICAL_ASSERT_ONE_ROW:
+            case PHYSICAL_REPEAT:
+                break;
+            case PHYSICAL_PROJECT:
+                PhysicalProjectOperator project = (PhysicalProjectOperator) operator;
+                scalarOperators.addAll(project.getColumnRefMap().values());
+                scalarOperators.addAll(project.getCommonSubOperatorMap().values());
+                break;
+            case PHYSICAL_HASH_JOIN:
+                scalarOperators.add(((PhysicalHashJoinOperator) operator).getJoinPredicate());
+                break;
+            case PHYSICAL_HASH_AGG:
+                scalarOperators.addAll(((PhysicalHashAggregateOperator) operator).getAggregations().values());
+                break;
+            case PHYSICAL_WINDOW:
+                PhysicalWindowOperator window = (PhysicalWindowOperator) operator;
+                scalarOperators.addAll(window.getAnalyticCall().values());
+                scalarOperators.addAll(window.getPartitionExpressions());
+                break;
+            case PHYSICAL_VALUES:
+                ((PhysicalValuesOperator) operator).getRows().forEach(scalarOperators::addAll);
+                break;
+            case PHYSICAL_DECODE:
+                scalarOperators.addAll(((PhysicalDecodeOperator) operator).getStringFunctions().values());
+                break;
+            default:
+                return null;
+        }
+        return scalarOperators;
+    }
+
+    private static boolean isSameValue(ConstantOperator parameter, ConstantOperator other) {
+        if (parameter.getType().equals(other.getType())) {
+            return parameter.equals(other);
+        }
+        try {
+            return parameter.castTo(other.getType()).equals(other);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static ConstantOperator translateLiteral(LiteralExpr literal) {
+        ScalarOperator result = SqlToScalarOperatorTranslator.translate(literal,
+                new ExpressionMapping(new Scope(RelationId.anonymous(), new RelationFields()), Lists.newArrayList()));
+        return result instanceof ConstantOperator ? (ConstantOperator) result : null;
+    }
+
+    // The literal is cast to the type of the compared expression by ImplicitCastRule only if the value is kept,
+    // otherwise both are cast to the compatible type. The cast between numbers always keeps the value.
+    private static boolean isLosslessCast(ConstantOperator literal, ConstantOperator result) {
+        if (literal.getType().isNumericType() && result.getType().isNumericType()) {
+            return true;
+        }
+        String value = literal.toString();
+        return value.equalsIgnoreCase(result.toString()) ||
+                (result.getType().isDate() && value.equalsIgnoreCase(result.toString().replaceAll("-", "")));
+    }
+
+    // Only the plans scanning olap tables are cached, the versions of external tables are unknown
+    private static boolean collectTableVersions(OptExpression expression, List<TableVersion> tableVersions) {
+        if (expression.getOp() instanceof PhysicalScanOperator) {
+            Table table = ((PhysicalScanOperator) expression.getOp()).getTable();
+            if (!(table instanceof OlapTable) || hasStaleStatistics(expression, table)) {
+                return false;
+            }
+            tableVersions.add(new TableVersion((OlapTable) table));
+        }
+        for (OptExpression input : expression.getInputs()) {
+            if (!collectTableVersions(input, tableVersions)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasStaleStatistics(OptExpression scan, Table table) {
+        Statistics statistics = scan.getStatistics();
+        if (statistics == null) {
+            return false;
+        }
+        StatisticStorage statisticStorage = Catalog.getCurrentStatisticStorage();
+        Map<ColumnRefOperator, Column> columns = ((PhysicalScanOperator) scan.getOp()).getColRefToColumnMetaMap();
+        for (Map.Entry<ColumnRefOperator, Column> entry : columns.entrySet()) {
+            ColumnStatistic planStatistic = statistics.getColumnStatistics().get(entry.getKey());
+            if (planStatistic != null && planStatistic.isUnknown() &&
+                    !statisticStorage.getLoadedColumnStatistic(table, entry.getValue().getName()).isUnknown()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void invalidateTable(long tableId) {
+        cache.asMap().values().removeIf(plan -> plan.scanTable(tableId));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        parameters.invalidateAll();
+    }
+
+    public long getSize() {
+        return cache.asMap().size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+}
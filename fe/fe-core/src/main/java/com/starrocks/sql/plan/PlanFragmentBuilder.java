@@ -97,6 +97,7 @@ import com.starrocks.sql.optimizer.operator.physical.PhysicalWindowOperator;
 import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
 import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
 import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
 import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
 import com.starrocks.sql.optimizer.rule.transformation.JoinPredicateUtils;
 import com.starrocks.sql.optimizer.statistics.Statistics;
@@ -128,7 +129,19 @@ public class PlanFragmentBuilder {
     public ExecPlan createPhysicalPlan(OptExpression plan, PlannerContext plannerContext, ConnectContext connectContext,
                                        List<ColumnRefOperator> outputColumns, ColumnRefFactory columnRefFactory,
                                        List<String> colNames) {
+        return createPhysicalPlan(plan, plannerContext, connectContext, outputColumns, columnRefFactory, colNames,
+                Collections.emptyMap());
+    }
+
+    /**
+     * Build the fragments of the optimized plan, the constants in parameters are replaced by their values.
+     * The parameters are the literals bound to the plan got from plan cache.
+     */
+    public ExecPlan createPhysicalPlan(OptExpression plan, PlannerContext plannerContext, ConnectContext connectContext,
+                                       List<ColumnRefOperator> outputColumns, ColumnRefFactory columnRefFactory,
+                                       List<String> colNames, Map<ConstantOperator, ConstantOperator> parameters) {
         ExecPlan execPlan = new ExecPlan(plannerContext, connectContext, colNames);
+        execPlan.setPlanParameters(parameters);
         createOutputFragment(new PhysicalPlanTranslator(columnRefFactory).visit(plan, execPlan), execPlan,
                 outputColumns);
 
@@ -167,7 +180,7 @@ public class PlanFragmentBuilder {
         if (inputFragment.getPlanRoot() instanceof ExchangeNode || !inputFragment.isPartitioned()) {
             List<Expr> outputExprs = outputColumns.stream().map(variable -> ScalarOperatorToExpr
                     .buildExecExpression(variable,
-                            new ScalarOperatorToExpr.FormatterContext(execPlan.getColRefToExpr()))
+                            new ScalarOperatorToExpr.FormatterContext(execPlan))
             ).collect(Collectors.toList());
             inputFragment.setOutputExprs(outputExprs);
             execPlan.getOutputExprs().addAll(outputExprs);
@@ -175,7 +188,7 @@ public class PlanFragmentBuilder {
         }
 
         List<Expr> outputExprs = outputColumns.stream().map(variable -> ScalarOperatorToExpr
-                        .buildExecExpression(variable, new ScalarOperatorToExpr.FormatterContext(execPlan.getColRefToExpr())))
+                        .buildExecExpression(variable, new ScalarOperatorToExpr.FormatterContext(execPlan)))
                 .collect(Collectors.toList());
         execPlan.getOutputExprs().addAll(outputExprs);
 
@@ -230,7 +243,7 @@ public class PlanFragmentBuilder {
             Map<SlotId, Expr> commonSubOperatorMap = Maps.newHashMap();
             for (Map.Entry<ColumnRefOperator, ScalarOperator> entry : node.getCommonSubOperatorMap().entrySet()) {
                 Expr expr = ScalarOperatorToExpr.buildExecExpression(entry.getValue(),
-                        new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr(),
+                        new ScalarOperatorToExpr.FormatterContext(context,
                                 node.getCommonSubOperatorMap()));
 
                 commonSubOperatorMap.put(new SlotId(entry.getKey().getId()), expr);
@@ -246,7 +259,7 @@ public class PlanFragmentBuilder {
             Map<SlotId, Expr> projectMap = Maps.newHashMap();
             for (Map.Entry<ColumnRefOperator, ScalarOperator> entry : node.getColumnRefMap().entrySet()) {
                 Expr expr = ScalarOperatorToExpr.buildExecExpression(entry.getValue(),
-                        new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr(), node.getColumnRefMap()));
+                        new ScalarOperatorToExpr.FormatterContext(context, node.getColumnRefMap()));
 
                 projectMap.put(new SlotId(entry.getKey().getId()), expr);
 
@@ -293,7 +306,7 @@ public class PlanFragmentBuilder {
             Map<SlotId, Expr> commonSubOperatorMap = Maps.newHashMap();
             for (Map.Entry<ColumnRefOperator, ScalarOperator> entry : node.getCommonSubOperatorMap().entrySet()) {
                 Expr expr = ScalarOperatorToExpr.buildExecExpression(entry.getValue(),
-                        new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr(),
+                        new ScalarOperatorToExpr.FormatterContext(context,
                                 node.getCommonSubOperatorMap()));
 
                 commonSubOperatorMap.put(new SlotId(entry.getKey().getId()), expr);
@@ -309,7 +322,7 @@ public class PlanFragmentBuilder {
             Map<SlotId, Expr> projectMap = Maps.newHashMap();
             for (Map.Entry<ColumnRefOperator, ScalarOperator> entry : node.getColumnRefMap().entrySet()) {
                 Expr expr = ScalarOperatorToExpr.buildExecExpression(entry.getValue(),
-                        new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr(), node.getColumnRefMap()));
+                        new ScalarOperatorToExpr.FormatterContext(context, node.getColumnRefMap()));
 
                 projectMap.put(new SlotId(entry.getKey().getId()), expr);
 
@@ -368,7 +381,7 @@ public class PlanFragmentBuilder {
             Map<SlotId, Expr> projectMap = Maps.newHashMap();
             for (Map.Entry<ColumnRefOperator, ScalarOperator> entry : node.getStringFunctions().entrySet()) {
                 Expr expr = ScalarOperatorToExpr.buildExecExpression(entry.getValue(),
-                        new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr(), node.getStringFunctions()));
+                        new ScalarOperatorToExpr.FormatterContext(context, node.getStringFunctions()));
 
                 projectMap.put(new SlotId(entry.getKey().getId()), expr);
                 Preconditions.checkState(context.getColRefToExpr().containsKey(entry.getKey()));
@@ -463,7 +476,7 @@ public class PlanFragmentBuilder {
             // set predicate
             List<ScalarOperator> predicates = Utils.extractConjuncts(node.getPredicate());
             ScalarOperatorToExpr.FormatterContext formatterContext =
-                    new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr());
+                    new ScalarOperatorToExpr.FormatterContext(context);
 
             for (ScalarOperator predicate : predicates) {
                 scanNode.getConjuncts().add(ScalarOperatorToExpr.buildExecExpression(predicate, formatterContext));
@@ -544,7 +557,7 @@ public class PlanFragmentBuilder {
                 List<ScalarOperator> nonPartitionConjuncts = node.getNonPartitionConjuncts();
                 List<ScalarOperator> minMaxConjuncts = node.getMinMaxConjuncts();
                 ScalarOperatorToExpr.FormatterContext formatterContext =
-                        new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr());
+                        new ScalarOperatorToExpr.FormatterContext(context);
 
                 for (ScalarOperator noEvalPartitionConjunct : noEvalPartitionConjuncts) {
                     hdfsScanNode.getNoEvalPartitionConjuncts().
@@ -576,7 +589,7 @@ public class PlanFragmentBuilder {
                 minMaxTuple.computeMemLayout();
                 hdfsScanNode.setMinMaxTuple(minMaxTuple);
                 ScalarOperatorToExpr.FormatterContext minMaxFormatterContext =
-                        new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr());
+                        new ScalarOperatorToExpr.FormatterContext(context);
                 for (ScalarOperator minMaxConjunct : minMaxConjuncts) {
                     hdfsScanNode.getMinMaxConjuncts().
                             add(ScalarOperatorToExpr.buildExecExpression(minMaxConjunct, minMaxFormatterContext));
@@ -627,7 +640,7 @@ public class PlanFragmentBuilder {
             // set predicate
             List<ScalarOperator> predicates = Utils.extractConjuncts(node.getPredicate());
             ScalarOperatorToExpr.FormatterContext formatterContext =
-                    new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr());
+                    new ScalarOperatorToExpr.FormatterContext(context);
 
             for (ScalarOperator predicate : predicates) {
                 scanNode.getConjuncts().add(ScalarOperatorToExpr.buildExecExpression(predicate, formatterContext));
@@ -664,7 +677,7 @@ public class PlanFragmentBuilder {
             // set predicate
             List<ScalarOperator> predicates = Utils.extractConjuncts(node.getPredicate());
             ScalarOperatorToExpr.FormatterContext formatterContext =
-                    new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr());
+                    new ScalarOperatorToExpr.FormatterContext(context);
             formatterContext.setImplicitCast(true);
             for (ScalarOperator predicate : predicates) {
                 scanNode.getConjuncts().add(ScalarOperatorToExpr.buildExecExpression(predicate, formatterContext));
@@ -703,7 +716,7 @@ public class PlanFragmentBuilder {
             // set predicate
             List<ScalarOperator> predicates = Utils.extractConjuncts(node.getPredicate());
             ScalarOperatorToExpr.FormatterContext formatterContext =
-                    new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr());
+                    new ScalarOperatorToExpr.FormatterContext(context);
 
             for (ScalarOperator predicate : predicates) {
                 scanNode.getConjuncts().add(ScalarOperatorToExpr.buildExecExpression(predicate, formatterContext));
@@ -757,7 +770,7 @@ public class PlanFragmentBuilder {
                     List<Expr> exprRow = new ArrayList<>();
                     for (ScalarOperator field : row) {
                         exprRow.add(ScalarOperatorToExpr.buildExecExpression(
-                                field, new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr())));
+                                field, new ScalarOperatorToExpr.FormatterContext(context)));
                     }
                     consts.add(exprRow);
                 }
@@ -791,7 +804,7 @@ public class PlanFragmentBuilder {
             ArrayList<Expr> groupingExpressions = Lists.newArrayList();
             for (ColumnRefOperator grouping : node.getGroupBys()) {
                 Expr groupingExpr = ScalarOperatorToExpr.buildExecExpression(grouping,
-                        new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr()));
+                        new ScalarOperatorToExpr.FormatterContext(context));
 
                 groupingExpressions.add(groupingExpr);
 
@@ -806,7 +819,7 @@ public class PlanFragmentBuilder {
             ArrayList<FunctionCallExpr> aggregateExprList = Lists.newArrayList();
             for (Map.Entry<ColumnRefOperator, CallOperator> aggregation : node.getAggregations().entrySet()) {
                 FunctionCallExpr aggExpr = (FunctionCallExpr) ScalarOperatorToExpr.buildExecExpression(
-                        aggregation.getValue(), new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr()));
+                        aggregation.getValue(), new ScalarOperatorToExpr.FormatterContext(context));
 
                 aggregateExprList.add(aggExpr);
 
@@ -822,7 +835,7 @@ public class PlanFragmentBuilder {
             List<Expr> partitionExpressions = Lists.newArrayList();
             for (ColumnRefOperator column : node.getPartitionByColumns()) {
                 Expr partitionExpr = ScalarOperatorToExpr.buildExecExpression(column,
-                        new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr()));
+                        new ScalarOperatorToExpr.FormatterContext(context));
 
                 SlotDescriptor slotDesc =
                         context.getDescTbl().addSlotDescriptor(outputTupleDesc, new SlotId(column.getId()));
@@ -909,7 +922,7 @@ public class PlanFragmentBuilder {
                 // set predicate
                 List<ScalarOperator> predicates = Utils.extractConjuncts(node.getPredicate());
                 ScalarOperatorToExpr.FormatterContext formatterContext =
-                        new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr());
+                        new ScalarOperatorToExpr.FormatterContext(context);
 
                 for (ScalarOperator predicate : predicates) {
                     aggregationNode.getConjuncts()
@@ -1025,7 +1038,7 @@ public class PlanFragmentBuilder {
                 }
                 List<Expr> distributeExpressions =
                         partitionColumns.stream().map(e -> ScalarOperatorToExpr.buildExecExpression(e,
-                                        new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr())))
+                                        new ScalarOperatorToExpr.FormatterContext(context)))
                                 .collect(Collectors.toList());
                 dataPartition = DataPartition.hashPartitioned(distributeExpressions);
             } else {
@@ -1090,7 +1103,7 @@ public class PlanFragmentBuilder {
 
             for (Ordering ordering : orderSpec.getOrderDescs()) {
                 Expr sortExpr = ScalarOperatorToExpr.buildExecExpression(ordering.getColumnRef(),
-                        new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr()));
+                        new ScalarOperatorToExpr.FormatterContext(context));
 
                 SlotDescriptor slotDesc =
                         context.getDescTbl().addSlotDescriptor(sortTuple, new SlotId(ordering.getColumnRef().getId()));
@@ -1114,7 +1127,7 @@ public class PlanFragmentBuilder {
                 if (orderSpec.getOrderDescs().stream().map(Ordering::getColumnRef)
                         .noneMatch(c -> c.equals(columnRef))) {
                     Expr outputExpr = ScalarOperatorToExpr.buildExecExpression(columnRef,
-                            new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr()));
+                            new ScalarOperatorToExpr.FormatterContext(context));
 
                     SlotDescriptor slotDesc =
                             context.getDescTbl().addSlotDescriptor(sortTuple, new SlotId(columnRef.getId()));
@@ -1189,12 +1202,12 @@ public class PlanFragmentBuilder {
                 joinNode.computeStatistics(optExpr.getStatistics());
                 List<Expr> conjuncts = Utils.extractConjuncts(node.getPredicate()).stream()
                         .map(e -> ScalarOperatorToExpr.buildExecExpression(node.getPredicate(),
-                                new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr())))
+                                new ScalarOperatorToExpr.FormatterContext(context)))
                         .collect(Collectors.toList());
                 joinNode.addConjuncts(conjuncts);
                 List<Expr> onConjuncts = Utils.extractConjuncts(node.getJoinPredicate()).stream()
                         .map(e -> ScalarOperatorToExpr.buildExecExpression(node.getJoinPredicate(),
-                                new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr())))
+                                new ScalarOperatorToExpr.FormatterContext(context)))
                         .collect(Collectors.toList());
                 joinNode.addConjuncts(onConjuncts);
                 // Connect parent and child fragment
@@ -1258,7 +1271,7 @@ public class PlanFragmentBuilder {
 
                 List<Expr> eqJoinConjuncts =
                         eqOnPredicates.stream().map(e -> ScalarOperatorToExpr.buildExecExpression(e,
-                                        new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr())))
+                                        new ScalarOperatorToExpr.FormatterContext(context)))
                                 .collect(Collectors.toList());
 
                 for (Expr expr : eqJoinConjuncts) {
@@ -1270,13 +1283,13 @@ public class PlanFragmentBuilder {
                 List<ScalarOperator> otherJoin = Utils.extractConjuncts(node.getJoinPredicate());
                 otherJoin.removeAll(eqOnPredicates);
                 List<Expr> otherJoinConjuncts = otherJoin.stream().map(e -> ScalarOperatorToExpr.buildExecExpression(e,
-                                new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr())))
+                                new ScalarOperatorToExpr.FormatterContext(context)))
                         .collect(Collectors.toList());
 
                 // 3. Get conjuncts
                 List<ScalarOperator> predicates = Utils.extractConjuncts(node.getPredicate());
                 List<Expr> conjuncts = predicates.stream().map(e -> ScalarOperatorToExpr.buildExecExpression(e,
-                                new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr())))
+                                new ScalarOperatorToExpr.FormatterContext(context)))
                         .collect(Collectors.toList());
 
                 if (joinOperator.isLeftOuterJoin()) {
@@ -1336,14 +1349,14 @@ public class PlanFragmentBuilder {
                             .map(columnRefFactory::getColumnRef).collect(Collectors.toList());
                     List<Expr> leftJoinExprs =
                             leftPredicates.stream().map(e -> ScalarOperatorToExpr.buildExecExpression(e,
-                                            new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr())))
+                                            new ScalarOperatorToExpr.FormatterContext(context)))
                                     .collect(Collectors.toList());
 
                     List<ScalarOperator> rightPredicates = rightOnPredicateColumns.stream()
                             .map(columnRefFactory::getColumnRef).collect(Collectors.toList());
                     List<Expr> rightJoinExprs =
                             rightPredicates.stream().map(e -> ScalarOperatorToExpr.buildExecExpression(e,
-                                            new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr())))
+                                            new ScalarOperatorToExpr.FormatterContext(context)))
                                     .collect(Collectors.toList());
 
                     DataPartition lhsJoinPartition = new DataPartition(TPartitionType.HASH_PARTITIONED,
@@ -1517,7 +1530,7 @@ public class PlanFragmentBuilder {
             TupleDescriptor outputTupleDesc = context.getDescTbl().createTupleDescriptor();
             for (Map.Entry<ColumnRefOperator, CallOperator> analyticCall : node.getAnalyticCall().entrySet()) {
                 Expr analyticFunction = ScalarOperatorToExpr.buildExecExpression(analyticCall.getValue(),
-                        new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr()));
+                        new ScalarOperatorToExpr.FormatterContext(context));
                 analyticFnCalls.add(analyticFunction);
 
                 SlotDescriptor slotDesc = context.getDescTbl()
@@ -1531,12 +1544,12 @@ public class PlanFragmentBuilder {
 
             List<Expr> partitionExprs =
                     node.getPartitionExpressions().stream().map(e -> ScalarOperatorToExpr.buildExecExpression(e,
-                                    new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr())))
+                                    new ScalarOperatorToExpr.FormatterContext(context)))
                             .collect(Collectors.toList());
 
             List<OrderByElement> orderByElements = node.getOrderByElements().stream().map(e -> new OrderByElement(
                     ScalarOperatorToExpr.buildExecExpression(e.getColumnRef(),
-                            new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr())),
+                            new ScalarOperatorToExpr.FormatterContext(context)),
                     e.isAscending(), e.isNullsFirst())).collect(Collectors.toList());
 
             AnalyticEvalNode analyticEvalNode = new AnalyticEvalNode(
@@ -1557,7 +1570,7 @@ public class PlanFragmentBuilder {
             // set predicate
             List<ScalarOperator> predicates = Utils.extractConjuncts(node.getPredicate());
             ScalarOperatorToExpr.FormatterContext formatterContext =
-                    new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr());
+                    new ScalarOperatorToExpr.FormatterContext(context);
             for (ScalarOperator predicate : predicates) {
                 analyticEvalNode.getConjuncts()
                         .add(ScalarOperatorToExpr.buildExecExpression(predicate, formatterContext));
@@ -1707,7 +1720,7 @@ public class PlanFragmentBuilder {
                     repeatOperator.getGroupingIds());
             List<ScalarOperator> predicates = Utils.extractConjuncts(repeatOperator.getPredicate());
             ScalarOperatorToExpr.FormatterContext formatterContext =
-                    new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr());
+                    new ScalarOperatorToExpr.FormatterContext(context);
 
             for (ScalarOperator predicate : predicates) {
                 repeatNode.getConjuncts().add(ScalarOperatorToExpr.buildExecExpression(predicate, formatterContext));
@@ -1725,7 +1738,7 @@ public class PlanFragmentBuilder {
 
             List<Expr> predicates = Utils.extractConjuncts(filter.getPredicate()).stream()
                     .map(d -> ScalarOperatorToExpr.buildExecExpression(d,
-                            new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr())))
+                            new ScalarOperatorToExpr.FormatterContext(context)))
                     .collect(Collectors.toList());
 
             SelectNode selectNode =
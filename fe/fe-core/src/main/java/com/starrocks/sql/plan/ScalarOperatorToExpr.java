@@ -49,6 +49,7 @@ import com.starrocks.sql.optimizer.operator.scalar.ScalarOperatorVisitor;
 import com.starrocks.thrift.TExprOpcode;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -62,17 +63,31 @@ public class ScalarOperatorToExpr {
     public static class FormatterContext {
         private final Map<ColumnRefOperator, Expr> colRefToExpr;
         private final Map<ColumnRefOperator, ScalarOperator> projectOperatorMap;
+        // The values bound to the parameters of the cached plan, keyed by the constants in plan, see PlanCache
+        private final Map<ConstantOperator, ConstantOperator> parameters;
         private boolean implicitCast = false;
 
         public FormatterContext(Map<ColumnRefOperator, Expr> variableToSlotRef) {
             this.colRefToExpr = variableToSlotRef;
             this.projectOperatorMap = new HashMap<>();
+            this.parameters = Collections.emptyMap();
         }
 
         public FormatterContext(Map<ColumnRefOperator, Expr> variableToSlotRef,
                                 Map<ColumnRefOperator, ScalarOperator> projectOperatorMap) {
             this.colRefToExpr = variableToSlotRef;
             this.projectOperatorMap = projectOperatorMap;
+            this.parameters = Collections.emptyMap();
+        }
+
+        public FormatterContext(ExecPlan execPlan) {
+            this(execPlan, new HashMap<>());
+        }
+
+        public FormatterContext(ExecPlan execPlan, Map<ColumnRefOperator, ScalarOperator> projectOperatorMap) {
+            this.colRefToExpr = execPlan.getColRefToExpr();
+            this.projectOperatorMap = projectOperatorMap;
+            this.parameters = execPlan.getPlanParameters();
         }
 
         public void setImplicitCast(boolean isImplicit) {
@@ -111,7 +126,8 @@ public class ScalarOperatorToExpr {
         }
 
         @Override
-        public Expr visitConstant(ConstantOperator literal, FormatterContext context) {
+        public Expr visitConstant(ConstantOperator constant, FormatterContext context) {
+            ConstantOperator literal = context.parameters.getOrDefault(constant, constant);
             try {
                 Type type = literal.getType();
                 if (literal.isNull()) {
@@ -181,7 +181,7 @@ public class AnalyzeManager implements Writable {
                 List<String> columns = (job.getColumns() == null || job.getColumns().isEmpty()) ?
                         table.getFullSchema().stream().filter(d -> !d.isAggregated()).map(Column::getName)
                                 .collect(Collectors.toList()) : job.getColumns();
-                Catalog.getCurrentStatisticStorage().expireColumnStatistics(table, columns);
+                Catalog.getCurrentStatisticStorage().refreshColumnStatistics(table, columns);
             }
         }
 
@@ -192,7 +192,7 @@ public class AnalyzeManager implements Writable {
                     return;
                 }
                 Catalog.getCurrentStatisticStorage()
-                        .expireColumnStatistics(db.getTable(job.getTableId()), job.getColumns());
+                        .refreshColumnStatistics(db.getTable(job.getTableId()), job.getColumns());
             } else {
                 List<Table> tableNeedCheck = new ArrayList<>();
                 if (job.getDbId() == AnalyzeJob.DEFAULT_ALL_ID) {
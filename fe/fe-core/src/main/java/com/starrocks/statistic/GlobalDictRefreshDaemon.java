@@ -0,0 +1,59 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.statistic;
+
+import com.starrocks.catalog.Catalog;
+import com.starrocks.common.Config;
+import com.starrocks.common.util.Daemon;
+import com.starrocks.sql.optimizer.statistics.CacheDictManager;
+import com.starrocks.sql.optimizer.statistics.IDictManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/*
+ * GlobalDictRefreshDaemon runs on all FE. It finds the low cardinality string columns when FE starts,
+ * and rebuilds their missing and stale global dicts periodically.
+ */
+public class GlobalDictRefreshDaemon extends Daemon {
+    private static final Logger LOG = LogManager.getLogger(GlobalDictRefreshDaemon.class);
+
+    private static final long MIN_INTERVAL_SEC = 5;
+    // The column statistics are loaded asynchronously, so the prewarm is done in several cycles
+    private static final int PREWARM_CYCLES = 3;
+
+    private int prewarmCycles = 0;
+
+    public GlobalDictRefreshDaemon() {
+        super("GlobalDictRefresh", getIntervalMs());
+    }
+
+    private static long getIntervalMs() {
+        return Math.max(Config.global_dict_refresh_interval_sec, MIN_INTERVAL_SEC) * 1000L;
+    }
+
+    @Override
+    protected void runOneCycle() {
+        if (getInterval() != getIntervalMs()) {
+            setInterval(getIntervalMs());
+        }
+        if (!Catalog.getCurrentCatalog().isReady() || StatisticUtils.getStatisticsTable() == null) {
+            return;
+        }
+        IDictManager dictManager = IDictManager.getInstance();
+        if (!(dictManager instanceof CacheDictManager)) {
+            return;
+        }
+        CacheDictManager cacheDictManager = (CacheDictManager) dictManager;
+
+        try {
+            if (Config.enable_global_dict_prewarm && prewarmCycles < PREWARM_CYCLES) {
+                prewarmCycles++;
+                cacheDictManager.prewarmGlobalDicts();
+                LOG.info("found {} low cardinality string columns", cacheDictManager.getDictColumnNum());
+            }
+            cacheDictManager.refreshGlobalDicts();
+        } catch (Exception e) {
+            LOG.warn("failed to refresh global dicts", e);
+        }
+    }
+}
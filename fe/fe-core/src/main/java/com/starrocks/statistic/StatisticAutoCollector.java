@@ -130,7 +130,7 @@ public class StatisticAutoCollector extends MasterDaemon {
                             analyzeJob.getId(), analyzeJob.getType(), tcj.db.getFullName(), tcj.table.getName());
                     tcj.tryCollect();
 
-                    Catalog.getCurrentStatisticStorage().expireColumnStatistics(tcj.table, tcj.columns);
+                    Catalog.getCurrentStatisticStorage().refreshColumnStatistics(tcj.table, tcj.columns);
                 } catch (Exception e) {
                     LOG.warn("Statistic collect work job: {}, type: {}, db: {}, table: {}. throw exception.",
                             analyzeJob.getId(), analyzeJob.getType(), tcj.db.getFullName(), tcj.table.getName(), e);
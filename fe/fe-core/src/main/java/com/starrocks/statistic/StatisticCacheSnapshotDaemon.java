@@ -0,0 +1,80 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.statistic;
+
+import com.starrocks.catalog.Catalog;
+import com.starrocks.common.Config;
+import com.starrocks.common.util.Daemon;
+import com.starrocks.sql.optimizer.statistics.CachedStatisticStorage;
+import com.starrocks.sql.optimizer.statistics.StatisticStorage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+
+/*
+ * StatisticCacheSnapshotDaemon runs on all FE. It loads the column statistic cache from the local
+ * snapshot file when it starts, and saves the cache to the snapshot file periodically.
+ */
+public class StatisticCacheSnapshotDaemon extends Daemon {
+    private static final Logger LOG = LogManager.getLogger(StatisticCacheSnapshotDaemon.class);
+
+    private static final String SNAPSHOT_FILE_NAME = "statistic_cache.json";
+    private static final long MIN_INTERVAL_SEC = 60;
+
+    private boolean isLoaded = false;
+    private boolean isReloaded = false;
+
+    public StatisticCacheSnapshotDaemon() {
+        super("StatisticCacheSnapshot", getIntervalMs());
+    }
+
+    private static long getIntervalMs() {
+        return Math.max(Config.statistic_cache_snapshot_interval_sec, MIN_INTERVAL_SEC) * 1000L;
+    }
+
+    private static File getSnapshotFile() {
+        return new File(Config.meta_dir, SNAPSHOT_FILE_NAME);
+    }
+
+    @Override
+    protected void runOneCycle() {
+        if (getInterval() != getIntervalMs()) {
+            setInterval(getIntervalMs());
+        }
+        if (Config.statistic_cache_snapshot_interval_sec <= 0) {
+            return;
+        }
+        StatisticStorage storage = Catalog.getCurrentStatisticStorage();
+        if (!(storage instanceof CachedStatisticStorage)) {
+            return;
+        }
+        CachedStatisticStorage cachedStorage = (CachedStatisticStorage) storage;
+
+        File file = getSnapshotFile();
+        if (!isLoaded) {
+            // load the snapshot only once, then the cache is kept by itself
+            isLoaded = true;
+            try {
+                long start = System.currentTimeMillis();
+                int num = cachedStorage.loadSnapshot(file);
+                LOG.info("loaded {} column statistics from {}, cost {} ms", num, file,
+                        System.currentTimeMillis() - start);
+            } catch (IOException e) {
+                LOG.warn("failed to load column statistics from {}", file, e);
+            }
+        }
+        // the loaded statistics are used by queries until they are reloaded in the background
+        if (!isReloaded) {
+            isReloaded = cachedStorage.reloadSnapshotStatistics();
+        }
+
+        try {
+            int num = cachedStorage.saveSnapshot(file);
+            LOG.debug("saved {} column statistics to {}", num, file);
+        } catch (IOException e) {
+            LOG.warn("failed to save column statistics to {}", file, e);
+        }
+    }
+}
@@ -16,10 +16,16 @@ import com.starrocks.catalog.Column;
 import com.starrocks.catalog.Database;
 import com.starrocks.catalog.OlapTable;
 import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.PrimitiveType;
 import com.starrocks.catalog.Table;
+import com.starrocks.catalog.Type;
 import com.starrocks.cluster.ClusterNamespace;
+import com.starrocks.common.Config;
 import com.starrocks.common.DdlException;
+import com.starrocks.common.Pair;
 import com.starrocks.common.util.SqlParserUtils;
+import com.starrocks.common.util.SqlUtils;
+import com.starrocks.mysql.MysqlProto;
 import com.starrocks.planner.PlannerContext;
 import com.starrocks.qe.ConnectContext;
 import com.starrocks.qe.Coordinator;
@@ -36,6 +42,7 @@ import com.starrocks.sql.optimizer.Optimizer;
 import com.starrocks.sql.optimizer.base.ColumnRefFactory;
 import com.starrocks.sql.optimizer.base.ColumnRefSet;
 import com.starrocks.sql.optimizer.base.PhysicalPropertySet;
+import com.starrocks.sql.optimizer.statistics.Histogram;
 import com.starrocks.sql.optimizer.transformer.LogicalPlan;
 import com.starrocks.sql.optimizer.transformer.RelationTransformer;
 import com.starrocks.sql.plan.ExecPlan;
@@ -57,12 +64,20 @@ import java.nio.ByteBuffer;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import static com.starrocks.sql.optimizer.Utils.getLongFromDateTime;
+
 public class StatisticExecutor {
     private static final Logger LOG = LogManager.getLogger(StatisticExecutor.class);
 
@@ -100,9 +115,33 @@ public class StatisticExecutor {
 
     private static final String DELETE_TEMPLATE = "DELETE FROM " + Constants.StatisticsTableName + " WHERE ";
 
+    private static final String DELETE_HISTOGRAM_TEMPLATE =
+            "DELETE FROM " + Constants.HistogramStatisticsTableName + " WHERE ";
+
+    private static final String SELECT_HISTOGRAM_VALUE_TEMPLATE =
+            "SELECT `$columnName`, COUNT(1) "
+                    + "FROM (SELECT `$columnName` FROM $tableName $hints) as t "
+                    + "WHERE `$columnName` IS NOT NULL "
+                    + "GROUP BY `$columnName` ORDER BY `$columnName`";
+
+    private static final String INSERT_HISTOGRAM_TEMPLATE =
+            "INSERT INTO " + Constants.HistogramStatisticsTableName
+                    + " VALUES ($tableId, '$columnName', $dbId, '$tableName', '$dbName', '$histogram', NOW())";
+
+    private static final String QUERY_HISTOGRAM_TEMPLATE =
+            "SELECT column_name, histogram FROM " + Constants.HistogramStatisticsTableName + " WHERE 1 = 1";
+
     private static final String SELECT_EXPIRE_TABLE_TEMPLATE =
             "SELECT DISTINCT table_id" + " FROM " + Constants.StatisticsTableName + " WHERE 1 = 1 ";
 
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    // DATETIME value may have microseconds, e.g. 2021-01-01 00:00:00.123456
+    private static final DateTimeFormatter DATETIME_FORMATTER = new DateTimeFormatterBuilder()
+            .appendPattern("yyyy-MM-dd HH:mm:ss")
+            .appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true)
+            .toFormatter();
+
     private static final VelocityEngine DEFAULT_VELOCITY_ENGINE;
 
     static {
@@ -251,6 +290,168 @@ public class StatisticExecutor {
                 throw new DdlException(context.getState().getErrorMessage());
             }
         }
+
+        if (Config.enable_histogram_collect) {
+            try {
+                collectHistogramSync(dbId, tableId, columnNames,
+                        isSample ? rows : Config.statistic_sample_collect_rows);
+            } catch (Exception e) {
+                // histogram only improves the estimation, don't fail the collect job
+                LOG.warn("Collect histogram fail. table: {}", tableId, e);
+            }
+        }
+    }
+
+    /**
+     * Histogram is built in FE from the value counts of the sampled rows, and saved as json
+     * in histogram statistic table. Only numeric and date columns have histogram.
+     */
+    public void collectHistogramSync(Long dbId, Long tableId, List<String> columnNames, long rows) throws Exception {
+        if (StatisticUtils.getHistogramStatisticsTable() == null) {
+            return;
+        }
+        Database db = Catalog.getCurrentCatalog().getDb(dbId);
+        OlapTable table = (OlapTable) db.getTable(tableId);
+        rows = Math.max(rows, 1);
+        String hints = buildHistogramSampleHints(table, rows);
+
+        for (String name : columnNames) {
+            Column column = table.getColumn(name);
+            if (column == null || !supportHistogram(column.getType())) {
+                continue;
+            }
+
+            VelocityContext context = new VelocityContext();
+            context.put("dbId", dbId);
+            context.put("tableId", tableId);
+            context.put("columnName", name);
+            context.put("dbName", db.getFullName());
+            context.put("tableName", ClusterNamespace.getNameFromFullName(db.getFullName()) + "." + table.getName());
+            context.put("hints", hints);
+
+            StringWriter sw = new StringWriter();
+            DEFAULT_VELOCITY_ENGINE.evaluate(context, sw, "", SELECT_HISTOGRAM_VALUE_TEMPLATE);
+            List<List<String>> valueCounts = queryTextSync(sw.toString());
+
+            List<Pair<Double, Long>> values = Lists.newArrayListWithCapacity(valueCounts.size());
+            for (List<String> row : valueCounts) {
+                values.add(new Pair<>(parseHistogramValue(column.getPrimitiveType(), row.get(0)),
+                        Long.parseLong(row.get(1))));
+            }
+            // the order of date string is same with the converted double, sort again for safety
+            values.sort(Comparator.comparingDouble((Pair<Double, Long> p) -> p.first));
+            Histogram histogram = Histogram.build(values, Math.max(Config.histogram_buckets_size, 1),
+                    Math.max(Config.histogram_mcv_size, 0));
+
+            context.put("histogram", histogram.toJson());
+            sw = new StringWriter();
+            DEFAULT_VELOCITY_ENGINE.evaluate(context, sw, "", INSERT_HISTOGRAM_TEMPLATE);
+            String sql = sw.toString();
+            LOG.debug("Collect histogram SQL: {}", sql);
+
+            ConnectContext connectContext = StatisticUtils.buildConnectContext();
+            StatementBase parsedStmt = parseSQL(sql, connectContext);
+            StmtExecutor executor = new StmtExecutor(connectContext, parsedStmt);
+            executor.execute();
+
+            if (connectContext.getState().getStateType() == QueryState.MysqlStateType.ERR) {
+                throw new DdlException(connectContext.getState().getErrorMessage());
+            }
+        }
+    }
+
+    /**
+     * Sample the rows of random tablets, LIMIT only reads the first rows which are usually in the first
+     * partitions and ordered by the sort key, so the histogram would be skewed.
+     */
+    private static String buildHistogramSampleHints(OlapTable table, long rows) {
+        // tablet id and the estimated rows of tablet
+        List<Pair<Long, Long>> tablets = Lists.newArrayList();
+        long totalRows = 0;
+        for (Partition p : table.getPartitions()) {
+            List<Long> ids = p.getBaseIndex().getTabletIdsInOrder();
+            if (ids.isEmpty()) {
+                continue;
+            }
+            long avgRowsPerTablet = Math.max(p.getBaseIndex().getRowCount() / ids.size(), 1);
+            for (Long id : ids) {
+                tablets.add(new Pair<>(id, avgRowsPerTablet));
+            }
+            totalRows += p.getBaseIndex().getRowCount();
+        }
+
+        if (totalRows <= rows) {
+            return " LIMIT " + rows;
+        }
+
+        Collections.shuffle(tablets);
+        List<String> sampleTablets = Lists.newArrayList();
+        long sampleRows = 0;
+        for (Pair<Long, Long> tablet : tablets) {
+            if (sampleRows >= rows) {
+                break;
+            }
+            sampleTablets.add(String.valueOf(tablet.first));
+            sampleRows += tablet.second;
+        }
+        return " Tablet(" + String.join(", ", sampleTablets) + ") LIMIT " + rows;
+    }
+
+    public static boolean supportHistogram(Type type) {
+        return type.isNumericType() || type.isDateType();
+    }
+
+    static double parseHistogramValue(PrimitiveType type, String value) {
+        if (type == PrimitiveType.DATE) {
+            return getLongFromDateTime(LocalDate.parse(value, DATE_FORMATTER).atStartOfDay());
+        } else if (type == PrimitiveType.DATETIME) {
+            // the fraction is truncated, same as the datetime constant of predicate
+            return getLongFromDateTime(LocalDateTime.parse(value, DATETIME_FORMATTER));
+        } else {
+            return Double.parseDouble(value);
+        }
+    }
+
+    public Map<String, Histogram> queryHistogramSync(Long tableId, List<String> columnNames) throws Exception {
+        Map<String, Histogram> histograms = Maps.newHashMap();
+        if (StatisticUtils.getHistogramStatisticsTable() == null || columnNames.isEmpty()) {
+            return histograms;
+        }
+
+        StringBuilder sql = new StringBuilder(QUERY_HISTOGRAM_TEMPLATE);
+        sql.append(" AND table_id = ").append(tableId);
+        sql.append(" AND column_name IN (");
+        sql.append(columnNames.stream().map(SqlUtils::getStringLiteralSql).collect(Collectors.joining(",")));
+        sql.append(")");
+
+        for (List<String> row : queryTextSync(sql.toString())) {
+            histograms.put(row.get(0), Histogram.fromJson(row.get(1)));
+        }
+        return histograms;
+    }
+
+    // Execute the query and return the rows in text format
+    private List<List<String>> queryTextSync(String sql) throws Exception {
+        LOG.debug("Query statistic SQL: {}", sql);
+        Map<String, Database> dbs = Maps.newHashMap();
+        ConnectContext context = StatisticUtils.buildConnectContext();
+        StatementBase parsedStmt = parseSQL(sql, context);
+        ((QueryStmt) parsedStmt).getDbs(context, dbs);
+
+        ExecPlan execPlan = getExecutePlan(dbs, context, parsedStmt, false);
+        List<TResultBatch> sqlResult = executeStmt(context, execPlan);
+
+        List<List<String>> result = Lists.newArrayList();
+        for (TResultBatch batch : sqlResult) {
+            for (ByteBuffer byteBuffer : batch.getRows()) {
+                List<String> row = Lists.newArrayList();
+                while (byteBuffer.hasRemaining()) {
+                    row.add(new String(MysqlProto.readLenEncodedString(byteBuffer), StandardCharsets.UTF_8));
+                }
+                result.add(row);
+            }
+        }
+        return result;
     }
 
     public void expireStatisticSync(List<String> tableIds) {
@@ -267,6 +468,20 @@ public class StatisticExecutor {
         } catch (Exception e) {
             LOG.warn("Execute statistic table expire fail.", e);
         }
+
+        if (StatisticUtils.getHistogramStatisticsTable() == null) {
+            return;
+        }
+        sql = new StringBuilder(DELETE_HISTOGRAM_TEMPLATE);
+        sql.append(" table_id IN (").append(StringUtils.join(tableIds, ",")).append(")");
+        context = StatisticUtils.buildConnectContext();
+        try {
+            parsedStmt = parseSQL(sql.toString(), context);
+            StmtExecutor executor = new StmtExecutor(context, parsedStmt);
+            executor.execute();
+        } catch (Exception e) {
+            LOG.warn("Execute histogram statistic table expire fail.", e);
+        }
     }
 
     public List<String> queryExpireTableSync(List<Long> tableIds) throws Exception {
@@ -352,10 +567,10 @@ public class StatisticExecutor {
 
         where.append(" AND column_name");
         if (columnNames.size() == 1) {
-            where.append(" = '").append(columnNames.get(0)).append("'");
+            where.append(" = ").append(SqlUtils.getStringLiteralSql(columnNames.get(0)));
         } else {
             where.append(" IN (");
-            where.append(columnNames.stream().map(s -> "'" + s + "'").collect(Collectors.joining(",")));
+            where.append(columnNames.stream().map(SqlUtils::getStringLiteralSql).collect(Collectors.joining(",")));
             where.append(")");
         }
 
@@ -53,6 +53,15 @@ public class StatisticUtils {
         }
     }
 
+    public static Table getHistogramStatisticsTable() {
+        Database db = Catalog.getCurrentCatalog().getDb(Constants.StatisticsDBName);
+        if (db != null) {
+            return db.getTable(Constants.HistogramStatisticsTableName);
+        } else {
+            return null;
+        }
+    }
+
     // check database in black list
     public static boolean statisticDatabaseBlackListCheck(String databaseName) {
         if (null == databaseName) {
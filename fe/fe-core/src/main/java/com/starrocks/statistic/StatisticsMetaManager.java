@@ -40,6 +40,7 @@ public class StatisticsMetaManager extends MasterDaemon {
         ScalarType dbNameType = ScalarType.createVarcharType(65530);
         ScalarType maxType = ScalarType.createVarcharType(65530);
         ScalarType minType = ScalarType.createVarcharType(65530);
+        ScalarType histogramType = ScalarType.createVarcharType(65530);
 
         // varchar type column need call setAssignedStrLenInColDefinition here,
         // otherwise it will be set length to 1 at analyze
@@ -48,6 +49,7 @@ public class StatisticsMetaManager extends MasterDaemon {
         dbNameType.setAssignedStrLenInColDefinition();
         maxType.setAssignedStrLenInColDefinition();
         minType.setAssignedStrLenInColDefinition();
+        histogramType.setAssignedStrLenInColDefinition();
 
         COLUMNS = ImmutableList.of(
                 new ColumnDef("table_id", new TypeDef(ScalarType.createType(PrimitiveType.BIGINT))),
@@ -63,9 +65,21 @@ public class StatisticsMetaManager extends MasterDaemon {
                 new ColumnDef("min", new TypeDef(minType)),
                 new ColumnDef("update_time", new TypeDef(ScalarType.createType(PrimitiveType.DATETIME)))
         );
+
+        HISTOGRAM_COLUMNS = ImmutableList.of(
+                new ColumnDef("table_id", new TypeDef(ScalarType.createType(PrimitiveType.BIGINT))),
+                new ColumnDef("column_name", new TypeDef(columnNameType)),
+                new ColumnDef("db_id", new TypeDef(ScalarType.createType(PrimitiveType.BIGINT))),
+                new ColumnDef("table_name", new TypeDef(tableNameType)),
+                new ColumnDef("db_name", new TypeDef(dbNameType)),
+                // json format of com.starrocks.sql.optimizer.statistics.Histogram
+                new ColumnDef("histogram", new TypeDef(histogramType)),
+                new ColumnDef("update_time", new TypeDef(ScalarType.createType(PrimitiveType.DATETIME)))
+        );
     }
 
     private static final List<ColumnDef> COLUMNS;
+    private static final List<ColumnDef> HISTOGRAM_COLUMNS;
 
     public StatisticsMetaManager() {
         super("statistics meta manager", 60 * 1000);
@@ -89,26 +103,25 @@ public class StatisticsMetaManager extends MasterDaemon {
         return checkDatabaseExist();
     }
 
-    private boolean checkTableExist() {
+    private boolean checkTableExist(String table) {
         Database db = Catalog.getCurrentCatalog().getDb(Constants.StatisticsDBName);
         Preconditions.checkState(db != null);
-        return db.getTable(Constants.StatisticsTableName) != null;
+        return db.getTable(table) != null;
     }
 
     private static final List<String> keyColumnNames = ImmutableList.of(
             "table_id", "column_name", "db_id"
     );
 
-    private boolean createTable() {
-        LOG.info("create statistics table start");
-        TableName tableName = new TableName(Constants.StatisticsDBName,
-                Constants.StatisticsTableName);
+    private boolean createTable(String table, List<ColumnDef> columns) {
+        LOG.info("create statistics table {} start", table);
+        TableName tableName = new TableName(Constants.StatisticsDBName, table);
         Map<String, String> properties = Maps.newHashMap();
         int defaultReplicationNum = Math.min(3,
                 Catalog.getCurrentSystemInfo().getBackendIds(true).size());
         properties.put(PropertyAnalyzer.PROPERTIES_REPLICATION_NUM, Integer.toString(defaultReplicationNum));
         CreateTableStmt stmt = new CreateTableStmt(false, false,
-                tableName, COLUMNS, "olap",
+                tableName, columns, "olap",
                 new KeysDesc(KeysType.UNIQUE_KEYS, keyColumnNames),
                 null,
                 new HashDistributionDesc(10, keyColumnNames),
@@ -129,8 +142,8 @@ public class StatisticsMetaManager extends MasterDaemon {
             LOG.warn("Failed to create table" + e.getMessage());
             return false;
         }
-        LOG.info("create statistics table done");
-        return checkTableExist();
+        LOG.info("create statistics table {} done", table);
+        return checkTableExist(table);
     }
 
     private void trySleep(long millis) {
@@ -151,8 +164,14 @@ public class StatisticsMetaManager extends MasterDaemon {
             }
             trySleep(10000);
         }
-        while (!checkTableExist()) {
-            if (createTable()) {
+        while (!checkTableExist(Constants.StatisticsTableName)) {
+            if (createTable(Constants.StatisticsTableName, COLUMNS)) {
+                break;
+            }
+            trySleep(10000);
+        }
+        while (!checkTableExist(Constants.HistogramStatisticsTableName)) {
+            if (createTable(Constants.HistogramStatisticsTableName, HISTOGRAM_COLUMNS)) {
                 break;
             }
             trySleep(10000);
@@ -21,56 +21,87 @@
 
 package com.starrocks.task;
 
-import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
-import com.google.common.collect.Table;
+import com.starrocks.common.util.LongObjectHashMap;
 import com.starrocks.thrift.TPushType;
 import com.starrocks.thrift.TTaskType;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 /**
  * Task queue
+ *
+ * The tasks are sharded by backend, the tasks of different backends are added, removed and diffed with the
+ * task report concurrently, only the operations across all the backends visit the backends one by one.
  */
 public class AgentTaskQueue {
     private static final Logger LOG = LogManager.getLogger(AgentTaskQueue.class);
 
-    // backend id -> (task type -> (signature -> agent task))
-    private static Table<Long, TTaskType, Map<Long, AgentTask>> tasks = HashBasedTable.create();
-    private static int taskNum = 0;
+    // backend id -> tasks of the backend
+    private static final Map<Long, BackendTasks> tasks = Maps.newConcurrentMap();
+    // task type ordinal -> task num
+    private static final AtomicIntegerArray taskNums = new AtomicIntegerArray(TTaskType.values().length);
 
-    public static synchronized void addBatchTask(AgentBatchTask batchTask) {
+    // the tasks of a backend, all the methods should be called with the monitor of the object
+    private static class BackendTasks {
+        // task type -> (signature -> agent task)
+        private final Map<TTaskType, LongObjectHashMap<AgentTask>> typeToTasks = new EnumMap<>(TTaskType.class);
+
+        LongObjectHashMap<AgentTask> get(TTaskType type) {
+            return typeToTasks.get(type);
+        }
+
+        LongObjectHashMap<AgentTask> getOrCreate(TTaskType type) {
+            return typeToTasks.computeIfAbsent(type, k -> new LongObjectHashMap<>());
+        }
+
+        AgentTask remove(TTaskType type, long signature) {
+            LongObjectHashMap<AgentTask> signatureMap = typeToTasks.get(type);
+            if (signatureMap == null) {
+                return null;
+            }
+            AgentTask task = signatureMap.remove(signature);
+            if (task != null) {
+                taskNums.decrementAndGet(type.ordinal());
+            }
+            return task;
+        }
+    }
+
+    private static BackendTasks getBackendTasks(long backendId) {
+        return tasks.computeIfAbsent(backendId, k -> new BackendTasks());
+    }
+
+    public static void addBatchTask(AgentBatchTask batchTask) {
         for (AgentTask task : batchTask.getAllTasks()) {
             addTask(task);
         }
     }
 
-    public static synchronized boolean addTask(AgentTask task) {
+    public static boolean addTask(AgentTask task) {
         long backendId = task.getBackendId();
         TTaskType type = task.getTaskType();
-
-        Map<Long, AgentTask> signatureMap = tasks.get(backendId, type);
-        if (signatureMap == null) {
-            signatureMap = Maps.newHashMap();
-            tasks.put(backendId, type, signatureMap);
-        }
-
         long signature = task.getSignature();
-        if (signatureMap.containsKey(signature)) {
-            return false;
+
+        BackendTasks backendTasks = getBackendTasks(backendId);
+        synchronized (backendTasks) {
+            LongObjectHashMap<AgentTask> signatureMap = backendTasks.getOrCreate(type);
+            if (signatureMap.containsKey(signature)) {
+                return false;
+            }
+            signatureMap.put(signature, task);
+            taskNums.incrementAndGet(type.ordinal());
         }
-        signatureMap.put(signature, task);
-        ++taskNum;
         LOG.debug("add task: type[{}], backend[{}], signature[{}]", type, backendId, signature);
         if (type == TTaskType.PUSH) {
             PushTask pushTask = (PushTask) task;
@@ -82,183 +113,208 @@ public class AgentTaskQueue {
 
     // remove all task in AgentBatchTask.
     // the caller should make sure all tasks in AgentBatchTask is type of 'type'
-    public static synchronized void removeBatchTask(AgentBatchTask batchTask, TTaskType type) {
+    public static void removeBatchTask(AgentBatchTask batchTask, TTaskType type) {
         for (AgentTask task : batchTask.getAllTasks()) {
             removeTask(task.getBackendId(), type, task.getSignature());
         }
     }
 
-    public static synchronized void removeTask(long backendId, TTaskType type, long signature) {
-        Map<Long, AgentTask> signatureMap = tasks.get(backendId, type);
-        if (signatureMap == null) {
+    public static void removeTask(long backendId, TTaskType type, long signature) {
+        BackendTasks backendTasks = tasks.get(backendId);
+        if (backendTasks == null) {
             return;
         }
-        if (!signatureMap.containsKey(signature)) {
-            return;
+        synchronized (backendTasks) {
+            if (backendTasks.remove(type, signature) == null) {
+                return;
+            }
         }
-        signatureMap.remove(signature);
         LOG.debug("remove task: type[{}], backend[{}], signature[{}]", type, backendId, signature);
-        --taskNum;
     }
 
     /*
      * we cannot define a push task with only 'backendId', 'signature' and 'TTaskType'
      * add version, versionHash and TPushType to help
      */
-    public static synchronized void removePushTask(long backendId, long signature, long version, long versionHash,
-                                                   TPushType pushType, TTaskType taskType) {
-        if (!tasks.contains(backendId, taskType)) {
-            return;
-        }
-
-        Map<Long, AgentTask> signatureMap = tasks.get(backendId, taskType);
-        AgentTask task = signatureMap.get(signature);
-        if (task == null) {
+    public static void removePushTask(long backendId, long signature, long version, long versionHash,
+                                      TPushType pushType, TTaskType taskType) {
+        BackendTasks backendTasks = tasks.get(backendId);
+        if (backendTasks == null) {
             return;
         }
+        synchronized (backendTasks) {
+            LongObjectHashMap<AgentTask> signatureMap = backendTasks.get(taskType);
+            if (signatureMap == null) {
+                return;
+            }
+            AgentTask task = signatureMap.get(signature);
+            if (task == null) {
+                return;
+            }
 
-        PushTask pushTask = (PushTask) task;
-        if (pushTask.getVersion() != version || pushTask.getPushType() != pushType) {
-            return;
+            PushTask pushTask = (PushTask) task;
+            if (pushTask.getVersion() != version || pushTask.getPushType() != pushType) {
+                return;
+            }
+            backendTasks.remove(taskType, signature);
         }
-
-        signatureMap.remove(signature);
         LOG.debug("remove task: type[{}], backend[{}], signature[{}]", taskType, backendId, signature);
-        --taskNum;
     }
 
-    public static synchronized void removeTaskOfType(TTaskType type, long signature) {
-        // be id -> (signature -> task)
-        Map<Long, Map<Long, AgentTask>> map = tasks.column(type);
-        for (Map<Long, AgentTask> innerMap : map.values()) {
-            innerMap.remove(signature);
+    public static void removeTaskOfType(TTaskType type, long signature) {
+        for (BackendTasks backendTasks : tasks.values()) {
+            synchronized (backendTasks) {
+                backendTasks.remove(type, signature);
+            }
         }
     }
 
-    public static synchronized AgentTask getTask(long backendId, TTaskType type, long signature) {
-        Map<Long, AgentTask> signatureMap = tasks.get(backendId, type);
-        if (signatureMap == null) {
+    public static AgentTask getTask(long backendId, TTaskType type, long signature) {
+        BackendTasks backendTasks = tasks.get(backendId);
+        if (backendTasks == null) {
             return null;
         }
-        return signatureMap.get(signature);
+        synchronized (backendTasks) {
+            LongObjectHashMap<AgentTask> signatureMap = backendTasks.get(type);
+            if (signatureMap == null) {
+                return null;
+            }
+            return signatureMap.get(signature);
+        }
     }
 
     // this is just for unit test
-    public static synchronized List<AgentTask> getTask(TTaskType type) {
+    public static List<AgentTask> getTask(TTaskType type) {
         List<AgentTask> res = Lists.newArrayList();
-        for (Map<Long, AgentTask> agentTasks : tasks.column(TTaskType.ALTER).values()) {
-            res.addAll(agentTasks.values());
+        for (BackendTasks backendTasks : tasks.values()) {
+            synchronized (backendTasks) {
+                LongObjectHashMap<AgentTask> signatureMap = backendTasks.get(type);
+                if (signatureMap != null) {
+                    res.addAll(signatureMap.values());
+                }
+            }
         }
         return res;
     }
 
-    public static synchronized List<AgentTask> getDiffTasks(long backendId, Map<TTaskType, Set<Long>> runningTasks) {
-        List<AgentTask> diffTasks = new ArrayList<AgentTask>();
-        if (!tasks.containsRow(backendId)) {
+    /**
+     * Return the tasks of the backend which are not in the running tasks reported by the backend.
+     * Only the tasks of this backend are locked while diffing.
+     */
+    public static List<AgentTask> getDiffTasks(long backendId, Map<TTaskType, Set<Long>> runningTasks) {
+        List<AgentTask> diffTasks = Lists.newArrayList();
+        BackendTasks backendTasks = tasks.get(backendId);
+        if (backendTasks == null) {
             return diffTasks;
         }
 
-        Map<TTaskType, Map<Long, AgentTask>> backendAllTasks = tasks.row(backendId);
-        for (Map.Entry<TTaskType, Map<Long, AgentTask>> entry : backendAllTasks.entrySet()) {
-            TTaskType taskType = entry.getKey();
-            Map<Long, AgentTask> tasks = entry.getValue();
-            Set<Long> excludeSignatures = new HashSet<Long>();
-            if (runningTasks.containsKey(taskType)) {
-                excludeSignatures = runningTasks.get(taskType);
-            }
-
-            for (Map.Entry<Long, AgentTask> taskEntry : tasks.entrySet()) {
-                long signature = taskEntry.getKey();
-                AgentTask task = taskEntry.getValue();
-                if (!excludeSignatures.contains(signature)) {
-                    diffTasks.add(task);
+        synchronized (backendTasks) {
+            for (Map.Entry<TTaskType, LongObjectHashMap<AgentTask>> entry : backendTasks.typeToTasks.entrySet()) {
+                LongObjectHashMap<AgentTask> signatureMap = entry.getValue();
+                if (signatureMap.isEmpty()) {
+                    continue;
                 }
-            } // end for tasks
-        } // end for backendAllTasks
-
+                Set<Long> excludeSignatures = runningTasks.getOrDefault(entry.getKey(), Collections.emptySet());
+                LongObjectHashMap.Cursor<AgentTask> cursor = signatureMap.cursor();
+                while (cursor.advance()) {
+                    if (!excludeSignatures.contains(cursor.key())) {
+                        diffTasks.add(cursor.value());
+                    }
+                }
+            }
+        }
         return diffTasks;
     }
 
-    public static synchronized void removeReplicaRelatedTasks(long backendId, long tabletId) {
-        if (!tasks.containsRow(backendId)) {
+    public static void removeReplicaRelatedTasks(long backendId, long tabletId) {
+        BackendTasks backendTasks = tasks.get(backendId);
+        if (backendTasks == null) {
             return;
         }
 
-        Map<TTaskType, Map<Long, AgentTask>> backendTasks = tasks.row(backendId);
-        for (TTaskType type : TTaskType.values()) {
-            if (backendTasks.containsKey(type)) {
-                Map<Long, AgentTask> typeTasks = backendTasks.get(type);
+        synchronized (backendTasks) {
+            for (TTaskType type : TTaskType.values()) {
+                LongObjectHashMap<AgentTask> typeTasks = backendTasks.get(type);
+                if (typeTasks == null) {
+                    continue;
+                }
                 if (type == TTaskType.REALTIME_PUSH) {
-                    Iterator<AgentTask> taskIterator = typeTasks.values().iterator();
-                    while (taskIterator.hasNext()) {
-                        PushTask realTimePushTask = (PushTask) taskIterator.next();
-                        if (tabletId == realTimePushTask.getTabletId()) {
-                            taskIterator.remove();
+                    List<Long> signatures = Lists.newArrayList();
+                    LongObjectHashMap.Cursor<AgentTask> cursor = typeTasks.cursor();
+                    while (cursor.advance()) {
+                        if (tabletId == cursor.value().getTabletId()) {
+                            signatures.add(cursor.key());
                         }
                     }
+                    for (long signature : signatures) {
+                        backendTasks.remove(type, signature);
+                    }
                 } else {
-                    if (typeTasks.containsKey(tabletId)) {
-                        typeTasks.remove(tabletId);
+                    if (backendTasks.remove(type, tabletId) != null) {
                         LOG.debug("remove task: type[{}], backend[{}], signature[{}]", type, backendId, tabletId);
-                        --taskNum;
                     }
                 }
-            }
-        } // end for types
+            } // end for types
+        }
     }
 
     // only for test now
-    public static synchronized void clearAllTasks() {
-        tasks.clear();
-        taskNum = 0;
+    public static void clearAllTasks() {
+        for (BackendTasks backendTasks : tasks.values()) {
+            synchronized (backendTasks) {
+                for (Map.Entry<TTaskType, LongObjectHashMap<AgentTask>> entry
+                        : backendTasks.typeToTasks.entrySet()) {
+                    taskNums.addAndGet(entry.getKey().ordinal(), -entry.getValue().size());
+                }
+                backendTasks.typeToTasks.clear();
+            }
+        }
     }
 
-    public static synchronized int getTaskNum() {
+    public static int getTaskNum() {
+        int taskNum = 0;
+        for (int i = 0; i < taskNums.length(); i++) {
+            taskNum += taskNums.get(i);
+        }
         return taskNum;
     }
 
-    public static synchronized Multimap<Long, Long> getTabletIdsByType(TTaskType type) {
+    // the number of the tasks of the type in all the backends
+    public static int getTaskNum(TTaskType type) {
+        return taskNums.get(type.ordinal());
+    }
+
+    public static Multimap<Long, Long> getTabletIdsByType(TTaskType type) {
         Multimap<Long, Long> tabletIds = HashMultimap.create();
-        Map<Long, Map<Long, AgentTask>> taskMap = tasks.column(type);
-        if (taskMap != null) {
-            for (Map<Long, AgentTask> signatureMap : taskMap.values()) {
-                for (AgentTask task : signatureMap.values()) {
-                    tabletIds.put(task.getDbId(), task.getTabletId());
-                }
-            }
+        for (AgentTask task : getTask(type)) {
+            tabletIds.put(task.getDbId(), task.getTabletId());
         }
         return tabletIds;
     }
 
-    public static synchronized int getTaskNum(long backendId, TTaskType type, boolean isFailed) {
+    public static int getTaskNum(long backendId, TTaskType type, boolean isFailed) {
         int taskNum = 0;
         if (backendId != -1) {
-            Map<Long, AgentTask> taskMap = tasks.get(backendId, type);
-            if (taskMap != null) {
-                if (isFailed) {
-                    for (AgentTask task : taskMap.values()) {
-                        if (task.getFailedTimes() > 0) {
-                            ++taskNum;
-                        }
+            if (isFailed) {
+                taskNum = getFailedTask(backendId, type).size();
+            } else {
+                BackendTasks backendTasks = tasks.get(backendId);
+                if (backendTasks != null) {
+                    synchronized (backendTasks) {
+                        LongObjectHashMap<AgentTask> taskMap = backendTasks.get(type);
+                        taskNum = taskMap == null ? 0 : taskMap.size();
                     }
-                } else {
-                    taskNum += taskMap.size();
                 }
             }
         } else {
-            Map<Long, Map<Long, AgentTask>> taskMap = tasks.column(type);
-            if (taskMap != null) {
-                for (Map<Long, AgentTask> signatureMap : taskMap.values()) {
-                    if (isFailed) {
-                        for (AgentTask task : signatureMap.values()) {
-                            if (task.getFailedTimes() > 0) {
-                                ++taskNum;
-                            }
-                        }
-                    } else {
-                        taskNum += signatureMap.size();
+            if (isFailed) {
+                for (AgentTask task : getTask(type)) {
+                    if (task.getFailedTimes() > 0) {
+                        ++taskNum;
                     }
                 }
+            } else {
+                taskNum = getTaskNum(type);
             }
         }
 
@@ -267,17 +323,22 @@ public class AgentTaskQueue {
         return taskNum;
     }
 
-    public static synchronized List<AgentTask> getFailedTask(long backendId, TTaskType type) {
-        Map<Long, AgentTask> taskMap = tasks.get(backendId, type);
-        List<AgentTask> tasks = Lists.newArrayList();
-        if (taskMap != null) {
-            for (AgentTask task : taskMap.values()) {
-                if (task.getFailedTimes() > 0) {
-                    tasks.add(task);
+    public static List<AgentTask> getFailedTask(long backendId, TTaskType type) {
+        List<AgentTask> failedTasks = Lists.newArrayList();
+        BackendTasks backendTasks = tasks.get(backendId);
+        if (backendTasks == null) {
+            return failedTasks;
+        }
+        synchronized (backendTasks) {
+            LongObjectHashMap<AgentTask> taskMap = backendTasks.get(type);
+            if (taskMap != null) {
+                for (AgentTask task : taskMap.values()) {
+                    if (task.getFailedTimes() > 0) {
+                        failedTasks.add(task);
+                    }
                 }
             }
         }
-        return tasks;
+        return failedTasks;
     }
 }
-
@@ -21,12 +21,15 @@
 
 package com.starrocks.transaction;
 
+import com.codahale.metrics.Histogram;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Striped;
 import com.starrocks.catalog.Catalog;
 import com.starrocks.catalog.Database;
 import com.starrocks.catalog.MaterializedIndex;
@@ -79,13 +82,14 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
 /**
  * Transaction Manager in database level, as a component in GlobalTransactionMgr
  * DatabaseTransactionMgr mainly be responsible for the following content:
- * 1. provide read/write lock in database level
+ * 1. provide read/write lock in database level, and the commit locks in table level
  * 2. provide basic txn infos interface in database level to GlobalTransactionMgr
  * 3. do some transaction management, such as add/update/delete transaction.
  * Attention: all api in DatabaseTransactionMgr should be only invoked by GlobalTransactionMgr
@@ -95,6 +99,8 @@ public class DatabaseTransactionMgr {
 
     private static final Logger LOG = LogManager.getLogger(DatabaseTransactionMgr.class);
 
+    private static final int TABLE_COMMIT_LOCK_STRIPES = 64;
+
     private long dbId;
 
     // the lock is used to control the access to transaction states
@@ -110,6 +116,9 @@ public class DatabaseTransactionMgr {
     // to store transtactionStates with final status
     private ArrayDeque<TransactionState> finalStatusTransactionStateDeque = new ArrayDeque<>();
 
+    // the final status transactionStates which are not compacted yet, in the order of finish
+    private ArrayDeque<TransactionState> uncompactedTransactionStateDeque = new ArrayDeque<>();
+
     // label -> txn ids
     // this is used for checking if label already used. a label may correspond to multiple txns,
     // and only one is success.
@@ -135,6 +144,13 @@ public class DatabaseTransactionMgr {
     // not realtime usedQuota value to make a fast check for database data quota
     private volatile long usedQuotaDataBytes = -1;
 
+    // the locks for committing transactions, striped by table id
+    private final Striped<Lock> tableCommitLocks = Striped.lock(TABLE_COMMIT_LOCK_STRIPES);
+
+    // the time of waiting for the write lock of transactionLock and the commit locks, in microseconds
+    private final Histogram lockWaitHistogram;
+    private final Histogram commitLockWaitHistogram;
+
     protected void readLock() {
         this.transactionLock.readLock().lock();
     }
@@ -144,7 +160,9 @@ public class DatabaseTransactionMgr {
     }
 
     protected void writeLock() {
+        long startTime = System.nanoTime();
         this.transactionLock.writeLock().lock();
+        lockWaitHistogram.update((System.nanoTime() - startTime) / 1000);
     }
 
     protected void writeUnlock() {
@@ -156,6 +174,8 @@ public class DatabaseTransactionMgr {
         this.catalog = catalog;
         this.idGenerator = idGenerator;
         this.editLog = catalog.getEditLog();
+        this.lockWaitHistogram = MetricRepo.getDbHistogram("txn.lock.wait.us", dbId);
+        this.commitLockWaitHistogram = MetricRepo.getDbHistogram("txn.commit.lock.wait.us", dbId);
     }
 
     public long getDbId() {
@@ -215,15 +235,13 @@ public class DatabaseTransactionMgr {
             } else {
                 transactionStateCollection = finalStatusTransactionStateDeque;
             }
-            // get transaction order by txn id desc limit 'limit'
-            transactionStateCollection.stream()
-                    .sorted(TransactionState.TXN_ID_COMPARATOR)
-                    .limit(limit)
-                    .forEach(t -> {
-                        List<String> info = Lists.newArrayList();
-                        getTxnStateInfo(t, info);
-                        infos.add(info);
-                    });
+            // get transaction order by txn id desc limit 'limit', without sorting all the finished txns
+            for (TransactionState t : Ordering.from(TransactionState.TXN_ID_COMPARATOR)
+                    .leastOf(transactionStateCollection, limit)) {
+                List<String> info = Lists.newArrayList();
+                getTxnStateInfo(t, info);
+                infos.add(info);
+            }
         } finally {
             readUnlock();
         }
@@ -354,7 +372,7 @@ public class DatabaseTransactionMgr {
                                   TxnCommitAttachment txnCommitAttachment)
             throws UserException {
         // 1. check status
-        // the caller method already own db lock, we do not obtain db lock here
+        // the caller method already own db lock (read lock at least), we do not obtain db lock here
         Database db = catalog.getDb(dbId);
         if (null == db) {
             throw new MetaNotFoundException("could not find db [" + dbId + "]");
@@ -466,6 +484,43 @@ public class DatabaseTransactionMgr {
             throw new TransactionCommitFailedException(TransactionCommitFailedException.NO_DATA_TO_LOAD_MSG);
         }
 
+        // The versions of partitions and the replicas are updated when committing, so the transactions loading
+        // the same table are committed one by one, while the ones loading disjoint tables can be committed
+        // concurrently with the read lock of database.
+        List<Lock> commitLocks = Lists.newArrayList(tableCommitLocks.bulkGet(tableToPartition.keySet()));
+        long lockStartTime = System.nanoTime();
+        for (Lock commitLock : commitLocks) {
+            commitLock.lock();
+        }
+        commitLockWaitHistogram.update((System.nanoTime() - lockStartTime) / 1000);
+        try {
+            unprotectedCheckAndCommitTransaction(db, transactionState, tabletToBackends, tableToPartition,
+                    tableToInvalidDictCacheColumns, tableToValidDictCacheColumns);
+        } finally {
+            for (Lock commitLock : commitLocks) {
+                commitLock.unlock();
+            }
+        }
+    }
+
+    // check the quorum of replicas and commit the transaction, the commit locks of tables must be held
+    private void unprotectedCheckAndCommitTransaction(Database db, TransactionState transactionState,
+                                                      Map<Long, Set<Long>> tabletToBackends,
+                                                      Map<Long, Set<Long>> tableToPartition,
+                                                      Map<Long, Set<String>> tableToInvalidDictCacheColumns,
+                                                      Map<Long, Set<String>> tableToValidDictCacheColumns)
+            throws UserException {
+        long transactionId = transactionState.getTransactionId();
+        // the transaction may be committed or aborted by others before the commit locks are got
+        if (transactionState.getTransactionStatus() == TransactionStatus.ABORTED) {
+            throw new TransactionCommitFailedException(transactionState.getReason());
+        }
+        if (transactionState.getTransactionStatus() != TransactionStatus.PREPARE) {
+            LOG.debug("transaction is already {}: {}", transactionState.getTransactionStatus(), transactionId);
+            return;
+        }
+
+        TabletInvertedIndex tabletInvertedIndex = catalog.getTabletInvertedIndex();
         Set<Long> errorReplicaIds = Sets.newHashSet();
         Set<Long> totalInvolvedBackends = Sets.newHashSet();
         for (long tableId : tableToPartition.keySet()) {
@@ -590,8 +645,8 @@ public class DatabaseTransactionMgr {
             if (!finalStatusTransactionStateDeque.isEmpty() &&
                     transactionState.getTransactionId() ==
                             finalStatusTransactionStateDeque.getFirst().getTransactionId()) {
-                finalStatusTransactionStateDeque.pop();
-                clearTransactionState(transactionState);
+                // the replayed transactionState is deserialized from journal, clear the one in memory
+                clearTransactionState(finalStatusTransactionStateDeque.pop());
             }
         } finally {
             writeUnlock();
@@ -849,6 +904,10 @@ public class DatabaseTransactionMgr {
                 // (because the relevant editlog does not see the log of visible transactions).
                 // So I add a log here for observation.
                 LOG.debug("after set transaction {} to visible", transactionState);
+                if (MetricRepo.isInit) {
+                    MetricRepo.HISTO_TXN_PUBLISH_LATENCY.update(
+                            transactionState.getFinishTime() - transactionState.getCommitTime());
+                }
             } finally {
                 writeUnlock();
                 transactionState.afterStateTransform(TransactionStatus.VISIBLE, txnOperated);
@@ -938,6 +997,7 @@ public class DatabaseTransactionMgr {
             }
             idToFinalStatusTransactionState.put(transactionState.getTransactionId(), transactionState);
             finalStatusTransactionStateDeque.add(transactionState);
+            uncompactedTransactionStateDeque.add(transactionState);
         }
         updateTxnLabels(transactionState);
     }
@@ -1109,6 +1169,10 @@ public class DatabaseTransactionMgr {
             }
 
             TableCommitInfo tableCommitInfo = transactionState.getIdToTableCommitInfos().get(tableId);
+            // the commit infos of the compacted txn are dropped
+            if (tableCommitInfo == null) {
+                return partitionInfos;
+            }
             Map<Long, PartitionCommitInfo> idToPartitionCommitInfo = tableCommitInfo.getIdToPartitionCommitInfo();
             for (Map.Entry<Long, PartitionCommitInfo> entry : idToPartitionCommitInfo.entrySet()) {
                 List<Comparable> partitionInfo = new ArrayList<Comparable>();
@@ -1139,13 +1203,35 @@ public class DatabaseTransactionMgr {
                 }
 
             }
+            unprotectedCompactTransactionStates(currentMillis);
         } finally {
             writeUnlock();
         }
     }
 
+    private void unprotectedCompactTransactionStates(long currentMillis) {
+        while (!uncompactedTransactionStateDeque.isEmpty()) {
+            TransactionState transactionState = uncompactedTransactionStateDeque.getFirst();
+            if (!transactionState.isCompactable(currentMillis)) {
+                break;
+            }
+            uncompactedTransactionStateDeque.pop();
+            transactionState.compact();
+        }
+    }
+
     private void clearTransactionState(TransactionState transactionState) {
         idToFinalStatusTransactionState.remove(transactionState.getTransactionId());
+        // the txn expires before compacted if label_keep_max_second is less than transaction_compact_delay_second,
+        // both deques are in the order of finish, so it's usually the first one
+        if (!transactionState.isCompacted()) {
+            if (!uncompactedTransactionStateDeque.isEmpty() &&
+                    uncompactedTransactionStateDeque.getFirst() == transactionState) {
+                uncompactedTransactionStateDeque.pop();
+            } else {
+                uncompactedTransactionStateDeque.remove(transactionState);
+            }
+        }
         Set<Long> txnIds = unprotectedGetTxnIdsByLabel(transactionState.getLabel());
         txnIds.remove(transactionState.getTransactionId());
         if (txnIds.isEmpty()) {
@@ -1227,7 +1313,9 @@ public class DatabaseTransactionMgr {
 
             if (ConnectContext.get() != null) {
                 // check auth
-                Set<Long> tblIds = txnState.getIdToTableCommitInfos().keySet();
+                // the commit infos of the compacted txn are dropped
+                Set<Long> tblIds = Sets.newHashSet(txnState.getTableIdList());
+                tblIds.addAll(txnState.getIdToTableCommitInfos().keySet());
                 for (Long tblId : tblIds) {
                     Table tbl = db.getTable(tblId);
                     if (tbl != null) {
@@ -1477,6 +1565,8 @@ public class DatabaseTransactionMgr {
                 updateCatalogAfterVisible(transactionState, db);
             }
             unprotectUpsertTransactionState(transactionState, true);
+            // txn cleaner doesn't run on the follower and the checkpoint, compact the replayed txns here
+            unprotectedCompactTransactionStates(System.currentTimeMillis());
         } finally {
             writeUnlock();
         }
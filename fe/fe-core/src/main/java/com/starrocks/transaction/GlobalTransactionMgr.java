@@ -33,6 +33,7 @@ import com.starrocks.common.LabelAlreadyUsedException;
 import com.starrocks.common.Pair;
 import com.starrocks.common.UserException;
 import com.starrocks.common.io.Writable;
+import com.starrocks.metric.MetricRepo;
 import com.starrocks.persist.EditLog;
 import com.starrocks.thrift.FrontendService;
 import com.starrocks.thrift.TAbortRemoteTxnRequest;
@@ -103,6 +104,7 @@ public class GlobalTransactionMgr implements Writable {
 
     public void removeDatabaseTransactionMgr(Long dbId) {
         if (dbIdToDatabaseTransactionMgrs.remove(dbId) != null) {
+            MetricRepo.removeDbHistograms(dbId);
             LOG.debug("remove database transaction manager for db {}", dbId);
         }
     }
@@ -338,6 +340,11 @@ public class GlobalTransactionMgr implements Writable {
         LOG.debug("try to commit transaction: {}", transactionId);
         DatabaseTransactionMgr dbTransactionMgr = getDatabaseTransactionMgr(dbId);
         dbTransactionMgr.commitTransaction(transactionId, tabletCommitInfos, txnCommitAttachment);
+        // publish the committed transaction right now rather than in the next interval
+        PublishVersionDaemon publishVersionDaemon = catalog.getPublishVersionDaemon();
+        if (publishVersionDaemon != null) {
+            publishVersionDaemon.wakeUp();
+        }
     }
 
     public boolean commitAndPublishTransaction(Database db, long transactionId,
@@ -352,13 +359,15 @@ public class GlobalTransactionMgr implements Writable {
             throws UserException {
         StopWatch stopWatch = new StopWatch();
         stopWatch.start();
-        if (!db.tryWriteLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
-            throw new UserException("get database write lock timeout, database=" + db.getFullName());
+        // the transactions loading disjoint tables are committed concurrently,
+        // see DatabaseTransactionMgr.commitTransaction
+        if (!db.tryReadLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            throw new UserException("get database read lock timeout, database=" + db.getFullName());
         }
         try {
             commitTransaction(db.getId(), transactionId, tabletCommitInfos, txnCommitAttachment);
         } finally {
-            db.writeUnlock();
+            db.readUnlock();
         }
         stopWatch.stop();
         long publishTimeoutMillis = timeoutMillis - stopWatch.getTime();
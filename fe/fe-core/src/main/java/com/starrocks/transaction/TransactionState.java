@@ -47,6 +47,7 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -204,6 +205,8 @@ public class TransactionState implements Writable {
     private boolean hasSendTask;
     private long publishVersionTime = -1;
     private TransactionStatus preStatus = null;
+    // the states dropped by compact() are not serialized either, so a replayed txn is compacted again
+    private boolean isCompacted = false;
 
     private long callbackId = -1;
     private long timeoutMs = Config.stream_load_default_timeout_second;
@@ -501,6 +504,29 @@ public class TransactionState implements Writable {
         return transactionStatus.isFinalStatus() && (currentMillis - finishTime) / 1000 > Config.label_keep_max_second;
     }
 
+    // return true if txn is in final status for transaction_compact_delay_second
+    public boolean isCompactable(long currentMillis) {
+        return transactionStatus.isFinalStatus()
+                && (currentMillis - finishTime) / 1000 > Config.transaction_compact_delay_second;
+    }
+
+    /*
+     * Drop the commit infos and the other states which are only used before the txn is finished,
+     * so that the finished txn only keeps the label, status and the information shown by SHOW TRANSACTION.
+     * The txn without commit infos is not published to the backends by tablet report any more.
+     */
+    public void compact() {
+        this.idToTableCommitInfos = Collections.emptyMap();
+        this.publishVersionTasks = Collections.emptyMap();
+        this.loadedTblIndexes = Collections.emptyMap();
+        this.requsetId = null;
+        this.isCompacted = true;
+    }
+
+    public boolean isCompacted() {
+        return isCompacted;
+    }
+
     // return true if txn is running but timeout
     public boolean isTimeout(long currentMillis) {
         return transactionStatus == TransactionStatus.PREPARE && currentMillis - prepareTime > timeoutMs;
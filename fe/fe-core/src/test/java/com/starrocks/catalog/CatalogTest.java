@@ -26,15 +26,19 @@ import com.starrocks.alter.AlterJob.JobType;
 import com.starrocks.alter.SchemaChangeJob;
 import com.starrocks.catalog.MaterializedIndex.IndexState;
 import com.starrocks.cluster.Cluster;
+import com.starrocks.common.Config;
 import com.starrocks.common.FeConstants;
 import com.starrocks.load.Load;
 import com.starrocks.meta.MetaContext;
+import com.starrocks.persist.ImageIndex;
+import com.starrocks.persist.ImageSectionOutputStream;
 import mockit.Expectations;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
@@ -43,6 +47,7 @@ import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -202,4 +207,59 @@ public class CatalogTest {
 
         deleteDir(dir);
     }
+
+    @Test
+    public void testSaveDbInParallel() throws Exception {
+        Catalog catalog = Catalog.getCurrentCatalog();
+        MetaContext.get().setMetaVersion(FeConstants.meta_version);
+        catalog.addCluster(new Cluster("testCluster", 10001L));
+        for (int i = 0; i < 5; i++) {
+            Database db = new Database(10010L + i, "testCluster.db" + i);
+            db.setClusterName("testCluster");
+            MaterializedIndex baseIndex = new MaterializedIndex(20010L + i, IndexState.NORMAL);
+            Partition partition = new Partition(2010L + i, "single", baseIndex, new RandomDistributionInfo(10));
+            OlapTable table = new OlapTable(3010L + i, "base" + i, new LinkedList<>(), KeysType.AGG_KEYS,
+                    new SinglePartitionInfo(), new RandomDistributionInfo(10));
+            table.addPartition(partition);
+            db.createTable(table);
+            catalog.unprotectCreateDb(db);
+        }
+
+        int parallelism = Config.image_save_parallelism;
+        try {
+            Config.image_save_parallelism = 1;
+            ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+            ImageIndex sequentialIndex = saveDb(catalog, sequential);
+            Config.image_save_parallelism = 3;
+            ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+            ImageIndex parallelIndex = saveDb(catalog, parallel);
+
+            // the databases are written in the same order with the same sub sections
+            Assert.assertArrayEquals(sequential.toByteArray(), parallel.toByteArray());
+            Assert.assertEquals(5, parallelIndex.getSections("db/").size());
+            Assert.assertEquals(sequentialIndex.getSections().size(), parallelIndex.getSections().size());
+            for (int i = 0; i < sequentialIndex.getSections().size(); i++) {
+                ImageIndex.Section expect = sequentialIndex.getSections().get(i);
+                ImageIndex.Section actual = parallelIndex.getSections().get(i);
+                Assert.assertEquals(expect.getName(), actual.getName());
+                Assert.assertEquals(expect.getOffset(), actual.getOffset());
+                Assert.assertEquals(expect.getLength(), actual.getLength());
+                Assert.assertEquals(expect.getChecksum(), actual.getChecksum());
+            }
+        } finally {
+            Config.image_save_parallelism = parallelism;
+            catalog.clear();
+        }
+    }
+
+    private static ImageIndex saveDb(Catalog catalog, ByteArrayOutputStream buffer) throws Exception {
+        Method method = Catalog.class.getDeclaredMethod("saveDb", DataOutputStream.class, long.class,
+                ImageSectionOutputStream.class);
+        method.setAccessible(true);
+        ImageSectionOutputStream out = new ImageSectionOutputStream(buffer);
+        try (DataOutputStream dos = new DataOutputStream(out)) {
+            method.invoke(catalog, dos, 0L, out);
+        }
+        return out.getIndex();
+    }
 }
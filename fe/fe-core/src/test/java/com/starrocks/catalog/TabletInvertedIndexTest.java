@@ -0,0 +1,164 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.catalog;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.catalog.Replica.ReplicaState;
+import com.starrocks.thrift.TStorageMedium;
+import com.starrocks.thrift.TTablet;
+import com.starrocks.thrift.TTabletInfo;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class TabletInvertedIndexTest {
+
+    @Test
+    public void testAddAndDeleteReplica() {
+        TabletInvertedIndex invertedIndex = new TabletInvertedIndex();
+        TabletMeta tabletMeta = new TabletMeta(1, 2, 3, 4, 5, TStorageMedium.HDD);
+        for (long tabletId = 100; tabletId < 300; tabletId++) {
+            invertedIndex.addTablet(tabletId, tabletMeta);
+            for (long backendId = 10001; backendId <= 10003; backendId++) {
+                invertedIndex.addReplica(tabletId, new Replica(tabletId * 10 + backendId, backendId, 5,
+                        ReplicaState.NORMAL));
+            }
+        }
+
+        Assert.assertEquals(200, invertedIndex.getTabletNum());
+        Assert.assertEquals(600, invertedIndex.getReplicaNum());
+        Assert.assertEquals(200, invertedIndex.getTabletNumByBackendId(10001));
+        Assert.assertEquals(200, invertedIndex.getTabletIdsByBackendId(10002).size());
+        Assert.assertEquals(3, invertedIndex.getReplicasByTabletId(100).size());
+        Assert.assertEquals(100L, invertedIndex.getTabletIdByReplica(100 * 10 + 10001).longValue());
+        Assert.assertEquals(10002, invertedIndex.getReplica(100, 10002).getBackendId());
+        Assert.assertEquals(200L,
+                invertedIndex.getReplicaNumByBeIdAndStorageMedium(10003).get(TStorageMedium.HDD).longValue());
+        Assert.assertTrue(invertedIndex.getEstimatedHeapBytes() > 0);
+
+        invertedIndex.deleteReplica(100, 10002);
+        Assert.assertNull(invertedIndex.getReplica(100, 10002));
+        Assert.assertNull(invertedIndex.getTabletIdByReplica(100 * 10 + 10002));
+        Assert.assertEquals(2, invertedIndex.getReplicasByTabletId(100).size());
+        Assert.assertEquals(199, invertedIndex.getTabletNumByBackendId(10002));
+
+        invertedIndex.deleteTablet(101);
+        Assert.assertNull(invertedIndex.getTabletMeta(101));
+        Assert.assertTrue(invertedIndex.getReplicasByTabletId(101).isEmpty());
+        Assert.assertEquals(199, invertedIndex.getTabletNumByBackendId(10001));
+        Assert.assertEquals(596, invertedIndex.getReplicaNum());
+
+        List<Long> tabletIds = new ArrayList<>();
+        tabletIds.add(100L);
+        tabletIds.add(101L);
+        List<TabletMeta> tabletMetaList = invertedIndex.getTabletMetaList(tabletIds);
+        Assert.assertEquals(tabletMeta, tabletMetaList.get(0));
+        Assert.assertEquals(TabletInvertedIndex.NOT_EXIST_TABLET_META, tabletMetaList.get(1));
+
+        invertedIndex.clear();
+        Assert.assertEquals(0, invertedIndex.getTabletNum());
+        Assert.assertEquals(0, invertedIndex.getReplicaNum());
+    }
+
+    @Test
+    public void testEstimatedHeapBytes() {
+        TabletInvertedIndex invertedIndex = new TabletInvertedIndex();
+        TabletMeta tabletMeta = new TabletMeta(1, 2, 3, 4, 5, TStorageMedium.HDD);
+        // tablet 1, 65 and 129 are in the same stripe, so the backend maps of the stripe exist before measuring
+        invertedIndex.addTablet(1, tabletMeta);
+        invertedIndex.addTablet(65, tabletMeta);
+        invertedIndex.addTablet(129, tabletMeta);
+        invertedIndex.addReplica(65, new Replica(651, 10001, 5, ReplicaState.NORMAL));
+        invertedIndex.addReplica(65, new Replica(652, 10002, 5, ReplicaState.NORMAL));
+        invertedIndex.addReplica(1, new Replica(11, 10001, 5, ReplicaState.NORMAL));
+
+        // one more replica of a tablet only adds a reference to its replica array
+        long bytes = invertedIndex.getEstimatedHeapBytes();
+        invertedIndex.addReplica(1, new Replica(12, 10002, 5, ReplicaState.NORMAL));
+        Assert.assertEquals(bytes + Integer.BYTES, invertedIndex.getEstimatedHeapBytes());
+
+        // the first replica of a tablet adds the array header once
+        bytes = invertedIndex.getEstimatedHeapBytes();
+        invertedIndex.addReplica(129, new Replica(1291, 10001, 5, ReplicaState.NORMAL));
+        Assert.assertEquals(bytes + 16 + Integer.BYTES, invertedIndex.getEstimatedHeapBytes());
+    }
+
+    @Test
+    public void testConcurrentAddReplica() throws InterruptedException {
+        TabletInvertedIndex invertedIndex = new TabletInvertedIndex();
+        TabletMeta tabletMeta = new TabletMeta(1, 2, 3, 4, 5, TStorageMedium.HDD);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final long backendId = 10001 + i;
+            threads.add(new Thread(() -> {
+                for (long tabletId = 1; tabletId <= 1000; tabletId++) {
+                    invertedIndex.addTablet(tabletId, tabletMeta);
+                    invertedIndex.addReplica(tabletId, new Replica(tabletId * 10 + backendId, backendId, 5,
+                            ReplicaState.NORMAL));
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertEquals(1000, invertedIndex.getTabletNum());
+        Assert.assertEquals(4000, invertedIndex.getReplicaNum());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals(1000, invertedIndex.getTabletNumByBackendId(10001 + i));
+        }
+    }
+
+    private static ListMultimap<Long, Long> diff(TabletInvertedIndex invertedIndex, Map<Long, TTablet> backendTablets,
+                                                 List<Long> removedTabletIds, Set<Long> foundTablets) {
+        ListMultimap<Long, Long> tabletDeleteFromMeta = ArrayListMultimap.create();
+        invertedIndex.tabletReport(10001, backendTablets, removedTabletIds, Maps.newHashMap(),
+                ArrayListMultimap.create(), tabletDeleteFromMeta, foundTablets, Maps.newHashMap(),
+                ArrayListMultimap.create(), Maps.newHashMap(), ArrayListMultimap.create(),
+                ArrayListMultimap.create(), Sets.newHashSet());
+        return tabletDeleteFromMeta;
+    }
+
+    @Test
+    public void testIncrementalTabletReport() {
+        TabletInvertedIndex invertedIndex = new TabletInvertedIndex();
+        TabletMeta tabletMeta = new TabletMeta(1, 2, 3, 4, 5, TStorageMedium.HDD);
+        for (long tabletId = 100; tabletId < 103; tabletId++) {
+            invertedIndex.addTablet(tabletId, tabletMeta);
+            invertedIndex.addReplica(tabletId, new Replica(tabletId * 10, 10001, 5, ReplicaState.NORMAL));
+        }
+
+        Map<Long, TTablet> backendTablets = Maps.newHashMap();
+        for (long tabletId = 100; tabletId < 102; tabletId++) {
+            backendTablets.put(tabletId, new TTablet(Lists.newArrayList(new TTabletInfo(tabletId, 5, 2, 0, 0, 0))));
+        }
+        // the tablet not reported by the full report is deleted from meta
+        Set<Long> foundTablets = Sets.newHashSet();
+        ListMultimap<Long, Long> tabletDeleteFromMeta = diff(invertedIndex, backendTablets, null, foundTablets);
+        Assert.assertEquals(Sets.newHashSet(100L, 101L), foundTablets);
+        Assert.assertEquals(Lists.newArrayList(102L), tabletDeleteFromMeta.get(1L));
+
+        // only the changed and removed tablets are diffed in the incremental report
+        backendTablets.remove(101L);
+        foundTablets.clear();
+        tabletDeleteFromMeta = diff(invertedIndex, backendTablets, Lists.newArrayList(101L), foundTablets);
+        Assert.assertEquals(Sets.newHashSet(100L), foundTablets);
+        Assert.assertEquals(Lists.newArrayList(101L), tabletDeleteFromMeta.get(1L));
+
+        foundTablets.clear();
+        tabletDeleteFromMeta = diff(invertedIndex, Maps.newHashMap(), Lists.newArrayList(), foundTablets);
+        Assert.assertTrue(foundTablets.isEmpty());
+        Assert.assertTrue(tabletDeleteFromMeta.isEmpty());
+    }
+}
@@ -27,6 +27,8 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadPoolExecutor;
 
 public class ThreadPoolManagerTest {
@@ -88,4 +90,25 @@ public class ThreadPoolManagerTest {
         Assert.assertEquals(4, testFixedThreaddPool.getCompletedTaskCount());
 
     }
+
+    @Test
+    public void testConnectionExecutor() throws Exception {
+        ExecutorService executor = ThreadPoolManager.newDaemonConnectionExecutor(2, "test_connection_pool", false);
+        Assert.assertTrue(executor instanceof ThreadPoolExecutor);
+        executor.shutdown();
+
+        boolean useVirtualThreads = Config.mysql_service_use_virtual_threads;
+        Config.mysql_service_use_virtual_threads = true;
+        try {
+            executor = ThreadPoolManager.newDaemonConnectionExecutor(2, "test_virtual_pool", false);
+            Future<String> threadName = executor.submit(() -> Thread.currentThread().getName());
+            Assert.assertTrue(threadName.get().startsWith("test_virtual_pool-"));
+            // fall back to thread pool if the jvm doesn't support virtual threads
+            Assert.assertEquals(ThreadPoolManager.newVirtualThreadPerTaskExecutor("test_virtual_pool") == null,
+                    executor instanceof ThreadPoolExecutor);
+            executor.shutdown();
+        } finally {
+            Config.mysql_service_use_virtual_threads = useVirtualThreads;
+        }
+    }
 }
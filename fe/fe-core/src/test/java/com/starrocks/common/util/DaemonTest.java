@@ -0,0 +1,36 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.common.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+public class DaemonTest {
+
+    @Test
+    public void testWakeUp() throws InterruptedException {
+        Semaphore cycles = new Semaphore(0);
+        Daemon daemon = new Daemon("test_daemon", 3600 * 1000L) {
+            @Override
+            protected void runOneCycle() {
+                cycles.release();
+            }
+        };
+        daemon.start();
+        try {
+            Assert.assertTrue(cycles.tryAcquire(10, TimeUnit.SECONDS));
+            // the next cycle runs without waiting for the interval
+            daemon.wakeUp();
+            Assert.assertTrue(cycles.tryAcquire(10, TimeUnit.SECONDS));
+            daemon.wakeUp();
+            Assert.assertTrue(cycles.tryAcquire(10, TimeUnit.SECONDS));
+            Assert.assertFalse(cycles.tryAcquire(100, TimeUnit.MILLISECONDS));
+        } finally {
+            daemon.exit();
+            daemon.wakeUp();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.common.util;
+
+import com.google.common.collect.Maps;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Random;
+
+public class LongObjectHashMapTest {
+
+    @Test
+    public void testPutGetRemove() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertNull(map.put(1L, "a"));
+        Assert.assertEquals("a", map.put(1L, "b"));
+        Assert.assertNull(map.put(0L, "zero"));
+        Assert.assertNull(map.put(-1L, "negative"));
+        Assert.assertEquals(3, map.size());
+
+        Assert.assertEquals("b", map.get(1L));
+        Assert.assertEquals("zero", map.get(0L));
+        Assert.assertEquals("negative", map.get(-1L));
+        Assert.assertNull(map.get(2L));
+        Assert.assertEquals("default", map.getOrDefault(2L, "default"));
+
+        Assert.assertEquals("zero", map.remove(0L));
+        Assert.assertNull(map.remove(0L));
+        Assert.assertEquals("b", map.remove(1L));
+        Assert.assertFalse(map.containsKey(1L));
+        Assert.assertEquals(1, map.size());
+
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertFalse(map.containsKey(-1L));
+    }
+
+    @Test
+    public void testRandomOperations() {
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>();
+        LongLongHashMap longMap = new LongLongHashMap();
+        Map<Long, Long> expected = Maps.newHashMap();
+        Random random = new Random(0);
+        for (int i = 0; i < 200000; i++) {
+            // small key range to make lots of collisions and removals
+            long key = random.nextInt(5000) - 100;
+            if (random.nextInt(3) == 0) {
+                Assert.assertEquals(expected.remove(key), map.remove(key));
+                longMap.remove(key);
+            } else {
+                long value = random.nextLong();
+                Assert.assertEquals(expected.put(key, value), map.put(key, value));
+                longMap.put(key, value);
+            }
+        }
+
+        Assert.assertEquals(expected.size(), map.size());
+        Assert.assertEquals(expected.size(), longMap.size());
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            Assert.assertEquals(entry.getValue(), map.get(entry.getKey()));
+            Assert.assertEquals(entry.getValue().longValue(), longMap.getOrDefault(entry.getKey(), -1));
+        }
+
+        int count = 0;
+        LongObjectHashMap.Cursor<Long> cursor = map.cursor();
+        while (cursor.advance()) {
+            Assert.assertEquals(expected.get(cursor.key()), cursor.value());
+            count++;
+        }
+        Assert.assertEquals(expected.size(), count);
+        Assert.assertEquals(expected.size(), map.keys().length);
+        Assert.assertEquals(expected.size(), map.values().size());
+    }
+}
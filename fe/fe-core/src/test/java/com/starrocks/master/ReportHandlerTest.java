@@ -0,0 +1,200 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.master;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.TabletInvertedIndex;
+import com.starrocks.common.Config;
+import com.starrocks.system.Backend;
+import com.starrocks.system.SystemInfoService;
+import com.starrocks.thrift.TStorageMedium;
+import mockit.Deencapsulation;
+import mockit.Mock;
+import mockit.MockUp;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ReportHandlerTest {
+    private static final long BACKEND_ID = 10001L;
+
+    private int fullTabletReportIntervalSecond;
+    private long backendReportVersion;
+    private SystemInfoService systemInfoService;
+    // run when the tablets of a report are diffed with the inverted index
+    private Runnable onTabletReport;
+
+    @Before
+    public void setUp() {
+        fullTabletReportIntervalSecond = Config.full_tablet_report_interval_second;
+        backendReportVersion = -1L;
+        onTabletReport = null;
+        new MockUp<SystemInfoService>() {
+            @Mock
+            public long getBackendReportVersion(long backendId) {
+                return backendReportVersion;
+            }
+        };
+        systemInfoService = new SystemInfoService();
+        systemInfoService.addBackend(new Backend(BACKEND_ID, "127.0.0.1", 9050));
+        Catalog catalog = Deencapsulation.newInstance(Catalog.class);
+        TabletInvertedIndex invertedIndex = new TabletInvertedIndex();
+        new MockUp<Catalog>() {
+            @Mock
+            public Catalog getCurrentCatalog() {
+                return catalog;
+            }
+
+            @Mock
+            public SystemInfoService getCurrentSystemInfo() {
+                return systemInfoService;
+            }
+
+            @Mock
+            public TabletInvertedIndex getCurrentInvertedIndex() {
+                if (onTabletReport != null) {
+                    onTabletReport.run();
+                }
+                return invertedIndex;
+            }
+
+            @Mock
+            public HashMap<Long, TStorageMedium> getPartitionIdToStorageMediumMap() {
+                return Maps.newHashMap();
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        Config.full_tablet_report_interval_second = fullTabletReportIntervalSecond;
+    }
+
+    private static ReportHandler.ReportTask fullReport(ReportHandler handler, long reportVersion) {
+        return handler.new ReportTask(BACKEND_ID, null, null, Maps.newHashMap(), reportVersion, null, -1);
+    }
+
+    private static ReportHandler.ReportTask incrementalReport(ReportHandler handler, long reportVersion,
+                                                              long baseTabletReportVersion) {
+        List<Long> removedTabletIds = Lists.newArrayList();
+        return handler.new ReportTask(BACKEND_ID, null, null, Maps.newHashMap(), reportVersion, removedTabletIds,
+                baseTabletReportVersion);
+    }
+
+    private static ReportHandler.TabletReportState getState(ReportHandler handler) {
+        Map<Long, ReportHandler.TabletReportState> states = Deencapsulation.getField(handler, "tabletReportStates");
+        return states.get(BACKEND_ID);
+    }
+
+    @Test
+    public void testIncrementalReportAfterFullReport() {
+        ReportHandler handler = new ReportHandler();
+        fullReport(handler, 1L).exec();
+        Assert.assertTrue(handler.canAcceptIncrementalTabletReport(BACKEND_ID, 1L));
+        incrementalReport(handler, 2L, 1L).exec();
+        Assert.assertEquals(2L, getState(handler).reportVersion);
+        Assert.assertTrue(handler.canAcceptIncrementalTabletReport(BACKEND_ID, 2L));
+    }
+
+    @Test
+    public void testBaseVersionMismatch() {
+        ReportHandler handler = new ReportHandler();
+        fullReport(handler, 1L).exec();
+        Assert.assertFalse(handler.canAcceptIncrementalTabletReport(BACKEND_ID, 0L));
+
+        // the base report is replaced by another full report after the incremental one is accepted
+        ReportHandler.ReportTask incremental = incrementalReport(handler, 3L, 1L);
+        fullReport(handler, 2L).exec();
+        Assert.assertEquals(2L, getState(handler).reportVersion);
+        incremental.exec();
+        Assert.assertNull(getState(handler));
+        Assert.assertFalse(handler.canAcceptIncrementalTabletReport(BACKEND_ID, 2L));
+    }
+
+    @Test
+    public void testOutOfDateReportDropped() {
+        ReportHandler handler = new ReportHandler();
+        fullReport(handler, 1L).exec();
+
+        // the report version of backend is updated by a finished task after the report is sent
+        backendReportVersion = 3L;
+        incrementalReport(handler, 2L, 1L).exec();
+        Assert.assertNull(getState(handler));
+        Assert.assertFalse(handler.canAcceptIncrementalTabletReport(BACKEND_ID, 2L));
+
+        fullReport(handler, 4L).exec();
+        Assert.assertTrue(handler.canAcceptIncrementalTabletReport(BACKEND_ID, 4L));
+    }
+
+    @Test
+    public void testFullReportIntervalExpired() {
+        ReportHandler handler = new ReportHandler();
+        fullReport(handler, 1L).exec();
+        incrementalReport(handler, 2L, 1L).exec();
+        Assert.assertEquals(2L, getState(handler).reportVersion);
+
+        Config.full_tablet_report_interval_second = 0;
+        Assert.assertFalse(handler.canAcceptIncrementalTabletReport(BACKEND_ID, 2L));
+
+        // the incremental report keeps the time of the last full report
+        Config.full_tablet_report_interval_second = 600;
+        long lastFullReportTime = getState(handler).lastFullReportTime;
+        incrementalReport(handler, 3L, 2L).exec();
+        Assert.assertEquals(3L, getState(handler).reportVersion);
+        Assert.assertEquals(lastFullReportTime, getState(handler).lastFullReportTime);
+    }
+
+    @Test
+    public void testLeaderChanged() {
+        ReportHandler oldLeader = new ReportHandler();
+        fullReport(oldLeader, 1L).exec();
+        Assert.assertTrue(oldLeader.canAcceptIncrementalTabletReport(BACKEND_ID, 1L));
+
+        // the new leader hasn't processed any tablet report of the backend
+        ReportHandler newLeader = new ReportHandler();
+        Assert.assertFalse(newLeader.canAcceptIncrementalTabletReport(BACKEND_ID, 1L));
+        incrementalReport(newLeader, 2L, 1L).exec();
+        Assert.assertNull(getState(newLeader));
+        fullReport(newLeader, 2L).exec();
+        Assert.assertTrue(newLeader.canAcceptIncrementalTabletReport(BACKEND_ID, 2L));
+    }
+
+    @Test
+    public void testRequireFullTabletReport() {
+        ReportHandler handler = new ReportHandler();
+        fullReport(handler, 1L).exec();
+
+        // a publish version or clone task failed on the backend
+        handler.requireFullTabletReport(BACKEND_ID);
+        Assert.assertFalse(handler.canAcceptIncrementalTabletReport(BACKEND_ID, 1L));
+        incrementalReport(handler, 2L, 1L).exec();
+        Assert.assertNull(getState(handler));
+        fullReport(handler, 2L).exec();
+        Assert.assertTrue(handler.canAcceptIncrementalTabletReport(BACKEND_ID, 2L));
+
+        // the task failed while processing an incremental report, the report doesn't override the requirement
+        onTabletReport = () -> handler.requireFullTabletReport(BACKEND_ID);
+        incrementalReport(handler, 3L, 2L).exec();
+        Assert.assertFalse(handler.canAcceptIncrementalTabletReport(BACKEND_ID, 3L));
+    }
+
+    @Test
+    public void testBackendDropped() {
+        ReportHandler handler = new ReportHandler();
+        fullReport(handler, 1L).exec();
+        Assert.assertNotNull(getState(handler));
+
+        // the backend is dropped while its report is in the queue
+        ReportHandler.ReportTask incremental = incrementalReport(handler, 2L, 1L);
+        systemInfoService.dropAllBackend();
+        incremental.exec();
+        Assert.assertNull(getState(handler));
+    }
+}
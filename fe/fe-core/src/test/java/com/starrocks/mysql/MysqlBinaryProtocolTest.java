@@ -0,0 +1,104 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.mysql;
+
+import com.google.common.collect.Lists;
+import com.starrocks.analysis.DecimalLiteral;
+import com.starrocks.analysis.IntLiteral;
+import com.starrocks.analysis.LargeIntLiteral;
+import com.starrocks.analysis.LiteralExpr;
+import com.starrocks.analysis.StringLiteral;
+import com.starrocks.catalog.Type;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+public class MysqlBinaryProtocolTest {
+
+    @Test
+    public void testToBinaryRow() {
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        serializer.writeLenEncodedString("1");
+        serializer.writeNull();
+        serializer.writeLenEncodedString("-2");
+        serializer.writeLenEncodedString("abc");
+        serializer.writeLenEncodedString("2021-01-02 03:04:05");
+        serializer.writeLenEncodedString("2021-01-02");
+        ByteBuffer textRow = serializer.toByteBuffer();
+
+        ByteBuffer row = MysqlBinaryProtocol.toBinaryRow(textRow, Lists.newArrayList(
+                MysqlColType.MYSQL_TYPE_TINY, MysqlColType.MYSQL_TYPE_LONGLONG, MysqlColType.MYSQL_TYPE_LONG,
+                MysqlColType.MYSQL_TYPE_VAR_STRING, MysqlColType.MYSQL_TYPE_DATETIME, MysqlColType.MYSQL_TYPE_DATE),
+                MysqlSerializer.newInstance());
+
+        Assert.assertEquals(0, MysqlProto.readInt1(row));
+        // the second column is null, it's the 4th bit with the 2 reserved bits
+        Assert.assertEquals(0x08, MysqlProto.readInt1(row));
+        Assert.assertEquals(0, MysqlProto.readInt1(row));
+        Assert.assertEquals(1, MysqlProto.readInt1(row));
+        Assert.assertEquals(-2, MysqlProto.readInt4(row));
+        Assert.assertEquals("abc", new String(MysqlProto.readLenEncodedString(row)));
+        Assert.assertEquals(7, MysqlProto.readInt1(row));
+        Assert.assertEquals(2021, MysqlProto.readInt2(row));
+        Assert.assertEquals(1, MysqlProto.readInt1(row));
+        Assert.assertEquals(2, MysqlProto.readInt1(row));
+        Assert.assertEquals(3, MysqlProto.readInt1(row));
+        Assert.assertEquals(4, MysqlProto.readInt1(row));
+        Assert.assertEquals(5, MysqlProto.readInt1(row));
+        Assert.assertEquals(4, MysqlProto.readInt1(row));
+        Assert.assertEquals(2021, MysqlProto.readInt2(row));
+        Assert.assertEquals(1, MysqlProto.readInt1(row));
+        Assert.assertEquals(2, MysqlProto.readInt1(row));
+        Assert.assertEquals(0, row.remaining());
+    }
+
+    @Test
+    public void testReadParam() throws Exception {
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        serializer.writeInt8(-1);
+        serializer.writeInt8(-1);
+        serializer.writeInt8(Double.doubleToLongBits(1.5));
+        serializer.writeLenEncodedString("it's \\");
+        serializer.writeInt1(4);
+        serializer.writeInt2(2021);
+        serializer.writeInt1(1);
+        serializer.writeInt1(2);
+        ByteBuffer buffer = serializer.toByteBuffer();
+
+        LiteralExpr literal = MysqlBinaryProtocol.readParam(buffer, 8);
+        Assert.assertTrue(literal instanceof IntLiteral);
+        Assert.assertEquals(-1, literal.getLongValue());
+        literal = MysqlBinaryProtocol.readParam(buffer, (MysqlBinaryProtocol.UNSIGNED_FLAG << 8) | 8);
+        Assert.assertTrue(literal instanceof LargeIntLiteral);
+        Assert.assertEquals("18446744073709551615", literal.getStringValue());
+        literal = MysqlBinaryProtocol.readParam(buffer, 5);
+        Assert.assertEquals(Type.DOUBLE, literal.getType());
+        Assert.assertEquals(1.5, literal.getDoubleValue(), 0);
+        literal = MysqlBinaryProtocol.readParam(buffer, 253);
+        Assert.assertTrue(literal instanceof StringLiteral);
+        Assert.assertEquals("it's \\", literal.getStringValue());
+        Assert.assertEquals("2021-01-02", MysqlBinaryProtocol.readParam(buffer, 10).getStringValue());
+        Assert.assertEquals(0, buffer.remaining());
+    }
+
+    @Test
+    public void testReadDecimalParam() throws Exception {
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        serializer.writeLenEncodedString("-12.340");
+        serializer.writeLenEncodedString("1E+3");
+        serializer.writeLenEncodedString("1 or 1=1");
+        ByteBuffer buffer = serializer.toByteBuffer();
+
+        LiteralExpr literal = MysqlBinaryProtocol.readParam(buffer, 246);
+        Assert.assertTrue(literal instanceof DecimalLiteral);
+        Assert.assertEquals("-12.340", literal.getStringValue());
+        Assert.assertEquals("1000", MysqlBinaryProtocol.readParam(buffer, 0).getStringValue());
+        try {
+            MysqlBinaryProtocol.readParam(buffer, 246);
+            Assert.fail("the invalid decimal should be rejected");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("Invalid decimal"));
+        }
+    }
+}
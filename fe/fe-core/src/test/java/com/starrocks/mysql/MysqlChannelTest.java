@@ -21,17 +21,24 @@
 
 package com.starrocks.mysql;
 
+import com.google.common.collect.Lists;
+import com.starrocks.thrift.TResultBatch;
 import mockit.Delegate;
 import mockit.Expectations;
 import mockit.Mocked;
+import org.apache.thrift.TDeserializer;
+import org.apache.thrift.TException;
+import org.apache.thrift.TSerializer;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
+import java.util.List;
 
 public class MysqlChannelTest {
     int packetId = 0;
@@ -300,4 +307,61 @@ public class MysqlChannelTest {
         Assert.fail("No Exception throws.");
     }
 
+    private ByteArrayOutputStream mockWrite() throws IOException {
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        new Expectations() {
+            {
+                channel.write((ByteBuffer) any);
+                minTimes = 0;
+                result = new Delegate() {
+                    int fakeWrite(ByteBuffer buffer) {
+                        int writeLen = buffer.remaining();
+                        while (buffer.hasRemaining()) {
+                            written.write(buffer.get());
+                        }
+                        return writeLen;
+                    }
+                };
+            }
+        };
+        return written;
+    }
+
+    private static List<ByteBuffer> createRows() {
+        return Lists.newArrayList(ByteBuffer.wrap("abc".getBytes()), ByteBuffer.wrap(new byte[0]),
+                ByteBuffer.wrap("de".getBytes()));
+    }
+
+    private static byte[] expectedPackets() {
+        return new byte[] {1, 0, 0, 0, 'x', 3, 0, 0, 1, 'a', 'b', 'c', 0, 0, 0, 2, 2, 0, 0, 3, 'd', 'e'};
+    }
+
+    @Test
+    public void testSendPacketsInPlace() throws IOException, TException {
+        ByteArrayOutputStream written = mockWrite();
+        TResultBatch batch = new TResultBatch();
+        batch.setRows(createRows());
+        batch.setIs_compressed(false);
+        batch.setPacket_seq(0);
+        TResultBatch deserialized = new TResultBatch();
+        new TDeserializer().deserialize(deserialized, new TSerializer().serialize(batch));
+
+        MysqlChannel channel1 = new MysqlChannel(channel);
+        // the packet in send buffer is sent before the rows
+        channel1.sendOnePacket(ByteBuffer.wrap("x".getBytes()));
+        channel1.sendPacketsInPlace(deserialized.getRows());
+        channel1.flush();
+        Assert.assertArrayEquals(expectedPackets(), written.toByteArray());
+    }
+
+    @Test
+    public void testSendPacketsNotInPlace() throws IOException {
+        ByteArrayOutputStream written = mockWrite();
+        MysqlChannel channel1 = new MysqlChannel(channel);
+        channel1.sendOnePacket(ByteBuffer.wrap("x".getBytes()));
+        // the rows are not in one array, they are copied to the send buffer
+        channel1.sendPacketsInPlace(createRows());
+        channel1.flush();
+        Assert.assertArrayEquals(expectedPackets(), written.toByteArray());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.persist;
+
+import com.google.common.collect.Lists;
+import com.starrocks.common.io.Text;
+import com.starrocks.journal.JournalEntity;
+import mockit.Mock;
+import mockit.MockUp;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class EditLogWriterTest {
+
+    @Test
+    public void testGroupCommit() throws Exception {
+        List<String> written = Collections.synchronizedList(Lists.newArrayList());
+        List<Integer> batchSizes = Collections.synchronizedList(Lists.newArrayList());
+        new MockUp<EditLog>() {
+            @Mock
+            public void $init(String nodeName) {
+            }
+
+            @Mock
+            void logEditBatch(List<JournalEntity> entities) throws InterruptedException {
+                batchSizes.add(entities.size());
+                for (JournalEntity entity : entities) {
+                    written.add(entity.getData().toString());
+                }
+                // slow commit, so that the journals are queued
+                Thread.sleep(5);
+            }
+        };
+
+        EditLogWriter writer = new EditLogWriter(new EditLog("test"));
+        writer.start();
+
+        int threadNum = 8;
+        int journalNum = 50;
+        List<Thread> threads = Lists.newArrayList();
+        for (int i = 0; i < threadNum; i++) {
+            int threadId = i;
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < journalNum; j++) {
+                    writer.write(OperationType.OP_SAVE_NEXTID, new Text(threadId + "_" + j));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertEquals(threadNum * journalNum, written.size());
+        Assert.assertEquals(threadNum * journalNum, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        Assert.assertTrue(batchSizes.size() < threadNum * journalNum);
+
+        // the journals of one thread are written in order
+        Map<String, Integer> lastIndex = new ConcurrentHashMap<>();
+        for (String journal : written) {
+            String[] parts = journal.split("_");
+            int index = Integer.parseInt(parts[1]);
+            Assert.assertEquals(lastIndex.getOrDefault(parts[0], -1) + 1, index);
+            lastIndex.put(parts[0], index);
+        }
+    }
+}
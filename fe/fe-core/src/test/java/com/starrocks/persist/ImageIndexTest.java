@@ -0,0 +1,120 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.persist;
+
+import com.starrocks.common.io.Text;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+public class ImageIndexTest {
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("image", ".test");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    // header: one long, db: db count and two dbs, tail: one checksum, then the index
+    private void writeImage() throws IOException {
+        ImageSectionOutputStream out = new ImageSectionOutputStream(new FileOutputStream(file));
+        try (DataOutputStream dos = new DataOutputStream(out)) {
+            out.beginSection("header");
+            dos.writeLong(1L);
+            out.endSection();
+
+            out.beginSection("db");
+            dos.writeInt(2);
+            for (int i = 0; i < 2; i++) {
+                out.beginSection("db/" + i);
+                Text.writeString(dos, "db" + i);
+                dos.writeLong(i);
+                out.endSection();
+            }
+            out.endSection();
+
+            dos.writeLong(100L);
+            out.getIndex().write(dos, out.getPosition());
+        }
+    }
+
+    @Test
+    public void testReadIndex() throws IOException {
+        writeImage();
+        ImageIndex index = ImageIndex.read(file);
+        Assert.assertNotNull(index);
+        List<ImageIndex.Section> sections = index.getSections();
+        Assert.assertEquals(4, sections.size());
+        Assert.assertEquals("header", sections.get(0).getName());
+        Assert.assertEquals(0, sections.get(0).getOffset());
+        Assert.assertEquals(8, sections.get(0).getLength());
+        // the outer section is before its sub sections
+        Assert.assertEquals("db", sections.get(1).getName());
+        Assert.assertEquals(8, sections.get(1).getOffset());
+        Assert.assertEquals(sections.get(2).getLength() + sections.get(3).getLength() + 4,
+                sections.get(1).getLength());
+
+        List<ImageIndex.Section> dbSections = index.getSections("db/");
+        Assert.assertEquals(2, dbSections.size());
+        Assert.assertEquals(12, dbSections.get(0).getOffset());
+        Assert.assertEquals(dbSections.get(0).getOffset() + dbSections.get(0).getLength(),
+                dbSections.get(1).getOffset());
+
+        // the old loader reads the image sequentially and stops at the checksum
+        try (DataInputStream dis = new DataInputStream(new FileInputStream(file))) {
+            Assert.assertEquals(1L, dis.readLong());
+            Assert.assertEquals(2, dis.readInt());
+            for (int i = 0; i < 2; i++) {
+                Assert.assertEquals("db" + i, Text.readString(dis));
+                Assert.assertEquals(i, dis.readLong());
+            }
+            Assert.assertEquals(100L, dis.readLong());
+        }
+    }
+
+    @Test
+    public void testReadSection() throws IOException {
+        writeImage();
+        ImageIndex index = ImageIndex.read(file);
+        for (boolean useMmap : new boolean[] {false, true}) {
+            // read in reverse order to make sure the sections are independent
+            List<ImageIndex.Section> dbSections = index.getSections("db/");
+            for (int i = dbSections.size() - 1; i >= 0; i--) {
+                ImageIndex.Section section = dbSections.get(i);
+                CheckedInputStream in = new CheckedInputStream(ImageIndex.openSection(file, section, useMmap),
+                        new CRC32());
+                try (DataInputStream dis = new DataInputStream(in)) {
+                    Assert.assertEquals("db" + i, Text.readString(dis));
+                    Assert.assertEquals(i, dis.readLong());
+                    Assert.assertEquals(-1, dis.read());
+                    Assert.assertEquals(section.getChecksum(), in.getChecksum().getValue());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testNoIndex() throws IOException {
+        try (DataOutputStream dos = new DataOutputStream(new FileOutputStream(file))) {
+            dos.writeLong(1L);
+            dos.writeLong(100L);
+        }
+        Assert.assertNull(ImageIndex.read(file));
+    }
+}
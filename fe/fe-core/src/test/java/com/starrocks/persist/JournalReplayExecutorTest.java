@@ -0,0 +1,80 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.persist;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.common.io.Text;
+import com.starrocks.journal.JournalEntity;
+import com.starrocks.transaction.TransactionState;
+import mockit.Mock;
+import mockit.MockUp;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class JournalReplayExecutorTest {
+
+    private static JournalEntity createJournal(short opCode, Writable data) {
+        JournalEntity journal = new JournalEntity();
+        journal.setOpCode(opCode);
+        journal.setData(data);
+        return journal;
+    }
+
+    private static JournalEntity createReplicaJournal(long dbId, long tabletId) {
+        return createJournal(OperationType.OP_DELETE_REPLICA,
+                ReplicaPersistInfo.createForDelete(dbId, 1, 2, 3, tabletId, 4));
+    }
+
+    @Test
+    public void testGetReplayKey() {
+        TransactionState state = new TransactionState(10, Lists.newArrayList(1L), 100, "label", null,
+                TransactionState.LoadJobSourceType.BACKEND_STREAMING, null, -1, 1000);
+        Assert.assertEquals(10,
+                JournalReplayExecutor.getReplayKey(createJournal(OperationType.OP_UPSERT_TRANSACTION_STATE, state)));
+        Assert.assertEquals(20, JournalReplayExecutor.getReplayKey(createReplicaJournal(20, 1)));
+        Assert.assertEquals(-1,
+                JournalReplayExecutor.getReplayKey(createJournal(OperationType.OP_SAVE_NEXTID, new Text("1"))));
+    }
+
+    @Test
+    public void testReplayInOrderOfKey() {
+        Map<Long, List<Long>> replayed = Maps.newConcurrentMap();
+        new MockUp<EditLog>() {
+            @Mock
+            public void loadJournal(Catalog catalog, JournalEntity journal) {
+                ReplicaPersistInfo info = (ReplicaPersistInfo) journal.getData();
+                replayed.computeIfAbsent(info.getDbId(), k -> Collections.synchronizedList(Lists.newArrayList()))
+                        .add(info.getTabletId());
+            }
+        };
+
+        JournalReplayExecutor executor = new JournalReplayExecutor(3);
+        try {
+            for (long tabletId = 0; tabletId < 100; tabletId++) {
+                for (long dbId = 0; dbId < 5; dbId++) {
+                    JournalEntity journal = createReplicaJournal(dbId, tabletId);
+                    executor.submit(null, JournalReplayExecutor.getReplayKey(journal), journal);
+                }
+            }
+            Assert.assertEquals(500, executor.getPendingNum());
+            executor.waitAll();
+            Assert.assertEquals(0, executor.getPendingNum());
+        } finally {
+            executor.shutdown();
+        }
+
+        Assert.assertEquals(5, replayed.size());
+        for (List<Long> tabletIds : replayed.values()) {
+            Assert.assertEquals(100, tabletIds.size());
+            for (int i = 0; i < 100; i++) {
+                Assert.assertEquals(i, tabletIds.get(i).longValue());
+            }
+        }
+    }
+}
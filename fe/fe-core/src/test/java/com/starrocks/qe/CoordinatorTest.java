@@ -292,6 +292,37 @@ public class CoordinatorTest extends Coordinator {
         Assert.assertEquals(0, shuffleFragmentParam.destinations.get(2).getServer().port);
     }
 
+    private static void setDestination(PlanFragment fragment, PlanFragment destFragment, int nodeId) {
+        OlapScanNode scanNode = new OlapScanNode(new PlanNodeId(nodeId), new TupleDescriptor(new TupleId(nodeId)),
+                null);
+        scanNode.setFragment(fragment);
+        ExchangeNode exchangeNode = new ExchangeNode(new PlanNodeId(nodeId + 1), scanNode);
+        exchangeNode.setFragment(destFragment);
+        fragment.setDestination(exchangeNode);
+    }
+
+    @Test
+    public void testGetFragmentLevel() {
+        // fragment 1 and 2 are the children of join in fragment 0, fragment 3 sends data to fragment 2
+        PlanFragment root = new PlanFragment(new PlanFragmentId(0), null, null);
+        PlanFragment left = new PlanFragment(new PlanFragmentId(1), null, null);
+        PlanFragment right = new PlanFragment(new PlanFragmentId(2), null, null);
+        PlanFragment bottom = new PlanFragment(new PlanFragmentId(3), null, null);
+        setDestination(left, root, 0);
+        setDestination(right, root, 2);
+        setDestination(bottom, right, 4);
+
+        Map<PlanFragmentId, Integer> fragmentLevels = Maps.newHashMap();
+        Assert.assertEquals(2, (int) Deencapsulation.invoke(Coordinator.class, "getFragmentLevel", bottom,
+                fragmentLevels));
+        Assert.assertEquals(1, (int) Deencapsulation.invoke(Coordinator.class, "getFragmentLevel", left,
+                fragmentLevels));
+        Assert.assertEquals(0, (int) Deencapsulation.invoke(Coordinator.class, "getFragmentLevel", root,
+                fragmentLevels));
+        Assert.assertEquals(ImmutableMap.of(root.getFragmentId(), 0, left.getFragmentId(), 1,
+                right.getFragmentId(), 1, bottom.getFragmentId(), 2), fragmentLevels);
+    }
+
     private TScanRangeLocations createScanRangeLocations(String fileName, List<String> hosts, long scanRangeBytes) {
         TScanRangeLocations scanRangeLocations = new TScanRangeLocations();
 
@@ -0,0 +1,156 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.qe;
+
+import com.google.common.collect.Lists;
+import com.starrocks.analysis.QueryStmt;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.Replica;
+import com.starrocks.catalog.Tablet;
+import com.starrocks.mysql.MysqlChannel;
+import com.starrocks.mysql.MysqlProto;
+import com.starrocks.mysql.MysqlSerializer;
+import com.starrocks.sql.plan.ExecPlan;
+import com.starrocks.utframe.StarRocksAssert;
+import com.starrocks.utframe.UtFrameUtils;
+import mockit.Deencapsulation;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+public class PartitionResultCacheTest {
+    private static String runningDir = "fe/mocked/PartitionResultCacheTest/" + UUID.randomUUID().toString() + "/";
+    private static ConnectContext connectContext;
+
+    private final List<String> sentRows = Lists.newArrayList();
+    // record the value of first column of the sent rows
+    private final MysqlChannel channel = new MysqlChannel(null) {
+        @Override
+        public void sendPacketsInPlace(List<ByteBuffer> packets) {
+            for (ByteBuffer packet : packets) {
+                sentRows.add(new String(MysqlProto.readLenEncodedString(packet.duplicate()), StandardCharsets.UTF_8));
+            }
+        }
+    };
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        UtFrameUtils.createMinStarRocksCluster(runningDir);
+        connectContext = UtFrameUtils.createDefaultCtx();
+        StarRocksAssert starRocksAssert = new StarRocksAssert(connectContext);
+        starRocksAssert.withDatabase("test").useDatabase("test");
+        starRocksAssert.enableNewPlanner();
+        starRocksAssert.withTable("CREATE TABLE test.t_range(dt date, k int, v int) DUPLICATE KEY(dt, k) "
+                + "PARTITION BY RANGE(dt) (PARTITION p1 VALUES LESS THAN ('2021-01-02'), "
+                + "PARTITION p2 VALUES LESS THAN ('2021-01-03'), PARTITION p3 VALUES LESS THAN ('2021-01-04')) "
+                + "DISTRIBUTED BY HASH(k) BUCKETS 1 PROPERTIES('replication_num' = '1');");
+        Deencapsulation.setField(connectContext.getSessionVariable(), "queryCacheType", 1);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        File file = new File(runningDir);
+        file.delete();
+    }
+
+    @Before
+    public void setUp() {
+        QueryResultCache.INSTANCE.clear();
+        sentRows.clear();
+    }
+
+    private static class PlannedQuery {
+        private final ExecPlan execPlan;
+        private final PartitionResultCache cache;
+
+        PlannedQuery(String sql) throws Exception {
+            QueryStmt queryStmt = (QueryStmt) UtFrameUtils.parseStmtWithNewAnalyzer(sql, connectContext);
+            execPlan = UtFrameUtils.getNewPlanAndFragment(connectContext, sql).second;
+            cache = PartitionResultCache.create(connectContext, queryStmt, sql, execPlan.getScanNodes(),
+                    execPlan.getColNames(), execPlan.getOutputExprs());
+        }
+
+        int getScanRangeNum() {
+            return execPlan.getScanNodes().get(0).getScanRangeLocations(0).size();
+        }
+    }
+
+    private static ByteBuffer createRow(String dt, long count) {
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        serializer.writeLenEncodedString(dt);
+        serializer.writeLenEncodedString(String.valueOf(count));
+        return serializer.toByteBuffer();
+    }
+
+    private static void loadPartition(String partitionName) {
+        Database db = Catalog.getCurrentCatalog().getDb("default_cluster:test");
+        OlapTable table = (OlapTable) db.getTable("t_range");
+        Partition partition = table.getPartition(partitionName);
+        long version = partition.getVisibleVersion() + 1;
+        long versionHash = partition.getVisibleVersionHash();
+        for (Tablet tablet : partition.getBaseIndex().getTablets()) {
+            for (Replica replica : tablet.getReplicas()) {
+                replica.updateVersionInfo(version, versionHash, 0, 0);
+            }
+        }
+        partition.updateVisibleVersionAndVersionHash(version, versionHash);
+    }
+
+    @Test
+    public void testCreate() throws Exception {
+        Assert.assertNotNull(new PlannedQuery("select dt, count(*) from t_range group by dt").cache);
+        Assert.assertNotNull(new PlannedQuery("select k, dt as d, sum(v) from t_range where dt > '2021-01-01' "
+                + "group by dt, k having sum(v) > 1 order by d desc").cache);
+
+        // not grouped by partition column
+        Assert.assertNull(new PlannedQuery("select k, count(*) from t_range group by k").cache);
+        Assert.assertNull(new PlannedQuery("select count(*) from t_range group by dt").cache);
+        // the rows of partitions are limited or sorted together
+        Assert.assertNull(new PlannedQuery("select dt, count(*) from t_range group by dt limit 1").cache);
+        Assert.assertNull(new PlannedQuery("select dt, count(*) from t_range group by dt order by 2").cache);
+        Assert.assertNull(new PlannedQuery("select dt, sum(count(*)) over() from t_range group by dt").cache);
+        Assert.assertNull(new PlannedQuery("select dt, count(*) from t_range group by rollup(dt)").cache);
+    }
+
+    @Test
+    public void testMergeCachedPartitions() throws Exception {
+        String sql = "select dt, count(*) from t_range group by dt order by dt";
+        PlannedQuery query = new PlannedQuery(sql);
+        Assert.assertEquals(QueryResultCache.STATUS_MISS, query.cache.lookup());
+        Assert.assertEquals(3, query.getScanRangeNum());
+        Assert.assertEquals(0, query.cache.sendRows(channel,
+                Lists.newArrayList(createRow("2021-01-01", 1), createRow("2021-01-02", 2))));
+        Assert.assertEquals(0, query.cache.sendRows(channel, Lists.newArrayList(createRow("2021-01-03", 3))));
+        Assert.assertEquals(0, query.cache.finish(channel));
+        Assert.assertEquals(3, QueryResultCache.INSTANCE.getEntryNum());
+
+        // only the loaded partition is executed
+        loadPartition("p2");
+        sentRows.clear();
+        query = new PlannedQuery(sql);
+        Assert.assertEquals(QueryResultCache.STATUS_PARTIAL_HIT, query.cache.lookup());
+        Assert.assertFalse(query.cache.isAllCached());
+        Assert.assertEquals(1, query.getScanRangeNum());
+        Assert.assertEquals(1, query.cache.sendRows(channel, Lists.newArrayList(createRow("2021-01-02", 20))));
+        Assert.assertEquals(1, query.cache.finish(channel));
+        Assert.assertEquals(Lists.newArrayList("2021-01-01", "2021-01-02", "2021-01-03"), sentRows);
+
+        sentRows.clear();
+        query = new PlannedQuery(sql);
+        Assert.assertEquals(QueryResultCache.STATUS_HIT, query.cache.lookup());
+        Assert.assertTrue(query.cache.isAllCached());
+        Assert.assertEquals(3, query.cache.finish(channel));
+        Assert.assertEquals(Lists.newArrayList("2021-01-01", "2021-01-02", "2021-01-03"), sentRows);
+    }
+}
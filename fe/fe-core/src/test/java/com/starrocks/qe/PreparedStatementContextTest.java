@@ -0,0 +1,117 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.qe;
+
+import com.google.common.collect.Lists;
+import com.starrocks.analysis.PlaceholderExpr;
+import com.starrocks.analysis.QueryStmt;
+import com.starrocks.analysis.SelectStmt;
+import com.starrocks.analysis.SqlParser;
+import com.starrocks.analysis.SqlScanner;
+import com.starrocks.analysis.StatementBase;
+import com.starrocks.analysis.StringLiteral;
+import com.starrocks.common.AnalysisException;
+import com.starrocks.common.util.SqlParserUtils;
+import com.starrocks.mysql.MysqlSerializer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class PreparedStatementContextTest {
+
+    @Test
+    public void testSplitByPlaceholder() {
+        Assert.assertEquals(Lists.newArrayList("select * from t where a = ", " and b = ", ""),
+                PreparedStatementContext.splitByPlaceholder("select * from t where a = ? and b = ?"));
+        Assert.assertEquals(Lists.newArrayList("select '?', \"a\\\"?\", `?` from t /* ? */ where a = ", " -- ?\n"),
+                PreparedStatementContext.splitByPlaceholder(
+                        "select '?', \"a\\\"?\", `?` from t /* ? */ where a = ? -- ?\n"));
+        Assert.assertEquals(Lists.newArrayList("select 'it''s ?'"),
+                PreparedStatementContext.splitByPlaceholder("select 'it''s ?'"));
+    }
+
+    private static PreparedStatementContext prepare(String sql) throws Exception {
+        SqlParser parser = new SqlParser(new SqlScanner(new StringReader(sql)));
+        StatementBase stmt = SqlParserUtils.getFirstStmt(parser);
+        return new PreparedStatementContext(1, sql, stmt, parser.placeholders);
+    }
+
+    @Test
+    public void testBind() throws Exception {
+        PreparedStatementContext stmt = prepare("select * from t where a = ? and b = ? and c = ?");
+        Assert.assertEquals(3, stmt.getParamNum());
+        Assert.assertTrue(stmt.isQuery());
+
+        // the second parameter is null
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        serializer.writeInt1(0x02);
+        serializer.writeInt1(1);
+        serializer.writeInt2(8);
+        serializer.writeInt2(8);
+        serializer.writeInt2(253);
+        serializer.writeInt8(10);
+        serializer.writeLenEncodedString("x'y");
+        QueryStmt boundStmt = stmt.bind(serializer.toByteBuffer());
+        Assert.assertEquals("select * from t where a = 10 and b = NULL and c = 'x\\'y'",
+                boundStmt.getOrigStmt().originStmt);
+        // the bound statement only contains literals
+        List<PlaceholderExpr> placeholders = Lists.newArrayList();
+        ((SelectStmt) boundStmt).getWhereClause().collect(PlaceholderExpr.class, placeholders);
+        Assert.assertTrue(placeholders.isEmpty());
+        List<StringLiteral> strings = Lists.newArrayList();
+        ((SelectStmt) boundStmt).getWhereClause().collect(StringLiteral.class, strings);
+        Assert.assertEquals(1, strings.size());
+        Assert.assertEquals("x'y", strings.get(0).getStringValue());
+
+        // the types are not sent again, and the third parameter is sent as long data
+        stmt.appendLongData(2, "long".getBytes(StandardCharsets.UTF_8));
+        serializer.reset();
+        serializer.writeInt1(0x00);
+        serializer.writeInt1(0);
+        serializer.writeInt8(20);
+        serializer.writeInt8(30);
+        Assert.assertEquals("select * from t where a = 20 and b = 30 and c = 'long'",
+                stmt.bind(serializer.toByteBuffer()).getOrigStmt().originStmt);
+    }
+
+    @Test
+    public void testBindLimit() throws Exception {
+        PreparedStatementContext stmt = prepare("select * from t where a = ? limit ?, ?");
+        Assert.assertEquals(3, stmt.getParamNum());
+
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        serializer.writeInt1(0x00);
+        serializer.writeInt1(1);
+        serializer.writeInt2(8);
+        serializer.writeInt2(8);
+        serializer.writeInt2(253);
+        serializer.writeInt8(1);
+        serializer.writeInt8(5);
+        // the count can be sent as string
+        serializer.writeLenEncodedString("10");
+        QueryStmt boundStmt = stmt.bind(serializer.toByteBuffer());
+        Assert.assertEquals(5, boundStmt.getOffset());
+        Assert.assertEquals(10, boundStmt.getLimit());
+
+        serializer.reset();
+        serializer.writeInt1(0x00);
+        serializer.writeInt1(0);
+        serializer.writeInt8(1);
+        serializer.writeInt8(-1);
+        serializer.writeLenEncodedString("10");
+        try {
+            stmt.bind(serializer.toByteBuffer());
+            Assert.fail("the negative offset should be rejected");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("non-negative integer"));
+        }
+    }
+
+    @Test(expected = AnalysisException.class)
+    public void testParamsOfNonQuery() throws Exception {
+        prepare("insert into t values (?, ?)");
+    }
+}
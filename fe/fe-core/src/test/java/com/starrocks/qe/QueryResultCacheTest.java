@@ -0,0 +1,157 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.qe;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.IntLiteral;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Table;
+import com.starrocks.planner.OlapScanNode;
+import com.starrocks.planner.ScanNode;
+import mockit.Deencapsulation;
+import mockit.Expectations;
+import mockit.Mocked;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+public class QueryResultCacheTest {
+    @Mocked
+    private OlapScanNode scanNode;
+    @Mocked
+    private OlapTable table;
+
+    private long queryCacheSize;
+    private long queryCacheLimit;
+
+    @Before
+    public void setUp() {
+        queryCacheSize = GlobalVariable.queryCacheSize;
+        queryCacheLimit = GlobalVariable.queryCacheLimit;
+    }
+
+    @After
+    public void tearDown() {
+        GlobalVariable.queryCacheSize = queryCacheSize;
+        GlobalVariable.queryCacheLimit = queryCacheLimit;
+    }
+
+    private static List<ByteBuffer> createRows(String... rows) {
+        List<ByteBuffer> buffers = Lists.newArrayList();
+        for (String row : rows) {
+            buffers.add(ByteBuffer.wrap(row.getBytes()));
+        }
+        return buffers;
+    }
+
+    private static byte[] buildResult(String... rows) throws IOException {
+        QueryResultCache.ResultBuilder builder = new QueryResultCache.ResultBuilder();
+        builder.addRows(createRows(rows));
+        return builder.build();
+    }
+
+    private static QueryResultCache.Key createKey(String stmt, long version) {
+        return new QueryResultCache.Key(stmt, ImmutableMap.of(1L, version));
+    }
+
+    @Test
+    public void testGetAndPut() throws IOException {
+        QueryResultCache cache = new QueryResultCache();
+        Assert.assertNull(cache.get(createKey("q1", 2)));
+        cache.put(createKey("q1", 2), buildResult("abc", "", "de"));
+        Assert.assertEquals(1, cache.getEntryNum());
+
+        List<ByteBuffer> rows = cache.get(createKey("q1", 2));
+        Assert.assertEquals(createRows("abc", "", "de"), rows);
+        // the rows are preceded by the space of mysql packet header
+        Assert.assertEquals(4, rows.get(0).position());
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+
+        // the partition is loaded, the entry is stale
+        Assert.assertNull(cache.get(createKey("q1", 3)));
+        Assert.assertEquals(0, cache.getEntryNum());
+        Assert.assertEquals(0, cache.getTotalBytes());
+    }
+
+    @Test
+    public void testEvict() throws IOException {
+        GlobalVariable.queryCacheSize = 70;
+        QueryResultCache cache = new QueryResultCache();
+        byte[] result = buildResult("0123456789", "0123456789");
+        cache.put(createKey("q1", 1), result);
+        cache.put(createKey("q2", 1), result);
+        Assert.assertNotNull(cache.get(createKey("q1", 1)));
+        // q2 is the least recently used one
+        cache.put(createKey("q3", 1), result);
+        Assert.assertEquals(2, cache.getEntryNum());
+        Assert.assertTrue(cache.getTotalBytes() <= 70);
+        Assert.assertNotNull(cache.get(createKey("q1", 1)));
+        Assert.assertNull(cache.get(createKey("q2", 1)));
+        Assert.assertNotNull(cache.get(createKey("q3", 1)));
+    }
+
+    @Test
+    public void testResultLimit() throws IOException {
+        GlobalVariable.queryCacheLimit = 10;
+        Assert.assertNotNull(buildResult("abc"));
+        Assert.assertNull(buildResult("abc", "0123456789"));
+    }
+
+    @Test
+    public void testCreateKey() {
+        Map<Long, Long> partitionVersions = ImmutableMap.of(10L, 2L, 11L, 3L);
+        new Expectations() {
+            {
+                scanNode.getOlapTable();
+                minTimes = 0;
+                result = table;
+
+                table.getType();
+                minTimes = 0;
+                result = Table.TableType.OLAP;
+
+                scanNode.getScanPartitionVersions();
+                minTimes = 0;
+                result = partitionVersions;
+            }
+        };
+
+        ConnectContext context = new ConnectContext(null);
+        context.setDatabase("db");
+        List<ScanNode> scanNodes = Lists.newArrayList(scanNode);
+        List<String> colNames = Lists.newArrayList("k1");
+        List<Expr> outputExprs = Lists.newArrayList(new IntLiteral(1));
+        String sql = "select k1 from t";
+
+        // query_cache_type is OFF
+        Assert.assertNull(QueryResultCache.createKey(context, sql, scanNodes, colNames, outputExprs));
+
+        Deencapsulation.setField(context.getSessionVariable(), "queryCacheType", 1);
+        QueryResultCache.Key key = QueryResultCache.createKey(context, sql, scanNodes, colNames, outputExprs);
+        Assert.assertNotNull(key);
+        Assert.assertEquals(partitionVersions, key.getPartitionVersions());
+        Assert.assertTrue(key.getStmt().endsWith(sql));
+
+        // no olap table is scanned
+        Assert.assertNull(QueryResultCache.createKey(context, "select 1", Lists.newArrayList(),
+                colNames, outputExprs));
+
+        // the session variables changing the result are part of the key
+        context.getSessionVariable().setTimeZone("Asia/Tokyo");
+        Assert.assertNotEquals(key.getStmt(),
+                QueryResultCache.createKey(context, sql, scanNodes, colNames, outputExprs).getStmt());
+        context.getSessionVariable().setTimeZone(VariableMgr.newSessionVariable().getTimeZone());
+        Deencapsulation.setField(context.getSessionVariable(), "enableGroupbyUseOutputAlias", true);
+        Assert.assertNotEquals(key.getStmt(),
+                QueryResultCache.createKey(context, sql, scanNodes, colNames, outputExprs).getStmt());
+    }
+}
@@ -0,0 +1,112 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.qe;
+
+import com.google.common.collect.Lists;
+import com.starrocks.common.Config;
+import com.starrocks.common.Status;
+import com.starrocks.proto.PFetchDataResult;
+import com.starrocks.proto.PStatus;
+import com.starrocks.rpc.BackendServiceProxy;
+import com.starrocks.rpc.PFetchDataRequest;
+import com.starrocks.thrift.TNetworkAddress;
+import com.starrocks.thrift.TResultBatch;
+import com.starrocks.thrift.TUniqueId;
+import mockit.Mock;
+import mockit.MockUp;
+import org.apache.thrift.TSerializer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+public class ResultReceiverTest {
+    private int prefetchNum;
+
+    @Before
+    public void setUp() {
+        prefetchNum = Config.result_receiver_prefetch_num;
+    }
+
+    @After
+    public void tearDown() {
+        Config.result_receiver_prefetch_num = prefetchNum;
+    }
+
+    private static PFetchDataResult createResult(long packetSeq, boolean eos) {
+        PFetchDataResult result = new PFetchDataResult();
+        result.status = new PStatus();
+        result.status.status_code = 0;
+        result.packet_seq = packetSeq;
+        result.eos = eos;
+        return result;
+    }
+
+    // The backend has 3 batches, the first two packets are filled in the reverse order of requests
+    private List<PFetchDataRequest> mockBackend() {
+        List<PFetchDataRequest> requests = Lists.newArrayList();
+        new MockUp<BackendServiceProxy>() {
+            @Mock
+            public Future<PFetchDataResult> fetchDataAsync(TNetworkAddress address, PFetchDataRequest request)
+                    throws Exception {
+                int index = requests.size();
+                requests.add(request);
+                long packetSeq = index == 0 ? 1 : (index == 1 ? 0 : index);
+                if (packetSeq >= 3) {
+                    return CompletableFuture.completedFuture(createResult(3, true));
+                }
+                TResultBatch batch = new TResultBatch();
+                batch.setRows(Lists.newArrayList(ByteBuffer.wrap(new byte[] {(byte) packetSeq})));
+                batch.setIs_compressed(false);
+                batch.setPacket_seq(packetSeq);
+                request.setSerializedResult(new TSerializer().serialize(batch));
+                return CompletableFuture.completedFuture(createResult(packetSeq, false));
+            }
+        };
+        return requests;
+    }
+
+    @Test
+    public void testPrefetch() throws Exception {
+        Config.result_receiver_prefetch_num = 3;
+        List<PFetchDataRequest> requests = mockBackend();
+        ResultReceiver receiver = new ResultReceiver(new TUniqueId(1, 2), 1L, new TNetworkAddress("host", 8060),
+                10000);
+        Status status = new Status();
+        for (int i = 0; i < 3; i++) {
+            RowBatch batch = receiver.getNext(status);
+            Assert.assertTrue(status.ok());
+            Assert.assertFalse(batch.isEos());
+            Assert.assertEquals(i, batch.getBatch().getPacket_seq());
+        }
+        // the requests are sent before the batches are consumed
+        Assert.assertTrue(requests.size() >= 4);
+        RowBatch batch = receiver.getNext(status);
+        Assert.assertTrue(status.ok());
+        Assert.assertTrue(batch.isEos());
+        Assert.assertNull(receiver.getNext(status));
+    }
+
+    @Test
+    public void testWithoutPrefetch() throws Exception {
+        Config.result_receiver_prefetch_num = 1;
+        List<PFetchDataRequest> requests = mockBackend();
+        ResultReceiver receiver = new ResultReceiver(new TUniqueId(1, 2), 1L, new TNetworkAddress("host", 8060),
+                10000);
+        Status status = new Status();
+        for (int i = 0; i < 3; i++) {
+            RowBatch batch = receiver.getNext(status);
+            Assert.assertTrue(status.ok());
+            Assert.assertEquals(i, batch.getBatch().getPacket_seq());
+            // only one request is in flight, the packet received first is kept until it's expected
+            Assert.assertEquals(Math.max(i + 1, 2), requests.size());
+        }
+        Assert.assertTrue(receiver.getNext(status).isEos());
+        Assert.assertEquals(4, requests.size());
+    }
+}
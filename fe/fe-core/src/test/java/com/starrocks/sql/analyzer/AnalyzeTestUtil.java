@@ -140,6 +140,10 @@ public class AnalyzeTestUtil {
         return connectContext;
     }
 
+    public static StarRocksAssert getStarRocksAssert() {
+        return starRocksAssert;
+    }
+
     public static QueryRelation analyzeSuccess(String originStmt) {
         try {
             SqlScanner input =
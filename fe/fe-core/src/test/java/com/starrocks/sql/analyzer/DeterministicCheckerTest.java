@@ -0,0 +1,59 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+package com.starrocks.sql.analyzer;
+
+import com.starrocks.utframe.UtFrameUtils;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.UUID;
+
+import static com.starrocks.sql.analyzer.AnalyzeTestUtil.analyzeSuccess;
+
+public class DeterministicCheckerTest {
+    private static String runningDir = "fe/mocked/DeterministicChecker/" + UUID.randomUUID().toString() + "/";
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        UtFrameUtils.createMinStarRocksCluster(runningDir);
+        AnalyzeTestUtil.init();
+        AnalyzeTestUtil.getStarRocksAssert()
+                .withView("create view v_now as select v1, now() as t from t0")
+                .withView("create view v_plain as select v1, v2 + 1 as v from t0");
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        File file = new File(runningDir);
+        file.delete();
+    }
+
+    private static boolean isDeterministic(String sql) {
+        return DeterministicChecker.isDeterministic(analyzeSuccess(sql));
+    }
+
+    @Test
+    public void testDeterministic() {
+        Assert.assertTrue(isDeterministic("select v1, sum(v2) from t0 where v3 > 1 group by v1 order by v1"));
+        Assert.assertTrue(isDeterministic("select * from v_plain join t1 on v1 = v4"));
+        Assert.assertTrue(isDeterministic("select unix_timestamp('2021-01-01 00:00:00') from t0"));
+        Assert.assertTrue(isDeterministic("select v1 from t0 union all select v4 from t1"));
+    }
+
+    @Test
+    public void testNonDeterministic() {
+        Assert.assertFalse(isDeterministic("select v1, now() from t0"));
+        Assert.assertFalse(isDeterministic("select v1 from t0 where v2 < unix_timestamp()"));
+        Assert.assertFalse(isDeterministic("select v1 from t0 order by rand()"));
+        Assert.assertFalse(isDeterministic("select v1, database() from t0"));
+        Assert.assertFalse(isDeterministic("select v1 from t0 where v2 = @@sql_select_limit"));
+        // hidden in view, subquery, join predicate and set operation
+        Assert.assertFalse(isDeterministic("select v1 from v_now"));
+        Assert.assertFalse(isDeterministic("select v1 from t0 where v2 in (select v4 from t1 where v5 < rand())"));
+        Assert.assertFalse(isDeterministic("select v1 from t0 join t1 on v1 = v4 and v5 < rand()"));
+        Assert.assertFalse(isDeterministic("select v1 from t0 union all select v4 from t1 where v5 < rand()"));
+        Assert.assertFalse(isDeterministic("with w as (select v1, curdate() as d from t0) select v1 from w"));
+    }
+}
@@ -11,11 +11,16 @@ import com.starrocks.sql.optimizer.operator.logical.LogicalJoinOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalLimitOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalOlapScanOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalProjectOperator;
+import mockit.Deencapsulation;
 import mockit.Expectations;
 import mockit.Mocked;
 import org.junit.Test;
 
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class MemoTest {
     @Test
@@ -97,4 +102,132 @@ public class MemoTest {
         assertEquals(memo.getGroups().get(3).getPhysicalExpressions().size(), 0);
     }
 
+    @Test
+    public void testMergeGroup(@Mocked OlapTable olapTable1,
+                               @Mocked OlapTable olapTable2) {
+        new Expectations() {
+            {
+                olapTable1.getId();
+                result = 0;
+                minTimes = 0;
+
+                olapTable2.getId();
+                result = 1;
+                minTimes = 0;
+            }
+        };
+
+        LogicalOlapScanOperator scanOperator = new LogicalOlapScanOperator(olapTable1);
+        OptExpression expr = OptExpression.create(new LogicalJoinOperator(),
+                OptExpression.create(scanOperator),
+                OptExpression.create(new LogicalOlapScanOperator(olapTable2)));
+
+        Memo memo = new Memo();
+        memo.init(expr);
+        assertEquals(3, memo.getGroupNum());
+
+        // The same expression is inserted into group 1, so group 0 is merged into group 1
+        GroupExpression scanGroupExpression = new GroupExpression(scanOperator, Lists.newArrayList());
+        memo.insertGroupExpression(scanGroupExpression, memo.getGroups().get(1));
+
+        assertEquals(2, memo.getGroupNum());
+        assertEquals(3, memo.getCreatedGroupNum());
+        assertEquals(1, memo.getGroups().get(0).getId());
+        assertEquals(2, memo.getGroups().get(0).getLogicalExpressions().size());
+        assertEquals(3, memo.getGroupExpressions().size());
+
+        GroupExpression joinExpression = memo.getRootGroup().getFirstLogicalExpression();
+        assertEquals(1, joinExpression.inputAt(0).getId());
+        assertEquals(1, joinExpression.inputAt(1).getId());
+        assertEquals(joinExpression, memo.getGroupExpressions().get(joinExpression));
+        for (GroupExpression groupExpression : memo.getGroupExpressions().keySet()) {
+            assertTrue(memo.getGroups().contains(groupExpression.getGroup()));
+        }
+    }
+
+    @Test
+    public void testMergeGroupWithSelfReference(@Mocked OlapTable olapTable1,
+                                                @Mocked OlapTable olapTable2) {
+        new Expectations() {
+            {
+                olapTable1.getId();
+                result = 0;
+                minTimes = 0;
+
+                olapTable2.getId();
+                result = 1;
+                minTimes = 0;
+            }
+        };
+
+        LogicalOlapScanOperator scanOperator = new LogicalOlapScanOperator(olapTable1);
+        OptExpression expr = OptExpression.create(new LogicalJoinOperator(),
+                OptExpression.create(scanOperator),
+                OptExpression.create(new LogicalOlapScanOperator(olapTable2)));
+
+        Memo memo = new Memo();
+        memo.init(expr);
+        Group srcGroup = memo.getGroups().get(0);
+        Group dstGroup = memo.getGroups().get(1);
+
+        // The limit belongs to group 0 and takes group 0 as input
+        GroupExpression limitExpression = new GroupExpression(new LogicalLimitOperator(1, 1),
+                Lists.newArrayList(srcGroup));
+        memo.insertGroupExpression(limitExpression, srcGroup);
+        assertEquals(4, memo.getGroupExpressions().size());
+
+        // Group 0 is merged into group 1, the limit must be moved to group 1 rather than lost
+        memo.insertGroupExpression(new GroupExpression(scanOperator, Lists.newArrayList()), dstGroup);
+
+        assertEquals(2, memo.getGroupNum());
+        assertEquals(4, memo.getGroupExpressions().size());
+        assertSame(dstGroup, limitExpression.getGroup());
+        assertSame(dstGroup, limitExpression.inputAt(0));
+        assertSame(limitExpression, memo.getGroupExpressions().get(limitExpression));
+        assertEquals(3, dstGroup.getLogicalExpressions().size());
+        assertTrue(dstGroup.getLogicalExpressions().contains(limitExpression));
+
+        List<List<GroupExpression>> ownedExpressions = Deencapsulation.getField(memo, "ownedExpressions");
+        assertTrue(ownedExpressions.get(srcGroup.getId()).isEmpty());
+        assertTrue(ownedExpressions.get(dstGroup.getId()).stream().anyMatch(e -> e == limitExpression));
+        for (GroupExpression groupExpression : memo.getGroupExpressions().keySet()) {
+            assertTrue(memo.getGroups().contains(groupExpression.getGroup()));
+        }
+    }
+
+    @Test
+    public void testRemoveUnreachableGroup(@Mocked OlapTable olapTable1,
+                                           @Mocked OlapTable olapTable2) {
+        new Expectations() {
+            {
+                olapTable1.getId();
+                result = 0;
+                minTimes = 0;
+
+                olapTable2.getId();
+                result = 1;
+                minTimes = 0;
+            }
+        };
+
+        OptExpression expr = OptExpression.create(new LogicalProjectOperator(Maps.newHashMap()),
+                OptExpression.create(new LogicalJoinOperator(),
+                        OptExpression.create(new LogicalOlapScanOperator(olapTable1)),
+                        OptExpression.create(new LogicalOlapScanOperator(olapTable2))));
+
+        Memo memo = new Memo();
+        memo.init(expr);
+        assertEquals(4, memo.getGroupNum());
+
+        // Rewrite the root to Limit(Scan(olapTable1)), the join and the second scan become unreachable
+        Group scanGroup = memo.getGroups().get(0);
+        memo.replaceRewriteExpression(memo.getRootGroup(), OptExpression.create(new LogicalLimitOperator(1, 1),
+                new OptExpression(scanGroup.getFirstLogicalExpression())));
+        memo.removeUnreachableGroup();
+
+        assertEquals(2, memo.getGroupNum());
+        assertEquals(0, memo.getGroups().get(0).getId());
+        assertEquals(3, memo.getGroups().get(1).getId());
+        assertEquals(2, memo.getGroupExpressions().size());
+    }
 }
@@ -0,0 +1,129 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.base;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+public class ColumnRefSetTest {
+
+    private static ColumnRefSet create(int... ids) {
+        ColumnRefSet set = new ColumnRefSet();
+        for (int id : ids) {
+            set.union(id);
+        }
+        return set;
+    }
+
+    @Test
+    public void testBasic() {
+        ColumnRefSet set = new ColumnRefSet();
+        Assert.assertTrue(set.isEmpty());
+        Assert.assertEquals(0, set.getColumnIds().length);
+        Assert.assertEquals("{}", set.toString());
+
+        set = create(1, 63, 64, 200);
+        Assert.assertEquals(4, set.cardinality());
+        Assert.assertArrayEquals(new int[] {1, 63, 64, 200}, set.getColumnIds());
+        Assert.assertEquals(1, set.getFirstId());
+        Assert.assertEquals(64, set.nextId(64));
+        Assert.assertEquals(200, set.nextId(65));
+        Assert.assertEquals(-1, set.nextId(201));
+        Assert.assertTrue(set.contains(64));
+        Assert.assertFalse(set.contains(65));
+        Assert.assertFalse(set.contains(1000));
+        Assert.assertEquals("{1, 63, 64, 200}", set.toString());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testFirstIdOfEmptySet() {
+        new ColumnRefSet().getFirstId();
+    }
+
+    @Test
+    public void testEquals() {
+        ColumnRefSet set = create(1, 100);
+        ColumnRefSet other = create(1);
+        Assert.assertNotEquals(set, other);
+        set.except(create(100));
+        // the trailing zero words are ignored
+        Assert.assertEquals(set, other);
+        Assert.assertEquals(set.hashCode(), other.hashCode());
+        Assert.assertTrue(set.isSame(other));
+
+        ColumnRefSet clone = (ColumnRefSet) set.clone();
+        Assert.assertEquals(set, clone);
+        clone.union(2);
+        Assert.assertFalse(set.contains(2));
+    }
+
+    @Test
+    public void testSetOperations() {
+        ColumnRefSet set = create(1, 2, 70);
+        set.union(create(3, 130));
+        Assert.assertArrayEquals(new int[] {1, 2, 3, 70, 130}, set.getColumnIds());
+
+        set.intersect(create(2, 3, 70, 200));
+        Assert.assertArrayEquals(new int[] {2, 3, 70}, set.getColumnIds());
+
+        set.except(create(3, 300));
+        Assert.assertArrayEquals(new int[] {2, 70}, set.getColumnIds());
+
+        Assert.assertTrue(set.contains(create(70)));
+        Assert.assertTrue(set.contains(new ColumnRefSet()));
+        Assert.assertFalse(set.contains(create(2, 500)));
+        Assert.assertTrue(set.isIntersect(create(70, 500)));
+        Assert.assertFalse(set.isIntersect(create(3, 500)));
+
+        set.intersect(70);
+        Assert.assertArrayEquals(new int[] {70}, set.getColumnIds());
+        set.intersect(2);
+        Assert.assertTrue(set.isEmpty());
+    }
+
+    // Compare with java.util.BitSet
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(0);
+        for (int round = 0; round < 100; round++) {
+            ColumnRefSet left = new ColumnRefSet();
+            ColumnRefSet right = new ColumnRefSet();
+            BitSet leftBits = new BitSet();
+            BitSet rightBits = new BitSet();
+            for (int i = 0; i < 20; i++) {
+                int id = random.nextInt(300);
+                left.union(id);
+                leftBits.set(id);
+                id = random.nextInt(300);
+                right.union(id);
+                rightBits.set(id);
+            }
+            Assert.assertEquals(leftBits.intersects(rightBits), left.isIntersect(right));
+
+            BitSet expect = (BitSet) leftBits.clone();
+            ColumnRefSet actual = (ColumnRefSet) left.clone();
+            switch (round % 3) {
+                case 0:
+                    expect.or(rightBits);
+                    actual.union(right);
+                    break;
+                case 1:
+                    expect.and(rightBits);
+                    actual.intersect(right);
+                    break;
+                default:
+                    expect.andNot(rightBits);
+                    actual.except(right);
+                    break;
+            }
+            Assert.assertArrayEquals(expect.stream().toArray(), actual.getColumnIds());
+            Assert.assertEquals(expect.hashCode(), actual.hashCode());
+            Assert.assertEquals(expect.toString(), actual.toString());
+            Assert.assertTrue(left.contains(actual) || round % 3 == 0);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.statistics;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.KeysType;
+import com.starrocks.catalog.MaterializedIndex;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.RandomDistributionInfo;
+import com.starrocks.catalog.SinglePartitionInfo;
+import com.starrocks.catalog.Table;
+import com.starrocks.catalog.Type;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.statistic.StatisticExecutor;
+import com.starrocks.thrift.TGlobalDict;
+import com.starrocks.thrift.TStatisticData;
+import mockit.Deencapsulation;
+import mockit.Mock;
+import mockit.MockUp;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CacheDictManagerTest {
+    private static final long DB_ID = 10000L;
+    private static final long TABLE_ID = 10001L;
+
+    private CacheDictManager dictManager;
+    private Database db;
+    private Partition partition;
+    // The version time of the dict returned by statistic table
+    private volatile long dictVersionTime;
+    private final AtomicInteger queryCount = new AtomicInteger(0);
+    private final Map<String, ColumnStatistic> loadedStatistics = Maps.newHashMap();
+
+    @Before
+    public void setUp() {
+        dictManager = Deencapsulation.newInstance(CacheDictManager.class);
+
+        List<Column> schema = Lists.newArrayList(new Column("k1", Type.INT), new Column("c1", Type.VARCHAR),
+                new Column("c2", Type.VARCHAR), new Column("c3", Type.VARCHAR));
+        OlapTable table = new OlapTable(TABLE_ID, "t0", schema, KeysType.DUP_KEYS, new SinglePartitionInfo(),
+                new RandomDistributionInfo(1));
+        partition = new Partition(10002L, "t0", new MaterializedIndex(10003L, MaterializedIndex.IndexState.NORMAL),
+                new RandomDistributionInfo(1));
+        partition.setVisibleVersion(2L, 1000L, 0L);
+        table.addPartition(partition);
+        db = new Database(DB_ID, "default_cluster:test");
+        db.createTable(table);
+
+        ConnectContext context = new ConnectContext(null);
+        context.setCurrentSqlDbIds(Sets.newHashSet(DB_ID));
+        context.setThreadLocalInfo();
+
+        new MockUp<Catalog>() {
+            @Mock
+            public Database getDb(long dbId) {
+                return dbId == DB_ID ? db : null;
+            }
+
+            @Mock
+            public List<Long> getDbIds() {
+                return Lists.newArrayList(DB_ID);
+            }
+
+            @Mock
+            public StatisticStorage getCurrentStatisticStorage() {
+                return new LoadedStatisticStorage();
+            }
+        };
+
+        new MockUp<StatisticExecutor>() {
+            @Mock
+            public List<TStatisticData> queryDictSync(Long dbId, Long tableId, String column) {
+                queryCount.incrementAndGet();
+                TGlobalDict dict = new TGlobalDict();
+                dict.setStrings(Lists.newArrayList("a", "b"));
+                dict.setIds(Lists.newArrayList(1, 2));
+                TStatisticData data = new TStatisticData();
+                data.setTableId(tableId);
+                data.setColumnName(column);
+                data.setDict(dict);
+                data.setMeta_version(dictVersionTime);
+                return Lists.newArrayList(data);
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        ConnectContext.remove();
+    }
+
+    // The statistic storage which only has the loaded statistics, and fails if a statistic is loaded
+    private class LoadedStatisticStorage implements StatisticStorage {
+        @Override
+        public ColumnStatistic getColumnStatistic(Table table, String column) {
+            throw new IllegalStateException("prewarm shouldn't load statistic of " + column);
+        }
+
+        @Override
+        public List<ColumnStatistic> getColumnStatistics(Table table, List<String> columns) {
+            throw new IllegalStateException("prewarm shouldn't load statistics of " + columns);
+        }
+
+        @Override
+        public ColumnStatistic getLoadedColumnStatistic(Table table, String column) {
+            return loadedStatistics.getOrDefault(column, ColumnStatistic.unknown());
+        }
+
+        @Override
+        public void expireColumnStatistics(Table table, List<String> columns) {
+        }
+
+        @Override
+        public void addColumnStatistic(Table table, String column, ColumnStatistic columnStatistic) {
+        }
+    }
+
+    // The dict is loaded or rebuilt asynchronously
+    private void waitForDict(String column, long versionTime) throws InterruptedException {
+        for (int i = 0; i < 500 && !dictManager.hasGlobalDict(TABLE_ID, column, versionTime); i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(dictManager.hasGlobalDict(TABLE_ID, column, versionTime));
+    }
+
+    @Test
+    public void testRebuildStaleDict() throws Exception {
+        dictVersionTime = 1000L;
+        // the first query only triggers the loading
+        Assert.assertFalse(dictManager.hasGlobalDict(TABLE_ID, "c1", 1000L));
+        waitForDict("c1", 1000L);
+        Assert.assertEquals(1, dictManager.getDictColumnNum());
+        Assert.assertEquals(2, dictManager.getGlobalDict(TABLE_ID, "c1").getDict().size());
+
+        // a new version is loaded, the stale dict isn't used and is rebuilt in background
+        dictVersionTime = 2000L;
+        partition.setVisibleVersion(3L, 2000L, 0L);
+        Assert.assertFalse(dictManager.hasGlobalDict(TABLE_ID, "c1", 2000L));
+        waitForDict("c1", 2000L);
+        Assert.assertEquals(2000L, dictManager.getGlobalDict(TABLE_ID, "c1").getVersionTime());
+    }
+
+    @Test
+    public void testVersionInvalidation() throws Exception {
+        dictVersionTime = 1000L;
+        dictManager.hasGlobalDict(TABLE_ID, "c1", 1000L);
+        waitForDict("c1", 1000L);
+
+        // the load which doesn't bring new values only updates the version of dict
+        int count = queryCount.get();
+        dictManager.updateGlobalDict(TABLE_ID, "c1", 3000L);
+        Assert.assertTrue(dictManager.hasGlobalDict(TABLE_ID, "c1", 3000L));
+        Assert.assertEquals(count, queryCount.get());
+
+        // the load which brings new values invalidates the dict, and the dict is rebuilt right away
+        dictVersionTime = 4000L;
+        dictManager.removeGlobalDict(TABLE_ID, "c1");
+        for (int i = 0; i < 500 && !dictManager.hasGlobalDict(TABLE_ID, "c1"); i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(dictManager.hasGlobalDict(TABLE_ID, "c1"));
+        Assert.assertTrue(queryCount.get() > count);
+        waitForDict("c1", 4000L);
+    }
+
+    @Test
+    public void testPrewarm() throws Exception {
+        dictVersionTime = 1000L;
+        loadedStatistics.put("c1", ColumnStatistic.builder().setDistinctValuesCount(10).build());
+        loadedStatistics.put("c2", ColumnStatistic.builder().setDistinctValuesCount(100000).build());
+
+        // only c1 is known to be low cardinality, c2 has too many values and c3 has no statistic
+        dictManager.prewarmGlobalDicts();
+        Assert.assertEquals(1, dictManager.getDictColumnNum());
+        Assert.assertEquals(0, dictManager.getFreshDictNum());
+        Assert.assertEquals(0, queryCount.get());
+
+        dictManager.refreshGlobalDicts();
+        for (int i = 0; i < 500 && dictManager.getFreshDictNum() == 0; i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(1, dictManager.getFreshDictNum());
+        Assert.assertTrue(dictManager.hasGlobalDict(TABLE_ID, "c1", 1000L));
+        Assert.assertFalse(dictManager.hasGlobalDict(TABLE_ID, "c2"));
+        Assert.assertFalse(dictManager.hasGlobalDict(TABLE_ID, "c3"));
+    }
+}
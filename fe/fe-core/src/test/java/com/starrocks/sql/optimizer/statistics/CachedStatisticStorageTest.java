@@ -3,6 +3,7 @@
 package com.starrocks.sql.optimizer.statistics;
 
 import avro.shaded.com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.starrocks.analysis.CreateDbStmt;
 import com.starrocks.catalog.Catalog;
 import com.starrocks.catalog.Database;
@@ -24,6 +25,7 @@ import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.io.File;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -231,4 +233,92 @@ public class CachedStatisticStorageTest {
         Assert.assertEquals(0, columnStatistic.getAverageRowSize(), 0.001);
         Assert.assertEquals(0, columnStatistic.getNullsFraction(), 0.001);
     }
+
+    @Test
+    public void testSnapshot() throws Exception {
+        Database db = connectContext.getCatalog().getDb("default_cluster:test");
+        OlapTable table = (OlapTable) db.getTable("t0");
+
+        CachedStatisticStorage storage = new CachedStatisticStorage();
+        storage.addColumnStatistic(table, "v1", ColumnStatistic.builder().setMinValue(1).setMaxValue(100)
+                .setDistinctValuesCount(50).setNullsFraction(0.1).setAverageRowSize(8).build());
+        // the infinite min and max value
+        storage.addColumnStatistic(table, "v2", ColumnStatistic.builder().setDistinctValuesCount(20)
+                .setNullsFraction(0).setAverageRowSize(8).build());
+
+        File file = File.createTempFile("statistic_cache", ".json");
+        file.deleteOnExit();
+        Assert.assertEquals(2, storage.saveSnapshot(file));
+
+        CachedStatisticStorage newStorage = new CachedStatisticStorage();
+        newStorage.addColumnStatistic(table, "v2", ColumnStatistic.builder().setDistinctValuesCount(30).build());
+        // v2 is already in cache, so only v1 is loaded
+        Assert.assertEquals(1, newStorage.loadSnapshot(file));
+
+        ColumnStatistic v1 = newStorage.getColumnStatistic(table, "v1");
+        Assert.assertEquals(1, v1.getMinValue(), 0.001);
+        Assert.assertEquals(100, v1.getMaxValue(), 0.001);
+        Assert.assertEquals(50, v1.getDistinctValuesCount(), 0.001);
+        Assert.assertEquals(0.1, v1.getNullsFraction(), 0.001);
+        Assert.assertEquals(8, v1.getAverageRowSize(), 0.001);
+        Assert.assertEquals(30, newStorage.getColumnStatistic(table, "v2").getDistinctValuesCount(), 0.001);
+
+        newStorage = new CachedStatisticStorage();
+        Assert.assertEquals(2, newStorage.loadSnapshot(file));
+        ColumnStatistic v2 = newStorage.getColumnStatistic(table, "v2");
+        Assert.assertEquals(Double.NEGATIVE_INFINITY, v2.getMinValue(), 0.001);
+        Assert.assertEquals(Double.POSITIVE_INFINITY, v2.getMaxValue(), 0.001);
+        Assert.assertEquals(20, v2.getDistinctValuesCount(), 0.001);
+
+        Assert.assertEquals(0, newStorage.loadSnapshot(new File(file.getPath() + ".not_exist")));
+    }
+
+    @Test
+    public void testReloadSnapshot() throws Exception {
+        Database db = connectContext.getCatalog().getDb("default_cluster:test");
+        OlapTable table = (OlapTable) db.getTable("t0");
+
+        CachedStatisticStorage storage = new CachedStatisticStorage();
+        storage.addColumnStatistic(table, "v1", ColumnStatistic.builder().setMinValue(1).setMaxValue(100)
+                .setDistinctValuesCount(50).setNullsFraction(0).setAverageRowSize(8).build());
+        storage.addColumnStatistic(table, "v2", ColumnStatistic.builder().setMinValue(1).setMaxValue(10)
+                .setDistinctValuesCount(10).setNullsFraction(0).setAverageRowSize(8).build());
+        File file = File.createTempFile("statistic_cache", ".json");
+        file.deleteOnExit();
+        Assert.assertEquals(2, storage.saveSnapshot(file));
+
+        TStatisticData statisticData = new TStatisticData();
+        statisticData.setDbId(db.getId());
+        statisticData.setTableId(table.getId());
+        statisticData.setColumnName("v1");
+        statisticData.setMin("1");
+        statisticData.setMax("200");
+        statisticData.setCountDistinct(80);
+        statisticData.setRowCount(100);
+        statisticData.setDataSize(800);
+        statisticData.setNullCount(0);
+        new Expectations() {
+            {
+                statisticExecutor.queryStatisticSync((Long) any, anyLong, (List<String>) any);
+                result = new Exception("statistics table is not available");
+                result = Lists.newArrayList(statisticData);
+            }
+        };
+
+        CachedStatisticStorage newStorage = new CachedStatisticStorage();
+        Assert.assertEquals(2, newStorage.loadSnapshot(file));
+        // the snapshot statistics are kept if the reload fails
+        Assert.assertFalse(newStorage.reloadSnapshotStatistics());
+        Assert.assertEquals(50, newStorage.getColumnStatistic(table, "v1").getDistinctValuesCount(), 0.001);
+
+        Assert.assertTrue(newStorage.reloadSnapshotStatistics());
+        ColumnStatistic v1 = newStorage.getColumnStatistic(table, "v1");
+        Assert.assertEquals(80, v1.getDistinctValuesCount(), 0.001);
+        Assert.assertEquals(200, v1.getMaxValue(), 0.001);
+        // v2 is not in the statistics table, so the snapshot statistic is kept
+        Assert.assertEquals(10, newStorage.getColumnStatistic(table, "v2").getDistinctValuesCount(), 0.001);
+        Assert.assertFalse(newStorage.getColumnStatistic(table, "v2").isUnknown());
+        // everything is reloaded
+        Assert.assertTrue(newStorage.reloadSnapshotStatistics());
+    }
 }
@@ -0,0 +1,66 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.statistics;
+
+import com.google.common.collect.Lists;
+import com.starrocks.common.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class HistogramTest {
+    // value 1 has 900 rows, value 2 ~ 101 have 1 row
+    public static Histogram createSkewedHistogram() {
+        List<Pair<Double, Long>> values = Lists.newArrayList();
+        values.add(new Pair<>(1.0, 900L));
+        for (int i = 2; i <= 101; i++) {
+            values.add(new Pair<>((double) i, 1L));
+        }
+        return Histogram.build(values, 10, 5);
+    }
+
+    @Test
+    public void testBuild() {
+        Histogram histogram = createSkewedHistogram();
+        Assert.assertEquals(1000, histogram.getRowCount());
+        Assert.assertEquals(1, histogram.getMostCommonValues().size());
+        Assert.assertEquals(1.0, histogram.getMostCommonValues().get(0).getValue(), 0);
+        Assert.assertEquals(900, histogram.getMostCommonValues().get(0).getCount());
+
+        Assert.assertEquals(10, histogram.getBuckets().size());
+        for (Histogram.Bucket bucket : histogram.getBuckets()) {
+            Assert.assertEquals(10, bucket.getCount());
+        }
+        Assert.assertEquals(2.0, histogram.getBuckets().get(0).getLower(), 0);
+        Assert.assertEquals(101.0, histogram.getBuckets().get(9).getUpper(), 0);
+
+        Histogram empty = Histogram.build(Lists.newArrayList(), 10, 5);
+        Assert.assertEquals(0, empty.estimateFraction(1, 1), 0);
+    }
+
+    @Test
+    public void testEstimateFraction() {
+        Histogram histogram = createSkewedHistogram();
+        // most common value
+        Assert.assertEquals(0.9, histogram.estimateFraction(1, 1), 0.0001);
+        Assert.assertEquals(0.9, histogram.estimateFraction(Double.NEGATIVE_INFINITY, 1), 0.0001);
+        // one value in bucket
+        Assert.assertEquals(0.001, histogram.estimateFraction(5, 5), 0.0001);
+        Assert.assertEquals(0, histogram.estimateFraction(200, 200), 0);
+        // range
+        Assert.assertEquals(0.1, histogram.estimateFraction(2, 101), 0.0001);
+        Assert.assertEquals(1, histogram.estimateFraction(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY), 0.0001);
+        Assert.assertEquals(0.01, histogram.estimateFraction(12, 21.5), 0.0001);
+    }
+
+    @Test
+    public void testJson() {
+        Histogram histogram = createSkewedHistogram();
+        Histogram other = Histogram.fromJson(histogram.toJson());
+        Assert.assertEquals(histogram.getRowCount(), other.getRowCount());
+        Assert.assertEquals(histogram.getBuckets().size(), other.getBuckets().size());
+        Assert.assertEquals(histogram.estimateFraction(1, 1), other.estimateFraction(1, 1), 0);
+        Assert.assertEquals(histogram.estimateFraction(30, 60), other.estimateFraction(30, 60), 0);
+    }
+}
@@ -58,4 +58,25 @@ public class PredicateStatisticsCalculatorTest {
                 PredicateStatisticsCalculator.statisticsCalculate(compoundPredicateOperator, statistics);
         Assert.assertEquals(58.0270, estimatedStatistics.getOutputRowCount(), 0.001);
     }
+
+    @Test
+    public void testHistogramBinaryPredicate() throws Exception {
+        ColumnRefOperator columnRefOperator = new ColumnRefOperator(0, Type.INT, "id", true);
+        Statistics statistics = Statistics.builder().setOutputRowCount(1000).addColumnStatistic(columnRefOperator,
+                ColumnStatistic.builder().setMinValue(1).setMaxValue(101).setDistinctValuesCount(101)
+                        .setNullsFraction(0).setAverageRowSize(4)
+                        .setHistogram(HistogramTest.createSkewedHistogram()).build()).build();
+
+        // the uniform distribution assumption estimates about 10 rows
+        BinaryPredicateOperator eq = new BinaryPredicateOperator(BinaryPredicateOperator.BinaryType.EQ,
+                columnRefOperator, ConstantOperator.createInt(1));
+        Statistics estimatedStatistics = PredicateStatisticsCalculator.statisticsCalculate(eq, statistics);
+        Assert.assertEquals(900, estimatedStatistics.getOutputRowCount(), 0.001);
+
+        // the uniform distribution assumption estimates about 500 rows
+        BinaryPredicateOperator gt = new BinaryPredicateOperator(BinaryPredicateOperator.BinaryType.GE,
+                columnRefOperator, ConstantOperator.createInt(52));
+        estimatedStatistics = PredicateStatisticsCalculator.statisticsCalculate(gt, statistics);
+        Assert.assertEquals(50, estimatedStatistics.getOutputRowCount(), 0.001);
+    }
 }
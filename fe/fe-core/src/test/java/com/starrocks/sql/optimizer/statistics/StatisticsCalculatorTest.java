@@ -12,6 +12,7 @@ import com.starrocks.catalog.OlapTable;
 import com.starrocks.catalog.Partition;
 import com.starrocks.catalog.Table;
 import com.starrocks.catalog.Type;
+import com.starrocks.common.Pair;
 import com.starrocks.qe.ConnectContext;
 import com.starrocks.sql.optimizer.ExpressionContext;
 import com.starrocks.sql.optimizer.Group;
@@ -438,6 +439,91 @@ public class StatisticsCalculatorTest {
         starRocksAssert.dropTable("test_all_type");
     }
 
+    @Test
+    public void testLogicalOlapTableScanPartitionPruneWithHistogram(
+            @Mocked CachedStatisticStorage cachedStatisticStorage) throws Exception {
+        starRocksAssert.withTable("CREATE TABLE `test_prune_histogram` (\n" +
+                "  `t1a` varchar(20) NULL COMMENT \"\",\n" +
+                "  `id_date` date NULL COMMENT \"\"\n" +
+                ") ENGINE=OLAP\n" +
+                "DUPLICATE KEY(`t1a`)\n" +
+                "PARTITION BY RANGE (id_date)\n" +
+                "(\n" +
+                "PARTITION p1 VALUES LESS THAN (\"2014-01-01\"),\n" +
+                "PARTITION p2 VALUES LESS THAN (\"2014-06-01\"), \n" +
+                "PARTITION p3 VALUES LESS THAN (\"2014-12-01\")  \n" +
+                ")\n" +
+                "DISTRIBUTED BY HASH(`t1a`) BUCKETS 3\n" +
+                "PROPERTIES (\n" +
+                "\"replication_num\" = \"1\"\n" +
+                ");");
+        ColumnRefOperator id_date = columnRefFactory.create("id_date", Type.DATE, true);
+
+        Catalog catalog = connectContext.getCatalog();
+        Table table = catalog.getDb("default_cluster:test").getTable("test_prune_histogram");
+
+        // the values are uniformly distributed in all the days of p2 and p3
+        List<Pair<Double, Long>> valueCounts = Lists.newArrayList();
+        for (LocalDateTime day = LocalDateTime.of(2014, 1, 1, 0, 0, 0);
+                day.isBefore(LocalDateTime.of(2014, 12, 1, 0, 0, 0)); day = day.plusDays(1)) {
+            valueCounts.add(new Pair<>((double) Utils.getLongFromDateTime(day), 3L));
+        }
+        ColumnStatistic tableColumnStatistic = ColumnStatistic.builder()
+                .setMinValue(Utils.getLongFromDateTime(LocalDateTime.of(2014, 1, 1, 0, 0, 0)))
+                .setMaxValue(Utils.getLongFromDateTime(LocalDateTime.of(2014, 11, 30, 0, 0, 0)))
+                .setNullsFraction(0).setAverageRowSize(4).setDistinctValuesCount(valueCounts.size())
+                .setHistogram(Histogram.build(valueCounts, 64, 0)).build();
+        new Expectations() {
+            {
+                cachedStatisticStorage.getColumnStatistics(table, Lists.newArrayList("id_date"));
+                result = Lists.newArrayList(tableColumnStatistic);
+                minTimes = 0;
+
+                cachedStatisticStorage.getColumnStatistic(table, "id_date");
+                result = tableColumnStatistic;
+                minTimes = 0;
+            }
+        };
+
+        Collection<Partition> partitions = ((OlapTable) table).getPartitions();
+        // select partition p2
+        List<Long> partitionIds = partitions.stream().filter(partition -> partition.getName().equalsIgnoreCase("p2")).
+                mapToLong(Partition::getId).boxed().collect(Collectors.toList());
+        for (Partition partition : partitions) {
+            partition.getBaseIndex().setRowCount(1000);
+        }
+
+        LogicalOlapScanOperator olapScanOperator =
+                new LogicalOlapScanOperator(table,
+                        ImmutableMap.of(id_date, new Column("id_date", Type.DATE, true)),
+                        ImmutableMap.of(new Column("id_date", Type.DATE, true), id_date),
+                        null, -1,
+                        new BinaryPredicateOperator(BinaryPredicateOperator.BinaryType.GE,
+                                id_date, ConstantOperator.createDate(LocalDateTime.of(2014, 3, 1, 0, 0, 0))),
+                        ((OlapTable) table).getBaseIndexId(),
+                        partitionIds,
+                        null,
+                        Lists.newArrayList(),
+                        Lists.newArrayList());
+
+        GroupExpression groupExpression = new GroupExpression(olapScanOperator, Lists.newArrayList());
+        groupExpression.setGroup(new Group(0));
+        ExpressionContext expressionContext = new ExpressionContext(groupExpression);
+        StatisticsCalculator statisticsCalculator = new StatisticsCalculator(expressionContext,
+                columnRefFactory, new MockDumpInfo());
+        statisticsCalculator.estimatorStats();
+
+        // the histogram of all partitions is dropped after partition prune, otherwise the predicate on the
+        // partition column is counted twice and the estimate is less than half of the rows of p2
+        long p2Begin = Utils.getLongFromDateTime(LocalDateTime.of(2014, 1, 1, 0, 0, 0));
+        long p2End = Utils.getLongFromDateTime(LocalDateTime.of(2014, 6, 1, 0, 0, 0));
+        long predicateBegin = Utils.getLongFromDateTime(LocalDateTime.of(2014, 3, 1, 0, 0, 0));
+        Assert.assertEquals(1000.0 * (p2End - predicateBegin) / (p2End - p2Begin),
+                expressionContext.getStatistics().getOutputRowCount(), 0.001);
+        Assert.assertNull(expressionContext.getStatistics().getColumnStatistic(id_date).getHistogram());
+        starRocksAssert.dropTable("test_prune_histogram");
+    }
+
     @Test
     public void testJoinEstimateWithMultiColumns() {
         // child 1 output column
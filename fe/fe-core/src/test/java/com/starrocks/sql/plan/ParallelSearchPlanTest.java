@@ -0,0 +1,50 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.plan;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelSearchPlanTest extends PlanTestBase {
+
+    @After
+    public void resetParallelism() {
+        connectContext.getSessionVariable().setCboSearchParallelism(1);
+    }
+
+    private void assertSamePlan(String sql) throws Exception {
+        connectContext.getSessionVariable().setCboSearchParallelism(1);
+        String serialPlan = getFragmentPlan(sql);
+        connectContext.getSessionVariable().setCboSearchParallelism(4);
+        String parallelPlan = getFragmentPlan(sql);
+        Assert.assertEquals(serialPlan, parallelPlan);
+    }
+
+    @Test
+    public void testJoin() throws Exception {
+        assertSamePlan("select * from t0 join t1 on v1 = v4 join t2 on v4 = v7");
+        assertSamePlan("select v1, sum(v5) from t0 join t1 on v1 = v4 join t2 on v2 = v8 " +
+                "join t3 on t0.v3 = t3.v3 group by v1");
+    }
+
+    @Test
+    public void testManySearchesOnSharedGroups() throws Exception {
+        // Join reorder makes many groups shared by the join groups, so the search threads optimize
+        // and explore the same groups concurrently
+        String sql = "select * from t0 a join t1 on a.v1 = v4 join t2 on v4 = v7 join t3 on v7 = t3.v1 " +
+                "join t0 b on t3.v2 = b.v2 where a.v2 > 1";
+        connectContext.getSessionVariable().setCboSearchParallelism(1);
+        String serialPlan = getFragmentPlan(sql);
+        connectContext.getSessionVariable().setCboSearchParallelism(16);
+        for (int i = 0; i < 50; i++) {
+            Assert.assertEquals(serialPlan, getFragmentPlan(sql));
+        }
+    }
+
+    @Test
+    public void testUnion() throws Exception {
+        assertSamePlan("select v1 from t0 union all select v4 from t1 union all select v7 from t2");
+        assertSamePlan("select v1, count(*) from (select v1 from t0 union select v4 from t1) t group by v1");
+    }
+}
@@ -0,0 +1,162 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.plan;
+
+import com.starrocks.analysis.SqlParser;
+import com.starrocks.analysis.SqlScanner;
+import com.starrocks.analysis.StatementBase;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.Table;
+import com.starrocks.common.util.SqlParserUtils;
+import com.starrocks.qe.OriginStatement;
+import com.starrocks.sql.StatementPlanner;
+import com.starrocks.sql.optimizer.dump.QueryDumpInfo;
+import com.starrocks.sql.optimizer.statistics.ColumnStatistic;
+import com.starrocks.sql.optimizer.statistics.MockTpchStatisticStorage;
+import com.starrocks.sql.optimizer.statistics.StatisticStorage;
+import com.starrocks.thrift.TExplainLevel;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringReader;
+
+public class PlanCacheTest extends PlanTestBase {
+
+    @Before
+    public void enablePlanCache() {
+        connectContext.getSessionVariable().setEnablePlanCache(true);
+        PlanCache.getInstance().invalidateAll();
+    }
+
+    @After
+    public void disablePlanCache() {
+        connectContext.getSessionVariable().setEnablePlanCache(false);
+        PlanCache.getInstance().invalidateAll();
+    }
+
+    private String getPlan(String sql) throws Exception {
+        connectContext.setDumpInfo(new QueryDumpInfo(connectContext.getSessionVariable()));
+        SqlScanner input = new SqlScanner(new StringReader(sql), connectContext.getSessionVariable().getSqlMode());
+        StatementBase statementBase = SqlParserUtils.getFirstStmt(new SqlParser(input));
+        statementBase.setOrigStmt(new OriginStatement(sql, 0));
+        ExecPlan execPlan = new StatementPlanner().plan(statementBase, connectContext);
+        return execPlan.getExplainString(TExplainLevel.NORMAL);
+    }
+
+    @Test
+    public void testHit() throws Exception {
+        String sql = "select v1, sum(v5) from t0 join t1 on v1 = v4 where v2 > 10 group by v1";
+        long hitCount = PlanCache.getInstance().getHitCount();
+        String plan = getPlan(sql);
+        Assert.assertEquals(hitCount, PlanCache.getInstance().getHitCount());
+        Assert.assertEquals(plan, getPlan(sql));
+        Assert.assertEquals(hitCount + 1, PlanCache.getInstance().getHitCount());
+
+        // the compared literal is parameterized, its value is bound to the cached plan
+        String otherPlan = getPlan("select v1, sum(v5) from t0 join t1 on v1 = v4 where v2 > 20 group by v1");
+        Assert.assertEquals(hitCount + 2, PlanCache.getInstance().getHitCount());
+        Assert.assertTrue(plan.contains("2: v2 > 10"));
+        Assert.assertEquals(plan.replace("2: v2 > 10", "2: v2 > 20"), otherPlan);
+        Assert.assertEquals(1, PlanCache.getInstance().getSize());
+    }
+
+    @Test
+    public void testPruningLiteralInKey() throws Exception {
+        // v1 is the distribution column of t0, which prunes the tablets
+        String plan = getPlan("select v1, v3 from t0 where v1 = 1 and v2 = 10");
+        long hitCount = PlanCache.getInstance().getHitCount();
+        String otherPlan = getPlan("select v1, v3 from t0 where v1 = 1 and v2 = 20");
+        Assert.assertEquals(hitCount + 1, PlanCache.getInstance().getHitCount());
+        Assert.assertEquals(plan.replace("2: v2 = 10", "2: v2 = 20"), otherPlan);
+
+        otherPlan = getPlan("select v1, v3 from t0 where v1 = 2 and v2 = 10");
+        Assert.assertEquals(hitCount + 1, PlanCache.getInstance().getHitCount());
+        Assert.assertTrue(otherPlan.contains("1: v1 = 2"));
+        Assert.assertEquals(2, PlanCache.getInstance().getSize());
+    }
+
+    @Test
+    public void testDerivedLiteralInKey() throws Exception {
+        // "v2 > 10" is derived from the predicate, so the plan depends on the values of both literals
+        getPlan("select v1 from t0 where v2 > 10 or v2 > 20");
+        long hitCount = PlanCache.getInstance().getHitCount();
+        String plan = getPlan("select v1 from t0 where v2 > 30 or v2 > 20");
+        Assert.assertEquals(hitCount, PlanCache.getInstance().getHitCount());
+        Assert.assertTrue(plan.contains("v2 > 30"));
+        Assert.assertFalse(plan.contains("v2 > 10"));
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        String sql = "select v1 from t0 where v3 = 1";
+        getPlan(sql);
+        Assert.assertEquals(1, PlanCache.getInstance().getSize());
+
+        Table table = Catalog.getCurrentCatalog().getDb("default_cluster:test").getTable("t1");
+        PlanCache.getInstance().invalidateTable(table.getId());
+        Assert.assertEquals(1, PlanCache.getInstance().getSize());
+
+        table = Catalog.getCurrentCatalog().getDb("default_cluster:test").getTable("t0");
+        PlanCache.getInstance().invalidateTable(table.getId());
+        Assert.assertEquals(0, PlanCache.getInstance().getSize());
+    }
+
+    @Test
+    public void testNotCached() throws Exception {
+        getPlan("select v1, now() from t0");
+        Assert.assertEquals(0, PlanCache.getInstance().getSize());
+        // the function is hidden in the view
+        starRocksAssert.withView("create view plan_cache_rand_view as select v1, rand() as r from t0");
+        getPlan("select * from plan_cache_rand_view");
+        Assert.assertEquals(0, PlanCache.getInstance().getSize());
+
+        connectContext.getSessionVariable().setEnablePlanCache(false);
+        getPlan("select v1 from t0");
+        Assert.assertEquals(0, PlanCache.getInstance().getSize());
+    }
+
+    @Test
+    public void testSessionVariableDigest() throws Exception {
+        String sql = "select v1 from t0 where v3 = 1";
+        getPlan(sql);
+        Assert.assertEquals(1, PlanCache.getInstance().getSize());
+
+        // the plan is cached by the digest of session variables, so a changed variable misses the plan
+        long hitCount = PlanCache.getInstance().getHitCount();
+        int parallelism = connectContext.getSessionVariable().getParallelExecInstanceNum();
+        try {
+            connectContext.getSessionVariable().setParallelExecInstanceNum(parallelism + 1);
+            getPlan(sql);
+            Assert.assertEquals(hitCount, PlanCache.getInstance().getHitCount());
+            Assert.assertEquals(2, PlanCache.getInstance().getSize());
+        } finally {
+            connectContext.getSessionVariable().setParallelExecInstanceNum(parallelism);
+        }
+        getPlan(sql);
+        Assert.assertEquals(hitCount + 1, PlanCache.getInstance().getHitCount());
+    }
+
+    @Test
+    public void testNotCachedWithStaleStatistics() throws Exception {
+        StatisticStorage statisticStorage = Catalog.getCurrentStatisticStorage();
+        // the statistics of t0 are loaded after the plan is optimized with unknown statistics
+        connectContext.getCatalog().setStatisticStorage(new MockTpchStatisticStorage(1) {
+            @Override
+            public ColumnStatistic getLoadedColumnStatistic(Table table, String column) {
+                return ColumnStatistic.builder().setDistinctValuesCount(10).build();
+            }
+        });
+        try {
+            getPlan("select v1 from t0 where v3 = 1");
+            Assert.assertEquals(0, PlanCache.getInstance().getSize());
+        } finally {
+            connectContext.getCatalog().setStatisticStorage(statisticStorage);
+        }
+
+        // the table without statistics is still cached
+        getPlan("select v1 from t0 where v3 = 1");
+        Assert.assertEquals(1, PlanCache.getInstance().getSize());
+    }
+}
@@ -0,0 +1,93 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.statistic;
+
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Table;
+import com.starrocks.common.Config;
+import com.starrocks.common.FeConstants;
+import com.starrocks.sql.optimizer.statistics.CacheDictManager;
+import mockit.Mock;
+import mockit.MockUp;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GlobalDictRefreshDaemonTest {
+    private boolean isReady;
+    private int prewarmCount;
+    private int refreshCount;
+    private boolean enablePrewarm;
+    private boolean useMockDictManager;
+
+    @Before
+    public void setUp() {
+        enablePrewarm = Config.enable_global_dict_prewarm;
+        useMockDictManager = FeConstants.USE_MOCK_DICT_MANAGER;
+        FeConstants.USE_MOCK_DICT_MANAGER = false;
+
+        new MockUp<Catalog>() {
+            @Mock
+            public boolean isReady() {
+                return isReady;
+            }
+        };
+        new MockUp<StatisticUtils>() {
+            @Mock
+            public Table getStatisticsTable() {
+                return new OlapTable();
+            }
+        };
+        new MockUp<CacheDictManager>() {
+            @Mock
+            public void prewarmGlobalDicts() {
+                prewarmCount++;
+            }
+
+            @Mock
+            public void refreshGlobalDicts() {
+                refreshCount++;
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        Config.enable_global_dict_prewarm = enablePrewarm;
+        FeConstants.USE_MOCK_DICT_MANAGER = useMockDictManager;
+    }
+
+    @Test
+    public void testCatalogNotReady() {
+        isReady = false;
+        GlobalDictRefreshDaemon daemon = new GlobalDictRefreshDaemon();
+        daemon.runOneCycle();
+        Assert.assertEquals(0, prewarmCount);
+        Assert.assertEquals(0, refreshCount);
+    }
+
+    @Test
+    public void testPrewarmOnStartup() {
+        isReady = true;
+        Config.enable_global_dict_prewarm = true;
+        GlobalDictRefreshDaemon daemon = new GlobalDictRefreshDaemon();
+        for (int i = 0; i < 5; i++) {
+            daemon.runOneCycle();
+        }
+        // the prewarm waits for the column statistics in the first cycles, then only the stale dicts are rebuilt
+        Assert.assertEquals(3, prewarmCount);
+        Assert.assertEquals(5, refreshCount);
+    }
+
+    @Test
+    public void testPrewarmDisabled() {
+        isReady = true;
+        Config.enable_global_dict_prewarm = false;
+        GlobalDictRefreshDaemon daemon = new GlobalDictRefreshDaemon();
+        daemon.runOneCycle();
+        Assert.assertEquals(0, prewarmCount);
+        Assert.assertEquals(1, refreshCount);
+    }
+}
@@ -0,0 +1,45 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.statistic;
+
+import com.starrocks.analysis.SelectStmt;
+import com.starrocks.analysis.SqlParser;
+import com.starrocks.analysis.SqlScanner;
+import com.starrocks.analysis.StringLiteral;
+import com.starrocks.catalog.PrimitiveType;
+import com.starrocks.common.util.SqlParserUtils;
+import com.starrocks.common.util.SqlUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.time.LocalDateTime;
+
+import static com.starrocks.sql.optimizer.Utils.getLongFromDateTime;
+
+public class StatisticExecutorTest {
+    @Test
+    public void testParseHistogramValue() {
+        long expect = getLongFromDateTime(LocalDateTime.of(2021, 1, 1, 10, 20, 30));
+        Assert.assertEquals(expect,
+                StatisticExecutor.parseHistogramValue(PrimitiveType.DATETIME, "2021-01-01 10:20:30"), 0);
+        Assert.assertEquals(expect,
+                StatisticExecutor.parseHistogramValue(PrimitiveType.DATETIME, "2021-01-01 10:20:30.5"), 0);
+        Assert.assertEquals(expect,
+                StatisticExecutor.parseHistogramValue(PrimitiveType.DATETIME, "2021-01-01 10:20:30.123456"), 0);
+        Assert.assertEquals(getLongFromDateTime(LocalDateTime.of(2021, 1, 1, 0, 0, 0)),
+                StatisticExecutor.parseHistogramValue(PrimitiveType.DATE, "2021-01-01"), 0);
+        Assert.assertEquals(1.5, StatisticExecutor.parseHistogramValue(PrimitiveType.DOUBLE, "1.5"), 0);
+    }
+
+    @Test
+    public void testStringLiteralSql() throws Exception {
+        String[] columnNames = {"c1", "it's", "a''b", "back\\slash", "\\'", "100%_"};
+        for (String columnName : columnNames) {
+            String sql = "SELECT " + SqlUtils.getStringLiteralSql(columnName);
+            SelectStmt stmt = (SelectStmt) SqlParserUtils.getFirstStmt(new SqlParser(new SqlScanner(new StringReader(sql))));
+            StringLiteral literal = (StringLiteral) stmt.getSelectList().getItems().get(0).getExpr();
+            Assert.assertEquals(columnName, literal.getStringValue());
+        }
+    }
+}
@@ -252,6 +252,28 @@ public class AgentTaskTest {
         Assert.assertEquals(0, AgentTaskQueue.getTaskNum());
     }
 
+    @Test
+    public void agentTaskQueueTaskNumTest() {
+        AgentTaskQueue.clearAllTasks();
+
+        DropReplicaTask dropTask2 = new DropReplicaTask(backendId2, tabletId1, schemaHash1);
+        AgentTaskQueue.addTask(dropTask);
+        AgentTaskQueue.addTask(dropTask2);
+        AgentTaskQueue.addTask(rollupTask);
+        Assert.assertEquals(3, AgentTaskQueue.getTaskNum());
+        Assert.assertEquals(2, AgentTaskQueue.getTaskNum(TTaskType.DROP));
+        Assert.assertEquals(1, AgentTaskQueue.getTaskNum(TTaskType.ROLLUP));
+        Assert.assertEquals(0, AgentTaskQueue.getTaskNum(TTaskType.CREATE));
+
+        // the tasks of all backends are removed
+        AgentTaskQueue.removeTaskOfType(TTaskType.DROP, dropTask.getSignature());
+        Assert.assertEquals(0, AgentTaskQueue.getTaskNum(TTaskType.DROP));
+        Assert.assertEquals(1, AgentTaskQueue.getTaskNum());
+
+        AgentTaskQueue.removeReplicaRelatedTasks(backendId1, rollupTask.getSignature());
+        Assert.assertEquals(0, AgentTaskQueue.getTaskNum());
+    }
+
     @Test
     public void failedAgentTaskTest() {
         AgentTaskQueue.clearAllTasks();
@@ -21,6 +21,7 @@
 
 package com.starrocks.transaction;
 
+import com.codahale.metrics.Histogram;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.starrocks.catalog.Catalog;
@@ -34,16 +35,20 @@ import com.starrocks.common.Pair;
 import com.starrocks.common.UserException;
 import com.starrocks.common.util.TimeUtils;
 import com.starrocks.meta.MetaContext;
+import com.starrocks.metric.MetricRepo;
+import mockit.Deencapsulation;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
@@ -243,6 +248,62 @@ public class DatabaseTransactionMgrTest {
         assertNull(masterDbTransMgr.unprotectedGetTxnIdsByLabel(CatalogTestUtil.testTxnLable1));
     }
 
+    @Test
+    public void testCompactTransactionStates() throws AnalysisException {
+        DatabaseTransactionMgr masterDbTransMgr = masterTransMgr.getDatabaseTransactionMgr(CatalogTestUtil.testDbId1);
+        int labelKeepMaxSecond = Config.label_keep_max_second;
+        int compactDelaySecond = Config.transaction_compact_delay_second;
+        Config.label_keep_max_second = 3600;
+        Config.transaction_compact_delay_second = -1;
+        try {
+            masterDbTransMgr.removeExpiredTxns(System.currentTimeMillis());
+        } finally {
+            Config.label_keep_max_second = labelKeepMaxSecond;
+            Config.transaction_compact_delay_second = compactDelaySecond;
+        }
+        // the label and status are kept, but the commit infos are dropped
+        assertEquals(1, masterDbTransMgr.getFinishedTxnNums());
+        long txnId = lableToTxnId.get(CatalogTestUtil.testTxnLable1);
+        assertTrue(masterDbTransMgr.unprotectedGetTxnIdsByLabel(CatalogTestUtil.testTxnLable1).contains(txnId));
+        TransactionState transactionState = masterDbTransMgr.getTransactionState(txnId);
+        assertEquals(TransactionStatus.VISIBLE, transactionState.getTransactionStatus());
+        assertTrue(transactionState.getIdToTableCommitInfos().isEmpty());
+        assertTrue(masterDbTransMgr.getTableTransInfo(txnId).isEmpty());
+        assertEquals(1, masterDbTransMgr.getTxnStateInfoList(false, 10).size());
+    }
+
+    @Test
+    public void testClearTransactionStateBeforeCompact() throws AnalysisException {
+        DatabaseTransactionMgr masterDbTransMgr = masterTransMgr.getDatabaseTransactionMgr(CatalogTestUtil.testDbId1);
+        DatabaseTransactionMgr slaveDbTransMgr = slaveTransMgr.getDatabaseTransactionMgr(CatalogTestUtil.testDbId1);
+        long txnId = lableToTxnId.get(CatalogTestUtil.testTxnLable1);
+        TransactionState transactionState = masterDbTransMgr.getTransactionState(txnId);
+        Deque<TransactionState> masterUncompacted =
+                Deencapsulation.getField(masterDbTransMgr, "uncompactedTransactionStateDeque");
+        Deque<TransactionState> slaveUncompacted =
+                Deencapsulation.getField(slaveDbTransMgr, "uncompactedTransactionStateDeque");
+        assertEquals(1, masterUncompacted.size());
+        assertEquals(1, slaveUncompacted.size());
+
+        int labelKeepMaxSecond = Config.label_keep_max_second;
+        int compactDelaySecond = Config.transaction_compact_delay_second;
+        Config.label_keep_max_second = -1;
+        Config.transaction_compact_delay_second = 3600;
+        try {
+            // the txn expires before its compact delay passes
+            masterDbTransMgr.removeExpiredTxns(System.currentTimeMillis());
+            slaveTransMgr.replayDeleteTransactionState(transactionState);
+        } finally {
+            Config.label_keep_max_second = labelKeepMaxSecond;
+            Config.transaction_compact_delay_second = compactDelaySecond;
+        }
+        assertEquals(0, masterDbTransMgr.getFinishedTxnNums());
+        assertTrue(masterUncompacted.isEmpty());
+        assertEquals(0, slaveDbTransMgr.getFinishedTxnNums());
+        assertTrue(slaveUncompacted.isEmpty());
+        assertFalse(transactionState.isCompacted());
+    }
+
     @Test
     public void testGetTableTransInfo() throws AnalysisException {
         DatabaseTransactionMgr masterDbTransMgr = masterTransMgr.getDatabaseTransactionMgr(CatalogTestUtil.testDbId1);
@@ -281,4 +342,21 @@ public class DatabaseTransactionMgrTest {
         assertEquals(3, masterDbTransMgr.getTransactionNum());
         assertNull(masterDbTransMgr.unprotectedGetTxnIdsByLabel(CatalogTestUtil.testTxnLable1));
     }
+
+    @Test
+    public void testLockWaitHistogram() throws UserException {
+        // a transaction is committed in setUp
+        Histogram commitLockWait = MetricRepo.getDbHistogram("txn.commit.lock.wait.us", CatalogTestUtil.testDbId1);
+        assertTrue(commitLockWait.getCount() > 0);
+
+        Histogram lockWait = MetricRepo.getDbHistogram("txn.lock.wait.us", CatalogTestUtil.testDbId1);
+        long count = lockWait.getCount();
+        DatabaseTransactionMgr masterDbTransMgr = masterTransMgr.getDatabaseTransactionMgr(CatalogTestUtil.testDbId1);
+        masterDbTransMgr.abortTransaction(lableToTxnId.get(CatalogTestUtil.testTxnLable3), "test abort", null);
+        assertTrue(lockWait.getCount() > count);
+
+        // the histograms are removed with the database
+        masterTransMgr.removeDatabaseTransactionMgr(CatalogTestUtil.testDbId1);
+        assertEquals(0, MetricRepo.getDbHistogram("txn.lock.wait.us", CatalogTestUtil.testDbId1).getCount());
+    }
 }
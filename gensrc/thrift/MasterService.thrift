@@ -93,6 +93,11 @@ struct TReportRequest {
     // the max compaction score of all tablets on a backend,
     // this field should be set along with tablet report
     8: optional i64 tablet_max_compaction_score
+    // the report version of the last tablet report which this incremental tablet report is based on,
+    // if set, the 'tablets' member only contains the tablets changed since then
+    9: optional i64 base_tablet_report_version
+    // the tablets dropped since the base tablet report, set along with base_tablet_report_version
+    10: optional list<Types.TTabletId> removed_tablet_ids
 }
 
 struct TMasterResult {